@@ -379,7 +379,7 @@ public class FileSetProperties {
 
     /**
      * Set the format for the Hive table.
-     * @param format currently, only "text" and "csv" are supported.
+     * @param format currently, "text", "csv", "parquet" and "orc" are supported.
      */
     public Builder setExploreFormat(String format) {
       add(PROPERTY_EXPLORE_FORMAT, format);
@@ -74,6 +74,7 @@ import co.cask.cdap.internal.app.runtime.artifact.ArtifactRepository;
 import co.cask.cdap.internal.app.runtime.artifact.ArtifactStore;
 import co.cask.cdap.internal.app.runtime.artifact.AuthorizationArtifactRepository;
 import co.cask.cdap.internal.app.runtime.artifact.DefaultArtifactRepository;
+import co.cask.cdap.internal.app.runtime.artifact.UnpackedArtifactCache;
 import co.cask.cdap.internal.app.runtime.batch.InMemoryTransactionServiceManager;
 import co.cask.cdap.internal.app.runtime.distributed.AppFabricServiceManager;
 import co.cask.cdap.internal.app.runtime.distributed.TransactionServiceManager;
@@ -125,6 +126,7 @@ import com.google.inject.Binder;
 import com.google.inject.Module;
 import com.google.inject.Provides;
 import com.google.inject.Scopes;
+import com.google.inject.Singleton;
 import com.google.inject.TypeLiteral;
 import com.google.inject.assistedinject.FactoryModuleBuilder;
 import com.google.inject.multibindings.MapBinder;
@@ -413,6 +415,17 @@ public final class AppFabricServiceRuntimeModule extends RuntimeModule {
       }
     }
 
+    /**
+     * Provides the {@link UnpackedArtifactCache} shared by all artifact and program operations of the process. It is
+     * only bound here, such that program runners in containers don't get it through optional injection.
+     */
+    @Provides
+    @Singleton
+    @SuppressWarnings("unused")
+    public UnpackedArtifactCache providesUnpackedArtifactCache(CConfiguration cConf) {
+      return new UnpackedArtifactCache(cConf);
+    }
+
     @Provides
     @Named(Constants.Service.MASTER_SERVICES_BIND_ADDRESS)
     @SuppressWarnings("unused")
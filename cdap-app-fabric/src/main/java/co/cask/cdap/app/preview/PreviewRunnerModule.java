@@ -40,6 +40,7 @@ import co.cask.cdap.internal.app.preview.DefaultDataTracerFactory;
 import co.cask.cdap.internal.app.preview.DefaultPreviewRunner;
 import co.cask.cdap.internal.app.runtime.artifact.ArtifactRepository;
 import co.cask.cdap.internal.app.runtime.artifact.ArtifactStore;
+import co.cask.cdap.internal.app.runtime.artifact.UnpackedArtifactCache;
 import co.cask.cdap.internal.app.store.DefaultStore;
 import co.cask.cdap.internal.app.store.preview.DefaultPreviewStore;
 import co.cask.cdap.internal.pipeline.SynchronousPipelineFactory;
@@ -74,11 +75,13 @@ public class PreviewRunnerModule extends PrivateModule {
   private final PrivilegesManager privilegesManager;
   private final StreamCoordinatorClient streamCoordinatorClient;
   private final PreferencesStore preferencesStore;
+  private final UnpackedArtifactCache unpackedArtifactCache;
 
   public PreviewRunnerModule(ArtifactRepository artifactRepository, ArtifactStore artifactStore,
                              AuthorizerInstantiator authorizerInstantiator, AuthorizationEnforcer authorizationEnforcer,
                              PrivilegesManager privilegesManager,
-                             StreamCoordinatorClient streamCoordinatorClient, PreferencesStore preferencesStore) {
+                             StreamCoordinatorClient streamCoordinatorClient, PreferencesStore preferencesStore,
+                             UnpackedArtifactCache unpackedArtifactCache) {
     this.artifactRepository = artifactRepository;
     this.artifactStore = artifactStore;
     this.authorizerInstantiator = authorizerInstantiator;
@@ -86,6 +89,7 @@ public class PreviewRunnerModule extends PrivateModule {
     this.privilegesManager = privilegesManager;
     this.streamCoordinatorClient = streamCoordinatorClient;
     this.preferencesStore = preferencesStore;
+    this.unpackedArtifactCache = unpackedArtifactCache;
   }
 
   @Override
@@ -105,6 +109,9 @@ public class PreviewRunnerModule extends PrivateModule {
     bind(StreamCoordinatorClient.class).toInstance(streamCoordinatorClient);
     expose(StreamCoordinatorClient.class);
     bind(PreferencesStore.class).toInstance(preferencesStore);
+    // Share the unpacked artifacts with the CDAP instance, since the local data directory of preview is temporary
+    bind(UnpackedArtifactCache.class).toInstance(unpackedArtifactCache);
+    expose(UnpackedArtifactCache.class);
     // bind explore client to mock.
     bind(ExploreClient.class).to(MockExploreClient.class);
     expose(ExploreClient.class);
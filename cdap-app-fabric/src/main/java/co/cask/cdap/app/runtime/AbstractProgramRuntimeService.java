@@ -18,6 +18,7 @@ package co.cask.cdap.app.runtime;
 import co.cask.cdap.api.app.ApplicationSpecification;
 import co.cask.cdap.api.common.RuntimeArguments;
 import co.cask.cdap.api.plugin.Plugin;
+import co.cask.cdap.app.program.DefaultProgram;
 import co.cask.cdap.app.program.Program;
 import co.cask.cdap.app.program.ProgramDescriptor;
 import co.cask.cdap.app.program.Programs;
@@ -36,6 +37,7 @@ import co.cask.cdap.internal.app.runtime.SimpleProgramOptions;
 import co.cask.cdap.internal.app.runtime.artifact.ArtifactDetail;
 import co.cask.cdap.internal.app.runtime.artifact.ArtifactRepository;
 import co.cask.cdap.internal.app.runtime.artifact.Artifacts;
+import co.cask.cdap.internal.app.runtime.artifact.UnpackedArtifactCache;
 import co.cask.cdap.internal.app.runtime.service.SimpleRuntimeInfo;
 import co.cask.cdap.proto.ProgramType;
 import co.cask.cdap.proto.id.ArtifactId;
@@ -91,12 +93,26 @@ public abstract class AbstractProgramRuntimeService extends AbstractIdleService
   private final ProgramRunnerFactory programRunnerFactory;
   private final ProgramStateWriter programStateWriter;
   private final ArtifactRepository noAuthArtifactRepository;
+  private final UnpackedArtifactCache unpackedArtifactCache;
 
   protected AbstractProgramRuntimeService(CConfiguration cConf,
                                           ProgramRunnerFactory programRunnerFactory,
                                           ArtifactRepository noAuthArtifactRepository,
                                           ProgramStateWriter programStateWriter) {
+    this(cConf, programRunnerFactory, noAuthArtifactRepository, programStateWriter, null);
+  }
+
+  /**
+   * Creates an instance that uses the given {@link UnpackedArtifactCache} for expanding program jars. If it is
+   * {@code null}, the program jar will be expanded into the temporary directory of each program run.
+   */
+  protected AbstractProgramRuntimeService(CConfiguration cConf,
+                                          ProgramRunnerFactory programRunnerFactory,
+                                          ArtifactRepository noAuthArtifactRepository,
+                                          ProgramStateWriter programStateWriter,
+                                          @Nullable UnpackedArtifactCache unpackedArtifactCache) {
     this.cConf = cConf;
+    this.unpackedArtifactCache = unpackedArtifactCache;
     this.runtimeInfosLock = new ReentrantReadWriteLock();
     this.runtimeInfos = HashBasedTable.create();
     this.programRunnerFactory = programRunnerFactory;
@@ -156,6 +172,29 @@ public abstract class AbstractProgramRuntimeService extends AbstractIdleService
 
     final Location programJarLocation = artifactDetail.getDescriptor().getLocation();
 
+    if (unpackedArtifactCache != null) {
+      // The cached directory is keyed by the jar content, hence it is already a snapshot of the program jar
+      final UnpackedArtifactCache.UnpackedArtifact unpacked =
+        unpackedArtifactCache.acquire(artifactDetail.getDescriptor().getArtifactId(), programJarLocation);
+      try {
+        Program program = Programs.create(cConf, programRunner, programDescriptor,
+                                          programJarLocation, unpacked.getDirectory());
+        return new DefaultProgram(programDescriptor, programJarLocation, program.getClassLoader()) {
+          @Override
+          public void close() throws IOException {
+            try {
+              super.close();
+            } finally {
+              unpacked.close();
+            }
+          }
+        };
+      } catch (IOException | RuntimeException e) {
+        unpacked.close();
+        throw e;
+      }
+    }
+
     // Take a snapshot of the JAR file to avoid program mutation
     final File unpackedDir = new File(tempDir, "unpacked");
     unpackedDir.mkdirs();
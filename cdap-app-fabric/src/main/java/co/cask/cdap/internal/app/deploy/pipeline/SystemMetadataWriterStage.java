@@ -18,18 +18,25 @@ package co.cask.cdap.internal.app.deploy.pipeline;
 
 import co.cask.cdap.api.ProgramSpecification;
 import co.cask.cdap.api.app.ApplicationSpecification;
+import co.cask.cdap.common.metadata.MetadataRecord;
 import co.cask.cdap.data2.metadata.store.MetadataStore;
+import co.cask.cdap.data2.metadata.system.AbstractSystemMetadataWriter;
 import co.cask.cdap.data2.metadata.system.AppSystemMetadataWriter;
 import co.cask.cdap.data2.metadata.system.ProgramSystemMetadataWriter;
-import co.cask.cdap.data2.metadata.system.SystemMetadataWriter;
 import co.cask.cdap.pipeline.AbstractStage;
 import co.cask.cdap.proto.ProgramType;
 import co.cask.cdap.proto.id.ApplicationId;
+import co.cask.cdap.proto.id.NamespacedEntityId;
 import co.cask.cdap.proto.id.ProgramId;
 import co.cask.cdap.proto.metadata.MetadataScope;
 import com.google.common.reflect.TypeToken;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Stage to write system metadata for an application.
@@ -45,35 +52,46 @@ public class SystemMetadataWriterStage extends AbstractStage<ApplicationWithProg
 
   @Override
   public void process(ApplicationWithPrograms input) throws Exception {
-    // add system metadata for apps
     ApplicationId appId = input.getApplicationId();
     ApplicationSpecification appSpec = input.getSpecification();
-    // only update creation time if this is a new app
-    Map<String, String> properties = metadataStore.getProperties(MetadataScope.SYSTEM, appId);
-    SystemMetadataWriter appSystemMetadataWriter =
-      new AppSystemMetadataWriter(metadataStore, appId, appSpec, !properties.isEmpty());
-    appSystemMetadataWriter.write();
 
-    // add system metadata for programs
-    writeProgramSystemMetadata(appId, ProgramType.FLOW, appSpec.getFlows().values());
-    writeProgramSystemMetadata(appId, ProgramType.MAPREDUCE, appSpec.getMapReduce().values());
-    writeProgramSystemMetadata(appId, ProgramType.SERVICE, appSpec.getServices().values());
-    writeProgramSystemMetadata(appId, ProgramType.SPARK, appSpec.getSpark().values());
-    writeProgramSystemMetadata(appId, ProgramType.WORKER, appSpec.getWorkers().values());
-    writeProgramSystemMetadata(appId, ProgramType.WORKFLOW, appSpec.getWorkflows().values());
+    Map<ProgramId, ProgramSpecification> programSpecs = new LinkedHashMap<>();
+    addProgramSpecs(appId, ProgramType.FLOW, appSpec.getFlows().values(), programSpecs);
+    addProgramSpecs(appId, ProgramType.MAPREDUCE, appSpec.getMapReduce().values(), programSpecs);
+    addProgramSpecs(appId, ProgramType.SERVICE, appSpec.getServices().values(), programSpecs);
+    addProgramSpecs(appId, ProgramType.SPARK, appSpec.getSpark().values(), programSpecs);
+    addProgramSpecs(appId, ProgramType.WORKER, appSpec.getWorkers().values(), programSpecs);
+    addProgramSpecs(appId, ProgramType.WORKFLOW, appSpec.getWorkflows().values(), programSpecs);
+
+    // Find out which entities already exist in a single lookup, so that the creation time is only updated for new ones
+    Set<NamespacedEntityId> entityIds = new HashSet<>();
+    entityIds.add(appId);
+    entityIds.addAll(programSpecs.keySet());
+    Set<NamespacedEntityId> existing = new HashSet<>();
+    for (MetadataRecord record : metadataStore.getMetadata(MetadataScope.SYSTEM, entityIds)) {
+      if (!record.getProperties().isEmpty()) {
+        existing.add(record.getEntityId());
+      }
+    }
+
+    // add system metadata for the app and its programs in one batch
+    List<AbstractSystemMetadataWriter> writers = new ArrayList<>();
+    writers.add(new AppSystemMetadataWriter(metadataStore, appId, appSpec, existing.contains(appId)));
+    for (Map.Entry<ProgramId, ProgramSpecification> entry : programSpecs.entrySet()) {
+      writers.add(new ProgramSystemMetadataWriter(metadataStore, entry.getKey(), entry.getValue(),
+                                                  existing.contains(entry.getKey())));
+    }
+    AbstractSystemMetadataWriter.writeAll(metadataStore, writers, false);
 
     // Emit input to the next stage
     emit(input);
   }
 
-  private void writeProgramSystemMetadata(ApplicationId appId, ProgramType programType,
-                                          Iterable<? extends ProgramSpecification> specs) {
+  private void addProgramSpecs(ApplicationId appId, ProgramType programType,
+                               Iterable<? extends ProgramSpecification> specs,
+                               Map<ProgramId, ProgramSpecification> programSpecs) {
     for (ProgramSpecification spec : specs) {
-      ProgramId programId = appId.program(programType, spec.getName());
-      Map<String, String> properties = metadataStore.getProperties(MetadataScope.SYSTEM, programId);
-      ProgramSystemMetadataWriter writer = new ProgramSystemMetadataWriter(metadataStore, programId, spec,
-                                                                           !properties.isEmpty());
-      writer.write();
+      programSpecs.put(appId.program(programType, spec.getName()), spec);
     }
   }
 }
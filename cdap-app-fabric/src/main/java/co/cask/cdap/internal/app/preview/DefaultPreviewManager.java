@@ -47,6 +47,7 @@ import co.cask.cdap.internal.app.AppFabricDatasetModule;
 import co.cask.cdap.internal.app.runtime.artifact.ArtifactRepository;
 import co.cask.cdap.internal.app.runtime.artifact.ArtifactStore;
 import co.cask.cdap.internal.app.runtime.artifact.DefaultArtifactRepository;
+import co.cask.cdap.internal.app.runtime.artifact.UnpackedArtifactCache;
 import co.cask.cdap.logging.guice.LoggingModules;
 import co.cask.cdap.messaging.guice.MessagingServerRuntimeModule;
 import co.cask.cdap.metrics.guice.MetricsClientRuntimeModule;
@@ -112,6 +113,7 @@ public class DefaultPreviewManager implements PreviewManager {
   private final StreamCoordinatorClient streamCoordinatorClient;
   private final PrivilegesManager privilegesManager;
   private final AuthorizationEnforcer authorizationEnforcer;
+  private final UnpackedArtifactCache unpackedArtifactCache;
   private final Cache<ApplicationId, Injector> appInjectors;
 
   @Inject
@@ -121,7 +123,8 @@ public class DefaultPreviewManager implements PreviewManager {
                         TransactionManager transactionManager, ArtifactRepository artifactRepository,
                         ArtifactStore artifactStore, AuthorizerInstantiator authorizerInstantiator,
                         StreamAdmin streamAdmin, StreamCoordinatorClient streamCoordinatorClient,
-                        PrivilegesManager privilegesManager, AuthorizationEnforcer authorizationEnforcer) {
+                        PrivilegesManager privilegesManager, AuthorizationEnforcer authorizationEnforcer,
+                        UnpackedArtifactCache unpackedArtifactCache) {
     this.cConf = cConf;
     this.hConf = hConf;
     this.datasetFramework = datasetFramework;
@@ -136,6 +139,7 @@ public class DefaultPreviewManager implements PreviewManager {
     this.streamCoordinatorClient = streamCoordinatorClient;
     this.privilegesManager = privilegesManager;
     this.authorizationEnforcer = authorizationEnforcer;
+    this.unpackedArtifactCache = unpackedArtifactCache;
 
     this.appInjectors = CacheBuilder.newBuilder()
       .maximumSize(cConf.getInt(Constants.Preview.PREVIEW_CACHE_SIZE, 10))
@@ -219,7 +223,8 @@ public class DefaultPreviewManager implements PreviewManager {
       new LocationRuntimeModule().getStandaloneModules(),
       new ConfigStoreModule().getStandaloneModule(),
       new PreviewRunnerModule(artifactRepository, artifactStore, authorizerInstantiator, authorizationEnforcer,
-                              privilegesManager, streamCoordinatorClient, preferencesStore),
+                              privilegesManager, streamCoordinatorClient, preferencesStore,
+                              unpackedArtifactCache),
       new ProgramRunnerRuntimeModule().getStandaloneModules(),
       new PreviewDataModules().getDataFabricModule(transactionManager),
       new PreviewDataModules().getDataSetsModule(datasetFramework),
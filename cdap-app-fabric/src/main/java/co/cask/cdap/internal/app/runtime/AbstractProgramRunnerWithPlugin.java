@@ -19,9 +19,11 @@ package co.cask.cdap.internal.app.runtime;
 import co.cask.cdap.app.runtime.ProgramOptions;
 import co.cask.cdap.app.runtime.ProgramRunner;
 import co.cask.cdap.common.conf.CConfiguration;
+import co.cask.cdap.internal.app.runtime.artifact.UnpackedArtifactCache;
 import co.cask.cdap.internal.app.runtime.plugin.PluginInstantiator;
 import com.google.common.io.Closeables;
 import com.google.common.util.concurrent.Service;
+import com.google.inject.Inject;
 import org.apache.twill.internal.ServiceListenerAdapter;
 
 import java.io.Closeable;
@@ -34,11 +36,20 @@ import javax.annotation.Nullable;
 public abstract class AbstractProgramRunnerWithPlugin implements ProgramRunner {
 
   protected final CConfiguration cConf;
+  private UnpackedArtifactCache unpackedArtifactCache;
 
   public AbstractProgramRunnerWithPlugin(CConfiguration cConf) {
     this.cConf = cConf;
   }
 
+  @Inject(optional = true)
+  public void setUnpackedArtifactCache(UnpackedArtifactCache unpackedArtifactCache) {
+    // Use optional Guice injection to avoid changing the constructors of all program runners.
+    // The cache is only bound by the master and local app-fabric modules. Without it, for example in containers,
+    // plugin jars are expanded into temporary directories owned by the PluginInstantiator.
+    this.unpackedArtifactCache = unpackedArtifactCache;
+  }
+
   /**
    * Creates a {@link PluginInstantiator} based on the {@link ProgramOptionConstants#PLUGIN_DIR} in
    * the system arguments in the given {@link ProgramOptions}.
@@ -53,7 +64,8 @@ public abstract class AbstractProgramRunnerWithPlugin implements ProgramRunner {
       return null;
     }
     return new PluginInstantiator(
-      cConf, classLoader, new File(options.getArguments().getOption(ProgramOptionConstants.PLUGIN_DIR)));
+      cConf, classLoader, new File(options.getArguments().getOption(ProgramOptionConstants.PLUGIN_DIR)),
+      true, unpackedArtifactCache);
   }
 
   /**
@@ -74,6 +74,10 @@ public final class SystemArguments {
   // Keys for http service
   public static final String SERVICE_THREADS = "system.service.threads";
   public static final String SERVICE_THREAD_KEEPALIVE_SECS = "system.service.thread.keepalive.secs";
+  public static final String SERVICE_HANDLER_POOL_SIZE = "system.service.handler.pool.size";
+
+  // Keys for flowlet
+  public static final String FLOWLET_PROCESS_THREADS = "system.flowlet.process.threads";
 
   /**
    * Extracts log level settings from the given arguments. It extracts arguments prefixed with key
@@ -336,6 +340,26 @@ public final class SystemArguments {
     return builder;
   }
 
+  /**
+   * Returns the number of threads for invoking process methods in a flowlet instance based on the given arguments.
+   * If it is not set in the arguments, {@code 1} is returned. Each input queue of the flowlet is consumed by one
+   * thread only, hence the setting has no effect for flowlets with a single input queue; such flowlets should be
+   * scaled by increasing the number of instances instead.
+   */
+  public static int getFlowletProcessThreads(Map<String, String> args) {
+    Integer threads = getPositiveInt(args, FLOWLET_PROCESS_THREADS, "number of flowlet process threads");
+    return threads == null ? 1 : threads;
+  }
+
+  /**
+   * Returns the maximum number of user service handler instances per handler class if handler instances are pooled
+   * and released at the end of each request, based on the given arguments. If it is not set in the arguments,
+   * {@code 0} is returned, which means each http service executor thread has its own handler instance.
+   */
+  public static int getServiceHandlerPoolSize(Map<String, String> args) {
+    return getNonNegativeInt(args, SERVICE_HANDLER_POOL_SIZE, "http service handler pool size", 0);
+  }
+
   /**
    * Gets a positive integer value from the given map using the given key.
    * If there is no such key or if the value is not positive, returns {@code null}.
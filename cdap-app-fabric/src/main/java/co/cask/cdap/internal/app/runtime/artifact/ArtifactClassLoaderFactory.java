@@ -21,11 +21,8 @@ import co.cask.cdap.app.runtime.ProgramClassLoaderProvider;
 import co.cask.cdap.app.runtime.ProgramRunner;
 import co.cask.cdap.app.runtime.ProgramRunnerFactory;
 import co.cask.cdap.common.conf.CConfiguration;
-import co.cask.cdap.common.conf.Constants;
 import co.cask.cdap.common.lang.DirectoryClassLoader;
 import co.cask.cdap.common.lang.FilterClassLoader;
-import co.cask.cdap.common.lang.jar.BundleJarUtil;
-import co.cask.cdap.common.utils.DirUtils;
 import co.cask.cdap.internal.app.runtime.ProgramClassLoader;
 import co.cask.cdap.proto.ProgramType;
 import co.cask.cdap.security.impersonation.EntityImpersonator;
@@ -42,21 +39,21 @@ import java.util.Iterator;
 import java.util.concurrent.Callable;
 
 /**
- * Given an artifact, creates a {@link CloseableClassLoader} from it. Takes care of unpacking the artifact and
- * cleaning up the directory when the classloader is closed.
+ * Given an artifact, creates a {@link CloseableClassLoader} from it. Takes care of unpacking the artifact through
+ * the {@link UnpackedArtifactCache} and releasing the unpacked directory when the classloader is closed.
  */
 final class ArtifactClassLoaderFactory {
   private static final Logger LOG = LoggerFactory.getLogger(ArtifactClassLoaderFactory.class);
 
   private final CConfiguration cConf;
   private final ProgramRunnerFactory programRunnerFactory;
-  private final File tmpDir;
+  private final UnpackedArtifactCache unpackedArtifactCache;
 
-  ArtifactClassLoaderFactory(CConfiguration cConf, ProgramRunnerFactory programRunnerFactory) {
+  ArtifactClassLoaderFactory(CConfiguration cConf, ProgramRunnerFactory programRunnerFactory,
+                             UnpackedArtifactCache unpackedArtifactCache) {
     this.cConf = cConf;
     this.programRunnerFactory = programRunnerFactory;
-    this.tmpDir = new File(cConf.get(Constants.CFG_LOCAL_DATA_DIR),
-                           cConf.get(Constants.AppFabric.TEMP_DIR)).getAbsoluteFile();
+    this.unpackedArtifactCache = unpackedArtifactCache;
   }
 
   /**
@@ -106,7 +103,7 @@ final class ArtifactClassLoaderFactory {
   }
 
   /**
-   * Unpack the given {@code artifactLocation} to a temporary directory and call
+   * Unpack the given {@code artifactLocation} through the {@link UnpackedArtifactCache} and call
    * {@link #createClassLoader(File)} to create the {@link ClassLoader}.
    *
    * @param artifactLocation the location of the artifact to create the classloader from
@@ -118,25 +115,19 @@ final class ArtifactClassLoaderFactory {
   private CloseableClassLoader createClassLoader(final Location artifactLocation,
                                                  EntityImpersonator entityImpersonator) throws IOException {
     try {
-      final File unpackDir = entityImpersonator.impersonate(new Callable<File>() {
-        @Override
-        public File call() throws IOException {
-          return BundleJarUtil.unJar(artifactLocation, DirUtils.createTempDir(tmpDir));
-        }
-      });
-
-      final CloseableClassLoader classLoader = createClassLoader(unpackDir);
+      final UnpackedArtifactCache.UnpackedArtifact unpacked = acquire(artifactLocation, entityImpersonator);
+      final CloseableClassLoader classLoader;
+      try {
+        classLoader = createClassLoader(unpacked.getDirectory());
+      } catch (Exception e) {
+        unpacked.close();
+        throw e;
+      }
       return new CloseableClassLoader(classLoader, new Closeable() {
         @Override
         public void close() throws IOException {
-          try {
-            Closeables.closeQuietly(classLoader);
-            if (unpackDir.exists()) {
-              DirUtils.deleteDirectoryContents(unpackDir);
-            }
-          } catch (IOException e) {
-            LOG.warn("Failed to delete directory {}", unpackDir, e);
-          }
+          Closeables.closeQuietly(classLoader);
+          unpacked.close();
         }
       });
     } catch (Exception e) {
@@ -166,29 +157,38 @@ final class ArtifactClassLoaderFactory {
     }
 
     try {
-      final File unpackDir = entityImpersonator.impersonate(new Callable<File>() {
-        @Override
-        public File call() throws IOException {
-          return BundleJarUtil.unJar(artifactLocation, DirUtils.createTempDir(tmpDir));
-        }
-      });
-
-      final CloseableClassLoader parentClassLoader = createClassLoader(artifactLocations, entityImpersonator);
-      return new CloseableClassLoader(new DirectoryClassLoader(unpackDir, parentClassLoader, "lib"), new Closeable() {
+      final UnpackedArtifactCache.UnpackedArtifact unpacked = acquire(artifactLocation, entityImpersonator);
+      final CloseableClassLoader parentClassLoader;
+      try {
+        parentClassLoader = createClassLoader(artifactLocations, entityImpersonator);
+      } catch (Exception e) {
+        unpacked.close();
+        throw e;
+      }
+      ClassLoader classLoader = new DirectoryClassLoader(unpacked.getDirectory(), parentClassLoader, "lib");
+      return new CloseableClassLoader(classLoader, new Closeable() {
         @Override
         public void close() throws IOException {
-          try {
-            Closeables.closeQuietly(parentClassLoader);
-            if (unpackDir.exists()) {
-              DirUtils.deleteDirectoryContents(unpackDir);
-            }
-          } catch (IOException e) {
-            LOG.warn("Failed to delete directory {}", unpackDir, e);
-          }
+          Closeables.closeQuietly(parentClassLoader);
+          unpacked.close();
         }
       });
     } catch (Exception e) {
       throw Throwables.propagate(e);
     }
   }
+
+  /**
+   * Acquires the unpacked directory of the given artifact from the {@link UnpackedArtifactCache}. The artifact is
+   * read as the impersonated user.
+   */
+  private UnpackedArtifactCache.UnpackedArtifact acquire(final Location artifactLocation,
+                                                         EntityImpersonator entityImpersonator) throws Exception {
+    return entityImpersonator.impersonate(new Callable<UnpackedArtifactCache.UnpackedArtifact>() {
+      @Override
+      public UnpackedArtifactCache.UnpackedArtifact call() throws IOException {
+        return unpackedArtifactCache.acquire(artifactLocation);
+      }
+    });
+  }
 }
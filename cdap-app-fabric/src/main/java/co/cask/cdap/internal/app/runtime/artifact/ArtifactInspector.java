@@ -38,19 +38,14 @@ import co.cask.cdap.common.conf.CConfiguration;
 import co.cask.cdap.common.conf.Constants;
 import co.cask.cdap.common.id.Id;
 import co.cask.cdap.common.io.Locations;
-import co.cask.cdap.common.lang.jar.BundleJarUtil;
 import co.cask.cdap.common.utils.DirUtils;
 import co.cask.cdap.internal.app.runtime.plugin.PluginInstantiator;
 import co.cask.cdap.internal.io.ReflectionSchemaGenerator;
-import com.google.common.base.Function;
-import com.google.common.base.Predicate;
 import com.google.common.base.Throwables;
-import com.google.common.collect.AbstractIterator;
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Iterators;
 import com.google.common.collect.Maps;
 import com.google.common.primitives.Primitives;
 import com.google.common.reflect.TypeToken;
+import org.apache.twill.common.Threads;
 import org.apache.twill.filesystem.Location;
 import org.objectweb.asm.AnnotationVisitor;
 import org.objectweb.asm.ClassReader;
@@ -75,10 +70,16 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.jar.Attributes;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
@@ -93,12 +94,24 @@ final class ArtifactInspector {
 
   private final CConfiguration cConf;
   private final ArtifactClassLoaderFactory artifactClassLoaderFactory;
+  private final UnpackedArtifactCache unpackedArtifactCache;
   private final ReflectionSchemaGenerator schemaGenerator;
+  private final ExecutorService inspectionExecutor;
 
-  ArtifactInspector(CConfiguration cConf, ArtifactClassLoaderFactory artifactClassLoaderFactory) {
+  ArtifactInspector(CConfiguration cConf, ArtifactClassLoaderFactory artifactClassLoaderFactory,
+                    UnpackedArtifactCache unpackedArtifactCache) {
     this.cConf = cConf;
     this.artifactClassLoaderFactory = artifactClassLoaderFactory;
+    this.unpackedArtifactCache = unpackedArtifactCache;
     this.schemaGenerator = new ReflectionSchemaGenerator(false);
+
+    // Threads are only kept while artifacts are being inspected
+    int threads = Math.max(1, cConf.getInt(Constants.AppFabric.ARTIFACT_INSPECTION_THREADS));
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                                                         new LinkedBlockingQueue<Runnable>(),
+                                                         Threads.createDaemonThreadFactory("artifact-inspector-%d"));
+    executor.allowCoreThreadTimeOut(true);
+    this.inspectionExecutor = executor;
   }
 
   /**
@@ -122,21 +135,19 @@ final class ArtifactInspector {
     Location artifactLocation = Locations.toLocation(artifactFile);
 
     Path stageDir = Files.createTempDirectory(tmpDir, artifactFile.getName());
-    try {
-      File unpackedDir = BundleJarUtil.unJar(artifactLocation,
-                                             Files.createTempDirectory(stageDir, "unpacked-").toFile());
-      try (
-        CloseableClassLoader artifactClassLoader = artifactClassLoaderFactory.createClassLoader(unpackedDir);
-        PluginInstantiator pluginInstantiator =
-          new PluginInstantiator(cConf, parentClassLoader == null ? artifactClassLoader : parentClassLoader,
-                                 Files.createTempDirectory(stageDir, "plugins-").toFile(),
-                                 false)
-      ) {
-        pluginInstantiator.addArtifact(artifactLocation, artifactId.toArtifactId());
-        ArtifactClasses.Builder builder = inspectApplications(artifactId, ArtifactClasses.builder(),
-                                                              artifactLocation, artifactClassLoader);
-        return inspectPlugins(builder, artifactFile, artifactId.toArtifactId(), pluginInstantiator).build();
-      }
+    try (
+      UnpackedArtifactCache.UnpackedArtifact unpacked =
+        unpackedArtifactCache.acquire(artifactId.toArtifactId(), artifactLocation);
+      CloseableClassLoader artifactClassLoader = artifactClassLoaderFactory.createClassLoader(unpacked.getDirectory());
+      PluginInstantiator pluginInstantiator =
+        new PluginInstantiator(cConf, parentClassLoader == null ? artifactClassLoader : parentClassLoader,
+                               Files.createTempDirectory(stageDir, "plugins-").toFile(),
+                               false, unpackedArtifactCache)
+    ) {
+      pluginInstantiator.addArtifact(artifactLocation, artifactId.toArtifactId());
+      ArtifactClasses.Builder builder = inspectApplications(artifactId, ArtifactClasses.builder(),
+                                                            artifactLocation, artifactClassLoader);
+      return inspectPlugins(builder, artifactFile, artifactId.toArtifactId(), pluginInstantiator).build();
     } catch (EOFException | ZipException e) {
       throw new InvalidArtifactException("Artifact " + artifactId + " is not a valid zip file.", e);
     } finally {
@@ -268,77 +279,57 @@ final class ArtifactInspector {
   }
 
   /**
-   * Returns an {@link Iterable} of class name that are under the given list of package names that are loadable
-   * through the plugin ClassLoader.
+   * Returns the list of classes annotated with {@link Plugin} that are under the given list of package names and are
+   * loadable through the plugin ClassLoader. The bytecode of the classes are scanned in parallel, and only
+   * the plugin classes are loaded.
    */
-  private Iterable<Class<?>> getPluginClasses(final Iterable<String> packages, final ClassLoader pluginClassLoader) {
-    return new Iterable<Class<?>>() {
-      @Override
-      public Iterator<Class<?>> iterator() {
-        final Iterator<String> packageIterator = packages.iterator();
-
-        return new AbstractIterator<Class<?>>() {
-          Iterator<String> classIterator = ImmutableList.<String>of().iterator();
-          String currentPackage;
-
-          @Override
-          protected Class<?> computeNext() {
-            while (!classIterator.hasNext()) {
-              if (!packageIterator.hasNext()) {
-                return endOfData();
-              }
-              currentPackage = packageIterator.next();
-
-              try {
-                // Gets all package resource URL for the given package
-                String resourceName = currentPackage.replace('.', File.separatorChar);
-                Enumeration<URL> resources = pluginClassLoader.getResources(resourceName);
-                List<Iterator<String>> iterators = new ArrayList<>();
-                // Go though all available resources and collect all class names that are plugin classes.
-                while (resources.hasMoreElements()) {
-                  URL packageResource = resources.nextElement();
-
-                  // Only inspect classes in the top level jar file for Plugins.
-                  // The jar manifest may have packages in Export-Package that are loadable from the bundled jar files,
-                  // which is for classloading purpose. Those classes won't be inspected for plugin classes.
-                  // There should be exactly one of resource that match, because it maps to a directory on the FS.
-                  if (packageResource.getProtocol().equals("file")) {
-                    Iterator<String> classFiles = DirUtils.list(new File(packageResource.toURI()), "class").iterator();
-
-                    // Transform class file into class name and filter by @Plugin class only
-                    iterators.add(Iterators.filter(
-                      Iterators.transform(classFiles, new Function<String, String>() {
-                        @Override
-                        public String apply(String input) {
-                          return getClassName(currentPackage, input);
-                        }
-                      }), new Predicate<String>() {
-                        @Override
-                        public boolean apply(String className) {
-                          return isPlugin(className, pluginClassLoader);
-                        }
-                      }));
-                  }
-                }
-                if (!iterators.isEmpty()) {
-                  classIterator = Iterators.concat(iterators.iterator());
-                }
-              } catch (Exception e) {
-                // Cannot happen
-                throw Throwables.propagate(e);
-              }
+  private List<Class<?>> getPluginClasses(Iterable<String> packages,
+                                          final ClassLoader pluginClassLoader) throws Exception {
+    List<Future<String>> futures = new ArrayList<>();
+    for (String currentPackage : packages) {
+      // Gets all package resource URL for the given package
+      String resourceName = currentPackage.replace('.', File.separatorChar);
+      Enumeration<URL> resources = pluginClassLoader.getResources(resourceName);
+      // Go though all available resources and collect all class names that are plugin classes.
+      while (resources.hasMoreElements()) {
+        URL packageResource = resources.nextElement();
+
+        // Only inspect classes in the top level jar file for Plugins.
+        // The jar manifest may have packages in Export-Package that are loadable from the bundled jar files,
+        // which is for classloading purpose. Those classes won't be inspected for plugin classes.
+        // There should be exactly one of resource that match, because it maps to a directory on the FS.
+        if (!packageResource.getProtocol().equals("file")) {
+          continue;
+        }
+        for (String classFile : DirUtils.list(new File(packageResource.toURI()), "class")) {
+          final String className = getClassName(currentPackage, classFile);
+          futures.add(inspectionExecutor.submit(new Callable<String>() {
+            @Override
+            public String call() {
+              return isPlugin(className, pluginClassLoader) ? className : null;
             }
+          }));
+        }
+      }
+    }
 
-            try {
-              return pluginClassLoader.loadClass(classIterator.next());
-            } catch (ClassNotFoundException | NoClassDefFoundError e) {
-              // Cannot happen, since the class name is from the list of the class files under the classloader.
-              throw Throwables.propagate(e);
-            }
-          }
-        };
+    List<Class<?>> classes = new ArrayList<>();
+    try {
+      for (Future<String> future : futures) {
+        String className = future.get();
+        if (className != null) {
+          classes.add(pluginClassLoader.loadClass(className));
+        }
       }
-    };
+    } catch (ExecutionException e) {
+      // Rethrow the actual failure so that it is reported as the cause of the inspection failure
+      throw Throwables.propagate(e.getCause());
+    } finally {
+      for (Future<String> future : futures) {
+        future.cancel(true);
+      }
+    }
+    return classes;
   }
 
   /**
@@ -0,0 +1,84 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.internal.app.runtime.artifact;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * An in-memory cache of decoded rows of the artifact meta table, used by {@link ArtifactStore} so that
+ * plugin and parent artifact lookups don't need to read and decode the same rows on every call.
+ *
+ * Values read in a transaction are only cached if there was no invalidation since before the transaction started.
+ * This makes sure that a value read by a transaction that doesn't see a concurrent change is never cached
+ * after the invalidation done for that change.
+ *
+ * @param <V> type of the decoded row
+ */
+final class ArtifactMetaCache<V> {
+
+  private final Cache<String, V> cache;
+  // Guarded by this
+  private long generation;
+
+  ArtifactMetaCache(long maxSize, long expireSeconds) {
+    this.cache = CacheBuilder.newBuilder()
+      .maximumSize(maxSize)
+      .expireAfterWrite(expireSeconds, TimeUnit.SECONDS)
+      .build();
+  }
+
+  /**
+   * Returns the current generation of the cache. It must be called before starting the transaction that reads
+   * the values to be put into this cache.
+   */
+  synchronized long getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Returns the cached value for the given row key or {@code null} if it is not in the cache.
+   */
+  @Nullable
+  V get(String rowKey) {
+    return cache.getIfPresent(rowKey);
+  }
+
+  /**
+   * Caches the given value if the cache was not invalidated since the given generation.
+   *
+   * @param rowKey the row key of the value
+   * @param value the decoded row
+   * @param generation the generation returned by {@link #getGeneration()} before the value was read
+   */
+  synchronized void put(String rowKey, V value, long generation) {
+    if (generation == this.generation) {
+      cache.put(rowKey, value);
+    }
+  }
+
+  /**
+   * Invalidates all values in this cache. It must be called after any change to the meta table got committed.
+   */
+  synchronized void invalidateAll() {
+    generation++;
+    cache.invalidateAll();
+  }
+}
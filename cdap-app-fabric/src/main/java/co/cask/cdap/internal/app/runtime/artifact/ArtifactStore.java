@@ -179,6 +179,12 @@ public class ArtifactStore {
   private static final DatasetProperties META_PROPERTIES =
     TableProperties.builder().setConflictDetection(ConflictDetection.COLUMN).build();
 
+  // Maximum number of decoded rows and the time to keep them in the in-memory caches. The caches are invalidated
+  // on every change made through this store; the expiration only bounds how long changes made by other processes,
+  // such as the upgrade tool, can be missed.
+  private static final long META_CACHE_SIZE = 10000L;
+  private static final long META_CACHE_EXPIRE_SECONDS = 600L;
+
   private static final Gson GSON = new GsonBuilder()
     .registerTypeAdapter(Schema.class, new SchemaTypeAdapter())
     .registerTypeAdapter(ArtifactRange.class, new ArtifactRangeCodec())
@@ -189,6 +195,10 @@ public class ArtifactStore {
   private final DatasetFramework datasetFramework;
   private final Transactional transactional;
   private final Impersonator impersonator;
+  // p:{namespace}:{artifact-name}:{type}:{name} and u:{namespace}:{type}:{name} rows and scans -> plugins
+  private final ArtifactMetaCache<List<ImmutablePair<Id.Artifact, PluginData>>> pluginCache;
+  // r:{namespace}:{artifact-name} rows -> all versions of the artifact
+  private final ArtifactMetaCache<List<ArtifactDetail>> artifactCache;
 
   @Inject
   ArtifactStore(DatasetFramework datasetFramework,
@@ -207,6 +217,8 @@ public class ArtifactStore {
       RetryStrategies.retryOnConflict(20, 100)
     );
     this.impersonator = impersonator;
+    this.pluginCache = new ArtifactMetaCache<>(META_CACHE_SIZE, META_CACHE_EXPIRE_SECONDS);
+    this.artifactCache = new ArtifactMetaCache<>(META_CACHE_SIZE, META_CACHE_EXPIRE_SECONDS);
   }
 
   /**
@@ -493,10 +505,13 @@ public class ArtifactStore {
                                                                           @Nullable String type)
     throws ArtifactNotFoundException, IOException {
 
+    // Generations must be acquired before the transaction starts
+    long pluginGeneration = pluginCache.getGeneration();
+    long artifactGeneration = artifactCache.getGeneration();
     return Transactionals.execute(transactional, context -> {
       Table metaTable = getMetaTable(context);
       SortedMap<ArtifactDescriptor, Set<PluginClass>> plugins = getPluginsInArtifact(
-        metaTable, parentArtifactId, input -> type == null || type.equals(input.getType()));
+        metaTable, parentArtifactId, input -> type == null || type.equals(input.getType()), artifactGeneration);
 
       List<Scan> scans = Arrays.asList(
         scanPlugins(parentArtifactId, type),
@@ -505,12 +520,7 @@ public class ArtifactStore {
       );
 
       for (Scan scan : scans) {
-        try (Scanner scanner = metaTable.scan(scan)) {
-          Row row;
-          while ((row = scanner.next()) != null) {
-            addPluginsToMap(namespace, parentArtifactId, plugins, row);
-          }
-        }
+        addPluginsToMap(namespace, parentArtifactId, plugins, getPlugins(metaTable, scan, pluginGeneration));
       }
 
       return Collections.unmodifiableSortedMap(plugins);
@@ -565,10 +575,18 @@ public class ArtifactStore {
     @Nullable final Predicate<co.cask.cdap.proto.id.ArtifactId> pluginRange, int limit, ArtifactSortOrder order)
     throws IOException, ArtifactNotFoundException, PluginNotExistsException {
 
+    // Generations must be acquired before the transaction starts
+    long pluginGeneration = pluginCache.getGeneration();
+    long artifactGeneration = artifactCache.getGeneration();
     SortedMap<ArtifactDescriptor, PluginClass> result = Transactionals.execute(transactional, context -> {
       Table metaTable = getMetaTable(context);
-      List<ArtifactDetail> parentArtifactDetails = getArtifacts(metaTable, parentArtifactRange,
-                                                                Integer.MAX_VALUE, null);
+      List<ArtifactDetail> parentArtifactDetails = new ArrayList<>();
+      ArtifactKey parentKey = new ArtifactKey(parentArtifactRange.getNamespace(), parentArtifactRange.getName());
+      for (ArtifactDetail artifactDetail : getArtifacts(metaTable, parentKey, artifactGeneration)) {
+        if (parentArtifactRange.versionIsInRange(artifactDetail.getDescriptor().getArtifactId().getVersion())) {
+          parentArtifactDetails.add(artifactDetail);
+        }
+      }
 
       if (parentArtifactDetails.isEmpty()) {
         throw new ArtifactNotFoundException(parentArtifactRange.getNamespace(), parentArtifactRange.getName());
@@ -595,18 +613,16 @@ public class ArtifactStore {
       // Add all plugins that extends from the given set of parents
       PluginKey pluginKey = new PluginKey(parentArtifactRange.getNamespace(),
                                           parentArtifactRange.getName(), type, name);
-      Row row = metaTable.get(pluginKey.getRowKey());
-      if (!row.isEmpty()) {
-        addPluginsInRangeToMap(namespace, parentArtifacts, row.getColumns(), plugins, pluginRange, limit);
-      }
+      addPluginsInRangeToMap(namespace, parentArtifacts,
+                             getPlugins(metaTable, pluginKey.getRowKey(), pluginGeneration),
+                             plugins, pluginRange, limit);
 
       // Add all universal plugins
       for (String ns : Arrays.asList(namespace.getNamespace(), NamespaceId.SYSTEM.getNamespace())) {
         UniversalPluginKey universalPluginKey = new UniversalPluginKey(ns, type, name);
-        row = metaTable.get(universalPluginKey.getRowKey());
-        if (!row.isEmpty()) {
-          addPluginsInRangeToMap(namespace, parentArtifacts, row.getColumns(), plugins, pluginRange, limit);
-        }
+        addPluginsInRangeToMap(namespace, parentArtifacts,
+                               getPlugins(metaTable, universalPluginKey.getRowKey(), pluginGeneration),
+                               plugins, pluginRange, limit);
       }
 
       return Collections.unmodifiableSortedMap(plugins);
@@ -647,6 +663,7 @@ public class ArtifactStore {
       // write artifact metadata
       metaTable.put(artifactCell.rowkey, artifactCell.column, Bytes.toBytes(GSON.toJson(updatedData)));
     }, ArtifactNotFoundException.class, IOException.class);
+    invalidateCaches();
   }
 
   /**
@@ -717,6 +734,8 @@ public class ArtifactStore {
     } catch (TransactionFailureException e) {
       destination.delete();
       throw Transactionals.propagate(e, ArtifactAlreadyExistsException.class, IOException.class);
+    } finally {
+      invalidateCaches();
     }
   }
 
@@ -759,6 +778,7 @@ public class ArtifactStore {
       }
       deleteMeta(metaTable, artifactId, detailBytes);
     }, IOException.class, ArtifactNotFoundException.class);
+    invalidateCaches();
   }
 
   /**
@@ -826,6 +846,7 @@ public class ArtifactStore {
         }
       }
     }, IOException.class);
+    invalidateCaches();
   }
 
   // write a new artifact snapshot and clean up the old snapshot data
@@ -923,39 +944,113 @@ public class ArtifactStore {
   }
 
   private SortedMap<ArtifactDescriptor, Set<PluginClass>> getPluginsInArtifact(Table table, Id.Artifact artifactId,
-                                                                               Predicate<PluginClass> filter)
-    throws ArtifactNotFoundException {
+                                                                               Predicate<PluginClass> filter,
+                                                                               long generation)
+    throws ArtifactNotFoundException, IOException {
     SortedMap<ArtifactDescriptor, Set<PluginClass>> result = new TreeMap<>();
 
     // Make sure the artifact exists
-    ArtifactCell artifactCell = new ArtifactCell(artifactId);
-    byte[] artifactDataBytes = table.get(artifactCell.rowkey, artifactCell.column);
-    if (artifactDataBytes == null) {
+    ArtifactKey artifactKey = new ArtifactKey(artifactId.getNamespace().getId(), artifactId.getName());
+    ArtifactDetail artifactDetail = null;
+    for (ArtifactDetail detail : getArtifacts(table, artifactKey, generation)) {
+      if (detail.getDescriptor().getArtifactId().getVersion().equals(artifactId.getVersion())) {
+        artifactDetail = detail;
+        break;
+      }
+    }
+    if (artifactDetail == null) {
       throw new ArtifactNotFoundException(artifactId.toEntityId());
     }
 
     // include any plugin classes that are inside the artifact itself and is accepted by the filter
-    ArtifactData artifactData = GSON.fromJson(Bytes.toString(artifactDataBytes), ArtifactData.class);
-    Set<PluginClass> plugins = artifactData.meta.getClasses().getPlugins().stream()
+    Set<PluginClass> plugins = artifactDetail.getMeta().getClasses().getPlugins().stream()
       .filter(filter).collect(Collectors.toCollection(LinkedHashSet::new));
 
     if (!plugins.isEmpty()) {
-      Location location = Locations.getLocationFromAbsolutePath(locationFactory, artifactData.getLocationPath());
-      ArtifactDescriptor descriptor = new ArtifactDescriptor(artifactId.toArtifactId(), location);
-      result.put(descriptor, plugins);
+      result.put(artifactDetail.getDescriptor(), plugins);
     }
     return result;
   }
 
-  // this method examines all plugins in the given row and checks if they extend the given parent artifact
+  /**
+   * Returns all versions of the artifact stored in the given row, in the order of the columns.
+   * The decoded row is cached until the next change made through this store.
+   */
+  private List<ArtifactDetail> getArtifacts(Table table, ArtifactKey artifactKey,
+                                            long generation) throws IOException {
+    byte[] rowKey = artifactKey.getRowKey();
+    String cacheKey = Bytes.toString(rowKey);
+    List<ArtifactDetail> artifacts = artifactCache.get(cacheKey);
+    if (artifacts == null) {
+      artifacts = getArtifacts(table.get(rowKey), Integer.MAX_VALUE, ArtifactSortOrder.UNORDERED, null);
+      artifactCache.put(cacheKey, artifacts, generation);
+    }
+    return artifacts;
+  }
+
+  /**
+   * Returns the plugins stored in the given row, in the order of the columns. The column is the id of the
+   * artifact that contains the plugin. The decoded row is cached until the next change made through this store.
+   */
+  private List<ImmutablePair<Id.Artifact, PluginData>> getPlugins(Table table, byte[] rowKey, long generation) {
+    String cacheKey = Bytes.toString(rowKey);
+    List<ImmutablePair<Id.Artifact, PluginData>> plugins = pluginCache.get(cacheKey);
+    if (plugins == null) {
+      List<ImmutablePair<Id.Artifact, PluginData>> decoded = new ArrayList<>();
+      decodePlugins(table.get(rowKey), decoded);
+      plugins = Collections.unmodifiableList(decoded);
+      pluginCache.put(cacheKey, plugins, generation);
+    }
+    return plugins;
+  }
+
+  /**
+   * Returns the plugins stored in all the rows of the given scan, in the order of the rows and columns.
+   * The decoded rows are cached until the next change made through this store.
+   */
+  private List<ImmutablePair<Id.Artifact, PluginData>> getPlugins(Table table, Scan scan, long generation) {
+    // The rowkey ends with ':', hence it never clashes with the rowkey of a single plugin
+    String cacheKey = Bytes.toString(scan.getStartRow());
+    List<ImmutablePair<Id.Artifact, PluginData>> plugins = pluginCache.get(cacheKey);
+    if (plugins == null) {
+      List<ImmutablePair<Id.Artifact, PluginData>> decoded = new ArrayList<>();
+      try (Scanner scanner = table.scan(scan)) {
+        Row row;
+        while ((row = scanner.next()) != null) {
+          decodePlugins(row, decoded);
+        }
+      }
+      plugins = Collections.unmodifiableList(decoded);
+      pluginCache.put(cacheKey, plugins, generation);
+    }
+    return plugins;
+  }
+
+  private void decodePlugins(Row row, List<ImmutablePair<Id.Artifact, PluginData>> plugins) {
+    if (row.isEmpty()) {
+      return;
+    }
+    // column is the artifact namespace, name, and version. value is the serialized PluginData
+    for (Map.Entry<byte[], byte[]> column : row.getColumns().entrySet()) {
+      ArtifactColumn artifactColumn = ArtifactColumn.parse(column.getKey());
+      PluginData pluginData = GSON.fromJson(Bytes.toString(column.getValue()), PluginData.class);
+      plugins.add(ImmutablePair.of(artifactColumn.artifactId, pluginData));
+    }
+  }
+
+  private void invalidateCaches() {
+    pluginCache.invalidateAll();
+    artifactCache.invalidateAll();
+  }
+
+  // this method examines all the given plugins and checks if they extend the given parent artifact
   // and are from an artifact in the given namespace.
   // if so, information about the plugin artifact and the plugin details are added to the given map.
   private void addPluginsToMap(NamespaceId namespace, Id.Artifact parentArtifactId,
                                SortedMap<ArtifactDescriptor, Set<PluginClass>> map,
-                               Row row) throws IOException {
-    // column is the artifact namespace, name, and version. value is the serialized PluginData
-    for (Map.Entry<byte[], byte[]> column : row.getColumns().entrySet()) {
-      ImmutablePair<ArtifactDescriptor, PluginClass> pluginEntry = getPluginEntry(namespace, parentArtifactId, column);
+                               List<ImmutablePair<Id.Artifact, PluginData>> plugins) {
+    for (ImmutablePair<Id.Artifact, PluginData> plugin : plugins) {
+      ImmutablePair<ArtifactDescriptor, PluginClass> pluginEntry = getPluginEntry(namespace, parentArtifactId, plugin);
       if (pluginEntry != null) {
         ArtifactDescriptor artifactDescriptor = pluginEntry.getFirst();
         if (!map.containsKey(artifactDescriptor)) {
@@ -967,27 +1062,27 @@ public class ArtifactStore {
   }
 
   /**
-   * Decode the PluginClass from the table column if it is from an artifact in the given namespace and
+   * Returns the plugin artifact and the PluginClass if the plugin is from an artifact in the given namespace and
    * extends the given parent artifact. If the plugin's artifact is not in the given namespace, or it does not
    * extend the given parent artifact, return null.
    */
   private ImmutablePair<ArtifactDescriptor, PluginClass> getPluginEntry(NamespaceId namespace,
                                                                         Id.Artifact parentArtifactId,
-                                                                        Map.Entry<byte[], byte[]> column) {
-    // column is the artifact namespace, name, and version. value is the serialized PluginData
-    ArtifactColumn artifactColumn = ArtifactColumn.parse(column.getKey());
-    Id.Namespace artifactNamespace = artifactColumn.artifactId.getNamespace();
+                                                                        ImmutablePair<Id.Artifact,
+                                                                          PluginData> plugin) {
+    Id.Artifact pluginArtifactId = plugin.getFirst();
+    Id.Namespace artifactNamespace = pluginArtifactId.getNamespace();
     // filter out plugins whose artifacts are not in the system namespace and not in this namespace
     if (!Id.Namespace.SYSTEM.equals(artifactNamespace) &&
       !artifactNamespace.equals(Id.Namespace.fromEntityId(namespace))) {
       return null;
     }
-    PluginData pluginData = GSON.fromJson(Bytes.toString(column.getValue()), PluginData.class);
+    PluginData pluginData = plugin.getSecond();
 
     // filter out plugins that don't extend this version of the parent artifact
     if (pluginData.isUsableBy(parentArtifactId.toEntityId())) {
       ArtifactDescriptor artifactDescriptor = new ArtifactDescriptor(
-        artifactColumn.artifactId.toArtifactId(),
+        pluginArtifactId.toArtifactId(),
         Locations.getLocationFromAbsolutePath(locationFactory, pluginData.getArtifactLocationPath()));
       return ImmutablePair.of(artifactDescriptor, pluginData.pluginClass);
     }
@@ -995,7 +1090,7 @@ public class ArtifactStore {
   }
 
   private void addPluginsInRangeToMap(final NamespaceId namespace, List<Id.Artifact> parentArtifacts,
-                                      Map<byte[], byte[]> columns,
+                                      List<ImmutablePair<Id.Artifact, PluginData>> candidates,
                                       SortedMap<ArtifactDescriptor, PluginClass> plugins,
                                       @Nullable Predicate<co.cask.cdap.proto.id.ArtifactId> range,
                                       int limit) {
@@ -1005,20 +1100,19 @@ public class ArtifactStore {
       ? range
       : input -> NamespaceId.SYSTEM.equals(input.getParent()) || input.getParent().equals(namespace);
 
-    for (Map.Entry<byte[], byte[]> column : columns.entrySet()) {
-      // column is the artifact namespace, name, and version. value is the serialized PluginData
-      ArtifactColumn artifactColumn = ArtifactColumn.parse(column.getKey());
+    for (ImmutablePair<Id.Artifact, PluginData> candidate : candidates) {
+      Id.Artifact pluginArtifactId = candidate.getFirst();
 
-      if (!range.test(artifactColumn.artifactId.toEntityId())) {
+      if (!range.test(pluginArtifactId.toEntityId())) {
         continue;
       }
-      PluginData pluginData = GSON.fromJson(Bytes.toString(column.getValue()), PluginData.class);
+      PluginData pluginData = candidate.getSecond();
 
       // filter out plugins that don't extend this version of the parent artifact
       for (Id.Artifact parentArtifactId : parentArtifacts) {
         if (pluginData.isUsableBy(parentArtifactId.toEntityId())) {
           plugins.put(new ArtifactDescriptor(
-            artifactColumn.artifactId.toArtifactId(),
+            pluginArtifactId.toArtifactId(),
             Locations.getLocationFromAbsolutePath(locationFactory, pluginData.getArtifactLocationPath())),
                       pluginData.pluginClass);
           break;
@@ -50,6 +50,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -87,10 +88,12 @@ public class AuthorizationArtifactRepository implements ArtifactRepository {
   @Override
   public void clear(NamespaceId namespace) throws Exception {
     List<ArtifactSummary> artifacts = delegate.getArtifactSummaries(namespace, false);
+    Set<ArtifactId> artifactIds = new HashSet<>();
     for (ArtifactSummary artifactSummary : artifacts) {
-      authorizationEnforcer.enforce(namespace.artifact(artifactSummary.getName(), artifactSummary.getVersion()),
-                                    authenticationContext.getPrincipal(), Action.ADMIN);
+      artifactIds.add(namespace.artifact(artifactSummary.getName(), artifactSummary.getVersion()));
     }
+    authorizationEnforcer.enforce(artifactIds, authenticationContext.getPrincipal(),
+                                  Collections.singleton(Action.ADMIN));
     delegate.clear(namespace);
   }
 
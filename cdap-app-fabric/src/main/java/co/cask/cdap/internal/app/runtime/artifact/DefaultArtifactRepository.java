@@ -35,6 +35,7 @@ import co.cask.cdap.common.conf.ArtifactConfigReader;
 import co.cask.cdap.common.conf.CConfiguration;
 import co.cask.cdap.common.conf.Constants;
 import co.cask.cdap.common.id.Id;
+import co.cask.cdap.common.io.Locations;
 import co.cask.cdap.common.utils.DirUtils;
 import co.cask.cdap.common.utils.ImmutablePair;
 import co.cask.cdap.data2.metadata.store.MetadataStore;
@@ -53,14 +54,19 @@ import com.google.common.base.Function;
 import com.google.common.base.Joiner;
 import com.google.common.base.Predicate;
 import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
 import com.google.common.io.Closeables;
 import com.google.common.io.Files;
 import com.google.inject.Inject;
+import org.apache.twill.common.Threads;
 import org.apache.twill.filesystem.Location;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -75,6 +81,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import javax.annotation.Nullable;
 
 /**
@@ -90,15 +101,17 @@ public class DefaultArtifactRepository implements ArtifactRepository {
   private final ArtifactConfigReader configReader;
   private final MetadataStore metadataStore;
   private final Impersonator impersonator;
+  private final int inspectionThreads;
 
   @VisibleForTesting
   @Inject
   public DefaultArtifactRepository(CConfiguration cConf, ArtifactStore artifactStore, MetadataStore metadataStore,
                                    ProgramRunnerFactory programRunnerFactory,
-                                   Impersonator impersonator) {
+                                   Impersonator impersonator, UnpackedArtifactCache unpackedArtifactCache) {
     this.artifactStore = artifactStore;
-    this.artifactClassLoaderFactory = new ArtifactClassLoaderFactory(cConf, programRunnerFactory);
-    this.artifactInspector = new ArtifactInspector(cConf, artifactClassLoaderFactory);
+    this.artifactClassLoaderFactory = new ArtifactClassLoaderFactory(cConf, programRunnerFactory,
+                                                                     unpackedArtifactCache);
+    this.artifactInspector = new ArtifactInspector(cConf, artifactClassLoaderFactory, unpackedArtifactCache);
     this.systemArtifactDirs = new HashSet<>();
     String systemArtifactsDir = cConf.get(Constants.AppFabric.SYSTEM_ARTIFACTS_DIR);
     if (!Strings.isNullOrEmpty(systemArtifactsDir)) {
@@ -121,6 +134,7 @@ public class DefaultArtifactRepository implements ArtifactRepository {
     this.configReader = new ArtifactConfigReader();
     this.metadataStore = metadataStore;
     this.impersonator = impersonator;
+    this.inspectionThreads = cConf.getInt(Constants.AppFabric.ARTIFACT_INSPECTION_THREADS);
   }
 
   @Override
@@ -386,22 +400,55 @@ public class DefaultArtifactRepository implements ArtifactRepository {
       }
     }
 
-    // loop until there is no change
-    boolean nochange = false;
-    while (!remainingArtifacts.isEmpty() && !nochange) {
-      // add all artifacts that don't have any more parents
-      Set<Id.Artifact> addedArtifacts = new HashSet<>();
-      for (Id.Artifact remainingArtifact : remainingArtifacts) {
-        if (!childToParents.containsKey(remainingArtifact)) {
-          addSystemArtifact(systemArtifacts.get(remainingArtifact));
-          addedArtifacts.add(remainingArtifact);
-          for (Id.Artifact child : parentToChildren.get(remainingArtifact)) {
-            childToParents.remove(child, remainingArtifact);
+    Multimap<Id.Artifact, Id.Artifact> childToParentsCopy = HashMultimap.create(childToParents);
+
+    // Artifacts that don't depend on each other are inspected in parallel
+    ExecutorService executor = Executors.newFixedThreadPool(
+      Math.max(1, inspectionThreads), Threads.createDaemonThreadFactory("system-artifact-loader-%d"));
+    try {
+      // artifacts that were written to the store, which requires their children to be inspected again
+      Set<Id.Artifact> writtenArtifacts = new HashSet<>();
+      // loop until there is no change
+      boolean nochange = false;
+      while (!remainingArtifacts.isEmpty() && !nochange) {
+        // add all artifacts that don't have any more parents
+        Set<Id.Artifact> addedArtifacts = new HashSet<>();
+        Map<Id.Artifact, Future<Boolean>> futures = new HashMap<>();
+        for (Id.Artifact remainingArtifact : remainingArtifacts) {
+          if (!childToParents.containsKey(remainingArtifact)) {
+            final SystemArtifactInfo systemArtifactInfo = systemArtifacts.get(remainingArtifact);
+            final boolean parentWritten = !Collections.disjoint(writtenArtifacts,
+                                                                 childToParentsCopy.get(remainingArtifact));
+            futures.put(remainingArtifact, executor.submit(new Callable<Boolean>() {
+              @Override
+              public Boolean call() throws Exception {
+                return addSystemArtifact(systemArtifactInfo, parentWritten);
+              }
+            }));
+            addedArtifacts.add(remainingArtifact);
+          }
+        }
+        for (Map.Entry<Id.Artifact, Future<Boolean>> entry : futures.entrySet()) {
+          try {
+            if (entry.getValue().get()) {
+              writtenArtifacts.add(entry.getKey());
+            }
+          } catch (ExecutionException e) {
+            Throwables.propagateIfPossible(e.getCause(), Exception.class);
+            throw Throwables.propagate(e.getCause());
+          }
+        }
+        // Only remove the parents after they are all added, so that children are added in the next round
+        for (Id.Artifact addedArtifact : addedArtifacts) {
+          for (Id.Artifact child : parentToChildren.get(addedArtifact)) {
+            childToParents.remove(child, addedArtifact);
           }
         }
+        remainingArtifacts.removeAll(addedArtifacts);
+        nochange = addedArtifacts.isEmpty();
       }
-      remainingArtifacts.removeAll(addedArtifacts);
-      nochange = addedArtifacts.isEmpty();
+    } finally {
+      executor.shutdownNow();
     }
 
     if (!remainingArtifacts.isEmpty()) {
@@ -434,20 +481,32 @@ public class DefaultArtifactRepository implements ArtifactRepository {
       });
   }
 
-  private void addSystemArtifact(SystemArtifactInfo systemArtifactInfo) throws Exception {
+  /**
+   * Adds the given system artifact to the store.
+   *
+   * @param systemArtifactInfo the system artifact to add
+   * @param parentWritten whether any parent of the artifact has been written to the store in this round of loading
+   * @return {@code true} if the artifact was written to the store
+   */
+  private boolean addSystemArtifact(SystemArtifactInfo systemArtifactInfo, boolean parentWritten) throws Exception {
     String fileName = systemArtifactInfo.getArtifactFile().getName();
     try {
       Id.Artifact artifactId = systemArtifactInfo.getArtifactId();
 
-      // if it's not a snapshot and it already exists, don't bother trying to add it since artifacts are immutable
-      if (!artifactId.getVersion().isSnapshot()) {
-        try {
-          artifactStore.getArtifact(artifactId);
+      // if it's not a snapshot and it already exists, don't bother trying to add it since artifacts are immutable.
+      // if it's a snapshot, only add it again if the jar, the config or any of the parents has been changed.
+      try {
+        ArtifactDetail existing = artifactStore.getArtifact(artifactId);
+        if (!artifactId.getVersion().isSnapshot()) {
           LOG.info("Artifact {} already exists, will not try loading it again.", artifactId);
-          return;
-        } catch (ArtifactNotFoundException e) {
-          // this is fine, means it doesn't exist yet and we should add it
+          return false;
+        }
+        if (!parentWritten && isUnchanged(existing, systemArtifactInfo)) {
+          LOG.info("Snapshot artifact {} has not been changed, will not try loading it again.", artifactId);
+          return false;
         }
+      } catch (ArtifactNotFoundException e) {
+        // this is fine, means it doesn't exist yet and we should add it
       }
 
       addArtifact(artifactId,
@@ -456,6 +515,7 @@ public class DefaultArtifactRepository implements ArtifactRepository {
                   systemArtifactInfo.getConfig().getPlugins(),
                   systemArtifactInfo.getConfig().getProperties());
       LOG.info("Added system artifact {}.", artifactId);
+      return true;
     } catch (ArtifactAlreadyExistsException e) {
       // shouldn't happen... but if it does for some reason it's fine, it means it was added some other way already.
     } catch (ArtifactRangeNotFoundException e) {
@@ -465,6 +525,30 @@ public class DefaultArtifactRepository implements ArtifactRepository {
     } catch (UnauthorizedException e) {
       LOG.warn("Could not add system artifact '{}' because of an authorization error.", fileName, e);
     }
+    return false;
+  }
+
+  /**
+   * Returns whether the given existing artifact was added from the same jar content and config as the given
+   * system artifact. The artifact store keeps the inspection result of the existing artifact, hence there is no
+   * need to inspect the system artifact again.
+   */
+  private boolean isUnchanged(ArtifactDetail existing, SystemArtifactInfo systemArtifactInfo) throws IOException {
+    ArtifactMeta meta = existing.getMeta();
+    ArtifactConfig config = systemArtifactInfo.getConfig();
+    if (!meta.getUsableBy().equals(config.getParents())
+      || !meta.getProperties().equals(config.getProperties())
+      || !meta.getClasses().getPlugins().containsAll(config.getPlugins())) {
+      return false;
+    }
+
+    File artifactFile = systemArtifactInfo.getArtifactFile();
+    Location location = existing.getDescriptor().getLocation();
+    if (!location.exists() || location.length() != artifactFile.length()) {
+      return false;
+    }
+    HashCode existingChecksum = ByteStreams.hash(Locations.newInputSupplier(location), Hashing.sha256());
+    return existingChecksum.equals(Files.hash(artifactFile, Hashing.sha256()));
   }
 
   private ArtifactClasses inspectArtifact(Id.Artifact artifactId, File artifactFile,
@@ -0,0 +1,380 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.internal.app.runtime.artifact;
+
+import co.cask.cdap.api.artifact.ArtifactId;
+import co.cask.cdap.common.conf.CConfiguration;
+import co.cask.cdap.common.conf.Constants;
+import co.cask.cdap.common.lang.jar.BundleJarUtil;
+import co.cask.cdap.common.utils.DirUtils;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.apache.twill.filesystem.Location;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import java.util.zip.ZipFile;
+import javax.annotation.Nullable;
+
+/**
+ * A node local cache of unpacked artifact jars. It is shared by program runs, plugin ClassLoaders and
+ * artifact inspection, so that the same jar is only unpacked once instead of once per usage.
+ *
+ * Entries are keyed by the artifact id, or the jar location if the id is not known, together with the SHA-256 of
+ * the jar content. Copies of the same artifact jar at different locations share the same entry, while a jar that got
+ * replaced, for example by redeploying a SNAPSHOT artifact, gets a new entry. Each entry is reference counted by the
+ * {@link UnpackedArtifact} acquired from it. Entries not in use are evicted in least recently used order when the
+ * total size of the unpacked directories exceeds the configured maximum.
+ *
+ * The cache directory is persistent. On construction, directories unpacked by a previous process are registered as
+ * unused entries in the order of their modification time and are reused, since the key identifies the jar content.
+ * Staging and evicted directories left by a process that got killed are deleted. The unpacked directory is shared,
+ * hence it must only be read from.
+ *
+ * This class is not bound as a Guice singleton by itself. It is only bound by the CDAP master and the local app-fabric
+ * modules, such that program runners in containers don't pick it up through optional injection.
+ */
+public class UnpackedArtifactCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(UnpackedArtifactCache.class);
+  private static final int BUFFER_SIZE = 64 * 1024;
+  // Names of the unpacked directories, which are the hex encoded SHA-256 keys
+  private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+  private final File cacheDir;
+  private final long maxSize;
+  // Access ordered for LRU eviction. Guarded by this.
+  private final Map<String, Entry> entries;
+  private long totalSize;
+
+  public UnpackedArtifactCache(CConfiguration cConf) {
+    this(new File(cConf.get(Constants.CFG_LOCAL_DATA_DIR),
+                  cConf.get(Constants.AppFabric.UNPACKED_ARTIFACT_CACHE_DIR)).getAbsoluteFile(),
+         cConf.getLong(Constants.AppFabric.UNPACKED_ARTIFACT_CACHE_MAX_SIZE_MB) * 1024L * 1024L);
+  }
+
+  @VisibleForTesting
+  UnpackedArtifactCache(File cacheDir, long maxSize) {
+    this.cacheDir = cacheDir;
+    this.maxSize = maxSize;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    recover();
+    evict();
+  }
+
+  /**
+   * Registers the unpacked directories left by a previous process as unused entries, with the least recently
+   * modified first, and deletes the staging and evicted directories that are left over.
+   */
+  private void recover() {
+    File[] files = cacheDir.listFiles();
+    if (files == null) {
+      return;
+    }
+    Arrays.sort(files, new Comparator<File>() {
+      @Override
+      public int compare(File f1, File f2) {
+        return Long.compare(f1.lastModified(), f2.lastModified());
+      }
+    });
+
+    for (File file : files) {
+      if (!file.isDirectory()) {
+        if (!file.delete()) {
+          LOG.warn("Failed to delete file {} in unpacked artifact cache", file);
+        }
+        continue;
+      }
+      if (!KEY_PATTERN.matcher(file.getName()).matches()) {
+        // Staging or evicted directory left by a previous process
+        LOG.debug("Deleting left over directory {} in unpacked artifact cache", file);
+        deleteQuietly(file);
+        continue;
+      }
+      try {
+        Entry entry = new Entry(file.getName());
+        entry.size = getSize(file);
+        entry.dir = file;
+        entries.put(entry.key, entry);
+        totalSize += entry.size;
+      } catch (IOException e) {
+        LOG.warn("Failed to compute the size of unpacked directory {}. Deleting it.", file, e);
+        deleteQuietly(file);
+      }
+    }
+    LOG.debug("Recovered {} unpacked artifacts with {} bytes in {}", entries.size(), totalSize, cacheDir);
+  }
+
+  /**
+   * Returns an {@link UnpackedArtifact} for the artifact jar at the given location. Same as calling
+   * {@link #acquire(ArtifactId, Location)} without an artifact id, hence the entry is only shared by the same location.
+   */
+  public UnpackedArtifact acquire(Location artifactLocation) throws IOException {
+    return acquire(null, artifactLocation);
+  }
+
+  /**
+   * Returns an {@link UnpackedArtifact} for the given artifact jar. The jar is unpacked if it is not in the cache yet.
+   * The returned {@link UnpackedArtifact} must be closed when the unpacked directory is no longer used.
+   *
+   * @param artifactId id of the artifact or {@code null} if it is not known
+   * @param artifactLocation location of the artifact jar
+   * @return an {@link UnpackedArtifact} providing the unpacked directory
+   * @throws IOException if failed to read or unpack the artifact jar
+   */
+  public UnpackedArtifact acquire(@Nullable ArtifactId artifactId, Location artifactLocation) throws IOException {
+    String key = getKey(artifactId, artifactLocation);
+
+    Entry entry;
+    synchronized (this) {
+      entry = entries.get(key);
+      if (entry == null) {
+        entry = new Entry(key);
+        entries.put(key, entry);
+      }
+      entry.refCount++;
+    }
+
+    boolean unpacked = false;
+    try {
+      unpack(entry, artifactLocation);
+      unpacked = true;
+    } finally {
+      if (!unpacked) {
+        release(entry);
+      }
+    }
+
+    evict();
+    return new UnpackedArtifact(entry);
+  }
+
+  /**
+   * Returns the total size in bytes of all unpacked directories in the cache.
+   */
+  @VisibleForTesting
+  synchronized long getTotalSize() {
+    return totalSize;
+  }
+
+  /**
+   * Unpacks the artifact jar for the given entry if it is not yet unpacked.
+   */
+  private void unpack(Entry entry, Location artifactLocation) throws IOException {
+    synchronized (entry) {
+      if (entry.dir != null) {
+        LOG.trace("Using cached unpacked directory {} for artifact {}", entry.dir, artifactLocation);
+        return;
+      }
+
+      // The directory is only created by renaming a fully unpacked directory, hence it can be reused if it exists,
+      // for example if it was unpacked by a previous process.
+      File dir = new File(cacheDir, entry.key);
+      if (dir.isDirectory()) {
+        LOG.debug("Reusing unpacked directory {} for artifact {}", dir, artifactLocation);
+      } else {
+        Stopwatch stopwatch = new Stopwatch().start();
+        File stageDir = DirUtils.createTempDir(cacheDir);
+        try {
+          validateJar(artifactLocation);
+          BundleJarUtil.unJar(artifactLocation, stageDir);
+          // Unpack to a staging directory and then rename, so that a partially unpacked directory is never used
+          Files.move(stageDir.toPath(), dir.toPath());
+        } catch (IOException e) {
+          deleteQuietly(stageDir);
+          throw e;
+        }
+        LOG.debug("Unpacked artifact {} to {} in {} ms",
+                  artifactLocation, dir, stopwatch.elapsedTime(TimeUnit.MILLISECONDS));
+      }
+
+      long size = getSize(dir);
+      synchronized (this) {
+        entry.size = size;
+        entry.dir = dir;
+        totalSize += size;
+      }
+    }
+  }
+
+  /**
+   * Releases one reference to the given entry.
+   */
+  private void release(Entry entry) {
+    synchronized (this) {
+      entry.refCount--;
+      // Remove the entry if it failed to unpack and no one else is using it
+      if (entry.dir == null && entry.refCount == 0 && entries.get(entry.key) == entry) {
+        entries.remove(entry.key);
+      }
+    }
+    evict();
+  }
+
+  /**
+   * Evicts entries that are not in use, in least recently used order, until the total size is within the maximum.
+   */
+  private void evict() {
+    List<File> evicted = new ArrayList<>();
+    synchronized (this) {
+      Iterator<Entry> iterator = entries.values().iterator();
+      while (totalSize > maxSize && iterator.hasNext()) {
+        Entry entry = iterator.next();
+        if (entry.refCount > 0 || entry.dir == null) {
+          continue;
+        }
+        iterator.remove();
+        totalSize -= entry.size;
+
+        // Move the directory out of the way, so that the same artifact can be unpacked again
+        // while the evicted directory is being deleted.
+        File trashDir = DirUtils.createTempDir(cacheDir);
+        try {
+          Files.move(entry.dir.toPath(), new File(trashDir, entry.key).toPath());
+          evicted.add(trashDir);
+        } catch (IOException e) {
+          LOG.debug("Failed to move evicted directory {}. Deleting it directly.", entry.dir, e);
+          deleteQuietly(entry.dir);
+          deleteQuietly(trashDir);
+        }
+      }
+    }
+
+    for (File dir : evicted) {
+      deleteQuietly(dir);
+    }
+  }
+
+  /**
+   * Computes the key of an artifact jar, which is the SHA-256 of the artifact id, or the location if the id is not
+   * known, followed by the full content of the jar.
+   */
+  private String getKey(@Nullable ArtifactId artifactId, Location artifactLocation) throws IOException {
+    String identity = artifactId == null ? "location:" + artifactLocation.toURI() : "artifact:" + artifactId;
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putInt(identity.length()).putString(identity);
+
+    byte[] buffer = new byte[BUFFER_SIZE];
+    try (InputStream is = artifactLocation.getInputStream()) {
+      int len = is.read(buffer);
+      while (len >= 0) {
+        hasher.putBytes(buffer, 0, len);
+        len = is.read(buffer);
+      }
+    }
+    return hasher.hash().toString();
+  }
+
+  /**
+   * Validates a local jar file by reading its central directory, since unpacking a stream of an invalid jar
+   * silently results in an empty directory.
+   */
+  private static void validateJar(Location artifactLocation) throws IOException {
+    URI uri = artifactLocation.toURI();
+    if ("file".equals(uri.getScheme())) {
+      new ZipFile(new File(uri)).close();
+    }
+  }
+
+  private static long getSize(File dir) throws IOException {
+    final long[] size = new long[1];
+    Files.walkFileTree(dir.toPath(), new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+        size[0] += attrs.size();
+        return FileVisitResult.CONTINUE;
+      }
+    });
+    return size[0];
+  }
+
+  private static void deleteQuietly(File dir) {
+    try {
+      if (dir.exists()) {
+        DirUtils.deleteDirectoryContents(dir);
+      }
+    } catch (IOException e) {
+      LOG.warn("Failed to delete directory {}", dir, e);
+    }
+  }
+
+  /**
+   * A cache entry. The {@link #refCount} and {@link #size} are guarded by the cache. The {@link #dir} is only
+   * set once while holding both the entry and the cache lock.
+   */
+  private static final class Entry {
+    private final String key;
+    private volatile File dir;
+    private long size;
+    private int refCount;
+
+    Entry(String key) {
+      this.key = key;
+    }
+  }
+
+  /**
+   * A reference to an unpacked artifact directory in the cache. The directory will not be evicted until this
+   * is closed.
+   */
+  public final class UnpackedArtifact implements Closeable {
+
+    private final Entry entry;
+    private final AtomicBoolean closed;
+
+    private UnpackedArtifact(Entry entry) {
+      this.entry = entry;
+      this.closed = new AtomicBoolean();
+    }
+
+    /**
+     * Returns the directory that the artifact jar was unpacked to.
+     */
+    public File getDirectory() {
+      return entry.dir;
+    }
+
+    @Override
+    public void close() {
+      if (closed.compareAndSet(false, true)) {
+        release(entry);
+      }
+    }
+  }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright © 2014 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.internal.app.runtime.flow;
+
+import co.cask.cdap.api.annotation.Batch;
+import co.cask.cdap.api.flow.flowlet.Flowlet;
+import co.cask.cdap.api.flow.flowlet.InputContext;
+import co.cask.cdap.app.queue.InputDatum;
+import co.cask.cdap.internal.asm.ByteCodeClassLoader;
+import co.cask.cdap.internal.asm.ClassDefinition;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.reflect.TypeToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Iterator;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Represents a {@link ProcessMethod} that invokes the user process method through a {@link ProcessMethodInvoker}.
+ * The invoker calls the method directly with a class generated by {@link ProcessMethodInvokerGenerator}, and falls
+ * back to reflection if the method cannot be called by the generated class.
+ *
+ * @param <T> Type of input accepted by this process method.
+ */
+@NotThreadSafe
+public final class DefaultProcessMethod<T> implements ProcessMethod<T> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DefaultProcessMethod.class);
+
+  private final Flowlet flowlet;
+  private final Method method;
+  private final ProcessMethodInvoker invoker;
+  private final boolean hasParam;
+  private final boolean batch;
+  private final boolean needsIterator;
+  private final int maxRetries;
+
+  public static <T> DefaultProcessMethod<T> create(Flowlet flowlet, Method method, int maxRetries) {
+    return new DefaultProcessMethod<>(flowlet, method, createInvoker(flowlet, method), maxRetries);
+  }
+
+  /**
+   * Creates an instance that always invokes the process method through reflection.
+   */
+  static <T> DefaultProcessMethod<T> createReflection(Flowlet flowlet, Method method, int maxRetries) {
+    return new DefaultProcessMethod<>(flowlet, method, new ReflectionInvoker(method), maxRetries);
+  }
+
+  private DefaultProcessMethod(Flowlet flowlet, Method method, ProcessMethodInvoker invoker, int maxRetries) {
+    this.flowlet = flowlet;
+    this.method = method;
+    this.invoker = invoker;
+    this.maxRetries = maxRetries;
+
+    this.hasParam = method.getGenericParameterTypes().length > 0;
+    this.batch = method.isAnnotationPresent(Batch.class);
+    this.needsIterator = hasParam &&
+      TypeToken.of(method.getGenericParameterTypes()[0]).getRawType().equals(Iterator.class);
+  }
+
+  @Override
+  public boolean needsInput() {
+    return hasParam;
+  }
+
+  @Override
+  public int getMaxRetries() {
+    return maxRetries;
+  }
+
+  @Override
+  public ProcessResult<T> invoke(InputDatum<T> input) {
+    try {
+      Preconditions.checkState(!hasParam || input.needProcess(), "Empty input provided to method that needs input.");
+      InputContext inputContext = input.getInputContext();
+
+      if (hasParam) {
+        if (needsIterator) {
+          invoker.invoke(flowlet, input.iterator(), inputContext);
+        } else {
+          for (T event : input) {
+            invoker.invoke(flowlet, event, inputContext);
+          }
+        }
+      } else {
+        invoker.invoke(flowlet, null, inputContext);
+      }
+
+      return createResult(input, null);
+    } catch (Throwable t) {
+      return createResult(input, t);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return flowlet.getClass() + "." + method.toString();
+  }
+
+  /**
+   * Returns {@code true} if the process method is invoked through a generated class instead of reflection.
+   */
+  boolean isGenerated() {
+    return !(invoker instanceof ReflectionInvoker);
+  }
+
+  /**
+   * Creates a {@link ProcessMethodInvoker} for the given method. It uses a generated class that calls the method
+   * directly if possible, otherwise it uses reflection.
+   */
+  private static ProcessMethodInvoker createInvoker(Flowlet flowlet, Method method) {
+    try {
+      ClassDefinition classDef = new ProcessMethodInvokerGenerator().generate(flowlet.getClass(), method);
+
+      // The ClassLoader of the generated invoker has CDAP system ClassLoader as parent.
+      // The flowlet class and the parameter classes are preserved in the ClassDefinition.
+      ByteCodeClassLoader classLoader = new ByteCodeClassLoader(DefaultProcessMethod.class.getClassLoader());
+      classLoader.addClass(classDef);
+      return (ProcessMethodInvoker) classLoader.loadClass(classDef.getClassName()).newInstance();
+    } catch (Throwable t) {
+      LOG.debug("Failed to generate invoker for process method {}. Fallback to use reflection.", method, t);
+      return new ReflectionInvoker(method);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private ProcessResult<T> createResult(InputDatum<T> input, Throwable failureCause) {
+    // If the method has param, then object for the result would be iterator or the first event (batch vs no-batch)
+    T event = hasParam ? (batch ? (T) input.iterator() : input.iterator().next()) : null;
+    return new DefaultProcessResult<>(event, failureCause);
+  }
+
+  /**
+   * A {@link ProcessMethodInvoker} that calls the process method through reflection.
+   */
+  private static final class ReflectionInvoker implements ProcessMethodInvoker {
+
+    private final Method method;
+    private final boolean hasParam;
+    private final boolean needContext;
+
+    ReflectionInvoker(Method method) {
+      this.method = method;
+      this.hasParam = method.getGenericParameterTypes().length > 0;
+      this.needContext = method.getGenericParameterTypes().length == 2;
+
+      if (!this.method.isAccessible()) {
+        this.method.setAccessible(true);
+      }
+    }
+
+    @Override
+    public void invoke(Flowlet flowlet, @Nullable Object event, InputContext inputContext) throws Exception {
+      try {
+        if (!hasParam) {
+          method.invoke(flowlet);
+        } else if (needContext) {
+          method.invoke(flowlet, event, inputContext);
+        } else {
+          method.invoke(flowlet, event);
+        }
+      } catch (InvocationTargetException e) {
+        // Rethrow the exception raised by the process method, the same as a direct call would
+        Throwables.propagateIfPossible(e.getCause(), Exception.class);
+        throw Throwables.propagate(e.getCause());
+      }
+    }
+  }
+
+  private static final class DefaultProcessResult<V> implements ProcessResult<V> {
+
+    private final V event;
+    private final Throwable cause;
+
+    private DefaultProcessResult(V event, Throwable cause) {
+      this.event = event;
+      this.cause = cause;
+    }
+
+    @Override
+    public V getEvent() {
+      return event;
+    }
+
+    @Override
+    public boolean isSuccess() {
+      return cause == null;
+    }
+
+    @Override
+    public Throwable getCause() {
+      return cause;
+    }
+  }
+}
@@ -56,12 +56,17 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 /**
- * This class responsible invoking process methods of a {@link Flowlet}.
+ * This class responsible invoking process methods of a {@link Flowlet}. Each driver invokes process methods
+ * of one {@link FlowletProcessWorker} in a single thread. It periodically emits the percentage of time the
+ * thread spent on processing as the {@code process.thread.<threadId>.utilization} gauge.
  */
 final class FlowletProcessDriver extends AbstractExecutionThreadService {
 
   private static final Logger LOG = LoggerFactory.getLogger(FlowletProcessDriver.class);
+  private static final long UTILIZATION_REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
 
+  private final int threadId;
+  private final String utilizationMetric;
   private final BasicFlowletContext flowletContext;
   private final DataFabricFacade dataFabricFacade;
   private final Callback txCallback;
@@ -70,16 +75,18 @@ final class FlowletProcessDriver extends AbstractExecutionThreadService {
 
   private Thread runThread;
   private ExecutorService processExecutor;
-
-  FlowletProcessDriver(BasicFlowletContext flowletContext,
-                       DataFabricFacade dataFabricFacade,
-                       Callback txCallback,
-                       Collection<? extends ProcessSpecification<?>> processSpecifications) {
-    this.flowletContext = flowletContext;
-    this.dataFabricFacade = dataFabricFacade;
-    this.txCallback = txCallback;
+  private long utilizationStartNanos;
+  private long busyNanos;
+
+  FlowletProcessDriver(FlowletProcessWorker worker) {
+    this.threadId = worker.getThreadId();
+    this.utilizationMetric = "process.thread." + threadId + ".utilization";
+    this.flowletContext = worker.getFlowletContext();
+    this.dataFabricFacade = worker.getDataFabricFacade();
+    this.txCallback = worker.getTxCallback();
     this.loggingContext = flowletContext.getLoggingContext();
 
+    Collection<? extends ProcessSpecification<?>> processSpecifications = worker.getProcessSpecs();
     processQueue = new PriorityQueue<>(processSpecifications.size());
     for (ProcessSpecification<?> spec : processSpecifications) {
       processQueue.offer(FlowletProcessEntry.create(spec));
@@ -93,6 +100,8 @@ final class FlowletProcessDriver extends AbstractExecutionThreadService {
     // The state of other FlowletProcessDriver must be stopped.
     Preconditions.checkArgument(other.state() == State.TERMINATED, "FlowletProcessDriver is not terminated");
 
+    this.threadId = other.threadId;
+    this.utilizationMetric = other.utilizationMetric;
     this.flowletContext = other.flowletContext;
     this.dataFabricFacade = other.dataFabricFacade;
     this.txCallback = other.txCallback;
@@ -103,7 +112,8 @@ final class FlowletProcessDriver extends AbstractExecutionThreadService {
 
   @Override
   protected String getServiceName() {
-    return getClass().getSimpleName() + "-" + flowletContext.getName() + "-" + flowletContext.getInstanceId();
+    return getClass().getSimpleName() + "-" + flowletContext.getName() + "-" + flowletContext.getInstanceId()
+      + (threadId == 0 ? "" : "-" + threadId);
   }
 
   @Override
@@ -131,7 +141,9 @@ final class FlowletProcessDriver extends AbstractExecutionThreadService {
     List<FlowletProcessEntry<?>> processList = Lists.newArrayListWithExpectedSize(processQueue.size() * 2);
     Runnable processRunner = createProcessRunner(processQueue, processList,
                                                  flowletContext.getProgramInvocationClassLoader());
+    utilizationStartNanos = System.nanoTime();
     while (isRunning()) {
+      reportUtilization();
       try {
         // If the queue head need to wait, we had to wait.
         processQueue.peek().await();
@@ -145,6 +157,7 @@ final class FlowletProcessDriver extends AbstractExecutionThreadService {
       drainQueue(processQueue, processList);
 
       // Execute the process method and block until it finished.
+      long processStartNanos = System.nanoTime();
       Future<?> processFuture = processExecutor.submit(processRunner);
       while (!processFuture.isDone()) {
         try {
@@ -168,7 +181,22 @@ final class FlowletProcessDriver extends AbstractExecutionThreadService {
           }
         }
       }
+      busyNanos += System.nanoTime() - processStartNanos;
+    }
+  }
+
+  /**
+   * Emits the utilization of the process thread if the report interval has passed since the last report.
+   */
+  private void reportUtilization() {
+    long now = System.nanoTime();
+    long elapsed = now - utilizationStartNanos;
+    if (elapsed < UTILIZATION_REPORT_INTERVAL_NANOS) {
+      return;
     }
+    flowletContext.getProgramMetrics().gauge(utilizationMetric, busyNanos * 100 / elapsed);
+    utilizationStartNanos = now;
+    busyNanos = 0;
   }
 
   private void drainQueue(PriorityQueue<FlowletProcessEntry<?>> queue,
@@ -0,0 +1,79 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.internal.app.runtime.flow;
+
+import co.cask.cdap.api.flow.flowlet.Callback;
+import co.cask.cdap.api.flow.flowlet.Flowlet;
+import co.cask.cdap.internal.app.runtime.DataFabricFacade;
+
+import java.util.Collection;
+
+/**
+ * Carries everything needed for invoking process methods of a {@link Flowlet} in one thread of a flowlet instance.
+ *
+ * Each thread has its own {@link Flowlet} object and {@link BasicFlowletContext}, hence its own datasets, queue
+ * producers and queue consumers. This is the same as service handlers, which have one handler object and one context
+ * per thread. It is needed because all transaction aware objects of a context participate in every transaction
+ * started from it, so they cannot be used by concurrent transactions.
+ */
+final class FlowletProcessWorker {
+
+  private final int threadId;
+  private final Flowlet flowlet;
+  private final BasicFlowletContext flowletContext;
+  private final DataFabricFacade dataFabricFacade;
+  private final Callback txCallback;
+  private final Collection<? extends ProcessSpecification<?>> processSpecs;
+
+  FlowletProcessWorker(int threadId, Flowlet flowlet, BasicFlowletContext flowletContext,
+                       DataFabricFacade dataFabricFacade, Callback txCallback,
+                       Collection<? extends ProcessSpecification<?>> processSpecs) {
+    this.threadId = threadId;
+    this.flowlet = flowlet;
+    this.flowletContext = flowletContext;
+    this.dataFabricFacade = dataFabricFacade;
+    this.txCallback = txCallback;
+    this.processSpecs = processSpecs;
+  }
+
+  /**
+   * Returns the id of the process thread in the flowlet instance, starting from {@code 0}.
+   */
+  int getThreadId() {
+    return threadId;
+  }
+
+  Flowlet getFlowlet() {
+    return flowlet;
+  }
+
+  BasicFlowletContext getFlowletContext() {
+    return flowletContext;
+  }
+
+  DataFabricFacade getDataFabricFacade() {
+    return dataFabricFacade;
+  }
+
+  Callback getTxCallback() {
+    return txCallback;
+  }
+
+  Collection<? extends ProcessSpecification<?>> getProcessSpecs() {
+    return processSpecs;
+  }
+}
@@ -26,6 +26,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
+import java.util.List;
 
 /**
  * A {@link co.cask.cdap.app.runtime.ProgramController} for controlling a running flowlet.
@@ -35,19 +36,23 @@ final class FlowletProgramController extends AbstractProgramController {
   private static final Logger LOG = LoggerFactory.getLogger(FlowletProgramController.class);
 
   private final BasicFlowletContext flowletContext;
+  private final List<BasicFlowletContext> flowletContexts;
   private final FlowletRuntimeService driver;
   private final Collection<ProducerSupplier> producerSuppliers;
   private final Collection<ConsumerSupplier<?>> consumerSuppliers;
 
   /**
    * Constructs an instance. The instance must be constructed before the flowlet driver starts.
+   *
+   * @param flowletContexts contexts of all process threads of the flowlet instance
    */
   FlowletProgramController(String flowletName,
-                           BasicFlowletContext flowletContext, FlowletRuntimeService driver,
+                           List<BasicFlowletContext> flowletContexts, FlowletRuntimeService driver,
                            Collection<ProducerSupplier> producerSuppliers,
                            Collection<ConsumerSupplier<?>> consumerSuppliers) {
-    super(flowletContext.getProgramRunId(), flowletName);
-    this.flowletContext = flowletContext;
+    super(flowletContexts.get(0).getProgramRunId(), flowletName);
+    this.flowletContext = flowletContexts.get(0);
+    this.flowletContexts = flowletContexts;
     this.driver = driver;
     this.producerSuppliers = producerSuppliers;
     this.consumerSuppliers = consumerSuppliers;
@@ -94,7 +99,9 @@ final class FlowletProgramController extends AbstractProgramController {
       for (ConsumerSupplier consumerSupplier : consumerSuppliers) {
         Closeables.closeQuietly(consumerSupplier);
       }
-      flowletContext.close();
+      for (BasicFlowletContext context : flowletContexts) {
+        context.close();
+      }
     }
     LOG.info("Flowlet stopped: " + flowletContext);
   }
@@ -108,7 +115,9 @@ final class FlowletProgramController extends AbstractProgramController {
     }
     int instances = (Integer) value;
     LOG.info("Change flowlet instance count: " + flowletContext + ", new count is " + instances);
-    changeInstanceCount(flowletContext, instances);
+    for (BasicFlowletContext context : flowletContexts) {
+      changeInstanceCount(context, instances);
+    }
     LOG.info("Flowlet instance count changed: " + flowletContext + ", new count is " + instances);
   }
 
@@ -76,6 +76,7 @@ import co.cask.cdap.internal.app.runtime.DataSetFieldSetter;
 import co.cask.cdap.internal.app.runtime.MetricsFieldSetter;
 import co.cask.cdap.internal.app.runtime.ProgramOptionConstants;
 import co.cask.cdap.internal.app.runtime.ProgramRunners;
+import co.cask.cdap.internal.app.runtime.SystemArguments;
 import co.cask.cdap.internal.io.DatumWriterFactory;
 import co.cask.cdap.internal.io.ReflectionDatumReader;
 import co.cask.cdap.internal.io.SchemaGenerator;
@@ -115,11 +116,17 @@ import java.io.IOException;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
@@ -182,7 +189,7 @@ public final class FlowletProgramRunner implements ProgramRunner {
   @SuppressWarnings("unchecked")
   @Override
   public ProgramController run(Program program, ProgramOptions options) {
-    BasicFlowletContext flowletContext = null;
+    List<BasicFlowletContext> flowletContexts = new ArrayList<>();
     try {
       // Extract and verify parameters
       String flowletName = options.getProgramId().getProgram();
@@ -224,95 +231,154 @@ public final class FlowletProgramRunner implements ProgramRunner {
 
       Class<? extends Flowlet> flowletClass = (Class<? extends Flowlet>) clz;
 
-      // Creates flowlet context
-      flowletContext = new BasicFlowletContext(program, options, flowletId, instanceId, instanceCount,
-                                               flowletDef.getDatasets(), flowletDef.getFlowletSpec(),
-                                               metricsCollectionService, discoveryServiceClient, txClient,
-                                               dsFramework, secureStore, secureStoreManager, messageService, cConf);
-
-      // Creates tx related objects
-      DataFabricFacade dataFabricFacade =
-        dataFabricFacadeFactory.create(program, flowletContext.getDatasetCache());
-      if (dataFabricFacade instanceof ProgramContextAware) {
-        ((ProgramContextAware) dataFabricFacade).setContext(programContext);
-      }
-
       // Creates QueueSpecification
       Table<Node, String, Set<QueueSpecification>> queueSpecs =
         new SimpleQueueSpecificationGenerator(new ApplicationId(program.getNamespaceId(), program.getApplicationId()))
           .create(flowSpec);
 
-      Flowlet flowlet = new InstantiatorFactory(false).get(TypeToken.of(flowletClass)).create();
-      TypeToken<? extends Flowlet> flowletType = TypeToken.of(flowletClass);
-
-      // Set the context classloader to the cdap classloader. It is needed for the DatumWriterFactory be able
-      // to load cdap classes
-      Thread.currentThread().setContextClassLoader(FlowletProgramRunner.class.getClassLoader());
-
-      // Inject DataSet, OutputEmitter, Metric fields
+      // Assign the input queues to process threads, such that each queue is only consumed by one thread
+      List<Set<QueueName>> threadQueues = assignInputQueues(queueSpecs.column(flowletName).values(),
+                                                            options, flowletId);
+      SchemaCache schemaCache = createSchemaCache(program);
       ImmutableList.Builder<ProducerSupplier> queueProducerSupplierBuilder = ImmutableList.builder();
-      Reflections.visit(flowlet, flowlet.getClass(),
-                        new PropertyFieldSetter(flowletDef.getFlowletSpec().getProperties()),
-                        new DataSetFieldSetter(flowletContext),
-                        new MetricsFieldSetter(flowletContext.getMetrics()),
-                        new OutputEmitterFieldSetter(outputEmitterFactory(flowletContext, flowletName,
-                                                                          dataFabricFacade,
-                                                                          queueProducerSupplierBuilder,
-                                                                          queueSpecs)));
-
       ImmutableList.Builder<ConsumerSupplier<?>> queueConsumerSupplierBuilder = ImmutableList.builder();
-      Collection<ProcessSpecification<?>> processSpecs =
-        createProcessSpecification(flowletContext, flowletType,
-                                   processMethodFactory(flowlet),
-                                   processSpecificationFactory(flowletContext, dataFabricFacade, queueReaderFactory,
-                                                               flowletName, queueSpecs, queueConsumerSupplierBuilder,
-                                                               createSchemaCache(program)),
-                                   Lists.<ProcessSpecification<?>>newLinkedList());
+      List<FlowletProcessWorker> workers = new ArrayList<>();
+
+      for (int threadId = 0; threadId < threadQueues.size(); threadId++) {
+        // Creates flowlet context
+        BasicFlowletContext flowletContext =
+          new BasicFlowletContext(program, options, flowletId, instanceId, instanceCount,
+                                  flowletDef.getDatasets(), flowletDef.getFlowletSpec(),
+                                  metricsCollectionService, discoveryServiceClient, txClient,
+                                  dsFramework, secureStore, secureStoreManager, messageService, cConf);
+        flowletContexts.add(flowletContext);
+
+        // Creates tx related objects
+        DataFabricFacade dataFabricFacade =
+          dataFabricFacadeFactory.create(program, flowletContext.getDatasetCache());
+        if (dataFabricFacade instanceof ProgramContextAware) {
+          ((ProgramContextAware) dataFabricFacade).setContext(programContext);
+        }
+
+        Flowlet flowlet = new InstantiatorFactory(false).get(TypeToken.of(flowletClass)).create();
+        TypeToken<? extends Flowlet> flowletType = TypeToken.of(flowletClass);
+
+        // Set the context classloader to the cdap classloader. It is needed for the DatumWriterFactory be able
+        // to load cdap classes
+        Thread.currentThread().setContextClassLoader(FlowletProgramRunner.class.getClassLoader());
+
+        // Inject DataSet, OutputEmitter, Metric fields
+        Reflections.visit(flowlet, flowlet.getClass(),
+                          new PropertyFieldSetter(flowletDef.getFlowletSpec().getProperties()),
+                          new DataSetFieldSetter(flowletContext),
+                          new MetricsFieldSetter(flowletContext.getMetrics()),
+                          new OutputEmitterFieldSetter(outputEmitterFactory(flowletContext, flowletName,
+                                                                            dataFabricFacade,
+                                                                            queueProducerSupplierBuilder,
+                                                                            queueSpecs)));
+
+        // Only the first thread invokes tick methods, and each thread only consumes the queues assigned to it
+        Collection<ProcessSpecification<?>> processSpecs =
+          createProcessSpecification(flowletContext, flowletType,
+                                     processMethodFactory(flowlet),
+                                     processSpecificationFactory(flowletContext, dataFabricFacade, queueReaderFactory,
+                                                                 flowletName, queueSpecs, threadQueues.get(threadId),
+                                                                 queueConsumerSupplierBuilder, schemaCache),
+                                     threadId == 0,
+                                     Lists.<ProcessSpecification<?>>newLinkedList());
+
+        workers.add(new FlowletProcessWorker(threadId, flowlet, flowletContext, dataFabricFacade,
+                                             createCallback(flowlet, flowletDef.getFlowletSpec()), processSpecs));
+      }
       List<ConsumerSupplier<?>> consumerSuppliers = queueConsumerSupplierBuilder.build();
 
       // Create the flowlet driver
       AtomicReference<FlowletProgramController> controllerRef = new AtomicReference<>();
       Service serviceHook = createServiceHook(flowletName, consumerSuppliers, controllerRef);
-      FlowletRuntimeService driver = new FlowletRuntimeService(flowlet, flowletContext, processSpecs,
-                                                             createCallback(flowlet, flowletDef.getFlowletSpec()),
-                                                             dataFabricFacade, serviceHook);
+      FlowletRuntimeService driver = new FlowletRuntimeService(workers, serviceHook);
 
       FlowletProgramController controller = new FlowletProgramController(flowletName,
-                                                                         flowletContext, driver,
+                                                                         flowletContexts, driver,
                                                                          queueProducerSupplierBuilder.build(),
                                                                          consumerSuppliers);
       controllerRef.set(controller);
 
-      LOG.info("Starting flowlet: {}", flowletContext);
+      LOG.info("Starting flowlet: {}", flowletContexts.get(0));
       driver.start();
-      LOG.info("Flowlet started: {}", flowletContext);
+      LOG.info("Flowlet started: {}", flowletContexts.get(0));
 
       return controller;
 
     } catch (Exception e) {
       // something went wrong before the flowlet even started. Make sure we release all resources (datasets, ...)
-      // of the flowlet context.
-      if (flowletContext != null) {
+      // of the flowlet contexts.
+      for (BasicFlowletContext flowletContext : flowletContexts) {
         flowletContext.close();
       }
       throw Throwables.propagate(e);
     }
   }
 
+  /**
+   * Assigns the input queues of a flowlet instance to process threads. The number of threads is determined by the
+   * {@link SystemArguments#FLOWLET_PROCESS_THREADS} runtime argument, and is capped by the number of input queues,
+   * since a queue is always consumed by one thread to preserve the processing order of the queue partition
+   * owned by the flowlet instance.
+   *
+   * @return a list with one element per process thread, each containing the queues to be consumed by that thread;
+   *         if there is only one thread, the element is {@code null} to indicate all queues are consumed by it
+   */
+  private List<Set<QueueName>> assignInputQueues(Collection<Set<QueueSpecification>> inputQueueSpecs,
+                                                 ProgramOptions options, FlowletId flowletId) {
+    // Sort the queue names so that the assignment is deterministic
+    SortedSet<QueueName> queueNames = new TreeSet<>(new Comparator<QueueName>() {
+      @Override
+      public int compare(QueueName o1, QueueName o2) {
+        return o1.toString().compareTo(o2.toString());
+      }
+    });
+    for (QueueSpecification queueSpec : Iterables.concat(inputQueueSpecs)) {
+      queueNames.add(queueSpec.getQueueName());
+    }
+
+    int requestedThreads = SystemArguments.getFlowletProcessThreads(options.getUserArguments().asMap());
+    int threads = Math.max(1, Math.min(requestedThreads, queueNames.size()));
+    if (threads < requestedThreads) {
+      LOG.warn("Using {} process threads for flowlet {} instead of {}, since it only has {} input queues. " +
+                 "Increase the number of flowlet instances to process a single input queue in parallel.",
+               threads, flowletId, requestedThreads, queueNames.size());
+    }
+    if (threads == 1) {
+      return Collections.<Set<QueueName>>singletonList(null);
+    }
+
+    List<Set<QueueName>> assignments = new ArrayList<>(threads);
+    for (int i = 0; i < threads; i++) {
+      assignments.add(new HashSet<QueueName>());
+    }
+    int idx = 0;
+    for (QueueName queueName : queueNames) {
+      assignments.get(idx++ % threads).add(queueName);
+    }
+    LOG.debug("Input queues assigned to process threads of flowlet {}: {}", flowletId, assignments);
+    return assignments;
+  }
+
   /**
    * Creates all {@link ProcessSpecification} for the process methods of the flowlet class.
    *
    * @param flowletType Type of the flowlet class represented by {@link TypeToken}.
    * @param processMethodFactory A {@link ProcessMethodFactory} for creating {@link ProcessMethod}.
    * @param processSpecFactory A {@link ProcessSpecificationFactory} for creating {@link ProcessSpecification}.
+   * @param includeTicks Whether to create {@link ProcessSpecification} for tick methods.
    * @param result A {@link Collection} for storing newly created {@link ProcessSpecification}.
    * @return The same {@link Collection} as the {@code result} parameter.
    */
   @SuppressWarnings("unchecked")
   private <T extends Collection<ProcessSpecification<?>>> T createProcessSpecification(
     BasicFlowletContext flowletContext, TypeToken<? extends Flowlet> flowletType,
-    ProcessMethodFactory processMethodFactory, ProcessSpecificationFactory processSpecFactory, T result)
-    throws Exception {
+    ProcessMethodFactory processMethodFactory, ProcessSpecificationFactory processSpecFactory,
+    boolean includeTicks, T result) throws Exception {
 
     Set<FlowletMethod> seenMethods = Sets.newHashSet();
 
@@ -341,6 +407,9 @@ public final class FlowletProgramRunner implements ProgramRunner {
           // Neither a process nor a tick method.
           continue;
         }
+        if (tickAnnotation != null && !includeTicks) {
+          continue;
+        }
 
         int maxRetries = (tickAnnotation == null) ? processInputAnnotation.maxRetries() : tickAnnotation.maxRetries();
 
@@ -547,7 +616,7 @@ public final class FlowletProgramRunner implements ProgramRunner {
     return new ProcessMethodFactory() {
       @Override
       public <T> ProcessMethod<T> create(Method method, int maxRetries) {
-        return ReflectionProcessMethod.create(flowlet, method, maxRetries);
+        return DefaultProcessMethod.create(flowlet, method, maxRetries);
       }
     };
   }
@@ -556,6 +625,7 @@ public final class FlowletProgramRunner implements ProgramRunner {
     final BasicFlowletContext flowletContext, final DataFabricFacade dataFabricFacade,
     final QueueReaderFactory queueReaderFactory, final String flowletName,
     final Table<Node, String, Set<QueueSpecification>> queueSpecs,
+    @Nullable final Set<QueueName> inputQueues,
     final ImmutableList.Builder<ConsumerSupplier<?>> queueConsumerSupplierBuilder,
     final SchemaCache schemaCache) {
 
@@ -569,6 +639,10 @@ public final class FlowletProgramRunner implements ProgramRunner {
         for (Map.Entry<Node, Set<QueueSpecification>> entry : queueSpecs.column(flowletName).entrySet()) {
           for (QueueSpecification queueSpec : entry.getValue()) {
             final QueueName queueName = queueSpec.getQueueName();
+            if (inputQueues != null && !inputQueues.contains(queueName)) {
+              // The queue is consumed by another process thread
+              continue;
+            }
 
             if (queueSpec.getInputSchema().equals(schema)
               && (inputNames.contains(queueName.getSimpleName())
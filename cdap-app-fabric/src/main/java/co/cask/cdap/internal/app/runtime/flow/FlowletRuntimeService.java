@@ -17,44 +17,37 @@
 package co.cask.cdap.internal.app.runtime.flow;
 
 import co.cask.cdap.api.annotation.TransactionControl;
-import co.cask.cdap.api.flow.flowlet.Callback;
 import co.cask.cdap.api.flow.flowlet.Flowlet;
 import co.cask.cdap.api.flow.flowlet.FlowletContext;
 import co.cask.cdap.common.logging.LoggingContextAccessor;
 import co.cask.cdap.data2.transaction.Transactions;
-import co.cask.cdap.internal.app.runtime.DataFabricFacade;
+import com.google.common.base.Preconditions;
 import com.google.common.util.concurrent.AbstractIdleService;
 import com.google.common.util.concurrent.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * This class represents lifecycle of a {@link Flowlet}, Start, Stop, Suspend and Resume.
+ * Process methods are invoked by one {@link FlowletProcessDriver} for each {@link FlowletProcessWorker}.
  */
 final class FlowletRuntimeService extends AbstractIdleService {
 
   private static final Logger LOG = LoggerFactory.getLogger(FlowletRuntimeService.class);
 
-  private final Flowlet flowlet;
+  private final List<FlowletProcessWorker> workers;
   private final BasicFlowletContext flowletContext;
-  private final Collection<? extends ProcessSpecification<?>> processSpecs;
-  private final Callback txCallback;
-  private final DataFabricFacade dataFabricFacade;
   private final Service serviceHook;
 
-  private FlowletProcessDriver flowletProcessDriver;
-
-  FlowletRuntimeService(Flowlet flowlet, BasicFlowletContext flowletContext,
-                        Collection<? extends ProcessSpecification<?>> processSpecs,
-                        Callback txCallback, DataFabricFacade dataFabricFacade,
-                        Service serviceHook) {
-    this.flowlet = flowlet;
-    this.flowletContext = flowletContext;
-    this.processSpecs = processSpecs;
-    this.txCallback = txCallback;
-    this.dataFabricFacade = dataFabricFacade;
+  private List<FlowletProcessDriver> flowletProcessDrivers;
+
+  FlowletRuntimeService(List<FlowletProcessWorker> workers, Service serviceHook) {
+    Preconditions.checkArgument(!workers.isEmpty(), "At least one flowlet process worker is required");
+    this.workers = workers;
+    this.flowletContext = workers.get(0).getFlowletContext();
     this.serviceHook = serviceHook;
   }
 
@@ -62,22 +55,33 @@ final class FlowletRuntimeService extends AbstractIdleService {
   protected void startUp() throws Exception {
     LoggingContextAccessor.setLoggingContext(flowletContext.getLoggingContext());
     flowletContext.getProgramMetrics().increment("process.instance", 1);
-    flowletProcessDriver = new FlowletProcessDriver(flowletContext, dataFabricFacade, txCallback, processSpecs);
+    flowletProcessDrivers = new ArrayList<>(workers.size());
+    for (FlowletProcessWorker worker : workers) {
+      flowletProcessDrivers.add(new FlowletProcessDriver(worker));
+    }
 
     serviceHook.startAndWait();
-    initFlowlet();
-    flowletProcessDriver.startAndWait();
-    LOG.info("Started Flowlet '{}' for Flow '{}'. Flowlet details: [{}]",
-             flowletContext.getFlowletId(), flowletContext.getFlowId(), flowletContext);
+    for (FlowletProcessWorker worker : workers) {
+      initFlowlet(worker);
+    }
+    for (FlowletProcessDriver driver : flowletProcessDrivers) {
+      driver.startAndWait();
+    }
+    LOG.info("Started Flowlet '{}' for Flow '{}' with {} process thread(s). Flowlet details: [{}]",
+             flowletContext.getFlowletId(), flowletContext.getFlowId(), workers.size(), flowletContext);
   }
 
   @Override
   protected void shutDown() throws Exception {
     LoggingContextAccessor.setLoggingContext(flowletContext.getLoggingContext());
-    if (flowletProcessDriver != null) {
-      stopService(flowletProcessDriver);
+    if (flowletProcessDrivers != null) {
+      for (FlowletProcessDriver driver : flowletProcessDrivers) {
+        stopService(driver);
+      }
+    }
+    for (FlowletProcessWorker worker : workers) {
+      destroyFlowlet(worker);
     }
-    destroyFlowlet();
     LOG.info("Stopped Flowlet '{}' Instance {} for Flow '{}'", flowletContext.getFlowletId(),
              flowletContext.getInstanceId(), flowletContext.getFlowId());
     stopService(serviceHook);
@@ -89,11 +93,17 @@ final class FlowletRuntimeService extends AbstractIdleService {
    * make sure thread safety.
    */
   void suspend() {
-    flowletProcessDriver.stopAndWait();
+    for (FlowletProcessDriver driver : flowletProcessDrivers) {
+      driver.stopAndWait();
+    }
 
     // After a FlowletProcessDriver stopped, it cannot be started again
     // Hence copying all states to a new instance and start it again on resuming.
-    flowletProcessDriver = new FlowletProcessDriver(flowletProcessDriver);
+    List<FlowletProcessDriver> drivers = new ArrayList<>(flowletProcessDrivers.size());
+    for (FlowletProcessDriver driver : flowletProcessDrivers) {
+      drivers.add(new FlowletProcessDriver(driver));
+    }
+    flowletProcessDrivers = drivers;
   }
 
   /**
@@ -102,24 +112,28 @@ final class FlowletRuntimeService extends AbstractIdleService {
    * make sure thread safety.
    */
   void resume() {
-    flowletProcessDriver.startAndWait();
+    for (FlowletProcessDriver driver : flowletProcessDrivers) {
+      driver.startAndWait();
+    }
   }
 
-  private void initFlowlet() throws Exception {
-    LOG.debug("Initializing flowlet: {}", flowletContext);
+  private void initFlowlet(FlowletProcessWorker worker) throws Exception {
+    BasicFlowletContext context = worker.getFlowletContext();
+    LOG.debug("Initializing flowlet: {}", context);
     TransactionControl txControl = Transactions.getTransactionControl(TransactionControl.IMPLICIT,
-                                                                       Flowlet.class, flowlet, "initialize",
-                                                                       FlowletContext.class);
-    flowletContext.initializeProgram(flowlet, txControl, false);
-    LOG.debug("Flowlet initialized: {}", flowletContext);
+                                                                       Flowlet.class, worker.getFlowlet(),
+                                                                       "initialize", FlowletContext.class);
+    context.initializeProgram(worker.getFlowlet(), txControl, false);
+    LOG.debug("Flowlet initialized: {}", context);
   }
 
-  private void destroyFlowlet() {
-    LOG.debug("Destroying flowlet: {}", flowletContext);
+  private void destroyFlowlet(FlowletProcessWorker worker) {
+    BasicFlowletContext context = worker.getFlowletContext();
+    LOG.debug("Destroying flowlet: {}", context);
     TransactionControl txControl = Transactions.getTransactionControl(TransactionControl.IMPLICIT,
-                                                                      Flowlet.class, flowlet, "destroy");
-    flowletContext.destroyProgram(flowlet, txControl, false);
-    LOG.debug("Flowlet destroyed: {}", flowletContext);
+                                                                      Flowlet.class, worker.getFlowlet(), "destroy");
+    context.destroyProgram(worker.getFlowlet(), txControl, false);
+    LOG.debug("Flowlet destroyed: {}", context);
   }
 
   /**
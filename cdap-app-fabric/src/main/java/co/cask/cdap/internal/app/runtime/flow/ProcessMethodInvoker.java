@@ -0,0 +1,41 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.internal.app.runtime.flow;
+
+import co.cask.cdap.api.flow.flowlet.Flowlet;
+import co.cask.cdap.api.flow.flowlet.InputContext;
+
+import java.util.Iterator;
+import javax.annotation.Nullable;
+
+/**
+ * Invokes a flowlet process method. This interface has to be public, since it is implemented by classes
+ * generated by {@link ProcessMethodInvokerGenerator}, which are defined in a different ClassLoader.
+ */
+public interface ProcessMethodInvoker {
+
+  /**
+   * Invokes the process method of the given flowlet.
+   *
+   * @param flowlet the flowlet instance to invoke the process method on
+   * @param event the event, or the {@link Iterator} of events, to be processed; it is {@code null} if the process
+   *              method has no parameter
+   * @param inputContext the {@link InputContext} of the event
+   * @throws Exception if the process method throws exception
+   */
+  void invoke(Flowlet flowlet, @Nullable Object event, InputContext inputContext) throws Exception;
+}
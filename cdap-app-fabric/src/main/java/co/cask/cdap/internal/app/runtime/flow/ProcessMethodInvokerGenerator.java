@@ -0,0 +1,145 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.internal.app.runtime.flow;
+
+import co.cask.cdap.api.flow.flowlet.Flowlet;
+import co.cask.cdap.api.flow.flowlet.InputContext;
+import co.cask.cdap.internal.asm.ClassDefinition;
+import co.cask.cdap.internal.asm.Methods;
+import com.google.common.base.Preconditions;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.commons.GeneratorAdapter;
+import org.objectweb.asm.commons.Method;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generate a class bytecode that implements {@link ProcessMethodInvoker} for a given flowlet process method.
+ * The generated class calls the process method directly, which avoids the cost of Java Reflection, such as
+ * argument array creation and access checks, for every event being processed.
+ *
+ * The generated class is loaded by a different ClassLoader than the flowlet class, hence it can only call public
+ * methods of public classes.
+ */
+final class ProcessMethodInvokerGenerator {
+
+  /**
+   * Generates the {@link ProcessMethodInvoker} class for the given process method.
+   *
+   * @param flowletClass the class of the flowlet
+   * @param method the process method
+   * @return the {@link ClassDefinition} of the generated class
+   * @throws IllegalArgumentException if the process method cannot be called directly by the generated class
+   */
+  ClassDefinition generate(Class<?> flowletClass, java.lang.reflect.Method method) {
+    Preconditions.checkArgument(isPublic(flowletClass) && isPublic(method.getDeclaringClass())
+                                  && Modifier.isPublic(method.getModifiers())
+                                  && !Modifier.isStatic(method.getModifiers()),
+                                "Process method %s of %s is not a public method of a public class",
+                                method, flowletClass);
+    Class<?>[] paramTypes = method.getParameterTypes();
+    Preconditions.checkArgument(paramTypes.length <= 2, "Process method %s has more than two parameters", method);
+
+    // The flowlet class and the parameter classes need to be preserved, since they are loaded by the user ClassLoader
+    List<Class<?>> preservedClasses = new ArrayList<>();
+    preservedClasses.add(flowletClass);
+    for (Class<?> paramType : paramTypes) {
+      while (paramType.isArray()) {
+        paramType = paramType.getComponentType();
+      }
+      Preconditions.checkArgument(paramType.isPrimitive() || isPublic(paramType),
+                                  "Parameter type %s of process method %s is not public", paramType, method);
+      // Classes loaded by bootstrap classloader are having null ClassLoader. They don't need to be preserved.
+      if (!paramType.isPrimitive() && paramType.getClassLoader() != null) {
+        preservedClasses.add(paramType);
+      }
+    }
+
+    String className = String.format("%s$GeneratedProcessMethodInvoker%s",
+                                     flowletClass.getName(), method.getName()).replace('.', '/');
+    ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+    classWriter.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC + Opcodes.ACC_FINAL, className, null,
+                      Type.getInternalName(Object.class),
+                      new String[] { Type.getInternalName(ProcessMethodInvoker.class) });
+
+    generateConstructor(classWriter);
+    generateInvoke(classWriter, flowletClass, method);
+
+    classWriter.visitEnd();
+    return new ClassDefinition(classWriter.toByteArray(), className, preservedClasses);
+  }
+
+  /**
+   * Generates the default constructor.
+   */
+  private void generateConstructor(ClassWriter classWriter) {
+    Method constructor = Methods.getMethod(void.class, "<init>");
+    GeneratorAdapter mg = new GeneratorAdapter(Opcodes.ACC_PUBLIC, constructor, null, null, classWriter);
+    mg.loadThis();
+    mg.invokeConstructor(Type.getType(Object.class), constructor);
+    mg.returnValue();
+    mg.endMethod();
+  }
+
+  /**
+   * Generates the {@link ProcessMethodInvoker#invoke(Flowlet, Object, InputContext)} method, which is
+   *
+   * <pre>{@code
+   * public void invoke(Flowlet flowlet, Object event, InputContext inputContext) throws Exception {
+   *   ((FlowletClass) flowlet).process((EventType) event, (InputContext) inputContext);
+   * }
+   * }</pre>
+   */
+  private void generateInvoke(ClassWriter classWriter, Class<?> flowletClass, java.lang.reflect.Method method) {
+    Method invoke = Methods.getMethod(void.class, "invoke", Flowlet.class, Object.class, InputContext.class);
+    GeneratorAdapter mg = new GeneratorAdapter(Opcodes.ACC_PUBLIC, invoke, null,
+                                               new Type[] { Type.getType(Exception.class) }, classWriter);
+    Type flowletType = Type.getType(flowletClass);
+    Class<?>[] paramTypes = method.getParameterTypes();
+
+    mg.loadArg(0);
+    mg.checkCast(flowletType);
+    for (int i = 0; i < paramTypes.length; i++) {
+      mg.loadArg(i + 1);
+      Type paramType = Type.getType(paramTypes[i]);
+      if (paramTypes[i].isPrimitive()) {
+        mg.unbox(paramType);
+      } else {
+        mg.checkCast(paramType);
+      }
+    }
+    mg.invokeVirtual(flowletType, Method.getMethod(method));
+
+    // Discard the return value, if any
+    Type returnType = Type.getReturnType(method);
+    if (returnType.getSize() == 2) {
+      mg.pop2();
+    } else if (returnType.getSize() == 1) {
+      mg.pop();
+    }
+    mg.returnValue();
+    mg.endMethod();
+  }
+
+  private boolean isPublic(Class<?> cls) {
+    return Modifier.isPublic(cls.getModifiers());
+  }
+}
@@ -34,6 +34,7 @@ import co.cask.cdap.common.lang.InstantiatorFactory;
 import co.cask.cdap.common.lang.jar.BundleJarUtil;
 import co.cask.cdap.common.utils.DirUtils;
 import co.cask.cdap.internal.app.runtime.artifact.Artifacts;
+import co.cask.cdap.internal.app.runtime.artifact.UnpackedArtifactCache;
 import co.cask.cdap.internal.lang.FieldVisitor;
 import co.cask.cdap.internal.lang.Fields;
 import co.cask.cdap.internal.lang.Reflections;
@@ -100,6 +101,8 @@ public class PluginInstantiator implements Closeable {
   private final File tmpDir;
   private final File pluginDir;
   private final ClassLoader parentClassLoader;
+  private final UnpackedArtifactCache unpackedArtifactCache;
+  private final List<Closeable> unpackedArtifacts;
 
   public PluginInstantiator(CConfiguration cConf, ClassLoader parentClassLoader, File pluginDir) {
     this(cConf, parentClassLoader, pluginDir, true);
@@ -107,7 +110,18 @@ public class PluginInstantiator implements Closeable {
 
   public PluginInstantiator(CConfiguration cConf, ClassLoader parentClassLoader, File pluginDir,
                             boolean filterClassloader) {
+    this(cConf, parentClassLoader, pluginDir, filterClassloader, null);
+  }
+
+  /**
+   * Creates an instance that expands plugin jars through the given {@link UnpackedArtifactCache}, or into
+   * its own temporary directory if the cache is {@code null}.
+   */
+  public PluginInstantiator(CConfiguration cConf, ClassLoader parentClassLoader, File pluginDir,
+                            boolean filterClassloader, @Nullable UnpackedArtifactCache unpackedArtifactCache) {
     this.instantiatorFactory = new InstantiatorFactory(false);
+    this.unpackedArtifactCache = unpackedArtifactCache;
+    this.unpackedArtifacts = Collections.synchronizedList(new ArrayList<Closeable>());
     File tmpDir = new File(cConf.get(Constants.CFG_LOCAL_DATA_DIR),
                            cConf.get(Constants.AppFabric.TEMP_DIR)).getAbsoluteFile();
 
@@ -380,6 +394,12 @@ public class PluginInstantiator implements Closeable {
     if (parentClassLoader instanceof Closeable) {
       Closeables.closeQuietly((Closeable) parentClassLoader);
     }
+    synchronized (unpackedArtifacts) {
+      for (Closeable unpackedArtifact : unpackedArtifacts) {
+        Closeables.closeQuietly(unpackedArtifact);
+      }
+      unpackedArtifacts.clear();
+    }
     try {
       DirUtils.deleteDirectoryContents(tmpDir);
     } catch (IOException e) {
@@ -431,9 +451,16 @@ public class PluginInstantiator implements Closeable {
 
     @Override
     public PluginClassLoader load(ClassLoaderKey key) throws Exception {
-      File unpackedDir = DirUtils.createTempDir(tmpDir);
       File artifact = new File(pluginDir, Artifacts.getFileName(key.artifact));
-      BundleJarUtil.unJar(Locations.toLocation(artifact), unpackedDir);
+      File unpackedDir;
+      if (unpackedArtifactCache == null) {
+        unpackedDir = BundleJarUtil.unJar(Locations.toLocation(artifact), DirUtils.createTempDir(tmpDir));
+      } else {
+        UnpackedArtifactCache.UnpackedArtifact unpackedArtifact =
+          unpackedArtifactCache.acquire(key.artifact, Locations.toLocation(artifact));
+        unpackedArtifacts.add(unpackedArtifact);
+        unpackedDir = unpackedArtifact.getDirectory();
+      }
 
       Iterator<ArtifactId> parentIter = key.parents.iterator();
       if (!parentIter.hasNext()) {
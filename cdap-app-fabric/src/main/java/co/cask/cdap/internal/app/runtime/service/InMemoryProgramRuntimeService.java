@@ -26,6 +26,7 @@ import co.cask.cdap.common.conf.CConfiguration;
 import co.cask.cdap.common.conf.Constants;
 import co.cask.cdap.internal.app.runtime.ProgramOptionConstants;
 import co.cask.cdap.internal.app.runtime.artifact.ArtifactRepository;
+import co.cask.cdap.internal.app.runtime.artifact.UnpackedArtifactCache;
 import co.cask.cdap.proto.InMemoryProgramLiveInfo;
 import co.cask.cdap.proto.NotRunningProgramLiveInfo;
 import co.cask.cdap.proto.ProgramLiveInfo;
@@ -64,8 +65,9 @@ public final class InMemoryProgramRuntimeService extends AbstractProgramRuntimeS
                                        @Named(AppFabricServiceRuntimeModule.NOAUTH_ARTIFACT_REPO)
                                          ArtifactRepository noAuthArtifactRepository,
                                        @Named(Constants.Service.MASTER_SERVICES_BIND_ADDRESS) InetAddress hostname,
-                                       ProgramStateWriter programStateWriter) {
-    super(cConf, programRunnerFactory, noAuthArtifactRepository, programStateWriter);
+                                       ProgramStateWriter programStateWriter,
+                                       UnpackedArtifactCache unpackedArtifactCache) {
+    super(cConf, programRunnerFactory, noAuthArtifactRepository, programStateWriter, unpackedArtifactCache);
     this.hostname = hostname.getCanonicalHostName();
   }
 
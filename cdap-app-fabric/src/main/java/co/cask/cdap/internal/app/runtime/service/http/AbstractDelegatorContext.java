@@ -33,6 +33,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -41,6 +42,13 @@ import java.util.concurrent.atomic.AtomicInteger;
  * together with the context capturing capability that is suitable for {@link HttpContentProducer} and
  * {@link HttpContentConsumer} use cases.
  *
+ * By default, each thread keeps its own user service handler instance, hence the number of handler instances
+ * is the same as the number of threads. If a maximum number of pooled handlers is given, handler instances
+ * are only associated with a thread for the duration of a request and are returned to a bounded pool
+ * through {@link #release()}. This allows running with a large number of threads for blocking handlers, without
+ * creating a handler instance per thread. Requests wait for a handler instance to be released when all of them
+ * are in use.
+ *
  * @param <T> type of the user service handler
  */
 public abstract class AbstractDelegatorContext<T> implements DelegatorContext<T>, Closeable {
@@ -52,11 +60,25 @@ public abstract class AbstractDelegatorContext<T> implements DelegatorContext<T>
   private final AtomicInteger handlerExecutorSize;
   private final MetricsContext programMetricsContext;
   private final MetricsContext handlerMetricsContext;
+  // Permits for handler instances in use if handler instances are pooled, otherwise null
+  private final Semaphore handlerPermits;
   private volatile boolean shutdown;
 
 
   protected AbstractDelegatorContext(TypeToken<T> handlerType, InstantiatorFactory instantiatorFactory,
                                      MetricsContext programMetricsContext, MetricsContext handlerMetricsContext) {
+    this(handlerType, instantiatorFactory, programMetricsContext, handlerMetricsContext, 0);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param maxPooledHandlers maximum number of user service handler instances if handler instances are released
+   *                          to a pool at the end of each request; or {@code 0} to keep one instance per thread
+   */
+  protected AbstractDelegatorContext(TypeToken<T> handlerType, InstantiatorFactory instantiatorFactory,
+                                     MetricsContext programMetricsContext, MetricsContext handlerMetricsContext,
+                                     int maxPooledHandlers) {
     this.handlerType = handlerType;
     this.instantiatorFactory = instantiatorFactory;
     this.programMetricsContext = programMetricsContext;
@@ -64,6 +86,7 @@ public abstract class AbstractDelegatorContext<T> implements DelegatorContext<T>
     this.handlerExecutorPool = new ConcurrentLinkedQueue<>();
     this.handlerExecutorCache = createHandlerTaskExecutorCache();
     this.handlerExecutorSize = new AtomicInteger();
+    this.handlerPermits = maxPooledHandlers > 0 ? new Semaphore(maxPooledHandlers) : null;
   }
 
   /**
@@ -97,9 +120,7 @@ public abstract class AbstractDelegatorContext<T> implements DelegatorContext<T>
     final AtomicBoolean cancelled = new AtomicBoolean(false);
     return () -> {
       if (cancelled.compareAndSet(false, true)) {
-        handlerExecutorPool.offer(executor);
-        // offer never return false for ConcurrentLinkedQueue
-        programMetricsContext.gauge("context.pool.size", handlerExecutorSize.incrementAndGet());
+        returnToPool(executor);
       } else {
         // This shouldn't happen, unless there is bug in the platform.
         // Since the context capture and release is a complicated logic, it's better throwing exception
@@ -109,6 +130,19 @@ public abstract class AbstractDelegatorContext<T> implements DelegatorContext<T>
     };
   }
 
+  @Override
+  public final void release() {
+    if (handlerPermits == null) {
+      return;
+    }
+    // The removal listener won't close the executor since it is an explicit removal from a live thread.
+    // The executor may not be there if it was captured.
+    HandlerTaskExecutor executor = handlerExecutorCache.asMap().remove(Thread.currentThread());
+    if (executor != null) {
+      returnToPool(executor);
+    }
+  }
+
   /**
    * Cleanup user service handler instances that are not longer in use.
    */
@@ -160,21 +194,47 @@ public abstract class AbstractDelegatorContext<T> implements DelegatorContext<T>
         // if the thread is no longer active, close the associated context.
         if (shutdown || notification.wasEvicted() || thread == null || !thread.isAlive()) {
           executor.close();
+          if (handlerPermits != null) {
+            handlerPermits.release();
+          }
         }
       })
       .build(new CacheLoader<Thread, HandlerTaskExecutor>() {
         @Override
         public HandlerTaskExecutor load(Thread key) throws Exception {
-          HandlerTaskExecutor executor = handlerExecutorPool.poll();
-          if (executor == null) {
-            return createTaskExecutor(instantiatorFactory);
+          if (handlerPermits != null) {
+            // Wait for a handler instance to be released if all of them are in use
+            handlerPermits.acquire();
+          }
+          try {
+            HandlerTaskExecutor executor = handlerExecutorPool.poll();
+            if (executor == null) {
+              return createTaskExecutor(instantiatorFactory);
+            }
+            programMetricsContext.gauge("context.pool.size", handlerExecutorSize.decrementAndGet());
+            return executor;
+          } catch (Exception e) {
+            if (handlerPermits != null) {
+              handlerPermits.release();
+            }
+            throw e;
           }
-          programMetricsContext.gauge("context.pool.size", handlerExecutorSize.decrementAndGet());
-          return executor;
         }
       });
   }
 
+  /**
+   * Returns the given {@link HandlerTaskExecutor} to the pool so that it can be used by other threads.
+   */
+  private void returnToPool(HandlerTaskExecutor executor) {
+    handlerExecutorPool.offer(executor);
+    // offer never return false for ConcurrentLinkedQueue
+    programMetricsContext.gauge("context.pool.size", handlerExecutorSize.incrementAndGet());
+    if (handlerPermits != null) {
+      handlerPermits.release();
+    }
+  }
+
 
   /**
    * Helper class for performing user service handler lifecycle calls as well as task execution.
@@ -102,7 +102,18 @@ public abstract class AbstractHttpHandlerDelegator<T> implements HttpHandler {
         // BodyProducerFactory won't be used.
         return new BodyProducerAdapter(contentProducer, taskExecutor, context.capture(), defaultTxControl);
       }
-    }, context.getServiceTaskExecutor(), metricsContext);
+    }, context.getServiceTaskExecutor(), metricsContext) {
+      @Override
+      public void execute(boolean keepAlive) {
+        try {
+          super.execute(keepAlive);
+        } finally {
+          // The request is completed, hence release the context. It is a no-op if the context was captured
+          // for the content producer.
+          context.release();
+        }
+      }
+    };
   }
 
   /**
@@ -90,6 +90,16 @@ public abstract class AbstractServiceHttpServer<T> extends AbstractIdleService {
     return instanceId;
   }
 
+  /**
+   * Returns the maximum number of user service handler instances for each handler class if they are pooled
+   * and released at the end of each request, or {@code 0} if each executor thread keeps its own handler instance.
+   *
+   * @see SystemArguments#SERVICE_HANDLER_POOL_SIZE
+   */
+  protected final int getHandlerPoolSize() {
+    return SystemArguments.getServiceHandlerPoolSize(programOptions.getUserArguments().asMap());
+  }
+
   protected abstract String getRoutingPathName();
 
   protected abstract LoggingContext getLoggingContext();
@@ -144,8 +154,8 @@ public abstract class AbstractServiceHttpServer<T> extends AbstractIdleService {
   @Override
   public void startUp() throws Exception {
     // All handlers of a Service run in the same Twill runnable and each Netty thread gets its own
-    // instance of a handler (and handlerContext). Creating the logging context here ensures that the logs
-    // during startup/shutdown and in each thread created are published.
+    // instance of a handler (and handlerContext), unless handler instances are pooled. Creating the logging
+    // context here ensures that the logs during startup/shutdown and in each thread created are published.
     LoggingContextAccessor.setLoggingContext(getLoggingContext());
 
     delegatorContexts.addAll(createDelegatorContexts());
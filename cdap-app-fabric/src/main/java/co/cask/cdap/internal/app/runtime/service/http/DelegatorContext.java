@@ -49,4 +49,13 @@ public interface DelegatorContext<T> {
    *         to be reused.
    */
   Cancellable capture();
+
+  /**
+   * Releases the {@link ServiceTaskExecutor} associated with the caller thread at the end of a request, so that it
+   * can be used by requests handled by other threads. Implementations that keep one user service handler instance
+   * per thread don't need to do anything, which is the default.
+   */
+  default void release() {
+    // no-op
+  }
 }
@@ -100,6 +100,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -501,10 +502,10 @@ public class ApplicationLifecycleService extends AbstractIdleService {
     List<ApplicationSpecification> allSpecs = new ArrayList<>(store.getAllApplications(namespaceId));
     Map<ApplicationId, ApplicationSpecification> apps = new HashMap<>();
     for (ApplicationSpecification appSpec : allSpecs) {
-      ApplicationId applicationId = namespaceId.app(appSpec.getName(), appSpec.getAppVersion());
-      authorizationEnforcer.enforce(applicationId, authenticationContext.getPrincipal(), Action.ADMIN);
-      apps.put(applicationId, appSpec);
+      apps.put(namespaceId.app(appSpec.getName(), appSpec.getAppVersion()), appSpec);
     }
+    authorizationEnforcer.enforce(apps.keySet(), authenticationContext.getPrincipal(),
+                                  Collections.singleton(Action.ADMIN));
 
     if (!runningPrograms.isEmpty()) {
       Set<String> activePrograms = new HashSet<>();
@@ -98,6 +98,7 @@ public class ServiceHttpServer extends AbstractServiceHttpServer<HttpServiceHand
     // Constructs all handler delegator. It is for bridging ServiceHttpHandler and HttpHandler (in netty-http).
     List<HandlerDelegatorContext> delegatorContexts = new ArrayList<>();
     InstantiatorFactory instantiatorFactory = new InstantiatorFactory(false);
+    int handlerPoolSize = getHandlerPoolSize();
 
     for (HttpServiceHandlerSpecification handlerSpec : serviceSpecification.getHandlers().values()) {
       Class<?> handlerClass = getProgram().getClassLoader().loadClass(handlerSpec.getClassName());
@@ -107,7 +108,7 @@ public class ServiceHttpServer extends AbstractServiceHttpServer<HttpServiceHand
       MetricsContext metrics = context.getProgramMetrics().childContext(
         BasicHttpServiceContext.createMetricsTags(handlerSpec, getInstanceId()));
       delegatorContexts.add(new HandlerDelegatorContext(type, instantiatorFactory, handlerSpec,
-                                                        contextFactory, metrics));
+                                                        contextFactory, metrics, handlerPoolSize));
     }
     return delegatorContexts;
 
@@ -165,8 +166,9 @@ public class ServiceHttpServer extends AbstractServiceHttpServer<HttpServiceHand
                                     InstantiatorFactory instantiatorFactory,
                                     HttpServiceHandlerSpecification spec,
                                     BasicHttpServiceContextFactory contextFactory,
-                                    MetricsContext handlerMetricsContext) {
-      super(handlerType, instantiatorFactory, context.getProgramMetrics(), handlerMetricsContext);
+                                    MetricsContext handlerMetricsContext,
+                                    int handlerPoolSize) {
+      super(handlerType, instantiatorFactory, context.getProgramMetrics(), handlerMetricsContext, handlerPoolSize);
       this.spec = spec;
       this.contextFactory = contextFactory;
     }
@@ -32,12 +32,12 @@ import co.cask.cdap.data.dataset.SystemDatasetInstantiatorFactory;
 import co.cask.cdap.data.view.ViewAdmin;
 import co.cask.cdap.data2.dataset2.DatasetFramework;
 import co.cask.cdap.data2.metadata.store.MetadataStore;
+import co.cask.cdap.data2.metadata.system.AbstractSystemMetadataWriter;
 import co.cask.cdap.data2.metadata.system.AppSystemMetadataWriter;
 import co.cask.cdap.data2.metadata.system.ArtifactSystemMetadataWriter;
 import co.cask.cdap.data2.metadata.system.DatasetSystemMetadataWriter;
 import co.cask.cdap.data2.metadata.system.ProgramSystemMetadataWriter;
 import co.cask.cdap.data2.metadata.system.StreamSystemMetadataWriter;
-import co.cask.cdap.data2.metadata.system.SystemMetadataWriter;
 import co.cask.cdap.data2.metadata.system.ViewSystemMetadataWriter;
 import co.cask.cdap.data2.transaction.stream.StreamAdmin;
 import co.cask.cdap.internal.app.runtime.artifact.ArtifactDetail;
@@ -59,11 +59,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.Callable;
 
 /**
- * Updates system metadata for existing entities.
+ * Updates system metadata for existing entities. All system metadata is rewritten along with its indexes, even if it
+ * didn't change, so that the indexes are regenerated during upgrade.
  */
 public class ExistingEntitySystemMetadataWriter {
   private static final Logger LOG = LoggerFactory.getLogger(ExistingEntitySystemMetadataWriter.class);
@@ -110,16 +113,16 @@ public class ExistingEntitySystemMetadataWriter {
                                                    artifactDetail.getMeta().getClasses(),
                                                    artifactDetail.getMeta().getProperties());
       ArtifactId artifactId = namespace.artifact(artifact.getName(), artifact.getVersion().getVersion());
-      SystemMetadataWriter writer = new ArtifactSystemMetadataWriter(metadataStore, artifactId, artifactInfo);
-      writer.write();
+      AbstractSystemMetadataWriter writer = new ArtifactSystemMetadataWriter(metadataStore, artifactId, artifactInfo);
+      writer.write(true);
     }
   }
 
   private void writeSystemMetadataForApps(NamespaceId namespace) {
     for (ApplicationSpecification appSpec : store.getAllApplications(namespace)) {
       ApplicationId app = namespace.app(appSpec.getName());
-      SystemMetadataWriter writer = new AppSystemMetadataWriter(metadataStore, app, appSpec);
-      writer.write();
+      AbstractSystemMetadataWriter writer = new AppSystemMetadataWriter(metadataStore, app, appSpec);
+      writer.write(true);
       writeSystemMetadataForPrograms(app, appSpec);
     }
   }
@@ -135,11 +138,12 @@ public class ExistingEntitySystemMetadataWriter {
 
   private void writeSystemMetadataForPrograms(ApplicationId app, ProgramType programType,
                                               Collection<? extends ProgramSpecification> programSpecs) {
+    List<ProgramSystemMetadataWriter> writers = new ArrayList<>(programSpecs.size());
     for (ProgramSpecification programSpec : programSpecs) {
       ProgramId programId = app.program(programType, programSpec.getName());
-      SystemMetadataWriter writer = new ProgramSystemMetadataWriter(metadataStore, programId, programSpec, true);
-      writer.write();
+      writers.add(new ProgramSystemMetadataWriter(metadataStore, programId, programSpec, true));
     }
+    AbstractSystemMetadataWriter.writeAll(metadataStore, writers, true);
   }
 
   private void writeSystemMetadataForDatasets(NamespaceId namespace, DatasetFramework dsFramework)
@@ -165,10 +169,10 @@ public class ExistingEntitySystemMetadataWriter {
             LOG.warn("Exception while instantiating dataset {}", dsInstance, e);
           }
 
-          SystemMetadataWriter writer =
+          AbstractSystemMetadataWriter writer =
             new DatasetSystemMetadataWriter(metadataStore, dsInstance, dsProperties, dataset, dsType,
                                             summary.getDescription());
-          writer.write();
+          writer.write(true);
         } finally {
           if (dataset != null) {
             dataset.close();
@@ -181,13 +185,13 @@ public class ExistingEntitySystemMetadataWriter {
   private void writeSystemMetadataForStreams(NamespaceId namespace) throws Exception {
     for (StreamSpecification streamSpec : store.getAllStreams(namespace)) {
       StreamId streamId = namespace.stream(streamSpec.getName());
-      SystemMetadataWriter writer =
+      AbstractSystemMetadataWriter writer =
         new StreamSystemMetadataWriter(metadataStore, streamId, streamAdmin.getConfig(streamId),
                                        streamSpec.getDescription());
-      writer.write();
+      writer.write(true);
       for (StreamViewId view : streamAdmin.listViews(streamId)) {
         writer = new ViewSystemMetadataWriter(metadataStore, view, viewAdmin.get(view), true);
-        writer.write();
+        writer.write(true);
       }
     }
   }
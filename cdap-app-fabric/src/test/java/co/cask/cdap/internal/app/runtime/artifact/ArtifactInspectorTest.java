@@ -66,8 +66,9 @@ public class ArtifactInspectorTest {
     CConfiguration cConf = CConfiguration.create();
     cConf.set(Constants.CFG_LOCAL_DATA_DIR, TMP_FOLDER.newFolder().getAbsolutePath());
 
-    classLoaderFactory = new ArtifactClassLoaderFactory(cConf, new DummyProgramRunnerFactory());
-    artifactInspector = new ArtifactInspector(cConf, classLoaderFactory);
+    UnpackedArtifactCache unpackedArtifactCache = new UnpackedArtifactCache(cConf);
+    classLoaderFactory = new ArtifactClassLoaderFactory(cConf, new DummyProgramRunnerFactory(), unpackedArtifactCache);
+    artifactInspector = new ArtifactInspector(cConf, classLoaderFactory, unpackedArtifactCache);
   }
 
   @Test(expected = InvalidArtifactException.class)
@@ -286,6 +286,66 @@ public class ArtifactRepositoryTest {
     }
   }
 
+  @Test
+  public void testUnchangedSnapshotSystemArtifacts() throws Exception {
+    Id.Artifact appArtifactId = Id.Artifact.from(Id.Namespace.SYSTEM, "PluginTest", "1.0.0-SNAPSHOT");
+    File appJar = createAppJar(PluginTestApp.class, new File(systemArtifactsDir1, "PluginTest-1.0.0-SNAPSHOT.jar"),
+                               createManifest(ManifestFields.EXPORT_PACKAGE,
+                                              PluginTestRunnable.class.getPackage().getName()));
+
+    Id.Artifact pluginArtifactId = Id.Artifact.from(Id.Namespace.SYSTEM, "APlugin", "1.0.0-SNAPSHOT");
+    Manifest manifest = createManifest(ManifestFields.EXPORT_PACKAGE, TestPlugin.class.getPackage().getName());
+    File pluginJar = createPluginJar(TestPlugin.class,
+                                     new File(systemArtifactsDir1, "APlugin-1.0.0-SNAPSHOT.jar"), manifest);
+    ArtifactConfig pluginConfig = new ArtifactConfig(
+      ImmutableSet.of(new ArtifactRange(NamespaceId.SYSTEM.getNamespace(), "PluginTest",
+                                        new ArtifactVersion("1.0.0-SNAPSHOT"), new ArtifactVersion("2.0.0"))),
+      ImmutableSet.<PluginClass>of(), ImmutableMap.of("k1", "v1"));
+    File pluginConfigFile = new File(systemArtifactsDir1, "APlugin-1.0.0-SNAPSHOT.json");
+    try (BufferedWriter writer = Files.newWriter(pluginConfigFile, Charsets.UTF_8)) {
+      writer.write(pluginConfig.toString());
+    }
+
+    try {
+      artifactRepository.addSystemArtifacts();
+      Location appLocation = artifactRepository.getArtifact(appArtifactId).getDescriptor().getLocation();
+      Location pluginLocation = artifactRepository.getArtifact(pluginArtifactId).getDescriptor().getLocation();
+
+      // Loading again without any change shouldn't write the snapshot artifacts again
+      artifactRepository.addSystemArtifacts();
+      Assert.assertEquals(appLocation, artifactRepository.getArtifact(appArtifactId).getDescriptor().getLocation());
+      Assert.assertEquals(pluginLocation,
+                          artifactRepository.getArtifact(pluginArtifactId).getDescriptor().getLocation());
+
+      // Changing the config of the plugin artifact should write it again
+      pluginConfig = new ArtifactConfig(pluginConfig.getParents(), pluginConfig.getPlugins(),
+                                        ImmutableMap.of("k1", "v2"));
+      try (BufferedWriter writer = Files.newWriter(pluginConfigFile, Charsets.UTF_8)) {
+        writer.write(pluginConfig.toString());
+      }
+      artifactRepository.addSystemArtifacts();
+      Assert.assertEquals(appLocation, artifactRepository.getArtifact(appArtifactId).getDescriptor().getLocation());
+      ArtifactDetail pluginDetail = artifactRepository.getArtifact(pluginArtifactId);
+      Assert.assertNotEquals(pluginLocation, pluginDetail.getDescriptor().getLocation());
+      Assert.assertEquals(ImmutableMap.of("k1", "v2"), pluginDetail.getMeta().getProperties());
+      pluginLocation = pluginDetail.getDescriptor().getLocation();
+
+      // Changing the app jar should write both the app artifact and the plugin artifact that extends it
+      createAppJar(PluginTestApp.class, appJar,
+                   createManifest(ManifestFields.EXPORT_PACKAGE, PluginTestRunnable.class.getPackage().getName(),
+                                  new Attributes.Name("Changed"), "true"));
+      artifactRepository.addSystemArtifacts();
+      Assert.assertNotEquals(appLocation, artifactRepository.getArtifact(appArtifactId).getDescriptor().getLocation());
+      Assert.assertNotEquals(pluginLocation,
+                             artifactRepository.getArtifact(pluginArtifactId).getDescriptor().getLocation());
+    } finally {
+      Assert.assertTrue(appJar.delete());
+      Assert.assertTrue(pluginJar.delete());
+      Assert.assertTrue(pluginConfigFile.delete());
+      artifactRepository.clear(NamespaceId.SYSTEM);
+    }
+  }
+
   @Test
   public void testExportPackage() {
     Manifest manifest = new Manifest();
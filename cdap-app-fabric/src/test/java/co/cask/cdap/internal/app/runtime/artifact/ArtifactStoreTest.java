@@ -1271,6 +1271,58 @@ public class ArtifactStoreTest {
     Assert.assertEquals(expected, pluginMap);
   }
 
+  @Test
+  public void testPluginLookupAfterChanges() throws Exception {
+    Id.Artifact parentId = Id.Artifact.from(Id.Namespace.DEFAULT, "parent", "1.0.0");
+    writeArtifact(parentId, new ArtifactMeta(ArtifactClasses.builder().build()), "parent contents");
+
+    ArtifactRange parentRange = new ArtifactRange(NamespaceId.DEFAULT.getNamespace(), "parent",
+                                                  new ArtifactVersion("1.0.0"), new ArtifactVersion("2.0.0"));
+    PluginClass plugin = new PluginClass("atype", "plugin1", "", "c.c.c.plugin1", "cfg",
+                                         ImmutableMap.<String, PluginPropertyField>of());
+
+    // Lookup before the plugin is added, which shouldn't leave a stale result behind
+    try {
+      artifactStore.getPluginClasses(NamespaceId.DEFAULT, parentRange, plugin.getType(), plugin.getName(),
+                                     null, Integer.MAX_VALUE, ArtifactSortOrder.UNORDERED);
+      Assert.fail();
+    } catch (PluginNotExistsException e) {
+      // expected
+    }
+    Assert.assertTrue(artifactStore.getPluginClasses(NamespaceId.DEFAULT, parentId, plugin.getType()).isEmpty());
+
+    // Add the plugin artifact and the lookups should find it
+    Id.Artifact pluginId = Id.Artifact.from(Id.Namespace.DEFAULT, "myplugins", "1.0.0");
+    writeArtifact(pluginId, new ArtifactMeta(ArtifactClasses.builder().addPlugin(plugin).build(),
+                                             ImmutableSet.of(parentRange)), "plugin contents");
+    ArtifactDescriptor pluginDescriptor = artifactStore.getArtifact(pluginId).getDescriptor();
+    for (int i = 0; i < 2; i++) {
+      Assert.assertEquals(ImmutableMap.of(pluginDescriptor, plugin),
+                          artifactStore.getPluginClasses(NamespaceId.DEFAULT, parentRange, plugin.getType(),
+                                                         plugin.getName(), null, Integer.MAX_VALUE,
+                                                         ArtifactSortOrder.UNORDERED));
+      Assert.assertEquals(ImmutableMap.of(pluginDescriptor, ImmutableSet.of(plugin)),
+                          artifactStore.getPluginClasses(NamespaceId.DEFAULT, parentId, plugin.getType()));
+    }
+
+    // A new parent version in the range should be seen as well
+    Id.Artifact parentId2 = Id.Artifact.from(Id.Namespace.DEFAULT, "parent", "1.5.0");
+    writeArtifact(parentId2, new ArtifactMeta(ArtifactClasses.builder().build()), "parent contents");
+    Assert.assertEquals(ImmutableMap.of(pluginDescriptor, ImmutableSet.of(plugin)),
+                        artifactStore.getPluginClasses(NamespaceId.DEFAULT, parentId2, plugin.getType()));
+
+    // Delete the plugin artifact and the lookups shouldn't find it anymore
+    artifactStore.delete(pluginId);
+    try {
+      artifactStore.getPluginClasses(NamespaceId.DEFAULT, parentRange, plugin.getType(), plugin.getName(),
+                                     null, Integer.MAX_VALUE, ArtifactSortOrder.UNORDERED);
+      Assert.fail();
+    } catch (PluginNotExistsException e) {
+      // expected
+    }
+    Assert.assertTrue(artifactStore.getPluginClasses(NamespaceId.DEFAULT, parentId, plugin.getType()).isEmpty());
+  }
+
   @Test
   public void testUniversalPlugin() throws Exception {
     // First, deploy an artifact in the SYSTEM scope that doesn't have any plugin inside.
@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.internal.app.runtime.artifact;
+
+import co.cask.cdap.common.io.Locations;
+import co.cask.cdap.common.lang.jar.BundleJarUtil;
+import co.cask.cdap.common.utils.DirUtils;
+import co.cask.cdap.test.XSlowTests;
+import com.google.common.base.Stopwatch;
+import org.apache.twill.filesystem.Location;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Measures the time and the bytes written to disk per program launch for expanding an artifact jar, with and without
+ * the {@link UnpackedArtifactCache}. The number of launches and the jar size in MB can be set with the
+ * {@code artifact.benchmark.launches} and {@code artifact.benchmark.jar.size.mb} system properties.
+ */
+@Category(XSlowTests.class)
+public class UnpackedArtifactCacheBenchmarkTest {
+
+  @ClassRule
+  public static final TemporaryFolder TMP_FOLDER = new TemporaryFolder();
+
+  @Test
+  public void testUnpack() throws IOException {
+    int launches = Integer.getInteger("artifact.benchmark.launches", 20);
+    Location jar = Locations.toLocation(createJar(Integer.getInteger("artifact.benchmark.jar.size.mb", 100)));
+
+    // Without the cache, every launch expands the jar into a new temporary directory
+    File tmpDir = TMP_FOLDER.newFolder();
+    long bytesWritten = 0;
+    Stopwatch stopwatch = new Stopwatch().start();
+    for (int i = 0; i < launches; i++) {
+      File dir = BundleJarUtil.unJar(jar, DirUtils.createTempDir(tmpDir));
+      bytesWritten += getSize(dir);
+      DirUtils.deleteDirectoryContents(dir);
+    }
+    report("temporary directory", launches, bytesWritten, stopwatch.elapsedTime(TimeUnit.MILLISECONDS));
+
+    // With the cache, only the first launch expands the jar
+    UnpackedArtifactCache cache = new UnpackedArtifactCache(TMP_FOLDER.newFolder(), Long.MAX_VALUE);
+    stopwatch = new Stopwatch().start();
+    for (int i = 0; i < launches; i++) {
+      cache.acquire(jar).close();
+    }
+    report("cache", launches, cache.getTotalSize(), stopwatch.elapsedTime(TimeUnit.MILLISECONDS));
+  }
+
+  private void report(String name, int launches, long bytesWritten, long elapsedMs) {
+    System.out.printf("%s: %d launches in %d ms, %.1f ms and %d bytes written per launch%n",
+                      name, launches, elapsedMs, (double) elapsedMs / launches, bytesWritten / launches);
+  }
+
+  /**
+   * Creates a jar with random content of 1MB entries, which is similar to a jar with many library jars in it.
+   */
+  private File createJar(int sizeMb) throws IOException {
+    File file = TMP_FOLDER.newFile();
+    Random random = new Random();
+    byte[] bytes = new byte[1024 * 1024];
+    try (JarOutputStream output = new JarOutputStream(new FileOutputStream(file))) {
+      for (int i = 0; i < sizeMb; i++) {
+        output.putNextEntry(new JarEntry("lib/lib-" + i + ".jar"));
+        random.nextBytes(bytes);
+        output.write(bytes);
+        output.closeEntry();
+      }
+    }
+    return file;
+  }
+
+  private long getSize(File dir) {
+    long size = 0;
+    for (File file : DirUtils.listFiles(new File(dir, "lib"))) {
+      size += file.length();
+    }
+    return size;
+  }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.internal.app.runtime.artifact;
+
+import co.cask.cdap.api.artifact.ArtifactId;
+import co.cask.cdap.api.artifact.ArtifactScope;
+import co.cask.cdap.api.artifact.ArtifactVersion;
+import co.cask.cdap.common.io.Locations;
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Unit-test for {@link UnpackedArtifactCache}.
+ */
+public class UnpackedArtifactCacheTest {
+
+  @ClassRule
+  public static final TemporaryFolder TMP_FOLDER = new TemporaryFolder();
+
+  private static final ArtifactId ARTIFACT_ID = new ArtifactId("test", new ArtifactVersion("1.0.0"),
+                                                               ArtifactScope.USER);
+
+  @Test
+  public void testShared() throws IOException {
+    UnpackedArtifactCache cache = new UnpackedArtifactCache(TMP_FOLDER.newFolder(), Long.MAX_VALUE);
+    File jar = createJar(TMP_FOLDER.newFile("a.jar"), "content");
+    File copy = TMP_FOLDER.newFile("copy.jar");
+    Files.copy(jar, copy);
+
+    try (
+      UnpackedArtifactCache.UnpackedArtifact unpacked1 = cache.acquire(ARTIFACT_ID, Locations.toLocation(jar));
+      UnpackedArtifactCache.UnpackedArtifact unpacked2 = cache.acquire(ARTIFACT_ID, Locations.toLocation(copy))
+    ) {
+      // Copies of the same artifact jar should share the same unpacked directory
+      Assert.assertEquals(unpacked1.getDirectory(), unpacked2.getDirectory());
+      Assert.assertEquals("content", Files.toString(new File(unpacked1.getDirectory(), "file.txt"), Charsets.UTF_8));
+    }
+
+    // The directory is kept after release since the cache is not full
+    try (UnpackedArtifactCache.UnpackedArtifact unpacked = cache.acquire(ARTIFACT_ID, Locations.toLocation(jar))) {
+      Assert.assertTrue(unpacked.getDirectory().isDirectory());
+      Assert.assertEquals("content".length(), cache.getTotalSize());
+    }
+  }
+
+  @Test
+  public void testDifferentArtifacts() throws IOException {
+    UnpackedArtifactCache cache = new UnpackedArtifactCache(TMP_FOLDER.newFolder(), Long.MAX_VALUE);
+    File jar = createJar(TMP_FOLDER.newFile("d.jar"), "content");
+    File copy = TMP_FOLDER.newFile("d-copy.jar");
+    Files.copy(jar, copy);
+    ArtifactId otherId = new ArtifactId("other", new ArtifactVersion("1.0.0"), ArtifactScope.USER);
+
+    try (
+      UnpackedArtifactCache.UnpackedArtifact unpacked1 = cache.acquire(ARTIFACT_ID, Locations.toLocation(jar));
+      UnpackedArtifactCache.UnpackedArtifact unpacked2 = cache.acquire(otherId, Locations.toLocation(jar));
+      UnpackedArtifactCache.UnpackedArtifact unpacked3 = cache.acquire(Locations.toLocation(copy))
+    ) {
+      // Same content of different artifacts, or of an unknown artifact at a different location, is not shared
+      Assert.assertNotEquals(unpacked1.getDirectory(), unpacked2.getDirectory());
+      Assert.assertNotEquals(unpacked1.getDirectory(), unpacked3.getDirectory());
+      Assert.assertNotEquals(unpacked2.getDirectory(), unpacked3.getDirectory());
+    }
+  }
+
+  @Test
+  public void testReuseDirectory() throws IOException {
+    File cacheDir = TMP_FOLDER.newFolder();
+    File jar = createJar(TMP_FOLDER.newFile("e.jar"), "content");
+
+    File dir;
+    try (UnpackedArtifactCache.UnpackedArtifact unpacked =
+           new UnpackedArtifactCache(cacheDir, Long.MAX_VALUE).acquire(ARTIFACT_ID, Locations.toLocation(jar))) {
+      dir = unpacked.getDirectory();
+    }
+
+    // A new cache on the same directory shouldn't remove the existing directory, but reuse it
+    UnpackedArtifactCache cache = new UnpackedArtifactCache(cacheDir, Long.MAX_VALUE);
+    Assert.assertTrue(dir.isDirectory());
+    try (UnpackedArtifactCache.UnpackedArtifact unpacked = cache.acquire(ARTIFACT_ID, Locations.toLocation(jar))) {
+      Assert.assertEquals(dir, unpacked.getDirectory());
+      Assert.assertEquals("content", Files.toString(new File(unpacked.getDirectory(), "file.txt"), Charsets.UTF_8));
+      Assert.assertEquals("content".length(), cache.getTotalSize());
+    }
+  }
+
+  @Test
+  public void testRecover() throws IOException {
+    File cacheDir = TMP_FOLDER.newFolder();
+    File jar1 = createJar(TMP_FOLDER.newFile("f1.jar"), "content-1");
+    File jar2 = createJar(TMP_FOLDER.newFile("f2.jar"), "content-2");
+
+    UnpackedArtifactCache cache = new UnpackedArtifactCache(cacheDir, Long.MAX_VALUE);
+    File dir1;
+    File dir2;
+    try (
+      UnpackedArtifactCache.UnpackedArtifact unpacked1 = cache.acquire(ARTIFACT_ID, Locations.toLocation(jar1));
+      UnpackedArtifactCache.UnpackedArtifact unpacked2 = cache.acquire(ARTIFACT_ID, Locations.toLocation(jar2))
+    ) {
+      dir1 = unpacked1.getDirectory();
+      dir2 = unpacked2.getDirectory();
+    }
+    // Make the first directory the least recently used one
+    Assert.assertTrue(dir1.setLastModified(System.currentTimeMillis() - 60000L));
+
+    // Simulate a staging and an evicted directory left by a process that got killed
+    File stageDir = new File(cacheDir, "1234-0");
+    Assert.assertTrue(new File(stageDir, "partial").mkdirs());
+    File trashDir = new File(cacheDir, "1234-1");
+    Assert.assertTrue(new File(trashDir, dir2.getName()).mkdirs());
+
+    // A new cache with the same directory should register the existing directories and enforce the maximum size
+    cache = new UnpackedArtifactCache(cacheDir, "content-x".length());
+    Assert.assertFalse(stageDir.exists());
+    Assert.assertFalse(trashDir.exists());
+    Assert.assertFalse(dir1.exists());
+    Assert.assertTrue(dir2.isDirectory());
+    Assert.assertEquals("content-2".length(), cache.getTotalSize());
+
+    // The existing directory is reused
+    try (UnpackedArtifactCache.UnpackedArtifact unpacked = cache.acquire(ARTIFACT_ID, Locations.toLocation(jar2))) {
+      Assert.assertEquals(dir2, unpacked.getDirectory());
+      Assert.assertEquals("content-2".length(), cache.getTotalSize());
+    }
+
+    // Acquiring the evicted jar unpacks it again and evicts the other one, since it is not in use
+    try (UnpackedArtifactCache.UnpackedArtifact unpacked = cache.acquire(ARTIFACT_ID, Locations.toLocation(jar1))) {
+      Assert.assertEquals("content-1", Files.toString(new File(unpacked.getDirectory(), "file.txt"), Charsets.UTF_8));
+      Assert.assertFalse(dir2.exists());
+      Assert.assertEquals("content-1".length(), cache.getTotalSize());
+    }
+  }
+
+  @Test
+  public void testChangedContent() throws IOException {
+    UnpackedArtifactCache cache = new UnpackedArtifactCache(TMP_FOLDER.newFolder(), Long.MAX_VALUE);
+    File jar = createJar(TMP_FOLDER.newFile("b.jar"), "content");
+
+    try (UnpackedArtifactCache.UnpackedArtifact unpacked1 = cache.acquire(Locations.toLocation(jar))) {
+      // Replace the jar while the old one is still in use
+      createJar(jar, "new content");
+      try (UnpackedArtifactCache.UnpackedArtifact unpacked2 = cache.acquire(Locations.toLocation(jar))) {
+        Assert.assertNotEquals(unpacked1.getDirectory(), unpacked2.getDirectory());
+        Assert.assertEquals("content", Files.toString(new File(unpacked1.getDirectory(), "file.txt"), Charsets.UTF_8));
+        Assert.assertEquals("new content",
+                            Files.toString(new File(unpacked2.getDirectory(), "file.txt"), Charsets.UTF_8));
+      }
+    }
+  }
+
+  @Test
+  public void testEviction() throws IOException {
+    // Only allow one jar to be cached
+    UnpackedArtifactCache cache = new UnpackedArtifactCache(TMP_FOLDER.newFolder(), "content-x".length());
+    File jar1 = createJar(TMP_FOLDER.newFile("c1.jar"), "content-1");
+    File jar2 = createJar(TMP_FOLDER.newFile("c2.jar"), "content-2");
+
+    UnpackedArtifactCache.UnpackedArtifact unpacked1 = cache.acquire(Locations.toLocation(jar1));
+    UnpackedArtifactCache.UnpackedArtifact unpacked2 = cache.acquire(Locations.toLocation(jar2));
+
+    // Directories in use are never evicted
+    Assert.assertTrue(unpacked1.getDirectory().isDirectory());
+    Assert.assertTrue(unpacked2.getDirectory().isDirectory());
+
+    // Releasing the first one should evict it, while the second one is still in use
+    unpacked1.close();
+    Assert.assertFalse(unpacked1.getDirectory().exists());
+    Assert.assertTrue(unpacked2.getDirectory().isDirectory());
+
+    // Release is idempotent
+    unpacked1.close();
+    unpacked2.close();
+    Assert.assertTrue(unpacked2.getDirectory().isDirectory());
+
+    // Acquiring the first jar again should evict the second one, which is the least recently used
+    try (UnpackedArtifactCache.UnpackedArtifact unpacked = cache.acquire(Locations.toLocation(jar1))) {
+      Assert.assertEquals("content-1", Files.toString(new File(unpacked.getDirectory(), "file.txt"), Charsets.UTF_8));
+      Assert.assertFalse(unpacked2.getDirectory().exists());
+      Assert.assertEquals("content-1".length(), cache.getTotalSize());
+    }
+  }
+
+  @Test
+  public void testInvalidJar() throws IOException {
+    File cacheDir = TMP_FOLDER.newFolder();
+    UnpackedArtifactCache cache = new UnpackedArtifactCache(cacheDir, Long.MAX_VALUE);
+    File file = TMP_FOLDER.newFile("invalid.jar");
+    Files.write("not a jar", file, Charsets.UTF_8);
+
+    try {
+      cache.acquire(Locations.toLocation(file));
+      Assert.fail("Expected ZipException");
+    } catch (ZipException e) {
+      // expected
+    }
+    Assert.assertEquals(0L, cache.getTotalSize());
+  }
+
+  private File createJar(File file, String content) throws IOException {
+    try (JarOutputStream output = new JarOutputStream(new FileOutputStream(file))) {
+      output.putNextEntry(new JarEntry("file.txt"));
+      output.write(content.getBytes(Charsets.UTF_8));
+      output.closeEntry();
+    }
+    return file;
+  }
+}
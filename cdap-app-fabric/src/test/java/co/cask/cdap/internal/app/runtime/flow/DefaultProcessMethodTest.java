@@ -0,0 +1,226 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.internal.app.runtime.flow;
+
+import co.cask.cdap.api.annotation.Batch;
+import co.cask.cdap.api.flow.flowlet.AbstractFlowlet;
+import co.cask.cdap.api.flow.flowlet.InputContext;
+import co.cask.cdap.app.queue.InputDatum;
+import co.cask.cdap.common.queue.QueueName;
+import com.google.common.collect.ImmutableList;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Unit-test for {@link DefaultProcessMethod}.
+ */
+public class DefaultProcessMethodTest {
+
+  @Test
+  public void testSingleEvent() throws Exception {
+    for (boolean generated : new boolean[] { true, false }) {
+      TestFlowlet flowlet = new TestFlowlet();
+      ProcessMethod<String> method = create(flowlet, "process", generated, String.class);
+      Assert.assertTrue(method.needsInput());
+
+      ProcessMethod.ProcessResult<String> result = method.invoke(new TestInputDatum<>(ImmutableList.of("a", "b")));
+      Assert.assertTrue(result.isSuccess());
+      Assert.assertEquals("a", result.getEvent());
+      Assert.assertEquals(ImmutableList.of("a", "b"), flowlet.events);
+    }
+  }
+
+  @Test
+  public void testPrimitiveEventWithContext() throws Exception {
+    for (boolean generated : new boolean[] { true, false }) {
+      TestFlowlet flowlet = new TestFlowlet();
+      ProcessMethod<Integer> method = create(flowlet, "processInt", generated, int.class, InputContext.class);
+
+      Assert.assertTrue(method.invoke(new TestInputDatum<>(ImmutableList.of(1, 2))).isSuccess());
+      Assert.assertEquals(ImmutableList.of("origin:1", "origin:2"), flowlet.events);
+    }
+  }
+
+  @Test
+  public void testBatch() throws Exception {
+    for (boolean generated : new boolean[] { true, false }) {
+      TestFlowlet flowlet = new TestFlowlet();
+      ProcessMethod<String> method = create(flowlet, "processBatch", generated, Iterator.class);
+
+      ProcessMethod.ProcessResult<?> result = method.invoke(new TestInputDatum<>(ImmutableList.of("a", "b")));
+      Assert.assertTrue(result.isSuccess());
+      Assert.assertTrue(((Object) result.getEvent()) instanceof Iterator);
+      Assert.assertEquals(ImmutableList.of("a", "b"), flowlet.events);
+    }
+  }
+
+  @Test
+  public void testNoInput() throws Exception {
+    for (boolean generated : new boolean[] { true, false }) {
+      TestFlowlet flowlet = new TestFlowlet();
+      ProcessMethod<Object> method = create(flowlet, "generate", generated);
+      Assert.assertFalse(method.needsInput());
+
+      ProcessMethod.ProcessResult<Object> result = method.invoke(new TestInputDatum<>(ImmutableList.of()));
+      Assert.assertTrue(result.isSuccess());
+      Assert.assertNull(result.getEvent());
+      Assert.assertEquals(ImmutableList.of("generated"), flowlet.events);
+    }
+  }
+
+  @Test
+  public void testFailure() throws Exception {
+    for (boolean generated : new boolean[] { true, false }) {
+      TestFlowlet flowlet = new TestFlowlet();
+      ProcessMethod<String> method = create(flowlet, "fail", generated, String.class);
+
+      ProcessMethod.ProcessResult<String> result = method.invoke(new TestInputDatum<>(ImmutableList.of("a")));
+      Assert.assertFalse(result.isSuccess());
+      Assert.assertEquals("a", result.getEvent());
+      // The cause should be the exception thrown by the process method, not a reflection wrapper
+      Assert.assertTrue(result.getCause() instanceof IOException);
+      Assert.assertEquals("Failed to process a", result.getCause().getMessage());
+    }
+  }
+
+  @Test
+  public void testNonPublicMethod() throws Exception {
+    TestFlowlet flowlet = new TestFlowlet();
+    DefaultProcessMethod<String> method = DefaultProcessMethod.create(
+      flowlet, TestFlowlet.class.getDeclaredMethod("processPrivate", String.class), 0);
+
+    // Private method cannot be called by the generated class, hence it should fallback to reflection
+    Assert.assertFalse(method.isGenerated());
+    Assert.assertTrue(method.invoke(new TestInputDatum<>(ImmutableList.of("a"))).isSuccess());
+    Assert.assertEquals(ImmutableList.of("private:a"), flowlet.events);
+  }
+
+  private <T> ProcessMethod<T> create(TestFlowlet flowlet, String name,
+                                      boolean generated, Class<?>... paramTypes) throws Exception {
+    if (generated) {
+      DefaultProcessMethod<T> method = DefaultProcessMethod.create(flowlet,
+                                                                   TestFlowlet.class.getMethod(name, paramTypes), 0);
+      // Make sure the generated invoker is used instead of the reflection fallback
+      Assert.assertTrue(method.isGenerated());
+      return method;
+    }
+    return DefaultProcessMethod.createReflection(flowlet, TestFlowlet.class.getMethod(name, paramTypes), 0);
+  }
+
+  /**
+   * Flowlet with different kinds of process methods.
+   */
+  public static final class TestFlowlet extends AbstractFlowlet {
+
+    private final List<String> events = new ArrayList<>();
+
+    public void process(String event) {
+      events.add(event);
+    }
+
+    public long processInt(int event, InputContext context) {
+      events.add(context.getOrigin() + ":" + event);
+      return event;
+    }
+
+    @Batch(10)
+    public void processBatch(Iterator<String> iterator) {
+      while (iterator.hasNext()) {
+        events.add(iterator.next());
+      }
+    }
+
+    public void generate() {
+      events.add("generated");
+    }
+
+    public void fail(String event) throws IOException {
+      throw new IOException("Failed to process " + event);
+    }
+
+    private void processPrivate(String event) {
+      events.add("private:" + event);
+    }
+  }
+
+  /**
+   * An {@link InputDatum} backed by a list of events.
+   */
+  static final class TestInputDatum<T> implements InputDatum<T> {
+
+    private final List<T> events;
+
+    TestInputDatum(List<T> events) {
+      this.events = events;
+    }
+
+    @Override
+    public boolean needProcess() {
+      return !events.isEmpty();
+    }
+
+    @Override
+    public void incrementRetry() {
+      // no-op
+    }
+
+    @Override
+    public int getRetry() {
+      return 0;
+    }
+
+    @Override
+    public InputContext getInputContext() {
+      return new InputContext() {
+        @Override
+        public String getOrigin() {
+          return "origin";
+        }
+
+        @Override
+        public int getRetryCount() {
+          return 0;
+        }
+      };
+    }
+
+    @Override
+    public QueueName getQueueName() {
+      return null;
+    }
+
+    @Override
+    public void reclaim() {
+      // no-op
+    }
+
+    @Override
+    public int size() {
+      return events.size();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+      return events.iterator();
+    }
+  }
+}
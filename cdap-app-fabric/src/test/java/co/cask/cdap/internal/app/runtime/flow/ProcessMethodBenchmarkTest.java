@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.internal.app.runtime.flow;
+
+import co.cask.cdap.api.flow.flowlet.AbstractFlowlet;
+import co.cask.cdap.app.queue.InputDatum;
+import co.cask.cdap.test.XSlowTests;
+import com.google.common.base.Stopwatch;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the number of small events per second that a single flowlet instance can be invoked with through
+ * {@link DefaultProcessMethod}, using the generated invoker and reflection. The number of events can be set with
+ * the {@code flow.benchmark.events} system property.
+ */
+@Category(XSlowTests.class)
+public class ProcessMethodBenchmarkTest {
+
+  @Test
+  public void testGenerated() throws Exception {
+    CountingFlowlet flowlet = new CountingFlowlet();
+    benchmark("generated", flowlet,
+              DefaultProcessMethod.<Integer>create(flowlet, CountingFlowlet.class.getMethod("process", int.class), 0));
+  }
+
+  @Test
+  public void testReflection() throws Exception {
+    CountingFlowlet flowlet = new CountingFlowlet();
+    Method method = CountingFlowlet.class.getMethod("process", int.class);
+    benchmark("reflection", flowlet, DefaultProcessMethod.<Integer>createReflection(flowlet, method, 0));
+  }
+
+  private void benchmark(String name, CountingFlowlet flowlet, ProcessMethod<Integer> method) {
+    int events = Integer.getInteger("flow.benchmark.events", 10000000);
+    InputDatum<Integer> input = new DefaultProcessMethodTest.TestInputDatum<>(Collections.singletonList(1));
+
+    // Warm up
+    process(method, input, events / 10);
+
+    Stopwatch stopwatch = new Stopwatch().start();
+    process(method, input, events);
+    long elapsedMs = Math.max(1L, stopwatch.elapsedTime(TimeUnit.MILLISECONDS));
+    Assert.assertEquals(events + events / 10, flowlet.sum);
+    System.out.printf("%s: %d events in %d ms, %.0f events processed per second%n",
+                      name, events, elapsedMs, events * 1000d / elapsedMs);
+  }
+
+  private void process(ProcessMethod<Integer> method, InputDatum<Integer> input, int events) {
+    for (int i = 0; i < events; i++) {
+      Assert.assertTrue(method.invoke(input).isSuccess());
+    }
+  }
+
+  /**
+   * Flowlet that sums up the events it processed.
+   */
+  public static final class CountingFlowlet extends AbstractFlowlet {
+
+    private long sum;
+
+    public void process(int event) {
+      sum += event;
+    }
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.internal.app.runtime.service.http;
+
+import co.cask.cdap.api.Transactional;
+import co.cask.cdap.api.metrics.NoopMetricsContext;
+import co.cask.cdap.common.lang.InstantiatorFactory;
+import co.cask.cdap.internal.app.runtime.ThrowingRunnable;
+import com.google.common.reflect.TypeToken;
+import org.apache.twill.common.Cancellable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit-test for {@link AbstractDelegatorContext}.
+ */
+public class AbstractDelegatorContextTest {
+
+  @Test
+  public void testThreadBound() throws Exception {
+    TestDelegatorContext context = new TestDelegatorContext(0);
+    Object handler = context.getHandler();
+
+    // Release doesn't do anything if handlers are not pooled
+    context.release();
+    Assert.assertSame(handler, context.getHandler());
+
+    // Another thread gets another handler
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Assert.assertNotSame(handler, executor.submit(context::getHandler).get());
+    } finally {
+      executor.shutdownNow();
+    }
+    Assert.assertEquals(2, context.created.get());
+    context.close();
+  }
+
+  @Test
+  public void testPooled() throws Exception {
+    int poolSize = 3;
+    int threads = 20;
+    TestDelegatorContext context = new TestDelegatorContext(poolSize);
+
+    // Simulate concurrent requests, each using a handler and then release it
+    Set<Object> inUse = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    AtomicInteger maxInUse = new AtomicInteger();
+    CountDownLatch startLatch = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        futures.add(executor.submit((Callable<Void>) () -> {
+          startLatch.await();
+          for (int j = 0; j < 50; j++) {
+            Object handler = context.getHandler();
+            // The same handler should be returned within a request
+            Assert.assertSame(handler, context.getHandler());
+            Assert.assertTrue(inUse.add(handler));
+            maxInUse.accumulateAndGet(inUse.size(), Math::max);
+            TimeUnit.MICROSECONDS.sleep(100);
+            inUse.remove(handler);
+            context.release();
+          }
+          return null;
+        }));
+      }
+      startLatch.countDown();
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // Handler instances should be shared by all threads and bounded by the pool size
+    Assert.assertTrue(context.created.get() <= poolSize);
+    Assert.assertTrue(maxInUse.get() <= poolSize);
+
+    context.close();
+    Assert.assertEquals(context.created.get(), context.destroyed.get());
+  }
+
+  @Test
+  public void testPooledCapture() throws Exception {
+    TestDelegatorContext context = new TestDelegatorContext(1);
+    Object handler = context.getHandler();
+    Cancellable releaser = context.capture();
+
+    // The only handler is captured, hence another thread has to wait for it to be released
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Object> future = executor.submit(context::getHandler);
+      TimeUnit.MILLISECONDS.sleep(200);
+      Assert.assertFalse(future.isDone());
+
+      releaser.cancel();
+      Assert.assertSame(handler, future.get(10, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+    Assert.assertEquals(1, context.created.get());
+    context.close();
+  }
+
+  private static final class TestDelegatorContext extends AbstractDelegatorContext<Object> {
+
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger destroyed = new AtomicInteger();
+
+    TestDelegatorContext(int poolSize) {
+      super(TypeToken.of(Object.class), new InstantiatorFactory(false),
+            new NoopMetricsContext(), new NoopMetricsContext(), poolSize);
+    }
+
+    @Override
+    protected HandlerTaskExecutor createTaskExecutor(InstantiatorFactory instantiatorFactory) throws Exception {
+      return new HandlerTaskExecutor(new Object()) {
+        @Override
+        protected void initHandler(Object handler) {
+          created.incrementAndGet();
+        }
+
+        @Override
+        protected void destroyHandler(Object handler) {
+          destroyed.incrementAndGet();
+        }
+
+        @Override
+        public void execute(ThrowingRunnable runnable, boolean transactional) throws Exception {
+          runnable.run();
+        }
+
+        @Override
+        public <T> T execute(Callable<T> callable, boolean transactional) throws Exception {
+          return callable.call();
+        }
+
+        @Override
+        public Transactional getTransactional() {
+          throw new UnsupportedOperationException();
+        }
+      };
+    }
+  }
+}
@@ -156,6 +156,44 @@ public abstract class RemotePrivilegesTestBase {
     privilegesManager.revoke(Authorizable.fromEntityId(NS));
   }
 
+  @Test
+  public void testBulkEnforce() throws Exception {
+    ApplicationId app1 = NS.app("app1");
+    ApplicationId app2 = NS.app("app2");
+    privilegesManager.grant(Authorizable.fromEntityId(APP), ALICE, EnumSet.of(Action.READ, Action.ADMIN));
+    privilegesManager.grant(Authorizable.fromEntityId(app1), ALICE, EnumSet.of(Action.READ, Action.ADMIN));
+    privilegesManager.grant(Authorizable.fromEntityId(app2), ALICE, EnumSet.of(Action.READ));
+
+    authorizationEnforcer.enforce(ImmutableSet.of(APP, app1), ALICE, EnumSet.of(Action.READ, Action.ADMIN));
+    authorizationEnforcer.enforce(ImmutableSet.of(APP, app1, app2), ALICE, EnumSet.of(Action.READ));
+    authorizationEnforcer.enforce(ImmutableSet.<EntityId>of(), BOB, EnumSet.allOf(Action.class));
+    try {
+      authorizationEnforcer.enforce(ImmutableSet.of(APP, app1, app2), ALICE, EnumSet.of(Action.READ, Action.ADMIN));
+      Assert.fail();
+    } catch (UnauthorizedException e) {
+      // expected
+    }
+    try {
+      authorizationEnforcer.enforce(ImmutableSet.of(APP, app1), BOB, EnumSet.of(Action.READ));
+      Assert.fail();
+    } catch (UnauthorizedException e) {
+      // expected
+    }
+
+    // Privileges cached by the bulk enforce should be consistent with the single entity enforce
+    authorizationEnforcer.enforce(app1, ALICE, Action.ADMIN);
+    try {
+      authorizationEnforcer.enforce(app2, ALICE, Action.ADMIN);
+      Assert.fail();
+    } catch (UnauthorizedException e) {
+      // expected
+    }
+
+    privilegesManager.revoke(Authorizable.fromEntityId(APP));
+    privilegesManager.revoke(Authorizable.fromEntityId(app1));
+    privilegesManager.revoke(Authorizable.fromEntityId(app2));
+  }
+
   @Test
   public void testVisibility() throws Exception {
     ApplicationId app1 = NS.app("app1");
@@ -16,6 +16,7 @@
 
 package co.cask.cdap.runtime;
 
+import co.cask.cdap.api.common.Bytes;
 import co.cask.cdap.api.dataset.DatasetDefinition;
 import co.cask.cdap.api.dataset.lib.KeyValueTable;
 import co.cask.cdap.app.program.ProgramDescriptor;
@@ -28,10 +29,13 @@ import co.cask.cdap.data2.transaction.Transactions;
 import co.cask.cdap.internal.AppFabricTestHelper;
 import co.cask.cdap.internal.app.deploy.pipeline.ApplicationWithPrograms;
 import co.cask.cdap.internal.app.runtime.BasicArguments;
+import co.cask.cdap.internal.app.runtime.SystemArguments;
 import co.cask.cdap.proto.id.NamespaceId;
 import co.cask.cdap.runtime.app.MultiApp;
+import co.cask.cdap.runtime.app.MultiInputApp;
 import com.google.common.base.Supplier;
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.primitives.Longs;
 import org.apache.tephra.TransactionExecutor;
@@ -117,4 +121,59 @@ public class MultiConsumerTest {
       controller.stop().get();
     }
   }
+
+  @Test
+  public void testMultiProcessThreads() throws Exception {
+    final ApplicationWithPrograms app = AppFabricTestHelper.deployApplicationWithManager(MultiInputApp.class,
+                                                                                         TEMP_FOLDER_SUPPLIER);
+    List<ProgramController> controllers = Lists.newArrayList();
+    for (ProgramDescriptor programDescriptor : app.getPrograms()) {
+      controllers.add(AppFabricTestHelper.submit(
+        app, programDescriptor.getSpecification().getClassName(),
+        new BasicArguments(ImmutableMap.of(SystemArguments.FLOWLET_PROCESS_THREADS, "2")), TEMP_FOLDER_SUPPLIER));
+    }
+
+    DatasetFramework datasetFramework = AppFabricTestHelper.getInjector().getInstance(DatasetFramework.class);
+
+    DynamicDatasetCache datasetCache = new SingleThreadDatasetCache(
+      new SystemDatasetInstantiator(datasetFramework, getClass().getClassLoader(), null),
+      AppFabricTestHelper.getInjector().getInstance(TransactionSystemClient.class),
+      NamespaceId.DEFAULT, DatasetDefinition.NO_ARGUMENTS, null, null);
+
+    final KeyValueTable table = datasetCache.getDataset("multiInput");
+    TransactionExecutorFactory txExecutorFactory =
+      AppFabricTestHelper.getInjector().getInstance(TransactionExecutorFactory.class);
+
+    // Both inputs should be fully processed, each by a different thread. Expect result appear in max of 60 seconds.
+    int trial = 0;
+    while (trial < 60) {
+      try {
+        Transactions.createTransactionExecutor(txExecutorFactory, table)
+          .execute(new TransactionExecutor.Subroutine() {
+            @Override
+            public void apply() throws Exception {
+              long expected = (MultiInputApp.COUNT - 1) * MultiInputApp.COUNT / 2;
+              Assert.assertEquals(expected, Bytes.toLong(table.read("sum.a")));
+              Assert.assertEquals(expected, Bytes.toLong(table.read("sum.b")));
+
+              String threadA = Bytes.toString(table.read("thread.a"));
+              String threadB = Bytes.toString(table.read("thread.b"));
+              Assert.assertNotNull(threadA);
+              Assert.assertNotNull(threadB);
+              Assert.assertNotEquals(threadA, threadB);
+            }
+          });
+        break;
+      } catch (TransactionFailureException e) {
+        // No-op
+        trial++;
+        TimeUnit.SECONDS.sleep(1);
+      }
+    }
+    Assert.assertTrue(trial < 60);
+
+    for (ProgramController controller : controllers) {
+      controller.stop().get();
+    }
+  }
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.runtime.app;
+
+import co.cask.cdap.api.annotation.Output;
+import co.cask.cdap.api.annotation.ProcessInput;
+import co.cask.cdap.api.annotation.Tick;
+import co.cask.cdap.api.annotation.UseDataSet;
+import co.cask.cdap.api.app.AbstractApplication;
+import co.cask.cdap.api.common.Bytes;
+import co.cask.cdap.api.dataset.lib.KeyValueTable;
+import co.cask.cdap.api.flow.AbstractFlow;
+import co.cask.cdap.api.flow.flowlet.AbstractFlowlet;
+import co.cask.cdap.api.flow.flowlet.OutputEmitter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An application with a flowlet consuming from two input queues, for testing multiple process threads.
+ */
+public final class MultiInputApp extends AbstractApplication {
+
+  public static final int COUNT = 100;
+
+  @Override
+  public void configure() {
+    setName("MultiInputApp");
+    setDescription("MultiInputApp");
+    createDataset("multiInput", KeyValueTable.class);
+    addFlow(new MultiInputFlow());
+  }
+
+  /**
+   * Flow with one generator and one consumer, connected with two queues.
+   */
+  public static final class MultiInputFlow extends AbstractFlow {
+
+    @Override
+    protected void configure() {
+      setName("MultiInputFlow");
+      setDescription("MultiInputFlow");
+      addFlowlet("gen", new Generator());
+      addFlowlet("consumer", new Consumer());
+      connect("gen", "consumer");
+    }
+  }
+
+  /**
+   * Generates the same numbers to two outputs.
+   */
+  public static final class Generator extends AbstractFlowlet {
+
+    @Output("a")
+    private OutputEmitter<Integer> outputA;
+    @Output("b")
+    private OutputEmitter<Integer> outputB;
+    private int i;
+
+    @Tick(delay = 1L, unit = TimeUnit.NANOSECONDS)
+    public void generate() throws Exception {
+      if (i < COUNT) {
+        outputA.emit(i);
+        outputB.emit(i);
+        i++;
+      }
+    }
+  }
+
+  /**
+   * Sums up the numbers from each input and records the name of the thread that processed it.
+   */
+  public static final class Consumer extends AbstractFlowlet {
+
+    @UseDataSet("multiInput")
+    private KeyValueTable table;
+
+    @ProcessInput(value = "a", maxRetries = Integer.MAX_VALUE)
+    public void processA(int i) {
+      process("a", i);
+    }
+
+    @ProcessInput(value = "b", maxRetries = Integer.MAX_VALUE)
+    public void processB(int i) {
+      process("b", i);
+    }
+
+    private void process(String input, int i) {
+      table.increment(Bytes.toBytes("sum." + input), i);
+      table.write("thread." + input, Thread.currentThread().getName());
+    }
+  }
+}
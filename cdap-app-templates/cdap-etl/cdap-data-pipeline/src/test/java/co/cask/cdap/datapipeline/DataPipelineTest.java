@@ -125,6 +125,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import javax.annotation.Nullable;
 
 /**
  *
@@ -2055,7 +2056,16 @@ public class DataPipelineTest extends HydratorTestBase {
     testInnerJoinWithMultiOutput(Engine.SPARK);
   }
 
+  @Test
+  public void testInnerBroadcastJoinSpark() throws Exception {
+    testInnerJoinWithMultiOutput(Engine.SPARK, "t1,t3");
+  }
+
   public void testInnerJoinWithMultiOutput(Engine engine) throws Exception {
+    testInnerJoinWithMultiOutput(engine, null);
+  }
+
+  private void testInnerJoinWithMultiOutput(Engine engine, @Nullable String broadcastInputs) throws Exception {
     Schema inputSchema1 = Schema.recordOf(
       "customerRecord",
       Schema.Field.of("customer_id", Schema.of(Schema.Type.STRING)),
@@ -2077,14 +2087,15 @@ public class DataPipelineTest extends HydratorTestBase {
       Schema.Field.of("c_name", Schema.of(Schema.Type.STRING))
     );
 
-    String input1Name = "source1InnerJoinInput-" + engine;
-    String input2Name = "source2InnerJoinInput-" + engine;
-    String input3Name = "source3InnerJoinInput-" + engine;
-    String outputName = "innerJoinOutput-" + engine;
-    String outputName2 = "innerJoinOutput2-" + engine;
-    String joinerName = "innerJoiner-" + engine;
-    String sinkName = "innerJoinSink-" + engine;
-    String sinkName2 = "innerJoinSink-2" + engine;
+    String suffix = broadcastInputs == null ? engine.name() : engine + "-broadcast";
+    String input1Name = "source1InnerJoinInput-" + suffix;
+    String input2Name = "source2InnerJoinInput-" + suffix;
+    String input3Name = "source3InnerJoinInput-" + suffix;
+    String outputName = "innerJoinOutput-" + suffix;
+    String outputName2 = "innerJoinOutput2-" + suffix;
+    String joinerName = "innerJoiner-" + suffix;
+    String sinkName = "innerJoinSink-" + suffix;
+    String sinkName2 = "innerJoinSink-2" + suffix;
     ETLBatchConfig etlConfig = ETLBatchConfig.builder("* * * * *")
       .addStage(new ETLStage("source1", MockSource.getPlugin(input1Name, inputSchema1)))
       .addStage(new ETLStage("source2", MockSource.getPlugin(input2Name, inputSchema2)))
@@ -2094,7 +2105,7 @@ public class DataPipelineTest extends HydratorTestBase {
       .addStage(new ETLStage("t3", IdentityTransform.getPlugin()))
       .addStage(new ETLStage(joinerName, MockJoiner.getPlugin("t1.customer_id=t2.cust_id=t3.c_id&" +
                                                                   "t1.customer_name=t2.cust_name=t3.c_name",
-                                                                "t1,t2,t3", "")))
+                                                                "t1,t2,t3", "", broadcastInputs)))
       .addStage(new ETLStage(sinkName, MockSink.getPlugin(outputName)))
       .addStage(new ETLStage(sinkName2, MockSink.getPlugin(outputName2)))
       .addConnection("source1", "t1")
@@ -2109,7 +2120,7 @@ public class DataPipelineTest extends HydratorTestBase {
       .build();
 
     AppRequest<ETLBatchConfig> appRequest = new AppRequest<>(APP_ARTIFACT, etlConfig);
-    ApplicationId appId = NamespaceId.DEFAULT.app("InnerJoinApp-" + engine);
+    ApplicationId appId = NamespaceId.DEFAULT.app("InnerJoinApp-" + suffix);
     ApplicationManager appManager = deployApplication(appId, appRequest);
 
     Schema outSchema = Schema.recordOf(
@@ -2188,7 +2199,16 @@ public class DataPipelineTest extends HydratorTestBase {
     testOuterJoin(Engine.SPARK);
   }
 
+  @Test
+  public void testOuterBroadcastJoinSpark() throws Exception {
+    testOuterJoin(Engine.SPARK, "t2,t3");
+  }
+
   public void testOuterJoin(Engine engine) throws Exception {
+    testOuterJoin(engine, null);
+  }
+
+  private void testOuterJoin(Engine engine, @Nullable String broadcastInputs) throws Exception {
     Schema inputSchema1 = Schema.recordOf(
       "customerRecord",
       Schema.Field.of("customer_id", Schema.of(Schema.Type.STRING)),
@@ -2210,12 +2230,13 @@ public class DataPipelineTest extends HydratorTestBase {
       Schema.Field.of("c_name", Schema.of(Schema.Type.STRING))
     );
 
-    String input1Name = "source1OuterJoinInput-" + engine;
-    String input2Name = "source2OuterJoinInput-" + engine;
-    String input3Name = "source3OuterJoinInput-" + engine;
-    String outputName = "outerJoinOutput-" + engine;
-    String joinerName = "outerJoiner-" + engine;
-    String sinkName = "outerJoinSink-" + engine;
+    String suffix = broadcastInputs == null ? engine.name() : engine + "-broadcast";
+    String input1Name = "source1OuterJoinInput-" + suffix;
+    String input2Name = "source2OuterJoinInput-" + suffix;
+    String input3Name = "source3OuterJoinInput-" + suffix;
+    String outputName = "outerJoinOutput-" + suffix;
+    String joinerName = "outerJoiner-" + suffix;
+    String sinkName = "outerJoinSink-" + suffix;
     ETLBatchConfig etlConfig = ETLBatchConfig.builder("* * * * *")
       .addStage(new ETLStage("source1", MockSource.getPlugin(input1Name, inputSchema1)))
       .addStage(new ETLStage("source2", MockSource.getPlugin(input2Name, inputSchema2)))
@@ -2224,7 +2245,8 @@ public class DataPipelineTest extends HydratorTestBase {
       .addStage(new ETLStage("t2", IdentityTransform.getPlugin()))
       .addStage(new ETLStage("t3", IdentityTransform.getPlugin()))
       .addStage(new ETLStage(joinerName, MockJoiner.getPlugin("t1.customer_id=t2.cust_id=t3.c_id&" +
-                                                                  "t1.customer_name=t2.cust_name=t3.c_name", "t1", "")))
+                                                                  "t1.customer_name=t2.cust_name=t3.c_name", "t1", "",
+                                                              broadcastInputs)))
       .addStage(new ETLStage(sinkName, MockSink.getPlugin(outputName)))
       .addConnection("source1", "t1")
       .addConnection("source2", "t2")
@@ -2237,7 +2259,7 @@ public class DataPipelineTest extends HydratorTestBase {
       .build();
 
     AppRequest<ETLBatchConfig> appRequest = new AppRequest<>(APP_ARTIFACT, etlConfig);
-    ApplicationId appId = NamespaceId.DEFAULT.app("OuterJoinApp-" + engine);
+    ApplicationId appId = NamespaceId.DEFAULT.app("OuterJoinApp-" + suffix);
     ApplicationManager appManager = deployApplication(appId, appRequest);
 
     Schema outSchema = Schema.recordOf(
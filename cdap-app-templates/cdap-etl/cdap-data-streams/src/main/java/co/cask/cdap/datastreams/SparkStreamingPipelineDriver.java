@@ -134,7 +134,7 @@ public class SparkStreamingPipelineDriver implements JavaSparkMain {
         // Seems like they should be set at configure time instead of runtime? but that requires an API change.
         try {
           runner.runPipeline(pipelinePhase, StreamingSource.PLUGIN_TYPE,
-                             sec, new HashMap<String, Integer>(), pluginContext,
+                             sec, new HashMap<String, Integer>(), new HashMap<String, Set<String>>(), pluginContext,
                              new HashMap<String, StageStatisticsCollector>());
         } catch (Exception e) {
           throw new RuntimeException(e);
@@ -18,6 +18,8 @@ package co.cask.cdap.etl.api.batch;
 
 import co.cask.cdap.api.annotation.Beta;
 
+import java.util.Set;
+
 /**
  * Context of a Batch Joiner
  */
@@ -49,4 +51,16 @@ public interface BatchJoinerContext extends BatchContext {
    * @param joinInputRecordClass the join input record class
    */
   void setJoinInputRecordClass(Class<?> joinInputRecordClass);
+
+  /**
+   * Set the inputs that are small enough to be loaded in memory. If the execution engine supports it, each of these
+   * inputs is joined by loading all its records into a hash index in every task and looking up the records of the
+   * other inputs in that index, which avoids shuffling the other inputs. Execution engines that don't support it,
+   * or inputs that can't be joined that way, such as inputs of a join without required inputs, use a regular join.
+   * The join result is the same in both cases. Currently only Spark supports it, MapReduce always uses a reduce-side
+   * join.
+   *
+   * @param inputStageNames names of the input stages that are small enough to be loaded in memory
+   */
+  void setBroadcastInputs(Set<String> inputStageNames);
 }
@@ -306,6 +306,9 @@ public class ETLMapReduce extends AbstractMapReduce {
           new SubmitterPlugin.PrepareAction<DefaultJoinerContext>() {
             @Override
             public void act(DefaultJoinerContext joinerContext) {
+              // TODO: use a map-side join for the broadcast inputs of the joiner. This needs the PipelinePlanner
+              // to put the joiner in the map phase of its non-broadcast input, since it currently always places
+              // a joiner at the start of a reduce phase.
               if (joinerContext.getNumPartitions() != null) {
                 job.setNumReduceTasks(joinerContext.getNumPartitions());
               }
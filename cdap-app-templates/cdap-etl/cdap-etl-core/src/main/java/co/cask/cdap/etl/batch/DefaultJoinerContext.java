@@ -21,6 +21,9 @@ import co.cask.cdap.api.data.DatasetContext;
 import co.cask.cdap.etl.api.batch.BatchJoinerContext;
 import co.cask.cdap.etl.common.PipelineRuntime;
 import co.cask.cdap.etl.spec.StageSpec;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Set;
 
 /**
  * Batch Joiner context
@@ -29,6 +32,7 @@ public class DefaultJoinerContext extends AbstractBatchContext implements BatchJ
   private Integer numPartitions;
   private Class<?> joinKeyClass;
   private Class<?> joinInputRecordClass;
+  private Set<String> broadcastInputs = ImmutableSet.of();
 
   public DefaultJoinerContext(PipelineRuntime pipelineRuntime, StageSpec stageSpec,
                               DatasetContext datasetContext, Admin admin) {
@@ -65,4 +69,13 @@ public class DefaultJoinerContext extends AbstractBatchContext implements BatchJ
   public Class<?> getJoinInputRecordClass() {
     return joinInputRecordClass;
   }
+
+  @Override
+  public void setBroadcastInputs(Set<String> inputStageNames) {
+    this.broadcastInputs = ImmutableSet.copyOf(inputStageNames);
+  }
+
+  public Set<String> getBroadcastInputs() {
+    return broadcastInputs;
+  }
 }
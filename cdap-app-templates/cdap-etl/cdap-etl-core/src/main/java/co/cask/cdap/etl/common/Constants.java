@@ -38,6 +38,8 @@ public final class Constants {
     Schema.Field.of(ErrorDataset.INVALIDENTRY, Schema.of(Schema.Type.STRING))
   );
   public static final String MDC_STAGE_KEY = "pipeline.stage";
+  // Spark configuration for the schemas that are serialized as ids by the CDAP Kryo serializers, as a JSON array
+  public static final String SPARK_KRYO_SCHEMAS = "spark.cdap.kryo.schemas";
 
   private Constants() {
     throw new AssertionError("Suppress default constructor for noninstantiability");
@@ -51,4 +51,16 @@ public interface SparkPairCollection<K, V> {
 
   <T> SparkPairCollection<K, Tuple2<Optional<V>, Optional<T>>> fullOuterJoin(SparkPairCollection<K, T> other,
                                                                              int numPartitions);
+
+  /**
+   * Inner join with a collection that is small enough to be loaded in memory. Implementations may load the other
+   * collection into a hash index that is available to every task to avoid shuffling this collection.
+   */
+  <T> SparkPairCollection<K, Tuple2<V, T>> broadcastJoin(SparkPairCollection<K, T> other);
+
+  /**
+   * Left outer join with a collection that is small enough to be loaded in memory. Implementations may load the
+   * other collection into a hash index that is available to every task to avoid shuffling this collection.
+   */
+  <T> SparkPairCollection<K, Tuple2<V, Optional<T>>> broadcastLeftOuterJoin(SparkPairCollection<K, T> other);
 }
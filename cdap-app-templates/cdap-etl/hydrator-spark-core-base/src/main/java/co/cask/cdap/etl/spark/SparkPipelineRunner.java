@@ -52,6 +52,8 @@ import co.cask.cdap.etl.spark.function.OutputPassFilter;
 import co.cask.cdap.etl.spark.function.PluginFunctionContext;
 import co.cask.cdap.etl.spec.StageSpec;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -79,6 +81,7 @@ public abstract class SparkPipelineRunner {
   public void runPipeline(PipelinePhase pipelinePhase, String sourcePluginType,
                           JavaSparkExecutionContext sec,
                           Map<String, Integer> stagePartitions,
+                          Map<String, Set<String>> stageBroadcastInputs,
                           PluginContext pluginContext,
                           Map<String, StageStatisticsCollector> collectors) throws Exception {
 
@@ -238,10 +241,20 @@ public abstract class SparkPipelineRunner {
         BatchJoinerRuntimeContext joinerRuntimeContext = pluginFunctionContext.createBatchRuntimeContext();
         joiner.initialize(joinerRuntimeContext);
 
+        Set<String> broadcastInputs = stageBroadcastInputs.get(stageName);
+        if (broadcastInputs == null) {
+          broadcastInputs = Collections.emptySet();
+        }
+
         Map<String, SparkPairCollection<Object, Object>> preJoinStreams = new HashMap<>();
         for (Map.Entry<String, SparkCollection<Object>> inputStreamEntry : inputDataCollections.entrySet()) {
           String inputStage = inputStreamEntry.getKey();
           SparkCollection<Object> inputStream = inputStreamEntry.getValue();
+          if (broadcastInputs.contains(inputStage)) {
+            // a broadcast input is collected right away, cache it so that other outputs of the input stage
+            // don't compute it again
+            inputStream = inputStream.cache();
+          }
           preJoinStreams.put(inputStage, addJoinKey(stageSpec, inputStage, inputStream, collector));
         }
 
@@ -251,22 +264,29 @@ public abstract class SparkPipelineRunner {
         Integer numPartitions = stagePartitions.get(stageName);
 
         SparkPairCollection<Object, List<JoinElement<Object>>> joinedInputs = null;
-        // inner join on required inputs
-        for (final String inputStageName : joiner.getJoinConfig().getRequiredInputs()) {
+        // inner join on required inputs, starting with the ones that are not broadcast so that the
+        // broadcast inputs can be joined with them without a shuffle
+        for (final String inputStageName : orderJoinInputs(joiner.getJoinConfig().getRequiredInputs(),
+                                                           broadcastInputs)) {
           SparkPairCollection<Object, Object> preJoinCollection = preJoinStreams.get(inputStageName);
 
           if (joinedInputs == null) {
             joinedInputs = preJoinCollection.mapValues(new InitialJoinFunction<>(inputStageName));
           } else {
             JoinFlattenFunction<Object> joinFlattenFunction = new JoinFlattenFunction<>(inputStageName);
-            joinedInputs = numPartitions == null ?
-              joinedInputs.join(preJoinCollection).mapValues(joinFlattenFunction) :
-              joinedInputs.join(preJoinCollection, numPartitions).mapValues(joinFlattenFunction);
+            if (broadcastInputs.contains(inputStageName)) {
+              joinedInputs = joinedInputs.broadcastJoin(preJoinCollection).mapValues(joinFlattenFunction);
+            } else {
+              joinedInputs = numPartitions == null ?
+                joinedInputs.join(preJoinCollection).mapValues(joinFlattenFunction) :
+                joinedInputs.join(preJoinCollection, numPartitions).mapValues(joinFlattenFunction);
+            }
           }
           remainingInputs.remove(inputStageName);
         }
 
         // outer join on non-required inputs
+        // a full outer join needs the records of every input that don't match, so it can't use broadcast inputs
         boolean isFullOuter = joinedInputs == null;
         for (final String inputStageName : remainingInputs) {
           SparkPairCollection<Object, Object> preJoinStream = preJoinStreams.get(inputStageName);
@@ -283,9 +303,13 @@ public abstract class SparkPipelineRunner {
             } else {
               LeftJoinFlattenFunction<Object> flattenFunction = new LeftJoinFlattenFunction<>(inputStageName);
 
-              joinedInputs = numPartitions == null ?
-                joinedInputs.leftOuterJoin(preJoinStream).mapValues(flattenFunction) :
-                joinedInputs.leftOuterJoin(preJoinStream, numPartitions).mapValues(flattenFunction);
+              if (broadcastInputs.contains(inputStageName)) {
+                joinedInputs = joinedInputs.broadcastLeftOuterJoin(preJoinStream).mapValues(flattenFunction);
+              } else {
+                joinedInputs = numPartitions == null ?
+                  joinedInputs.leftOuterJoin(preJoinStream).mapValues(flattenFunction) :
+                  joinedInputs.leftOuterJoin(preJoinStream, numPartitions).mapValues(flattenFunction);
+              }
             }
           }
         }
@@ -331,6 +355,23 @@ public abstract class SparkPipelineRunner {
     }
   }
 
+  /**
+   * Returns the given join inputs with the inputs that are not broadcast before the broadcast inputs.
+   */
+  private List<String> orderJoinInputs(Iterable<String> inputs, Set<String> broadcastInputs) {
+    List<String> ordered = new ArrayList<>();
+    List<String> broadcast = new ArrayList<>();
+    for (String input : inputs) {
+      if (broadcastInputs.contains(input)) {
+        broadcast.add(input);
+      } else {
+        ordered.add(input);
+      }
+    }
+    ordered.addAll(broadcast);
+    return ordered;
+  }
+
   // return whether this stage should be cached to avoid recomputation
   private boolean shouldCache(PipelinePhase pipelinePhase, StageSpec stageSpec) {
 
@@ -50,15 +50,18 @@ import com.google.common.collect.SetMultimap;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.broadcast.Broadcast;
 
 import java.io.BufferedReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Batch Spark pipeline driver.
@@ -78,12 +81,14 @@ public class BatchSparkPipelineDriver extends SparkPipelineRunner implements Jav
   private transient SparkBatchSinkFactory sinkFactory;
   private transient DatasetContext datasetContext;
   private transient Map<String, Integer> stagePartitions;
+  private transient Map<String, Set<String>> stageBroadcastInputs;
+  private transient List<Broadcast<?>> broadcasts;
   private transient int numOfRecordsPreview;
 
   @Override
   protected SparkCollection<RecordInfo<Object>> getSource(StageSpec stageSpec, StageStatisticsCollector collector) {
     PluginFunctionContext pluginFunctionContext = new PluginFunctionContext(stageSpec, sec, collector);
-    return new RDDCollection<>(sec, jsc, datasetContext, sinkFactory,
+    return new RDDCollection<>(sec, jsc, datasetContext, sinkFactory, broadcasts,
                                sourceFactory.createRDD(sec, jsc, stageSpec.getName(), Object.class, Object.class)
                                  .flatMap(Compat.convert(new BatchSourceFunction(pluginFunctionContext,
                                                                                  numOfRecordsPreview))));
@@ -130,8 +135,10 @@ public class BatchSparkPipelineDriver extends SparkPipelineRunner implements Jav
       sourceFactory = sourceSinkInfo.getSparkBatchSourceFactory();
       sinkFactory = sourceSinkInfo.getSparkBatchSinkFactory();
       stagePartitions = sourceSinkInfo.getStagePartitions();
+      stageBroadcastInputs = sourceSinkInfo.getStageBroadcastInputs();
     }
     datasetContext = context;
+    broadcasts = new ArrayList<>();
     numOfRecordsPreview = phaseSpec.getNumOfRecordsPreview();
     PipelinePluginContext pluginContext = new PipelinePluginContext(sec.getPluginContext(), sec.getMetrics(),
                                                                     phaseSpec.isStageLoggingEnabled(),
@@ -148,9 +155,14 @@ public class BatchSparkPipelineDriver extends SparkPipelineRunner implements Jav
     try {
       PipelinePluginInstantiator pluginInstantiator =
         new PipelinePluginInstantiator(pluginContext, sec.getMetrics(), phaseSpec, new SingleConnectorFactory());
-      runPipeline(phaseSpec.getPhase(), BatchSource.PLUGIN_TYPE, sec, stagePartitions, pluginInstantiator, collectors);
+      runPipeline(phaseSpec.getPhase(), BatchSource.PLUGIN_TYPE, sec, stagePartitions, stageBroadcastInputs,
+                  pluginInstantiator, collectors);
     } finally {
       updateWorkflowToken(sec.getWorkflowToken(), collectors);
+      // all the jobs of the phase are done, the broadcasts of joins are not used anymore
+      for (Broadcast<?> broadcast : broadcasts) {
+        broadcast.destroy();
+      }
     }
   }
 
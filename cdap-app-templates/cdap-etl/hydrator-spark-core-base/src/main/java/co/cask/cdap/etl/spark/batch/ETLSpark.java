@@ -60,6 +60,8 @@ import co.cask.cdap.etl.common.submit.SubmitterPlugin;
 import co.cask.cdap.etl.spark.plugin.SparkPipelinePluginContext;
 import co.cask.cdap.etl.spec.StageSpec;
 import co.cask.cdap.internal.io.SchemaTypeAdapter;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Joiner;
 import com.google.common.collect.SetMultimap;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -73,8 +75,11 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
 
 /**
  * Configures and sets up runs of {@link BatchSparkPipelineDriver}.
@@ -130,6 +135,8 @@ public class ETLSpark extends AbstractSpark {
     Map<String, String> properties = context.getSpecification().getProperties();
     BatchPhaseSpec phaseSpec = GSON.fromJson(properties.get(Constants.PIPELINEID), BatchPhaseSpec.class);
 
+    // Register the schemas of the pipeline, so that records shuffled or cached by Spark don't carry their schemas
+    sparkConf.set(Constants.SPARK_KRYO_SCHEMAS, getSchemasConfValue(phaseSpec.getPhase()));
     for (Map.Entry<String, String> pipelineProperty : phaseSpec.getPipelineProperties().entrySet()) {
       sparkConf.set(pipelineProperty.getKey(), pipelineProperty.getValue());
     }
@@ -140,6 +147,7 @@ public class ETLSpark extends AbstractSpark {
     final SparkBatchSourceFactory sourceFactory = new SparkBatchSourceFactory();
     final SparkBatchSinkFactory sinkFactory = new SparkBatchSinkFactory();
     final Map<String, Integer> stagePartitions = new HashMap<>();
+    final Map<String, Set<String>> stageBroadcastInputs = new HashMap<>();
     PluginContext pluginContext = new SparkPipelinePluginContext(context, context.getMetrics(),
                                                                  phaseSpec.isStageLoggingEnabled(),
                                                                  phaseSpec.isProcessTimingEnabled());
@@ -224,6 +232,7 @@ public class ETLSpark extends AbstractSpark {
             @Override
             public void act(DefaultJoinerContext sparkJoinerContext) {
               stagePartitions.put(stageName, sparkJoinerContext.getNumPartitions());
+              stageBroadcastInputs.put(stageName, sparkJoinerContext.getBroadcastInputs());
             }
           });
 
@@ -239,7 +248,8 @@ public class ETLSpark extends AbstractSpark {
     try (Writer writer = Files.newBufferedWriter(configFile.toPath(), StandardCharsets.UTF_8)) {
       SparkBatchSourceSinkFactoryInfo sourceSinkInfo = new SparkBatchSourceSinkFactoryInfo(sourceFactory,
                                                                                            sinkFactory,
-                                                                                           stagePartitions);
+                                                                                           stagePartitions,
+                                                                                           stageBroadcastInputs);
       writer.write(GSON.toJson(sourceSinkInfo));
     }
 
@@ -254,6 +264,32 @@ public class ETLSpark extends AbstractSpark {
     }
   }
 
+  /**
+   * Returns a JSON array of all the input, output and error schemas of the stages in the given phase.
+   * Schemas are deduplicated by their JSON, since {@link Schema#equals(Object)} ignores record names.
+   * The value must be parsable by the schema registry of the CDAP Kryo serializers, which is verified by ETLSparkTest.
+   */
+  @VisibleForTesting
+  static String getSchemasConfValue(PipelinePhase phase) {
+    Set<String> schemas = new LinkedHashSet<>();
+    for (StageSpec stageSpec : phase) {
+      for (Schema schema : stageSpec.getInputSchemas().values()) {
+        addSchema(schemas, schema);
+      }
+      for (StageSpec.Port port : stageSpec.getOutputPorts().values()) {
+        addSchema(schemas, port.getSchema());
+      }
+      addSchema(schemas, stageSpec.getErrorSchema());
+    }
+    return "[" + Joiner.on(',').join(schemas) + "]";
+  }
+
+  private static void addSchema(Set<String> schemas, @Nullable Schema schema) {
+    if (schema != null) {
+      schemas.add(schema.toString());
+    }
+  }
+
   @Override
   @TransactionPolicy(TransactionControl.EXPLICIT)
   public void destroy() {
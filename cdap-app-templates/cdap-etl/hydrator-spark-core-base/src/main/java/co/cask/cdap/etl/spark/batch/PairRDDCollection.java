@@ -21,13 +21,21 @@ import co.cask.cdap.api.spark.JavaSparkExecutionContext;
 import co.cask.cdap.etl.spark.Compat;
 import co.cask.cdap.etl.spark.SparkCollection;
 import co.cask.cdap.etl.spark.SparkPairCollection;
+import co.cask.cdap.etl.spark.function.BroadcastJoinFunction;
+import co.cask.cdap.etl.spark.function.BroadcastLeftJoinFunction;
 import com.google.common.base.Optional;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.api.java.function.FlatMapFunction;
 import org.apache.spark.api.java.function.Function;
+import org.apache.spark.broadcast.Broadcast;
 import scala.Tuple2;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Implementation of {@link SparkCollection} that is backed by a JavaPairRDD.
  *
@@ -39,14 +47,17 @@ public class PairRDDCollection<K, V> implements SparkPairCollection<K, V> {
   private final JavaSparkContext jsc;
   private final DatasetContext datasetContext;
   private final SparkBatchSinkFactory sinkFactory;
+  private final List<Broadcast<?>> broadcasts;
   private final JavaPairRDD<K, V> pairRDD;
 
   public PairRDDCollection(JavaSparkExecutionContext sec, JavaSparkContext jsc, DatasetContext datasetContext,
-                           SparkBatchSinkFactory sinkFactory, JavaPairRDD<K, V> pairRDD) {
+                           SparkBatchSinkFactory sinkFactory, List<Broadcast<?>> broadcasts,
+                           JavaPairRDD<K, V> pairRDD) {
     this.sec = sec;
     this.jsc = jsc;
     this.datasetContext = datasetContext;
     this.sinkFactory = sinkFactory;
+    this.broadcasts = broadcasts;
     this.pairRDD = pairRDD;
   }
 
@@ -58,7 +69,7 @@ public class PairRDDCollection<K, V> implements SparkPairCollection<K, V> {
 
   @Override
   public <T> SparkCollection<T> flatMap(FlatMapFunction<Tuple2<K, V>, T> function) {
-    return new RDDCollection<>(sec, jsc, datasetContext, sinkFactory, pairRDD.flatMap(function));
+    return new RDDCollection<>(sec, jsc, datasetContext, sinkFactory, broadcasts, pairRDD.flatMap(function));
   }
 
   @Override
@@ -104,7 +115,41 @@ public class PairRDDCollection<K, V> implements SparkPairCollection<K, V> {
     return wrap(Compat.fullOuterJoin(pairRDD, (JavaPairRDD<K, T>) other.getUnderlying(), numPartitions));
   }
 
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> SparkPairCollection<K, Tuple2<V, T>> broadcastJoin(SparkPairCollection<K, T> other) {
+    Broadcast<Map<K, List<T>>> index = broadcastIndex((JavaPairRDD<K, T>) other.getUnderlying());
+    return wrap(pairRDD.flatMapToPair(Compat.convert(new BroadcastJoinFunction<>(index))));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> SparkPairCollection<K, Tuple2<V, Optional<T>>> broadcastLeftOuterJoin(SparkPairCollection<K, T> other) {
+    Broadcast<Map<K, List<T>>> index = broadcastIndex((JavaPairRDD<K, T>) other.getUnderlying());
+    return wrap(pairRDD.flatMapToPair(Compat.convert(new BroadcastLeftJoinFunction<>(index))));
+  }
+
+  /**
+   * Collects the given RDD to the driver and broadcasts it as a map from key to all the values with that key.
+   * The broadcast is added to the broadcasts of this collection, so that it is destroyed once the pipeline phase
+   * is done.
+   */
+  private <T> Broadcast<Map<K, List<T>>> broadcastIndex(JavaPairRDD<K, T> rdd) {
+    Map<K, List<T>> index = new HashMap<>();
+    for (Tuple2<K, T> entry : rdd.collect()) {
+      List<T> values = index.get(entry._1());
+      if (values == null) {
+        values = new ArrayList<>(1);
+        index.put(entry._1(), values);
+      }
+      values.add(entry._2());
+    }
+    Broadcast<Map<K, List<T>>> broadcast = jsc.broadcast(index);
+    broadcasts.add(broadcast);
+    return broadcast;
+  }
+
   private <X, Y> SparkPairCollection<X, Y> wrap(JavaPairRDD<X, Y> javaPairRDD) {
-    return new PairRDDCollection<>(sec, jsc, datasetContext, sinkFactory, javaPairRDD);
+    return new PairRDDCollection<>(sec, jsc, datasetContext, sinkFactory, broadcasts, javaPairRDD);
   }
 }
@@ -52,8 +52,10 @@ import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.api.java.function.FlatMapFunction;
 import org.apache.spark.api.java.function.PairFlatMapFunction;
+import org.apache.spark.broadcast.Broadcast;
 import scala.Tuple2;
 
+import java.util.List;
 import javax.annotation.Nullable;
 
 
@@ -68,14 +70,16 @@ public class RDDCollection<T> implements SparkCollection<T> {
   private final JavaSparkContext jsc;
   private final DatasetContext datasetContext;
   private final SparkBatchSinkFactory sinkFactory;
+  private final List<Broadcast<?>> broadcasts;
   private final JavaRDD<T> rdd;
 
-  public RDDCollection(JavaSparkExecutionContext sec, JavaSparkContext jsc,
-                       DatasetContext datasetContext, SparkBatchSinkFactory sinkFactory, JavaRDD<T> rdd) {
+  public RDDCollection(JavaSparkExecutionContext sec, JavaSparkContext jsc, DatasetContext datasetContext,
+                       SparkBatchSinkFactory sinkFactory, List<Broadcast<?>> broadcasts, JavaRDD<T> rdd) {
     this.sec = sec;
     this.jsc = jsc;
     this.datasetContext = datasetContext;
     this.sinkFactory = sinkFactory;
+    this.broadcasts = broadcasts;
     this.rdd = rdd;
   }
 
@@ -136,7 +140,7 @@ public class RDDCollection<T> implements SparkCollection<T> {
 
   @Override
   public <K, V> SparkPairCollection<K, V> flatMapToPair(PairFlatMapFunction<T, K, V> function) {
-    return new PairRDDCollection<>(sec, jsc, datasetContext, sinkFactory, rdd.flatMapToPair(function));
+    return new PairRDDCollection<>(sec, jsc, datasetContext, sinkFactory, broadcasts, rdd.flatMapToPair(function));
   }
 
   @Override
@@ -193,7 +197,7 @@ public class RDDCollection<T> implements SparkCollection<T> {
   }
 
   private <U> RDDCollection<U> wrap(JavaRDD<U> rdd) {
-    return new RDDCollection<>(sec, jsc, datasetContext, sinkFactory, rdd);
+    return new RDDCollection<>(sec, jsc, datasetContext, sinkFactory, broadcasts, rdd);
   }
 
 }
@@ -17,21 +17,25 @@
 package co.cask.cdap.etl.spark.batch;
 
 import java.util.Map;
+import java.util.Set;
 
 /**
- * Stores all the information of {@link SparkBatchSinkFactory} and stagePartitions
+ * Stores all the information of {@link SparkBatchSinkFactory}, stagePartitions and stageBroadcastInputs
  */
 public class SparkBatchSourceSinkFactoryInfo {
   private final SparkBatchSourceFactory sparkBatchSourceFactory;
   private final SparkBatchSinkFactory sparkBatchSinkFactory;
   private final Map<String, Integer> stagePartitions;
+  private final Map<String, Set<String>> stageBroadcastInputs;
 
   public SparkBatchSourceSinkFactoryInfo(SparkBatchSourceFactory sparkBatchSourceFactory,
                                          SparkBatchSinkFactory sparkBatchSinkFactory,
-                                         Map<String, Integer> stagePartitions) {
+                                         Map<String, Integer> stagePartitions,
+                                         Map<String, Set<String>> stageBroadcastInputs) {
     this.sparkBatchSourceFactory = sparkBatchSourceFactory;
     this.sparkBatchSinkFactory = sparkBatchSinkFactory;
     this.stagePartitions = stagePartitions;
+    this.stageBroadcastInputs = stageBroadcastInputs;
   }
 
   public SparkBatchSourceFactory getSparkBatchSourceFactory() {
@@ -45,4 +49,8 @@ public class SparkBatchSourceSinkFactoryInfo {
   public Map<String, Integer> getStagePartitions() {
     return stagePartitions;
   }
+
+  public Map<String, Set<String>> getStageBroadcastInputs() {
+    return stageBroadcastInputs;
+  }
 }
@@ -20,6 +20,7 @@ import co.cask.cdap.etl.api.JoinElement;
 import org.apache.spark.api.java.function.Function;
 import scala.Tuple2;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -36,7 +37,8 @@ public class JoinFlattenFunction<T> implements Function<Tuple2<List<JoinElement<
 
   @Override
   public List<JoinElement<T>> call(Tuple2<List<JoinElement<T>>, T> in) throws Exception {
-    List<JoinElement<T>> output = in._1();
+    // copy the list since the same list is joined with every matching record of the other input
+    List<JoinElement<T>> output = new ArrayList<>(in._1());
     output.add(new JoinElement<>(inputStageName, in._2()));
     return output;
   }
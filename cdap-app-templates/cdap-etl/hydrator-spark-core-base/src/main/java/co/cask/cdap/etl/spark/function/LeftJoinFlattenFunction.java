@@ -21,6 +21,7 @@ import com.google.common.base.Optional;
 import org.apache.spark.api.java.function.Function;
 import scala.Tuple2;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -38,7 +39,8 @@ public class LeftJoinFlattenFunction<T> implements
 
   @Override
   public List<JoinElement<T>> call(Tuple2<List<JoinElement<T>>, Optional<T>> in) throws Exception {
-    List<JoinElement<T>> output = in._1();
+    // copy the list since the same list is joined with every matching record of the other input
+    List<JoinElement<T>> output = new ArrayList<>(in._1());
     if (in._2().isPresent()) {
       output.add(new JoinElement<>(inputStageName, in._2().get()));
     }
@@ -97,6 +97,17 @@ public class PairDStreamCollection<K, V> implements SparkPairCollection<K, V> {
       StreamingCompat.fullOuterJoin(pairStream, (JavaPairDStream<K, T>) other.getUnderlying(), numPartitions));
   }
 
+  @Override
+  public <T> SparkPairCollection<K, Tuple2<V, T>> broadcastJoin(SparkPairCollection<K, T> other) {
+    // the other stream has new records in every batch, so it can't be broadcast once
+    return join(other);
+  }
+
+  @Override
+  public <T> SparkPairCollection<K, Tuple2<V, Optional<T>>> broadcastLeftOuterJoin(SparkPairCollection<K, T> other) {
+    return leftOuterJoin(other);
+  }
+
   private <T, U> PairDStreamCollection<T, U> wrap(JavaPairDStream<T, U> pairStream) {
     return new PairDStreamCollection<>(sec, pairStream);
   }
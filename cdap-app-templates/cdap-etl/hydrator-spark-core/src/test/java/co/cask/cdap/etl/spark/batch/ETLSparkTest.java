@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.etl.spark.batch;
+
+import co.cask.cdap.api.artifact.ArtifactId;
+import co.cask.cdap.api.artifact.ArtifactScope;
+import co.cask.cdap.api.artifact.ArtifactVersion;
+import co.cask.cdap.api.data.schema.Schema;
+import co.cask.cdap.app.runtime.spark.serializer.SchemaRegistry;
+import co.cask.cdap.etl.common.Constants;
+import co.cask.cdap.etl.common.PipelinePhase;
+import co.cask.cdap.etl.spec.PluginSpec;
+import co.cask.cdap.etl.spec.StageSpec;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ETLSpark}.
+ */
+public class ETLSparkTest {
+
+  private static final PluginSpec NODE =
+    new PluginSpec("node", "name", ImmutableMap.<String, String>of(),
+                   new ArtifactId("dummy", new ArtifactVersion("1.0.0"), ArtifactScope.USER));
+
+  @Test
+  public void testSchemasConfValue() {
+    // The key and the encoding are defined separately from the SchemaRegistry, since the ETL modules don't depend on
+    // the Spark runtime. A mismatch would silently turn off the schema registry.
+    Assert.assertEquals(SchemaRegistry.SCHEMAS_CONF_KEY, Constants.SPARK_KRYO_SCHEMAS);
+
+    Schema schema = Schema.recordOf("first", Schema.Field.of("x", Schema.of(Schema.Type.STRING)));
+    // Same as the first schema except for the record name
+    Schema renamedSchema = Schema.recordOf("second", Schema.Field.of("x", Schema.of(Schema.Type.STRING)));
+    Schema otherSchema = Schema.recordOf("other", Schema.Field.of("y", Schema.of(Schema.Type.INT)));
+
+    PipelinePhase phase = PipelinePhase.builder(ImmutableSet.of(NODE.getType()))
+      .addStage(StageSpec.builder("n1", NODE).addOutputSchema(schema, "n2").build())
+      .addStage(StageSpec.builder("n2", NODE)
+                  .addInputSchema("n1", schema)
+                  .addOutputSchema(renamedSchema, "n3")
+                  .setErrorSchema(Constants.ERROR_SCHEMA)
+                  .build())
+      .addStage(StageSpec.builder("n3", NODE)
+                  .addInputSchema("n2", renamedSchema)
+                  .addOutputSchema(otherSchema, "n4")
+                  .build())
+      .addConnection("n1", "n2")
+      .addConnection("n2", "n3")
+      .build();
+
+    SchemaRegistry registry = SchemaRegistry.parse(ETLSpark.getSchemasConfValue(phase));
+    Assert.assertEquals(4, registry.size());
+    for (Schema s : ImmutableList.of(schema, renamedSchema, otherSchema, Constants.ERROR_SCHEMA)) {
+      int id = registry.getId(s);
+      Assert.assertTrue(id >= 0);
+      Assert.assertEquals(s.toString(), registry.getSchema(id).toString());
+    }
+  }
+}
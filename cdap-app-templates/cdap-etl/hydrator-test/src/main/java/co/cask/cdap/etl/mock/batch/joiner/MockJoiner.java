@@ -28,9 +28,11 @@ import co.cask.cdap.etl.api.JoinElement;
 import co.cask.cdap.etl.api.MultiInputPipelineConfigurer;
 import co.cask.cdap.etl.api.MultiInputStageConfigurer;
 import co.cask.cdap.etl.api.batch.BatchJoiner;
+import co.cask.cdap.etl.api.batch.BatchJoinerContext;
 import co.cask.cdap.etl.api.batch.BatchJoinerRuntimeContext;
 import co.cask.cdap.etl.proto.v2.ETLPlugin;
 import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 
 import java.util.ArrayList;
@@ -63,6 +65,11 @@ public class MockJoiner extends BatchJoiner<StructuredRecord, StructuredRecord,
     config.validateConfig();
   }
 
+  @Override
+  public void prepareRun(BatchJoinerContext context) throws Exception {
+    context.setBroadcastInputs(ImmutableSet.copyOf(config.getBroadcastInputs()));
+  }
+
   @Override
   public void initialize(BatchJoinerRuntimeContext context) throws Exception {
     inputSchemas = context.getInputSchemas();
@@ -142,12 +149,14 @@ public class MockJoiner extends BatchJoiner<StructuredRecord, StructuredRecord,
     private final String selectedFields;
     @Nullable
     private final String requiredInputs;
-
+    @Nullable
+    private final String broadcastInputs;
 
     public Config() {
       this.joinKeys = "joinKeys";
       this.selectedFields = "selectedFields";
       this.requiredInputs = "requiredInputs";
+      this.broadcastInputs = null;
     }
 
     private void validateConfig() {
@@ -199,13 +208,28 @@ public class MockJoiner extends BatchJoiner<StructuredRecord, StructuredRecord,
     private Iterable<String> getRequiredInputs() {
       return Splitter.on(',').trimResults().omitEmptyStrings().split(requiredInputs);
     }
+
+    private Iterable<String> getBroadcastInputs() {
+      if (broadcastInputs == null) {
+        return ImmutableSet.of();
+      }
+      return Splitter.on(',').trimResults().omitEmptyStrings().split(broadcastInputs);
+    }
   }
 
   public static ETLPlugin getPlugin(String joinKeys, String requiredInputs, String selectedFields) {
+    return getPlugin(joinKeys, requiredInputs, selectedFields, null);
+  }
+
+  public static ETLPlugin getPlugin(String joinKeys, String requiredInputs, String selectedFields,
+                                    @Nullable String broadcastInputs) {
     Map<String, String> properties = new HashMap<>();
     properties.put("joinKeys", joinKeys);
     properties.put("requiredInputs", requiredInputs);
     properties.put("selectedFields", selectedFields);
+    if (broadcastInputs != null) {
+      properties.put("broadcastInputs", broadcastInputs);
+    }
     return new ETLPlugin("MockJoiner", BatchJoiner.PLUGIN_TYPE, properties, null);
   }
 
@@ -214,6 +238,7 @@ public class MockJoiner extends BatchJoiner<StructuredRecord, StructuredRecord,
     properties.put("joinKeys", new PluginPropertyField("joinKeys", "", "string", true, false));
     properties.put("requiredInputs", new PluginPropertyField("requiredInputs", "", "string", true, false));
     properties.put("selectedFields", new PluginPropertyField("selectedFields", "", "string", true, false));
+    properties.put("broadcastInputs", new PluginPropertyField("broadcastInputs", "", "string", false, false));
     return new PluginClass(BatchJoiner.PLUGIN_TYPE, "MockJoiner", "", MockJoiner.class.getName(),
                            "config", properties);
   }
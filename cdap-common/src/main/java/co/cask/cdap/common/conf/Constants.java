@@ -182,6 +182,9 @@ public final class Constants {
     public static final String LOCAL_DATASET_DELETER_INITIAL_DELAY_SECONDS
       = "app.program.local.dataset.deleter.initial.delay";
     public static final String SYSTEM_ARTIFACTS_DIR = "app.artifact.dir";
+    public static final String UNPACKED_ARTIFACT_CACHE_DIR = "app.artifact.unpacked.cache.dir";
+    public static final String UNPACKED_ARTIFACT_CACHE_MAX_SIZE_MB = "app.artifact.unpacked.cache.max.size.mb";
+    public static final String ARTIFACT_INSPECTION_THREADS = "app.artifact.inspection.threads";
     public static final String PROGRAM_EXTRA_CLASSPATH = "app.program.extra.classpath";
     public static final String SPARK_YARN_CLIENT_REWRITE = "app.program.spark.yarn.client.rewrite.enabled";
     public static final String SPARK_COMPAT = "app.program.spark.compat";
@@ -543,6 +546,7 @@ public final class Constants {
     public static final String CLIENT_BOSS_THREADS = "router.client.boss.threads";
     public static final String CLIENT_WORKER_THREADS = "router.client.worker.threads";
     public static final String CONNECTION_TIMEOUT_SECS = "router.connection.idle.timeout.secs";
+    public static final String BACKEND_POOL_MAX_IDLE_CONNECTIONS = "router.backend.pool.max.idle.connections";
     public static final String ROUTER_USERSERVICE_FALLBACK_STRAGEY = "router.userservice.fallback.strategy";
     public static final String ROUTER_AUDIT_PATH_CHECK_ENABLED = "router.audit.path.check.enabled";
     public static final String ROUTER_AUDIT_LOG_ENABLED = "router.audit.log.enabled";
@@ -583,6 +587,7 @@ public final class Constants {
     public static final String SERVICE_DESCRIPTION = "Service to handle metrics requests.";
     public static final String PROCESSOR_MAX_DELAY_MS = "metrics.processor.max.delay.ms";
     public static final String QUEUE_SIZE = "metrics.processor.queue.size";
+    public static final String AGGREGATION_FLUSH_INTERVAL_MS = "metrics.processor.aggregation.flush.interval.ms";
 
     public static final String ENTITY_TABLE_NAME = "metrics.data.entity.tableName";
     public static final String METRICS_TABLE_PREFIX = "metrics.data.table.prefix";
@@ -818,6 +823,7 @@ public final class Constants {
     public static final String PIPELINE_CHECKPOINT_INTERVAL_MS = "log.process.pipeline.checkpoint.interval.ms";
     public static final String PIPELINE_LOGGER_CACHE_SIZE = "log.process.pipeline.logger.cache.size";
     public static final String PIPELINE_LOGGER_CACHE_EXPIRATION_MS = "log.process.pipeline.logger.cache.expiration.ms";
+    public static final String PIPELINE_PARTITIONED = "log.process.pipeline.partitioned";
 
     // This is a pipeline property only for backward compatibility purpose in 4.1, due to prior to 4.1,
     // the kafka offset prefix is hardcoded to Bytes.toBytes(100)
@@ -826,6 +832,10 @@ public final class Constants {
     // Property key in the logger context to indicate it is performing pipeline validation
     public static final String PIPELINE_VALIDATION = "log.pipeline.validation";
 
+    // Property key in the logger context to indicate the index of the worker when a pipeline is processing each
+    // partition with a separate logger context. It is absent for the first worker.
+    public static final String PIPELINE_WORKER_ID = "log.pipeline.worker.id";
+
     public static final byte[] SYSTEM_PIPELINE_CHECKPOINT_PREFIX = Bytes.toBytes(100);
 
     // Constants
@@ -875,6 +885,8 @@ public final class Constants {
     public static final String TOKEN_DIGEST_KEY_EXPIRATION = "security.token.digest.key.expiration.ms";
     /** Parent znode used for secret key distribution in ZooKeeper. */
     public static final String DIST_KEY_PARENT_ZNODE = "security.token.distributed.parent.znode";
+    /** Maximum number of validated access tokens to cache. */
+    public static final String TOKEN_VALIDATION_CACHE_MAX_ENTRIES = "security.token.validation.cache.max.entries";
     /**
      * Comma separated URL's that clients should use to communicate with the Authentication Server.
      * Each URL should follow the format protocol://host:port. Leave empty to use the default URL generated by
@@ -1097,6 +1109,13 @@ public final class Constants {
     public static final String INACTIVE_OPERATION_TIMEOUT_SECS = "explore.inactive.operation.timeout.secs";
     public static final String CLEANUP_JOB_SCHEDULE_SECS = "explore.cleanup.job.schedule.secs";
 
+    public static final String METADATA_CACHE_EXPIRE_SECS = "explore.metadata.cache.expire.secs";
+    public static final String METADATA_CACHE_MAX_SIZE = "explore.metadata.cache.max.size";
+    public static final String RESULT_CACHE_ENABLED = "explore.result.cache.enabled";
+    public static final String RESULT_CACHE_EXPIRE_SECS = "explore.result.cache.expire.secs";
+    public static final String RESULT_CACHE_MAX_SIZE = "explore.result.cache.max.size";
+    public static final String RESULT_CACHE_MAX_ROWS = "explore.result.cache.max.rows";
+
     public static final String SERVICE_DESCRIPTION = "Service to run ad-hoc queries.";
     public static final String HTTP_TIMEOUT = "explore.http.timeout";
 
@@ -208,6 +208,43 @@ public class StreamInputFormatTest {
     Assert.assertEquals(1, output.get("1").intValue());
   }
 
+  @Test
+  public void testMultipleTimeRanges() throws Exception {
+    File inputDir = tmpFolder.newFolder();
+    File outputDir = tmpFolder.newFolder();
+
+    outputDir.delete();
+
+    // Write 1000 events to two partitions, with timestamps 1000..1999 and 3000..3999 by 1
+    generateEvents(inputDir);
+    generateEvents(inputDir, 1000, 3000, 1, new GenerateEvent() {
+      @Override
+      public String generate(int index, long timestamp) {
+        return "Testing " + (index % 10);
+      }
+    });
+
+    // Only the partition that overlaps with the time range get listed.
+    // There is one split for the events and one for the tail of the file.
+    Configuration conf = new Configuration();
+    AbstractStreamInputFormat.setStreamPath(conf, inputDir.toURI());
+    AbstractStreamInputFormat.addTimeRange(conf, 3400, 3402);
+    List<InputSplit> splits = new TestStreamInputFormat().getSplits(new JobContextImpl(new JobConf(conf),
+                                                                                       new JobID()));
+    Assert.assertEquals(2, splits.size());
+
+    // Run a MapReduce on timestamps 1401, 3400, 3401 and 3405 from both partitions
+    runMR(inputDir, outputDir, 0, Long.MAX_VALUE, 1000, Long.MAX_VALUE, 1401, 1402, 3400, 3402, 3405, 3406);
+
+    // Verify the result. It should have 4 "testing", 2 "1", 1 "0" and 1 "5".
+    Map<String, Integer> output = loadMRResult(outputDir);
+    Assert.assertEquals(4, output.size());
+    Assert.assertEquals(4, output.get("Testing").intValue());
+    Assert.assertEquals(2, output.get("1").intValue());
+    Assert.assertEquals(1, output.get("0").intValue());
+    Assert.assertEquals(1, output.get("5").intValue());
+  }
+
   @Test
   public void testLiveStream() throws Exception {
     File inputDir = tmpFolder.newFolder();
@@ -429,8 +466,13 @@ public class StreamInputFormatTest {
     });
   }
 
+  /**
+   * Runs a MapReduce on the stream.
+   *
+   * @param timeRanges optional pairs of start and end time to add to the time range
+   */
   private void runMR(File inputDir, File outputDir, long startTime, long endTime,
-                     long splitSize, long ttl) throws Exception {
+                     long splitSize, long ttl, long... timeRanges) throws Exception {
 
     Job job = Job.getInstance();
     Configuration conf = job.getConfiguration();
@@ -440,6 +482,9 @@ public class StreamInputFormatTest {
     AbstractStreamInputFormat.setStreamPath(conf, inputDir.toURI());
     AbstractStreamInputFormat.setTimeRange(conf, startTime, endTime);
     AbstractStreamInputFormat.setMaxSplitSize(conf, splitSize);
+    for (int i = 0; i < timeRanges.length; i += 2) {
+      AbstractStreamInputFormat.addTimeRange(conf, timeRanges[i], timeRanges[i + 1]);
+    }
     job.setInputFormatClass(TestStreamInputFormat.class);
 
     TextOutputFormat.setOutputPath(job, new Path(outputDir.toURI()));
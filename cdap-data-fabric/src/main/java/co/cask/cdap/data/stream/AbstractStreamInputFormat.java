@@ -101,10 +101,12 @@ public abstract class AbstractStreamInputFormat<K, V> extends InputFormat<K, V>
   // Keys for storing in job configuration
   private static final String EVENT_START_TIME = "input.streaminputformat.event.starttime";
   private static final String EVENT_END_TIME = "input.streaminputformat.event.endtime";
+  private static final String EVENT_TIME_RANGES = "input.streaminputformat.event.timeranges";
   private static final String STREAM_PATH = "input.streaminputformat.stream.path";
   private static final String STREAM_TTL = "input.streaminputformat.stream.event.ttl";
   private static final String MAX_SPLIT_SIZE = "input.streaminputformat.max.splits.size";
   private static final String MIN_SPLIT_SIZE = "input.streaminputformat.min.splits.size";
+  private static final String LISTING_THREADS = "input.streaminputformat.listing.threads";
   private static final String DECODER_TYPE = "input.streaminputformat.decoder.type";
   private static final String BODY_FORMAT = "input.streaminputformat.stream.body.format";
   private static final String STREAM_ID = "input.streaminputformat.stream.id";
@@ -135,6 +137,24 @@ public abstract class AbstractStreamInputFormat<K, V> extends InputFormat<K, V>
     conf.setLong(EVENT_END_TIME, endTime);
   }
 
+  /**
+   * Adds a time range for the stream events. If time ranges are added, only events that are within one of them and
+   * within the time range set by {@link #setTimeRange(Configuration, long, long)} are read. Partitions that don't
+   * overlap with any of the time ranges are not listed.
+   *
+   * @param conf The configuration to modify
+   * @param startTime Timestamp in milliseconds of the event start time (inclusive).
+   * @param endTime Timestamp in milliseconds of the event end time (exclusive).
+   */
+  public static void addTimeRange(Configuration conf, long startTime, long endTime) {
+    Preconditions.checkArgument(startTime >= 0, "Start time must be >= 0");
+    Preconditions.checkArgument(endTime >= 0, "End time must be >= 0");
+
+    String range = startTime + ":" + endTime;
+    String ranges = conf.get(EVENT_TIME_RANGES);
+    conf.set(EVENT_TIME_RANGES, ranges == null || ranges.isEmpty() ? range : ranges + "," + range);
+  }
+
   /**
    * Sets the stream id of the stream.
    *
@@ -175,6 +195,17 @@ public abstract class AbstractStreamInputFormat<K, V> extends InputFormat<K, V>
     conf.setLong(MIN_SPLIT_SIZE, minSplits);
   }
 
+  /**
+   * Sets the number of threads for listing stream partitions and computing splits.
+   *
+   * @param conf The conf to modify.
+   * @param threads Number of threads, {@code 1} to compute splits in the calling thread.
+   */
+  public static void setListingThreads(Configuration conf, int threads) {
+    Preconditions.checkArgument(threads > 0, "Number of listing threads must be > 0");
+    conf.setInt(LISTING_THREADS, threads);
+  }
+
   /**
    * Sets the class name for the {@link StreamEventDecoder}.
    *
@@ -253,14 +284,19 @@ public abstract class AbstractStreamInputFormat<K, V> extends InputFormat<K, V>
     long startTime = Math.max(conf.getLong(EVENT_START_TIME, 0L), getCurrentTime() - ttl);
     long maxSplitSize = conf.getLong(MAX_SPLIT_SIZE, Long.MAX_VALUE);
     long minSplitSize = Math.min(conf.getLong(MIN_SPLIT_SIZE, 1L), maxSplitSize);
-    StreamInputSplitFinder<InputSplit> splitFinder = StreamInputSplitFinder
+    StreamInputSplitFinder.Builder builder = StreamInputSplitFinder
       .builder(URI.create(conf.get(STREAM_PATH)))
       .setStartTime(startTime)
       .setEndTime(endTime)
       .setMinSplitSize(minSplitSize)
       .setMaxSplitSize(maxSplitSize)
-      .build(splitFactory);
-    return splitFinder.getSplits(conf);
+      .setListingThreads(conf.getInt(LISTING_THREADS, StreamInputSplitFinder.DEFAULT_LISTING_THREADS));
+
+    for (String range : conf.getTrimmedStrings(EVENT_TIME_RANGES)) {
+      int idx = range.indexOf(':');
+      builder.addTimeRange(Long.parseLong(range.substring(0, idx)), Long.parseLong(range.substring(idx + 1)));
+    }
+    return builder.build(splitFactory).getSplits(conf);
   }
 
   @Override
@@ -46,9 +46,11 @@ final class StreamDataFileSplitter {
   }
 
   /**
-   * Computes splits for the event file.
+   * Computes splits for the event file. Splits are created for each of the given time ranges, sharing the same
+   * file offsets and block locations.
    */
-  <T> void computeSplits(FileSystem fs, long minSplitSize, long maxSplitSize, long startTime, long endTime,
+  <T> void computeSplits(FileSystem fs, long minSplitSize, long maxSplitSize,
+                         List<StreamInputSplitFinder.TimeRange> timeRanges,
                          List<T> splits, StreamInputSplitFactory<T> splitFactory) throws IOException {
 
     // Compute the splits based on the min/max size
@@ -71,12 +73,18 @@ final class StreamDataFileSplitter {
       }
 
       long splitSize = computeSplitSize(eventFileStatus, offset, minSplitSize, maxSplitSize);
-      splits.add(splitFactory.createSplit(eventFile, indexFile, startTime, endTime, offset, splitSize, hosts));
+      for (StreamInputSplitFinder.TimeRange range : timeRanges) {
+        splits.add(splitFactory.createSplit(eventFile, indexFile, range.getStartTime(), range.getEndTime(),
+                                            offset, splitSize, hosts));
+      }
       offset += splitSize;
     }
 
     // One extra split for the tail of the file.
-    splits.add(splitFactory.createSplit(eventFile, indexFile, startTime, endTime, offset, Long.MAX_VALUE, null));
+    for (StreamInputSplitFinder.TimeRange range : timeRanges) {
+      splits.add(splitFactory.createSplit(eventFile, indexFile, range.getStartTime(), range.getEndTime(),
+                                          offset, Long.MAX_VALUE, null));
+    }
   }
 
   /**
@@ -17,42 +17,59 @@
 package co.cask.cdap.data.stream;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.PathFilter;
+import org.apache.twill.common.Threads;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Finds input splits for a stream given several stream configuration settings and the location of the stream.
- * TODO: support multiple time ranges instead of just a single start and end.
+ *
+ * Partition directories are pruned by the time ranges based on their names before anything under them is listed,
+ * and the partitions that are left are listed in parallel.
  *
  * @param <T> Type of input split to find. Expected to be either mapred.InputSplit or mapreduce.InputSplit.
  * @see AbstractStreamInputFormat for details on stream file layout.
  */
 public class StreamInputSplitFinder<T> {
-  private final long startTime;
-  private final long endTime;
+
+  /**
+   * Default number of threads for listing partitions and computing splits.
+   */
+  public static final int DEFAULT_LISTING_THREADS = 10;
+
+  private final List<TimeRange> timeRanges;
   private final long maxSplitSize;
   private final long minSplitSize;
+  private final int listingThreads;
   private final Path path;
   private final StreamInputSplitFactory<T> splitFactory;
 
-  private StreamInputSplitFinder(URI path, long startTime, long endTime, long maxSplitSize,
-                                 long minSplitSize, StreamInputSplitFactory<T> splitFactory) {
-    Preconditions.checkArgument(startTime >= 0, "Invalid start time %s", startTime);
-    Preconditions.checkArgument(endTime >= 0, "Invalid end time %s", endTime);
+  private StreamInputSplitFinder(URI path, List<TimeRange> timeRanges, long maxSplitSize,
+                                 long minSplitSize, int listingThreads, StreamInputSplitFactory<T> splitFactory) {
     this.path = new Path(path);
-    this.startTime = startTime;
-    this.endTime = endTime;
+    this.timeRanges = timeRanges;
     this.maxSplitSize = maxSplitSize;
     this.minSplitSize = minSplitSize;
+    this.listingThreads = listingThreads;
     this.splitFactory = splitFactory;
   }
 
@@ -64,39 +81,105 @@ public class StreamInputSplitFinder<T> {
    * @throws IOException
    */
   public List<T> getSplits(Configuration conf) throws IOException {
-    List<T> splits = Lists.newArrayList();
-
-    // Collects all stream event files timestamp, size and block locations information
-
-    // First grab all directories (partition) that matches with the time range.
-    FileSystem fs = path.getFileSystem(conf);
-    for (FileStatus partitionStatus : fs.listStatus(path)) {
+    if (timeRanges.isEmpty()) {
+      return Collections.emptyList();
+    }
 
+    // First grab all directories (partition) that matches with the time ranges.
+    // The partition name has the time range of the partition, hence it can be filtered before getting the status.
+    final FileSystem fs = path.getFileSystem(conf);
+    List<Path> partitions = new ArrayList<>();
+    for (FileStatus partitionStatus : fs.listStatus(path, new PathFilter() {
+      @Override
+      public boolean accept(Path partitionPath) {
+        String pathName = partitionPath.getName();
+        return StreamUtils.isPartition(pathName) && !getTimeRanges(pathName).isEmpty();
+      }
+    })) {
       // partition should be directory
-      String pathName = partitionStatus.getPath().getName();
-      if (!partitionStatus.isDirectory() || !StreamUtils.isPartition(pathName)) {
-        continue;
+      if (partitionStatus.isDirectory()) {
+        partitions.add(partitionStatus.getPath());
       }
+    }
 
-      // Match the time range
-      long partitionStartTime = StreamUtils.getPartitionStartTime(pathName);
-      long partitionEndTime = StreamUtils.getPartitionEndTime(pathName);
-      if (partitionStartTime > endTime || partitionEndTime <= startTime) {
-        continue;
+    // Sort by partition start time so that splits are in time order
+    Collections.sort(partitions, new Comparator<Path>() {
+      @Override
+      public int compare(Path path1, Path path2) {
+        return Long.compare(StreamUtils.getPartitionStartTime(path1.getName()),
+                            StreamUtils.getPartitionStartTime(path2.getName()));
       }
+    });
 
-      // Collects all bucket file status in the partition.
-      Collection<StreamDataFileSplitter> eventFiles = collectBuckets(fs, partitionStatus.getPath());
+    if (listingThreads <= 1 || partitions.size() <= 1) {
+      List<T> splits = Lists.newArrayList();
+      for (Path partition : partitions) {
+        splits.addAll(computeSplits(fs, partition));
+      }
+      return splits;
+    }
+
+    // Each partition needs one listing and one block locations call per bucket file, hence compute them in parallel.
+    // The executor is created for each call so that the threads inherit the security context of the caller.
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(listingThreads, partitions.size()),
+                                                            Threads.createDaemonThreadFactory("stream-splits-%d"));
+    try {
+      List<Future<List<T>>> futures = new ArrayList<>(partitions.size());
+      for (final Path partition : partitions) {
+        futures.add(executor.submit(new Callable<List<T>>() {
+          @Override
+          public List<T> call() throws Exception {
+            return computeSplits(fs, partition);
+          }
+        }));
+      }
 
-      // For each bucket inside the partition directory, compute the splits
-      for (StreamDataFileSplitter splitter : eventFiles) {
-        splitter.computeSplits(fs, minSplitSize, maxSplitSize, startTime, endTime, splits, splitFactory);
+      List<T> splits = Lists.newArrayList();
+      for (Future<List<T>> future : futures) {
+        splits.addAll(future.get());
       }
+      return splits;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while computing splits for stream " + path, e);
+    } catch (ExecutionException e) {
+      Throwables.propagateIfPossible(e.getCause(), IOException.class);
+      throw Throwables.propagate(e.getCause());
+    } finally {
+      executor.shutdownNow();
     }
+  }
 
+  /**
+   * Computes the splits of all buckets under a given partition.
+   */
+  private List<T> computeSplits(FileSystem fs, Path partitionPath) throws IOException {
+    List<TimeRange> partitionRanges = getTimeRanges(partitionPath.getName());
+    List<T> splits = Lists.newArrayList();
+
+    // For each bucket inside the partition directory, compute the splits
+    for (StreamDataFileSplitter splitter : collectBuckets(fs, partitionPath)) {
+      splitter.computeSplits(fs, minSplitSize, maxSplitSize, partitionRanges, splits, splitFactory);
+    }
     return splits;
   }
 
+  /**
+   * Returns the time ranges that overlap with the given partition.
+   */
+  private List<TimeRange> getTimeRanges(String partitionName) {
+    long partitionStartTime = StreamUtils.getPartitionStartTime(partitionName);
+    long partitionEndTime = StreamUtils.getPartitionEndTime(partitionName);
+
+    List<TimeRange> ranges = new ArrayList<>(timeRanges.size());
+    for (TimeRange range : timeRanges) {
+      if (partitionStartTime <= range.getEndTime() && partitionEndTime > range.getStartTime()) {
+        ranges.add(range);
+      }
+    }
+    return ranges;
+  }
+
   /**
    * Collects file status of all buckets under a given partition.
    */
@@ -127,10 +210,12 @@ public class StreamInputSplitFinder<T> {
    */
   public static class Builder {
     private final URI path;
+    private final List<TimeRange> timeRanges = new ArrayList<>();
     private Long startTime = 0L;
     private Long endTime = Long.MAX_VALUE;
     private Long minSplitSize = 1L;
     private Long maxSplitSize = Long.MAX_VALUE;
+    private int listingThreads = DEFAULT_LISTING_THREADS;
 
     public Builder(URI path) {
       Preconditions.checkNotNull(path, "Path to the stream must not be null.");
@@ -147,6 +232,20 @@ public class StreamInputSplitFinder<T> {
       return this;
     }
 
+    /**
+     * Adds a time range to read from. If time ranges are added, only events within one of them and within the start
+     * and end time are read.
+     *
+     * @param startTime start timestamp of the range (inclusive)
+     * @param endTime end timestamp of the range (exclusive)
+     */
+    public Builder addTimeRange(long startTime, long endTime) {
+      Preconditions.checkArgument(startTime >= 0, "Invalid start time %s", startTime);
+      Preconditions.checkArgument(endTime >= 0, "Invalid end time %s", endTime);
+      timeRanges.add(new TimeRange(startTime, endTime));
+      return this;
+    }
+
     public Builder setMaxSplitSize(long maxSplitSize) {
       this.maxSplitSize = maxSplitSize;
       return this;
@@ -157,6 +256,16 @@ public class StreamInputSplitFinder<T> {
       return this;
     }
 
+    /**
+     * Sets the number of threads for listing partitions and computing splits. Setting it to {@code 1} computes
+     * the splits in the calling thread.
+     */
+    public Builder setListingThreads(int listingThreads) {
+      Preconditions.checkArgument(listingThreads > 0, "Invalid number of listing threads %s", listingThreads);
+      this.listingThreads = listingThreads;
+      return this;
+    }
+
     /**
      * Build the input split finder given a factory for creating splits.
      *
@@ -165,7 +274,67 @@ public class StreamInputSplitFinder<T> {
      * @return a new instance of {@link StreamInputSplitFinder}
      */
     public <T> StreamInputSplitFinder<T> build(StreamInputSplitFactory<T> splitFactory) {
-      return new StreamInputSplitFinder<>(path, startTime, endTime, maxSplitSize, minSplitSize, splitFactory);
+      Preconditions.checkArgument(startTime >= 0, "Invalid start time %s", startTime);
+      Preconditions.checkArgument(endTime >= 0, "Invalid end time %s", endTime);
+      return new StreamInputSplitFinder<>(path, createTimeRanges(), maxSplitSize, minSplitSize,
+                                          listingThreads, splitFactory);
+    }
+
+    /**
+     * Creates the sorted list of non-overlapping time ranges to read from, bounded by the start and end time.
+     */
+    private List<TimeRange> createTimeRanges() {
+      List<TimeRange> ranges = new ArrayList<>();
+      if (timeRanges.isEmpty()) {
+        ranges.add(new TimeRange(startTime, endTime));
+      } else {
+        for (TimeRange range : timeRanges) {
+          ranges.add(new TimeRange(Math.max(startTime, range.getStartTime()), Math.min(endTime, range.getEndTime())));
+        }
+        Collections.sort(ranges, new Comparator<TimeRange>() {
+          @Override
+          public int compare(TimeRange range1, TimeRange range2) {
+            return Long.compare(range1.getStartTime(), range2.getStartTime());
+          }
+        });
+      }
+
+      // Drop empty ranges and merge overlapping ones
+      List<TimeRange> result = new ArrayList<>();
+      for (TimeRange range : ranges) {
+        if (range.getStartTime() >= range.getEndTime()) {
+          continue;
+        }
+        TimeRange last = result.isEmpty() ? null : result.get(result.size() - 1);
+        if (last != null && last.getEndTime() >= range.getStartTime()) {
+          result.set(result.size() - 1,
+                     new TimeRange(last.getStartTime(), Math.max(last.getEndTime(), range.getEndTime())));
+        } else {
+          result.add(range);
+        }
+      }
+      return result;
+    }
+  }
+
+  /**
+   * A time range of stream events, with inclusive start time and exclusive end time.
+   */
+  static final class TimeRange {
+    private final long startTime;
+    private final long endTime;
+
+    TimeRange(long startTime, long endTime) {
+      this.startTime = startTime;
+      this.endTime = endTime;
+    }
+
+    long getStartTime() {
+      return startTime;
+    }
+
+    long getEndTime() {
+      return endTime;
     }
   }
 }
@@ -33,8 +33,11 @@ import com.google.common.base.Function;
 import com.google.common.util.concurrent.AbstractIdleService;
 import com.google.inject.name.Named;
 
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import javax.inject.Inject;
 
 /**
@@ -107,10 +110,11 @@ public class AuthorizationDatasetTypeService extends AbstractIdleService impleme
   @Override
   public void deleteAll(NamespaceId namespaceId) throws Exception {
     Principal principal = authenticationContext.getPrincipal();
+    Set<DatasetModuleId> datasetModuleIds = new HashSet<>();
     for (DatasetModuleMeta meta : delegate.listModules(namespaceId)) {
-      DatasetModuleId datasetModuleId = namespaceId.datasetModule(meta.getName());
-      authorizationEnforcer.enforce(datasetModuleId, principal, Action.ADMIN);
+      datasetModuleIds.add(namespaceId.datasetModule(meta.getName()));
     }
+    authorizationEnforcer.enforce(datasetModuleIds, principal, Collections.singleton(Action.ADMIN));
     delegate.deleteAll(namespaceId);
   }
 
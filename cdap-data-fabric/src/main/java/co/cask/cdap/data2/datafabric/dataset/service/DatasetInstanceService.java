@@ -66,10 +66,13 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import javax.annotation.Nullable;
 
@@ -409,13 +412,15 @@ public class DatasetInstanceService {
     Principal principal = authenticationContext.getPrincipal();
 
     Map<DatasetId, DatasetSpecification> datasets = new HashMap<>();
+    Set<DatasetId> toEnforce = new HashSet<>();
     for (DatasetSpecification spec : instanceManager.getAll(namespaceId)) {
       DatasetId datasetId = namespaceId.dataset(spec.getName());
       if (!DatasetsUtil.isSystemDatasetInUserNamespace(datasetId)) {
-        authorizationEnforcer.enforce(datasetId, principal, Action.ADMIN);
+        toEnforce.add(datasetId);
       }
       datasets.put(datasetId, spec);
     }
+    authorizationEnforcer.enforce(toEnforce, principal, Collections.singleton(Action.ADMIN));
 
     // auth check passed, we can start deleting the datasets
     for (DatasetId datasetId : datasets.keySet()) {
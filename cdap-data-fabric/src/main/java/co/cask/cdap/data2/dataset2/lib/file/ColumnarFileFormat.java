@@ -0,0 +1,186 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.data2.dataset2.lib.file;
+
+import co.cask.cdap.api.data.schema.Schema;
+import co.cask.cdap.api.dataset.DatasetProperties;
+import co.cask.cdap.api.dataset.lib.FileSetProperties;
+
+import java.io.IOException;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Columnar file formats that are supported by the built-in columnar file set types. Each format derives the
+ * input and output format, the file schema and the Explore table format of a file set from the CDAP {@link Schema}
+ * given by the {@link DatasetProperties#SCHEMA} property, which must be a record schema.
+ *
+ * The input and output format classes are not dependencies of CDAP. They have to be available to the programs that
+ * read or write the file set, the same as for other file sets.
+ */
+public enum ColumnarFileFormat {
+
+  /**
+   * Parquet files with Avro records. The Avro schema is the same as the CDAP schema.
+   */
+  PARQUET("parquet", "org.apache.parquet.avro.AvroParquetInputFormat",
+          "org.apache.parquet.avro.AvroParquetOutputFormat", "parquet.avro.schema") {
+    @Override
+    String toFileSchema(Schema schema) {
+      return schema.toString();
+    }
+  },
+
+  /**
+   * ORC files with the ORC mapreduce input and output formats. The ORC type description is derived from the
+   * CDAP schema.
+   */
+  ORC("orc", "org.apache.orc.mapreduce.OrcInputFormat",
+      "org.apache.orc.mapreduce.OrcOutputFormat", "orc.mapred.output.schema") {
+    @Override
+    String toFileSchema(Schema schema) {
+      return toOrcType(schema);
+    }
+  };
+
+  private final String exploreFormat;
+  private final String inputFormat;
+  private final String outputFormat;
+  private final String schemaProperty;
+
+  ColumnarFileFormat(String exploreFormat, String inputFormat, String outputFormat, String schemaProperty) {
+    this.exploreFormat = exploreFormat;
+    this.inputFormat = inputFormat;
+    this.outputFormat = outputFormat;
+    this.schemaProperty = schemaProperty;
+  }
+
+  /**
+   * Returns the format name used for the Explore table.
+   */
+  public String getExploreFormat() {
+    return exploreFormat;
+  }
+
+  /**
+   * Returns the {@link ColumnarFileFormat} that has the given Explore format name, or {@code null} if there is none.
+   */
+  @Nullable
+  public static ColumnarFileFormat fromExploreFormat(@Nullable String format) {
+    for (ColumnarFileFormat fileFormat : values()) {
+      if (fileFormat.exploreFormat.equalsIgnoreCase(format)) {
+        return fileFormat;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Adds the file set properties for this format to the given properties. Properties that are already set are
+   * not modified, so that they can be overridden, for example to use a different version of the input format.
+   *
+   * @param properties the dataset properties, which must contain a record schema
+   * @return a new {@link DatasetProperties} with the format properties added
+   * @throws IllegalArgumentException if the properties don't contain a valid record schema
+   */
+  public DatasetProperties configure(DatasetProperties properties) {
+    Map<String, String> props = properties.getProperties();
+    Schema schema = getSchema(props);
+
+    return DatasetProperties.builder()
+      .setDescription(properties.getDescription())
+      .add(FileSetProperties.INPUT_FORMAT, inputFormat)
+      .add(FileSetProperties.OUTPUT_FORMAT, outputFormat)
+      .add(FileSetProperties.OUTPUT_PROPERTIES_PREFIX + schemaProperty, toFileSchema(schema))
+      .add(FileSetProperties.PROPERTY_EXPLORE_FORMAT, exploreFormat)
+      .addAll(props)
+      .build();
+  }
+
+  /**
+   * Returns the schema of the file for the given record schema.
+   */
+  abstract String toFileSchema(Schema schema);
+
+  /**
+   * Returns the record {@link Schema} set in the given properties.
+   *
+   * @throws IllegalArgumentException if there is no valid record schema in the properties
+   */
+  public static Schema getSchema(Map<String, String> properties) {
+    String schemaStr = properties.get(DatasetProperties.SCHEMA);
+    if (schemaStr == null) {
+      throw new IllegalArgumentException("Columnar file sets require the schema to be given in the property '"
+                                           + DatasetProperties.SCHEMA + "'");
+    }
+    Schema schema;
+    try {
+      schema = Schema.parseJson(schemaStr);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Invalid schema in the property '" + DatasetProperties.SCHEMA + "'", e);
+    }
+    if (schema.getType() != Schema.Type.RECORD) {
+      throw new IllegalArgumentException("Columnar file sets require a record schema, but the schema is " + schema);
+    }
+    return schema;
+  }
+
+  /**
+   * Converts a {@link Schema} to an ORC type description string, such as {@code struct<id:bigint,name:string>}.
+   * Nullable types are converted to the non-nullable type since all ORC columns are nullable.
+   *
+   * @throws IllegalArgumentException if the schema contains a type that is not supported by ORC
+   */
+  static String toOrcType(Schema schema) {
+    switch (schema.getType()) {
+      case BOOLEAN:
+        return "boolean";
+      case INT:
+        return "int";
+      case LONG:
+        return "bigint";
+      case FLOAT:
+        return "float";
+      case DOUBLE:
+        return "double";
+      case STRING:
+      case ENUM:
+        return "string";
+      case BYTES:
+        return "binary";
+      case ARRAY:
+        return "array<" + toOrcType(schema.getComponentSchema()) + ">";
+      case MAP:
+        Map.Entry<Schema, Schema> mapSchema = schema.getMapSchema();
+        return "map<" + toOrcType(mapSchema.getKey()) + "," + toOrcType(mapSchema.getValue()) + ">";
+      case RECORD:
+        StringBuilder builder = new StringBuilder("struct<");
+        String separator = "";
+        for (Schema.Field field : schema.getFields()) {
+          builder.append(separator).append(field.getName()).append(':').append(toOrcType(field.getSchema()));
+          separator = ",";
+        }
+        return builder.append('>').toString();
+      case UNION:
+        if (schema.isNullable()) {
+          return toOrcType(schema.getNonNullable());
+        }
+        break;
+    }
+    throw new IllegalArgumentException("Schema type " + schema.getType() + " is not supported by ORC: " + schema);
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.data2.dataset2.lib.file;
+
+import co.cask.cdap.api.dataset.DatasetProperties;
+import co.cask.cdap.api.dataset.DatasetSpecification;
+import co.cask.cdap.api.dataset.IncompatibleUpdateException;
+
+/**
+ * Dataset definition for file sets with a columnar file format. The file formats and schemas are derived from
+ * the schema of the dataset by the {@link ColumnarFileFormat}.
+ */
+public class ColumnarFileSetDefinition extends FileSetDefinition {
+
+  private final ColumnarFileFormat format;
+
+  public ColumnarFileSetDefinition(String name, ColumnarFileFormat format) {
+    super(name);
+    this.format = format;
+  }
+
+  @Override
+  public DatasetSpecification configure(String instanceName, DatasetProperties properties) {
+    return super.configure(instanceName, format.configure(properties));
+  }
+
+  @Override
+  public DatasetSpecification reconfigure(String instanceName,
+                                          DatasetProperties newProperties,
+                                          DatasetSpecification currentSpec) throws IncompatibleUpdateException {
+    return super.reconfigure(instanceName, format.configure(newProperties), currentSpec);
+  }
+}
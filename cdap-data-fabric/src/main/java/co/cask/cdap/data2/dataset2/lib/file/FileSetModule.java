@@ -29,5 +29,9 @@ public class FileSetModule implements DatasetModule {
     // file dataset
     registry.add(new FileSetDefinition(FileSet.class.getName()));
     registry.add(new FileSetDefinition("fileSet"));
+
+    // file datasets with columnar file formats
+    registry.add(new ColumnarFileSetDefinition("parquetFileSet", ColumnarFileFormat.PARQUET));
+    registry.add(new ColumnarFileSetDefinition("orcFileSet", ColumnarFileFormat.ORC));
   }
 }
@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.data2.dataset2.lib.partitioned;
+
+import co.cask.cdap.api.dataset.DatasetDefinition;
+import co.cask.cdap.api.dataset.DatasetProperties;
+import co.cask.cdap.api.dataset.DatasetSpecification;
+import co.cask.cdap.api.dataset.IncompatibleUpdateException;
+import co.cask.cdap.api.dataset.lib.FileSet;
+import co.cask.cdap.api.dataset.lib.IndexedTable;
+import co.cask.cdap.data2.dataset2.lib.file.ColumnarFileFormat;
+
+/**
+ * Defines the partitioned file set types with a columnar file format. The file formats and schemas of the
+ * partitions are derived from the schema of the dataset by the {@link ColumnarFileFormat}.
+ */
+public class ColumnarPartitionedFileSetDefinition extends PartitionedFileSetDefinition {
+
+  private final ColumnarFileFormat format;
+
+  public ColumnarPartitionedFileSetDefinition(String name, ColumnarFileFormat format,
+                                              DatasetDefinition<? extends FileSet, ?> filesetDef,
+                                              DatasetDefinition<? extends IndexedTable, ?> tableDef) {
+    super(name, filesetDef, tableDef);
+    this.format = format;
+  }
+
+  @Override
+  public DatasetSpecification configure(String instanceName, DatasetProperties properties) {
+    // add the format properties, which get passed to the embedded file set as well.
+    return super.configure(instanceName, format.configure(properties));
+  }
+
+  @Override
+  public DatasetSpecification reconfigure(String instanceName,
+                                          DatasetProperties properties,
+                                          DatasetSpecification currentSpec) throws IncompatibleUpdateException {
+    return super.reconfigure(instanceName, format.configure(properties), currentSpec);
+  }
+}
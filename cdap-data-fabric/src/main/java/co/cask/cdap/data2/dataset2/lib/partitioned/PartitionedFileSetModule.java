@@ -23,6 +23,7 @@ import co.cask.cdap.api.dataset.lib.IndexedTable;
 import co.cask.cdap.api.dataset.lib.PartitionedFileSet;
 import co.cask.cdap.api.dataset.module.DatasetDefinitionRegistry;
 import co.cask.cdap.api.dataset.module.DatasetModule;
+import co.cask.cdap.data2.dataset2.lib.file.ColumnarFileFormat;
 import co.cask.cdap.data2.dataset2.lib.file.FileSetAdmin;
 
 /**
@@ -39,5 +40,11 @@ public class PartitionedFileSetModule implements DatasetModule {
     // file dataset
     registry.add(new PartitionedFileSetDefinition(PartitionedFileSet.class.getName(), fileSetDef, indexedTableDef));
     registry.add(new PartitionedFileSetDefinition("partitionedFileSet", fileSetDef, indexedTableDef));
+
+    // partitioned file datasets with columnar file formats
+    registry.add(new ColumnarPartitionedFileSetDefinition("parquetPartitionedFileSet", ColumnarFileFormat.PARQUET,
+                                                          fileSetDef, indexedTableDef));
+    registry.add(new ColumnarPartitionedFileSetDefinition("orcPartitionedFileSet", ColumnarFileFormat.ORC,
+                                                          fileSetDef, indexedTableDef));
   }
 }
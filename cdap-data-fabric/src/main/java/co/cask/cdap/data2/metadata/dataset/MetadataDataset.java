@@ -192,6 +192,68 @@ public class MetadataDataset extends AbstractDataset {
     setMetadata(newTagsEntry);
   }
 
+  /**
+   * Replaces the properties and tags of the specified {@link NamespacedEntityId} with the given {@link Metadata}.
+   * The existing metadata is diffed against the new one so that only the entries that were added, changed or removed
+   * are written along with their indexes, and the history is snapshot once for the entity instead of once per entry.
+   *
+   * @param metadata the new properties and tags of the entity
+   * @param propertiesToPreserve property keys whose existing values are retained if they are not present in the
+   *                             new properties
+   * @param reindex if {@code true}, unchanged entries are also written along with their indexes, for example to
+   *                regenerate indexes during upgrade
+   * @return the {@link Metadata} of the entity before the replacement
+   */
+  public Metadata replaceMetadata(Metadata metadata, Set<String> propertiesToPreserve, boolean reindex) {
+    NamespacedEntityId targetId = metadata.getEntityId();
+    Map<String, String> existingProperties = getMetadata(targetId);
+    String existingTagsValue = existingProperties.remove(TAGS_KEY);
+    Set<String> existingTags = existingTagsValue == null ? new HashSet<String>() : splitTags(existingTagsValue);
+
+    Map<String, String> newProperties = new HashMap<>(metadata.getProperties());
+    for (String key : propertiesToPreserve) {
+      String existingValue = existingProperties.get(key);
+      if (existingValue != null && !newProperties.containsKey(key)) {
+        newProperties.put(key, existingValue);
+      }
+    }
+
+    boolean changed = false;
+    for (String key : existingProperties.keySet()) {
+      if (!newProperties.containsKey(key)) {
+        deleteValue(targetId, key);
+        changed = true;
+      }
+    }
+    for (Map.Entry<String, String> entry : newProperties.entrySet()) {
+      String key = entry.getKey();
+      boolean unchanged = entry.getValue().equals(existingProperties.get(key));
+      if (unchanged && !reindex) {
+        // value is unchanged, hence its indexes are up to date as well
+        continue;
+      }
+      writeValue(targetId, new MetadataEntry(targetId, key, entry.getValue()), getIndexersForKey(key));
+      changed |= !unchanged;
+    }
+
+    Set<String> newTags = new HashSet<>(metadata.getTags());
+    boolean tagsUnchanged = newTags.equals(existingTags);
+    if (!tagsUnchanged || reindex) {
+      if (newTags.isEmpty()) {
+        deleteValue(targetId, TAGS_KEY);
+      } else {
+        writeValue(targetId, new MetadataEntry(targetId, TAGS_KEY, Joiner.on(TAGS_SEPARATOR).join(newTags)),
+                   getIndexersForKey(TAGS_KEY));
+      }
+      changed |= !tagsUnchanged;
+    }
+
+    if (changed) {
+      writeHistory(new Metadata(targetId, newProperties, newTags));
+    }
+    return new Metadata(targetId, existingProperties, existingTags);
+  }
+
   /**
    * Return metadata based on target id, and key.
    *
@@ -711,6 +773,14 @@ public class MetadataDataset extends AbstractDataset {
   }
 
   private void write(NamespacedEntityId targetId, MetadataEntry entry, Set<Indexer> indexers) {
+    writeValue(targetId, entry, indexers);
+    writeHistory(targetId);
+  }
+
+  /**
+   * Writes the value of a {@link MetadataEntry} along with its indexes, without snapshotting the history.
+   */
+  private void writeValue(NamespacedEntityId targetId, MetadataEntry entry, Set<Indexer> indexers) {
     String key = entry.getKey();
     MDSKey mdsValueKey = MdsKey.getMDSValueKey(targetId, key);
     Put put = new Put(mdsValueKey.getKey());
@@ -719,7 +789,14 @@ public class MetadataDataset extends AbstractDataset {
     put.add(Bytes.toBytes(VALUE_COLUMN), Bytes.toBytes(entry.getValue()));
     indexedTable.put(put);
     storeIndexes(targetId, key, indexers, entry);
-    writeHistory(targetId);
+  }
+
+  /**
+   * Deletes the value of a metadata key along with its indexes, without snapshotting the history.
+   */
+  private void deleteValue(NamespacedEntityId targetId, String metadataKey) {
+    indexedTable.delete(new Delete(MdsKey.getMDSValueKey(targetId, metadataKey).getKey()));
+    deleteIndexes(targetId, metadataKey);
   }
 
   /**
@@ -797,7 +874,15 @@ public class MetadataDataset extends AbstractDataset {
   private void writeHistory(NamespacedEntityId targetId) {
     Map<String, String> properties = getProperties(targetId);
     Set<String> tags = getTags(targetId);
-    Metadata metadata = new Metadata(targetId, properties, tags);
+    writeHistory(new Metadata(targetId, properties, tags));
+  }
+
+  /**
+   * Snapshots the given metadata of an entity at the current time.
+   * @param metadata the complete metadata of the entity
+   */
+  private void writeHistory(Metadata metadata) {
+    NamespacedEntityId targetId = metadata.getEntityId();
     byte[] row = MdsHistoryKey.getMdsKey(targetId, System.currentTimeMillis()).getKey();
     indexedTable.put(row, Bytes.toBytes(HISTORY_COLUMN), Bytes.toBytes(GSON.toJson(metadata)));
   }
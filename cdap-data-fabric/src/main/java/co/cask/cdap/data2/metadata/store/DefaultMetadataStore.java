@@ -60,6 +60,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -191,6 +192,74 @@ public class DefaultMetadataStore implements MetadataStore {
                  new MetadataRecord(namespacedEntityId, scope));
   }
 
+  @Override
+  public void replaceMetadata(Set<MetadataRecord> metadataRecords, final Set<String> propertiesToPreserve,
+                              final boolean reindex) {
+    Map<MetadataScope, List<MetadataRecord>> recordsByScope = new EnumMap<>(MetadataScope.class);
+    for (MetadataRecord record : metadataRecords) {
+      List<MetadataRecord> records = recordsByScope.get(record.getScope());
+      if (records == null) {
+        records = new ArrayList<>();
+        recordsByScope.put(record.getScope(), records);
+      }
+      records.add(record);
+    }
+
+    for (Map.Entry<MetadataScope, List<MetadataRecord>> entry : recordsByScope.entrySet()) {
+      final MetadataScope scope = entry.getKey();
+      final List<MetadataRecord> records = entry.getValue();
+      final List<MetadataRecord> previousRecords = new ArrayList<>(records.size());
+      execute(new TransactionExecutor.Procedure<MetadataDataset>() {
+        @Override
+        public void apply(MetadataDataset input) throws Exception {
+          // clear in case the transaction is retried
+          previousRecords.clear();
+          for (MetadataRecord record : records) {
+            Metadata metadata = new Metadata(record.getEntityId(), record.getProperties(), record.getTags());
+            Metadata previous = input.replaceMetadata(metadata, propertiesToPreserve, reindex);
+            previousRecords.add(new MetadataRecord(record.getEntityId(), scope,
+                                                   previous.getProperties(), previous.getTags()));
+          }
+        }
+      }, scope);
+
+      // Compute the audit diffs outside the transaction
+      for (int i = 0; i < records.size(); i++) {
+        publishReplaceAudit(previousRecords.get(i), records.get(i), propertiesToPreserve);
+      }
+    }
+  }
+
+  private void publishReplaceAudit(MetadataRecord previous, MetadataRecord current, Set<String> propertiesToPreserve) {
+    NamespacedEntityId entityId = previous.getEntityId();
+    MetadataScope scope = previous.getScope();
+    Map<String, String> propAdditions = new HashMap<>();
+    Map<String, String> propDeletions = new HashMap<>();
+    for (Map.Entry<String, String> entry : current.getProperties().entrySet()) {
+      String existingValue = previous.getProperties().get(entry.getKey());
+      if (entry.getValue().equals(existingValue)) {
+        continue;
+      }
+      if (existingValue != null) {
+        propDeletions.put(entry.getKey(), existingValue);
+      }
+      propAdditions.put(entry.getKey(), entry.getValue());
+    }
+    for (Map.Entry<String, String> entry : previous.getProperties().entrySet()) {
+      if (!current.getProperties().containsKey(entry.getKey()) && !propertiesToPreserve.contains(entry.getKey())) {
+        propDeletions.put(entry.getKey(), entry.getValue());
+      }
+    }
+    Set<String> tagAdditions = Sets.difference(current.getTags(), previous.getTags()).immutableCopy();
+    Set<String> tagDeletions = Sets.difference(previous.getTags(), current.getTags()).immutableCopy();
+    if (propAdditions.isEmpty() && propDeletions.isEmpty() && tagAdditions.isEmpty() && tagDeletions.isEmpty()) {
+      // nothing changed for this entity
+      return;
+    }
+    publishAudit(previous, new MetadataRecord(entityId, scope, propAdditions, tagAdditions),
+                 new MetadataRecord(entityId, scope, propDeletions, tagDeletions));
+  }
+
   @Override
   public Set<MetadataRecord> getMetadata(NamespacedEntityId namespacedEntityId) {
     return ImmutableSet.of(getMetadata(MetadataScope.USER, namespacedEntityId), getMetadata(MetadataScope.SYSTEM,
@@ -72,6 +72,20 @@ public interface MetadataStore {
    */
   void addTags(MetadataScope scope, NamespacedEntityId namespacedEntityId, String... tagsToAdd);
 
+  /**
+   * Replaces the metadata (including properties and tags) of many {@link NamespacedEntityId}s in one batch. Each
+   * {@link MetadataRecord} describes the complete metadata of an entity in its {@link MetadataScope}: existing
+   * properties and tags that are not part of the record are removed, except for the properties listed in
+   * {@code propertiesToPreserve}. Only the entries that actually change are written along with their indexes, and all
+   * records of a scope are written in a single transaction.
+   *
+   * @param metadataRecords the new metadata of the entities
+   * @param propertiesToPreserve property keys whose existing values are retained if they are not present in the
+   *                             new metadata of an entity
+   * @param reindex if {@code true}, entries that didn't change are also written along with their indexes
+   */
+  void replaceMetadata(Set<MetadataRecord> metadataRecords, Set<String> propertiesToPreserve, boolean reindex);
+
   /**
    * @return a set of {@link MetadataRecord} representing all the metadata (including properties and tags) for the
    * specified {@link NamespacedEntityId} in both {@link MetadataScope#USER} and {@link MetadataScope#SYSTEM}.
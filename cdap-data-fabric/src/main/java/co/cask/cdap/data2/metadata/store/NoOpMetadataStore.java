@@ -53,6 +53,12 @@ public class NoOpMetadataStore implements MetadataStore {
     // NO-OP
   }
 
+  @Override
+  public void replaceMetadata(Set<MetadataRecord> metadataRecords, Set<String> propertiesToPreserve,
+                              boolean reindex) {
+    // NO-OP
+  }
+
   @Override
   public Set<MetadataRecord> getMetadata(NamespacedEntityId namespacedEntityId) {
     return ImmutableSet.of(new MetadataRecord(namespacedEntityId, MetadataScope.USER),
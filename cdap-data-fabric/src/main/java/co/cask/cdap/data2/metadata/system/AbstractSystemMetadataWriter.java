@@ -17,6 +17,7 @@
 package co.cask.cdap.data2.metadata.system;
 
 import co.cask.cdap.api.plugin.PluginClass;
+import co.cask.cdap.common.metadata.MetadataRecord;
 import co.cask.cdap.data2.metadata.dataset.MetadataDataset;
 import co.cask.cdap.data2.metadata.store.MetadataStore;
 import co.cask.cdap.proto.id.NamespacedEntityId;
@@ -25,9 +26,9 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Sets;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
@@ -96,45 +97,53 @@ public abstract class AbstractSystemMetadataWriter implements SystemMetadataWrit
    */
   @Override
   public void write() {
-    // Delete existing system metadata before writing new metadata
-    Set<String> existingProperties = metadataStore.getProperties(MetadataScope.SYSTEM, entityId).keySet();
-    Sets.SetView<String> removeProperties = Sets.difference(existingProperties, PRESERVE_PROPERTIES);
-    if (!removeProperties.isEmpty()) {
-      String[] propertiesArray = removeProperties.toArray(new String[removeProperties.size()]);
-      metadataStore.removeProperties(MetadataScope.SYSTEM, entityId, propertiesArray);
-    }
-    metadataStore.removeTags(MetadataScope.SYSTEM, entityId);
-
-    // Now add the new metadata. The properties that were preserved need to be provided to setProperties() so that
-    // they also get indexed. 
-    // First add any preserved properties that were not removed
-    Map<String, String> allProperties =
-      getPreserverdProperties(metadataStore.getProperties(MetadataScope.SYSTEM, entityId));
-    // Add all the properties that need to be added
-    allProperties.putAll(getSystemPropertiesToAdd());
-    if (allProperties.size() > 0) {
-      metadataStore.setProperties(MetadataScope.SYSTEM, entityId, allProperties);
+    write(false);
+  }
+
+  /**
+   * Updates the {@link MetadataScope#SYSTEM} metadata for this {@link NamespacedEntityId entity}.
+   *
+   * @param reindex if {@code true}, metadata that didn't change is also written along with its indexes, which is
+   *                needed for regenerating the indexes of existing entities during upgrade
+   */
+  public void write(boolean reindex) {
+    metadataStore.replaceMetadata(ImmutableSet.of(getMetadataRecord()), PRESERVE_PROPERTIES, reindex);
+  }
+
+  /**
+   * Updates the {@link MetadataScope#SYSTEM} metadata of all the given writers in one batch, so that the metadata of
+   * many entities, such as all the programs of an application, is written in a single pass.
+   *
+   * @param metadataStore the {@link MetadataStore} to write to
+   * @param writers the writers to update the metadata for
+   * @param reindex if {@code true}, metadata that didn't change is also written along with its indexes
+   */
+  public static void writeAll(MetadataStore metadataStore,
+                              Iterable<? extends AbstractSystemMetadataWriter> writers, boolean reindex) {
+    Set<MetadataRecord> records = new HashSet<>();
+    for (AbstractSystemMetadataWriter writer : writers) {
+      records.add(writer.getMetadataRecord());
     }
-    String[] tags = getSystemTagsToAdd();
-    if (tags.length > 0) {
-      metadataStore.addTags(MetadataScope.SYSTEM, entityId, tags);
+    if (!records.isEmpty()) {
+      metadataStore.replaceMetadata(records, PRESERVE_PROPERTIES, reindex);
     }
+  }
+
+  /**
+   * Returns the complete {@link MetadataScope#SYSTEM} metadata for this {@link NamespacedEntityId entity}. Existing
+   * system properties that are not part of it are removed on write, except for the preserved properties, which are
+   * not part of entity properties.
+   */
+  private MetadataRecord getMetadataRecord() {
+    Map<String, String> properties = new HashMap<>(getSystemPropertiesToAdd());
     // store additional properties that we want to index separately
     // if there is schema property then set that while providing schema indexer
     String schema = getSchemaToAdd();
     if (!Strings.isNullOrEmpty(schema)) {
-      metadataStore.setProperty(MetadataScope.SYSTEM, entityId, SCHEMA_KEY, schema);
-    }
-  }
-
-  private Map<String, String> getPreserverdProperties(Map<String, String> existingProperties) {
-    Map<String, String> allProperties = new HashMap<>();
-    for (String preservedProperty : PRESERVE_PROPERTIES) {
-      if (existingProperties.get(preservedProperty) != null) {
-        allProperties.put(preservedProperty, existingProperties.get(preservedProperty));
-      }
+      properties.put(SCHEMA_KEY, schema);
     }
-    return allProperties;
+    return new MetadataRecord(entityId, MetadataScope.SYSTEM, properties,
+                              ImmutableSet.copyOf(getSystemTagsToAdd()));
   }
 
   void addPlugin(PluginClass pluginClass, @Nullable String version,
@@ -16,6 +16,7 @@
 
 package co.cask.cdap.data2.dataset2.lib;
 
+import co.cask.cdap.api.data.schema.Schema;
 import co.cask.cdap.api.dataset.DataSetException;
 import co.cask.cdap.api.dataset.DatasetManagementException;
 import co.cask.cdap.api.dataset.DatasetProperties;
@@ -224,6 +225,41 @@ public class FileSetTest {
     Assert.assertEquals(NullOutputFormat.class.getName(), fs.getOutputFormatClassName());
   }
 
+  @Test
+  public void testColumnarFileSet() throws Exception {
+    Schema schema = Schema.recordOf("rec",
+                                    Schema.Field.of("id", Schema.of(Schema.Type.LONG)),
+                                    Schema.Field.of("name", Schema.nullableOf(Schema.of(Schema.Type.STRING))));
+
+    // the formats and the file schema are derived from the dataset schema
+    DatasetId datasetId = OTHER_NAMESPACE.dataset("testOrcFileSet");
+    dsFrameworkUtil.createInstance("orcFileSet", datasetId, FileSetProperties.builder()
+      .add(DatasetProperties.SCHEMA, schema.toString())
+      .build());
+    FileSet fs = dsFrameworkUtil.getInstance(datasetId);
+    Assert.assertEquals("org.apache.orc.mapreduce.OrcInputFormat", fs.getInputFormatClassName());
+    Assert.assertEquals("org.apache.orc.mapreduce.OrcOutputFormat", fs.getOutputFormatClassName());
+    Assert.assertEquals("struct<id:bigint,name:string>",
+                        fs.getOutputFormatConfiguration().get("orc.mapred.output.schema"));
+
+    // properties that are set explicitly are not overridden
+    datasetId = OTHER_NAMESPACE.dataset("testParquetFileSet");
+    dsFrameworkUtil.createInstance("parquetFileSet", datasetId, FileSetProperties.builder()
+      .setInputFormat("parquet.avro.AvroParquetInputFormat")
+      .add(DatasetProperties.SCHEMA, schema.toString())
+      .build());
+    fs = dsFrameworkUtil.getInstance(datasetId);
+    Assert.assertEquals("parquet.avro.AvroParquetInputFormat", fs.getInputFormatClassName());
+    Assert.assertEquals("org.apache.parquet.avro.AvroParquetOutputFormat", fs.getOutputFormatClassName());
+    Assert.assertEquals(schema, Schema.parseJson(fs.getOutputFormatConfiguration().get("parquet.avro.schema")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testColumnarFileSetWithoutSchema() throws IOException, DatasetManagementException {
+    dsFrameworkUtil.createInstance("parquetFileSet", OTHER_NAMESPACE.dataset("noSchemaFileSet"),
+                                   DatasetProperties.EMPTY);
+  }
+
   @Test
   public void testAbsolutePath() throws IOException, DatasetManagementException {
     String absolutePath = tmpFolder.newFolder() + "/absolute/path";
@@ -227,6 +227,99 @@ public class MetadataDatasetTest {
     });
   }
 
+  @Test
+  public void testReplaceMetadata() throws Exception {
+    txnl.execute(new TransactionExecutor.Subroutine() {
+      @Override
+      public void apply() throws Exception {
+        dataset.setProperty(flow1, "fkey1", "fvalue1");
+        dataset.setProperty(flow1, "fkey2", "fvalue2");
+        dataset.setProperty(flow1, "preserved", "pvalue");
+        dataset.addTags(flow1, "tag1", "tag2");
+      }
+    });
+    txnl.execute(new TransactionExecutor.Subroutine() {
+      @Override
+      public void apply() throws Exception {
+        Metadata previous = dataset.replaceMetadata(
+          new Metadata(flow1, ImmutableMap.of("fkey1", "fvalue1", "fkey3", "fvalue3"), ImmutableSet.of("tag3")),
+          ImmutableSet.of("preserved"), false);
+        Assert.assertEquals(ImmutableMap.of("fkey1", "fvalue1", "fkey2", "fvalue2", "preserved", "pvalue"),
+                            previous.getProperties());
+        Assert.assertEquals(ImmutableSet.of("tag1", "tag2"), previous.getTags());
+      }
+    });
+    txnl.execute(new TransactionExecutor.Subroutine() {
+      @Override
+      public void apply() throws Exception {
+        Assert.assertEquals(ImmutableMap.of("fkey1", "fvalue1", "fkey3", "fvalue3", "preserved", "pvalue"),
+                            dataset.getProperties(flow1));
+        Assert.assertEquals(ImmutableSet.of("tag3"), dataset.getTags(flow1));
+        // indexes of removed entries should be gone, and indexes of new entries should be present
+        Assert.assertTrue(searchByDefaultIndex("ns1", "fkey2:fvalue2", ImmutableSet.of(EntityTypeSimpleName.ALL))
+                            .isEmpty());
+        Assert.assertTrue(searchByDefaultIndex("ns1", "tags:tag1", ImmutableSet.of(EntityTypeSimpleName.ALL))
+                            .isEmpty());
+        Assert.assertEquals(1, searchByDefaultIndex("ns1", "fkey3:fvalue3",
+                                                    ImmutableSet.of(EntityTypeSimpleName.ALL)).size());
+        Assert.assertEquals(1, searchByDefaultIndex("ns1", "tags:tag3",
+                                                    ImmutableSet.of(EntityTypeSimpleName.ALL)).size());
+        Assert.assertEquals(1, searchByDefaultIndex("ns1", "fkey1:fvalue1",
+                                                    ImmutableSet.of(EntityTypeSimpleName.ALL)).size());
+      }
+    });
+    txnl.execute(new TransactionExecutor.Subroutine() {
+      @Override
+      public void apply() throws Exception {
+        // removing all tags should delete the tags entry
+        dataset.replaceMetadata(new Metadata(flow1, ImmutableMap.<String, String>of(), ImmutableSet.<String>of()),
+                                ImmutableSet.<String>of(), false);
+        Assert.assertTrue(dataset.getProperties(flow1).isEmpty());
+        Assert.assertTrue(dataset.getTags(flow1).isEmpty());
+        Assert.assertTrue(searchByDefaultIndex("ns1", "tags:tag3", ImmutableSet.of(EntityTypeSimpleName.ALL))
+                            .isEmpty());
+      }
+    });
+  }
+
+  @Test
+  public void testReplaceMetadataReindex() throws Exception {
+    final Metadata metadata = new Metadata(flow1, ImmutableMap.of("rkey", "rvalue"), ImmutableSet.of("rtag"));
+    txnl.execute(new TransactionExecutor.Subroutine() {
+      @Override
+      public void apply() throws Exception {
+        dataset.replaceMetadata(metadata, ImmutableSet.<String>of(), false);
+        // drop the indexes, like indexes that are outdated before an upgrade
+        dataset.deleteAllIndexes(100);
+      }
+    });
+    txnl.execute(new TransactionExecutor.Subroutine() {
+      @Override
+      public void apply() throws Exception {
+        // unchanged metadata is not rewritten without reindex
+        dataset.replaceMetadata(metadata, ImmutableSet.<String>of(), false);
+        Assert.assertTrue(searchByDefaultIndex("ns1", "rkey:rvalue", ImmutableSet.of(EntityTypeSimpleName.ALL))
+                            .isEmpty());
+        Assert.assertTrue(searchByDefaultIndex("ns1", "tags:rtag", ImmutableSet.of(EntityTypeSimpleName.ALL))
+                            .isEmpty());
+      }
+    });
+    txnl.execute(new TransactionExecutor.Subroutine() {
+      @Override
+      public void apply() throws Exception {
+        // reindex should regenerate the indexes of unchanged metadata
+        dataset.replaceMetadata(metadata, ImmutableSet.<String>of(), true);
+        Assert.assertEquals(ImmutableMap.of("rkey", "rvalue"), dataset.getProperties(flow1));
+        Assert.assertEquals(1, searchByDefaultIndex("ns1", "rkey:rvalue",
+                                                    ImmutableSet.of(EntityTypeSimpleName.ALL)).size());
+        Assert.assertEquals(1, searchByDefaultIndex("ns1", "tags:rtag",
+                                                    ImmutableSet.of(EntityTypeSimpleName.ALL)).size());
+        dataset.removeProperties(flow1);
+        dataset.removeTags(flow1);
+      }
+    });
+  }
+
   @Test
   public void testTags() throws InterruptedException, TransactionFailureException {
     txnl.execute(new TransactionExecutor.Subroutine() {
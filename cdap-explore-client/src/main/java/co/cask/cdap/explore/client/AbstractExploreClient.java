@@ -509,9 +509,10 @@ public abstract class AbstractExploreClient extends ExploreHttpClient implements
             } else if (schemaColumn.getType().equals("TINYINT")) {
               columnValue = ((Double) columnValue).byteValue();
             }
-          } else if ("BINARY".equals(columnType)) {
+          } else if ("BINARY".equals(columnType) && columnValue != null && !(columnValue instanceof byte[])) {
             // A BINARY value is a byte array, which is deserialized by GSon into a list of
-            // double objects - here we recreate a byte[] object.
+            // double objects - here we recreate a byte[] object. Results fetched in the columnar
+            // format already have the byte[] object.
             List<Object> binary;
             if (columnValue instanceof List) {
               binary = (List) columnValue;
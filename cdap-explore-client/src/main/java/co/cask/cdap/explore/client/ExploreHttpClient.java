@@ -31,6 +31,7 @@ import co.cask.cdap.explore.service.ExploreException;
 import co.cask.cdap.explore.service.HandleNotFoundException;
 import co.cask.cdap.explore.service.MetaDataInfo;
 import co.cask.cdap.explore.service.TableNotFoundException;
+import co.cask.cdap.explore.utils.ColumnarQueryResults;
 import co.cask.cdap.explore.utils.ColumnsArgs;
 import co.cask.cdap.explore.utils.FunctionsArgs;
 import co.cask.cdap.explore.utils.SchemasArgs;
@@ -56,6 +57,7 @@ import com.google.common.base.Charsets;
 import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.net.HttpHeaders;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonParseException;
@@ -292,8 +294,17 @@ abstract class ExploreHttpClient implements Explore {
   public List<QueryResult> nextResults(QueryHandle handle, int size) throws ExploreException, HandleNotFoundException {
     HttpResponse response = doPost(String.format("data/explore/queries/%s/%s",
                                                  handle.getHandle(), "next"),
-                                   GSON.toJson(ImmutableMap.of("size", size)), null);
+                                   GSON.toJson(ImmutableMap.of("size", size)),
+                                   ImmutableMap.of(HttpHeaders.ACCEPT, ColumnarQueryResults.CONTENT_TYPE));
     if (response.getResponseCode() == HttpURLConnection.HTTP_OK) {
+      // Older servers ignore the Accept header and always respond with JSON
+      if (isContentType(response, ColumnarQueryResults.CONTENT_TYPE)) {
+        try {
+          return ColumnarQueryResults.decode(response.getResponseBody());
+        } catch (IOException e) {
+          throw new ExploreException("Cannot decode next results", e);
+        }
+      }
       return parseJson(response, ROW_LIST_TYPE);
     } else if (response.getResponseCode() == HttpURLConnection.HTTP_NOT_FOUND) {
       throw new HandleNotFoundException("Handle " + handle.getHandle() + "not found.");
@@ -505,6 +516,17 @@ abstract class ExploreHttpClient implements Explore {
     }
   }
 
+  private boolean isContentType(HttpResponse response, String contentType) {
+    // Header names are case insensitive
+    for (Map.Entry<String, String> header : response.getHeaders().entries()) {
+      if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(header.getKey())
+        && header.getValue() != null && header.getValue().startsWith(contentType)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private HttpResponse doGet(String resource) throws ExploreException {
     return doRequest(resource, HttpMethod.GET, null, null);
   }
@@ -0,0 +1,287 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.explore.utils;
+
+import co.cask.cdap.proto.QueryResult;
+import com.google.common.base.Charsets;
+import com.google.gson.Gson;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Encodes and decodes a batch of {@link QueryResult} in a binary, column oriented format. It is used as an
+ * alternative to JSON for fetching query results, when requested by the client with the {@link #CONTENT_TYPE}
+ * in the {@code Accept} header.
+ *
+ * A batch is encoded as the format version, the number of rows and the number of columns, followed by one vector
+ * per column. Each vector starts with a type tag, followed by a null bitmap if the column has any null value,
+ * and then the non-null values of the column encoded according to the type. Columns with values of mixed or
+ * non-primitive types are encoded as JSON strings, which decode to the same values as the JSON format.
+ */
+public final class ColumnarQueryResults {
+
+  public static final String CONTENT_TYPE = "application/x-cdap-explore-columnar";
+
+  private static final Gson GSON = new Gson();
+  private static final int VERSION = 1;
+
+  private static final byte TYPE_NULL = 0;
+  private static final byte TYPE_BOOLEAN = 1;
+  private static final byte TYPE_BYTE = 2;
+  private static final byte TYPE_SHORT = 3;
+  private static final byte TYPE_INT = 4;
+  private static final byte TYPE_LONG = 5;
+  private static final byte TYPE_FLOAT = 6;
+  private static final byte TYPE_DOUBLE = 7;
+  private static final byte TYPE_STRING = 8;
+  private static final byte TYPE_BINARY = 9;
+  private static final byte TYPE_JSON = 10;
+
+  private ColumnarQueryResults() {
+    // no-op
+  }
+
+  /**
+   * Encodes the given rows. All rows must have the same number of columns.
+   */
+  public static byte[] encode(List<QueryResult> rows) throws IOException {
+    int columnCount = rows.isEmpty() ? 0 : rows.get(0).getColumns().size();
+    List<List<Object>> rowColumns = new ArrayList<>(rows.size());
+    for (QueryResult row : rows) {
+      List<Object> columns = row.getColumns();
+      if (columns.size() != columnCount) {
+        throw new IllegalArgumentException("Rows have different number of columns");
+      }
+      rowColumns.add(columns);
+    }
+
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    DataOutputStream output = new DataOutputStream(bos);
+    output.writeByte(VERSION);
+    output.writeInt(rows.size());
+    output.writeInt(columnCount);
+
+    for (int col = 0; col < columnCount; col++) {
+      byte type = getType(rowColumns, col);
+      output.writeByte(type);
+      if (type == TYPE_NULL) {
+        continue;
+      }
+
+      byte[] nulls = getNullBitmap(rowColumns, col);
+      output.writeBoolean(nulls != null);
+      if (nulls != null) {
+        output.write(nulls);
+      }
+      for (List<Object> columns : rowColumns) {
+        Object value = columns.get(col);
+        if (value != null) {
+          writeValue(output, type, value);
+        }
+      }
+    }
+    output.flush();
+    return bos.toByteArray();
+  }
+
+  /**
+   * Decodes the rows encoded by {@link #encode(List)}.
+   */
+  public static List<QueryResult> decode(byte[] bytes) throws IOException {
+    DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+    int version = input.readByte();
+    if (version != VERSION) {
+      throw new IOException("Unsupported columnar query results version " + version);
+    }
+    int rowCount = input.readInt();
+    int columnCount = input.readInt();
+    if (rowCount == 0) {
+      return Collections.emptyList();
+    }
+
+    Object[][] rows = new Object[rowCount][columnCount];
+    for (int col = 0; col < columnCount; col++) {
+      byte type = input.readByte();
+      if (type == TYPE_NULL) {
+        continue;
+      }
+
+      byte[] nulls = null;
+      if (input.readBoolean()) {
+        nulls = new byte[(rowCount + 7) / 8];
+        input.readFully(nulls);
+      }
+      for (int row = 0; row < rowCount; row++) {
+        if (nulls == null || (nulls[row >> 3] & (1 << (row & 7))) == 0) {
+          rows[row][col] = readValue(input, type);
+        }
+      }
+    }
+
+    List<QueryResult> results = new ArrayList<>(rowCount);
+    for (Object[] row : rows) {
+      results.add(new QueryResult(Arrays.asList(row)));
+    }
+    return results;
+  }
+
+  /**
+   * Returns the type tag of the given column, which is determined by the classes of the non-null values.
+   */
+  private static byte getType(List<List<Object>> rows, int col) {
+    Class<?> valueClass = null;
+    for (List<Object> columns : rows) {
+      Object value = columns.get(col);
+      if (value == null) {
+        continue;
+      }
+      if (valueClass == null) {
+        valueClass = value.getClass();
+      } else if (valueClass != value.getClass()) {
+        return TYPE_JSON;
+      }
+    }
+
+    if (valueClass == null) {
+      return TYPE_NULL;
+    }
+    if (valueClass == Boolean.class) {
+      return TYPE_BOOLEAN;
+    }
+    if (valueClass == Byte.class) {
+      return TYPE_BYTE;
+    }
+    if (valueClass == Short.class) {
+      return TYPE_SHORT;
+    }
+    if (valueClass == Integer.class) {
+      return TYPE_INT;
+    }
+    if (valueClass == Long.class) {
+      return TYPE_LONG;
+    }
+    if (valueClass == Float.class) {
+      return TYPE_FLOAT;
+    }
+    if (valueClass == Double.class) {
+      return TYPE_DOUBLE;
+    }
+    if (valueClass == String.class) {
+      return TYPE_STRING;
+    }
+    if (valueClass == byte[].class) {
+      return TYPE_BINARY;
+    }
+    return TYPE_JSON;
+  }
+
+  /**
+   * Returns the null bitmap of the given column or {@code null} if the column has no null value.
+   */
+  private static byte[] getNullBitmap(List<List<Object>> rows, int col) {
+    byte[] nulls = null;
+    for (int row = 0; row < rows.size(); row++) {
+      if (rows.get(row).get(col) == null) {
+        if (nulls == null) {
+          nulls = new byte[(rows.size() + 7) / 8];
+        }
+        nulls[row >> 3] |= 1 << (row & 7);
+      }
+    }
+    return nulls;
+  }
+
+  private static void writeValue(DataOutputStream output, byte type, Object value) throws IOException {
+    switch (type) {
+      case TYPE_BOOLEAN:
+        output.writeBoolean((Boolean) value);
+        break;
+      case TYPE_BYTE:
+        output.writeByte((Byte) value);
+        break;
+      case TYPE_SHORT:
+        output.writeShort((Short) value);
+        break;
+      case TYPE_INT:
+        output.writeInt((Integer) value);
+        break;
+      case TYPE_LONG:
+        output.writeLong((Long) value);
+        break;
+      case TYPE_FLOAT:
+        output.writeFloat((Float) value);
+        break;
+      case TYPE_DOUBLE:
+        output.writeDouble((Double) value);
+        break;
+      case TYPE_STRING:
+        writeBytes(output, ((String) value).getBytes(Charsets.UTF_8));
+        break;
+      case TYPE_BINARY:
+        writeBytes(output, (byte[]) value);
+        break;
+      default:
+        writeBytes(output, GSON.toJson(value).getBytes(Charsets.UTF_8));
+    }
+  }
+
+  private static Object readValue(DataInputStream input, byte type) throws IOException {
+    switch (type) {
+      case TYPE_BOOLEAN:
+        return input.readBoolean();
+      case TYPE_BYTE:
+        return input.readByte();
+      case TYPE_SHORT:
+        return input.readShort();
+      case TYPE_INT:
+        return input.readInt();
+      case TYPE_LONG:
+        return input.readLong();
+      case TYPE_FLOAT:
+        return input.readFloat();
+      case TYPE_DOUBLE:
+        return input.readDouble();
+      case TYPE_STRING:
+        return new String(readBytes(input), Charsets.UTF_8);
+      case TYPE_BINARY:
+        return readBytes(input);
+      case TYPE_JSON:
+        return GSON.fromJson(new String(readBytes(input), Charsets.UTF_8), Object.class);
+      default:
+        throw new IOException("Unsupported column type " + type);
+    }
+  }
+
+  private static void writeBytes(DataOutputStream output, byte[] bytes) throws IOException {
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  private static byte[] readBytes(DataInputStream input) throws IOException {
+    byte[] bytes = new byte[input.readInt()];
+    input.readFully(bytes);
+    return bytes;
+  }
+}
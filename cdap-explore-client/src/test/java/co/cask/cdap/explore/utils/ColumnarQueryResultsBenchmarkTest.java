@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.explore.utils;
+
+import co.cask.cdap.proto.QueryResult;
+import co.cask.cdap.test.XSlowTests;
+import com.google.common.base.Charsets;
+import com.google.common.base.Stopwatch;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the bytes transferred and the time to encode and decode batches of query results, with the JSON and the
+ * {@link ColumnarQueryResults} formats. The number of batches and the batch size can be set with the
+ * {@code explore.benchmark.batches} and {@code explore.benchmark.batch.size} system properties.
+ */
+@Category(XSlowTests.class)
+public class ColumnarQueryResultsBenchmarkTest {
+
+  private static final Gson GSON = new Gson();
+  private static final Type ROW_LIST_TYPE = new TypeToken<List<QueryResult>>() { }.getType();
+
+  @Test
+  public void testFormats() throws IOException {
+    int batches = Integer.getInteger("explore.benchmark.batches", 500);
+    List<QueryResult> rows = createRows(Integer.getInteger("explore.benchmark.batch.size", 1000));
+
+    // Warm up both formats before measuring
+    for (int i = 0; i < 20; i++) {
+      GSON.fromJson(GSON.toJson(rows), ROW_LIST_TYPE);
+      ColumnarQueryResults.decode(ColumnarQueryResults.encode(rows));
+    }
+
+    long bytes = 0;
+    Stopwatch stopwatch = new Stopwatch().start();
+    for (int i = 0; i < batches; i++) {
+      byte[] json = GSON.toJson(rows).getBytes(Charsets.UTF_8);
+      bytes += json.length;
+      GSON.fromJson(new String(json, Charsets.UTF_8), ROW_LIST_TYPE);
+    }
+    report("json", batches * rows.size(), bytes, stopwatch.elapsedTime(TimeUnit.MILLISECONDS));
+
+    bytes = 0;
+    stopwatch = new Stopwatch().start();
+    for (int i = 0; i < batches; i++) {
+      byte[] columnar = ColumnarQueryResults.encode(rows);
+      bytes += columnar.length;
+      ColumnarQueryResults.decode(columnar);
+    }
+    report("columnar", batches * rows.size(), bytes, stopwatch.elapsedTime(TimeUnit.MILLISECONDS));
+  }
+
+  private void report(String name, long rows, long bytes, long elapsedMs) {
+    System.out.printf("%s: %d rows in %d ms, %.0f rows/sec and %.1f bytes per row%n",
+                      name, rows, elapsedMs, rows * 1000.0 / Math.max(1, elapsedMs), (double) bytes / rows);
+  }
+
+  /**
+   * Creates rows with a mix of numeric, string and binary columns, which is typical for a dataset query.
+   */
+  private List<QueryResult> createRows(int size) {
+    Random random = new Random();
+    List<QueryResult> rows = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      byte[] bytes = new byte[16];
+      random.nextBytes(bytes);
+      rows.add(new QueryResult(Arrays.<Object>asList(
+        i, random.nextLong(), random.nextDouble(), random.nextBoolean(), "name-" + random.nextInt(), bytes)));
+    }
+    return rows;
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.explore.utils;
+
+import co.cask.cdap.proto.QueryResult;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit-test for {@link ColumnarQueryResults}.
+ */
+public class ColumnarQueryResultsTest {
+
+  @Test
+  public void testPrimitives() throws IOException {
+    List<QueryResult> rows = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      // Have nulls in some of the rows to test the null bitmap
+      boolean hasNull = i % 3 == 0;
+      rows.add(new QueryResult(Arrays.<Object>asList(
+        i % 2 == 0, (byte) i, (short) (i * 10), i * 100, hasNull ? null : (long) i << 40,
+        i / 2.0f, i / 3.0d, hasNull ? null : "s" + i, new byte[] { (byte) i, 1, 2 }, null)));
+    }
+    Assert.assertEquals(rows, ColumnarQueryResults.decode(ColumnarQueryResults.encode(rows)));
+  }
+
+  @Test
+  public void testJsonFallback() throws IOException {
+    // Columns with mixed or complex types are encoded as JSON, which decode to the same values as the JSON format
+    List<QueryResult> rows = ImmutableList.of(
+      new QueryResult(Arrays.<Object>asList(1, ImmutableMap.of("k", "v"), "unicode é中")),
+      new QueryResult(Arrays.<Object>asList("two", ImmutableList.of(1, 2), null)));
+    List<QueryResult> decoded = ColumnarQueryResults.decode(ColumnarQueryResults.encode(rows));
+
+    Assert.assertEquals(2, decoded.size());
+    Assert.assertEquals(Arrays.<Object>asList(1.0d, ImmutableMap.of("k", "v"), "unicode é中"),
+                        decoded.get(0).getColumns());
+    Assert.assertEquals(Arrays.<Object>asList("two", ImmutableList.of(1.0d, 2.0d), null),
+                        decoded.get(1).getColumns());
+  }
+
+  @Test
+  public void testEmpty() throws IOException {
+    Assert.assertEquals(Collections.<QueryResult>emptyList(),
+                        ColumnarQueryResults.decode(ColumnarQueryResults.encode(
+                          Collections.<QueryResult>emptyList())));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDifferentColumnCount() throws IOException {
+    ColumnarQueryResults.encode(ImmutableList.of(new QueryResult(Arrays.<Object>asList(1, 2)),
+                                                 new QueryResult(Arrays.<Object>asList(1))));
+  }
+}
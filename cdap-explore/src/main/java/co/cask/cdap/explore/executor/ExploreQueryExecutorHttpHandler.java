@@ -21,6 +21,7 @@ import co.cask.cdap.explore.service.ExploreException;
 import co.cask.cdap.explore.service.ExploreService;
 import co.cask.cdap.explore.service.HandleNotFoundException;
 import co.cask.cdap.explore.service.hive.OperationInfo;
+import co.cask.cdap.explore.utils.ColumnarQueryResults;
 import co.cask.cdap.proto.ColumnDesc;
 import co.cask.cdap.proto.QueryHandle;
 import co.cask.cdap.proto.QueryResult;
@@ -31,8 +32,10 @@ import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
 import com.google.gson.Gson;
 import com.google.inject.Inject;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
 import io.netty.handler.codec.http.EmptyHttpHeaders;
 import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import org.slf4j.Logger;
@@ -183,7 +186,15 @@ public class ExploreQueryExecutorHttpHandler extends AbstractExploreQueryExecuto
           }
         });
       }
-      responder.sendJson(HttpResponseStatus.OK, GSON.toJson(results));
+      // Send the results in the columnar binary format if the client accepts it
+      String accept = request.headers().get(HttpHeaderNames.ACCEPT);
+      if (accept != null && accept.contains(ColumnarQueryResults.CONTENT_TYPE)) {
+        responder.sendByteArray(HttpResponseStatus.OK, ColumnarQueryResults.encode(results),
+                                new DefaultHttpHeaders().set(HttpHeaderNames.CONTENT_TYPE,
+                                                             ColumnarQueryResults.CONTENT_TYPE));
+      } else {
+        responder.sendJson(HttpResponseStatus.OK, GSON.toJson(results));
+      }
     } catch (IllegalArgumentException e) {
       LOG.debug("Got exception:", e);
       responder.sendString(HttpResponseStatus.BAD_REQUEST, e.getMessage());
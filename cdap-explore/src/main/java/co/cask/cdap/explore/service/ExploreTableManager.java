@@ -38,6 +38,7 @@ import co.cask.cdap.common.conf.CConfiguration;
 import co.cask.cdap.common.conf.Constants;
 import co.cask.cdap.data.dataset.SystemDatasetInstantiator;
 import co.cask.cdap.data.dataset.SystemDatasetInstantiatorFactory;
+import co.cask.cdap.data2.dataset2.lib.file.ColumnarFileFormat;
 import co.cask.cdap.explore.table.AlterPartitionStatementBuilder;
 import co.cask.cdap.explore.table.AlterStatementBuilder;
 import co.cask.cdap.explore.table.CreateStatementBuilder;
@@ -553,7 +554,7 @@ public class ExploreTableManager {
   @Nullable
   private String generateFileSetCreateStatement(DatasetId datasetId, Dataset dataset,
                                                 Map<String, String> properties, boolean truncating)
-    throws IllegalArgumentException, ExploreException {
+    throws IllegalArgumentException, ExploreException, UnsupportedTypeException {
 
     String tableName = tableNaming.getTableName(datasetId, properties);
     String databaseName = ExploreProperties.getExploreDatabaseName(properties);
@@ -591,9 +592,15 @@ public class ExploreTableManager {
     String schema = FileSetProperties.getExploreSchema(properties);
     String format = FileSetProperties.getExploreFormat(properties);
     if (format != null) {
-      if ("parquet".equals(format)) {
-        return createStatementBuilder.setSchema(FileSetProperties.getExploreSchema(properties))
-          .buildWithFileFormat("parquet");
+      ColumnarFileFormat columnarFormat = ColumnarFileFormat.fromExploreFormat(format);
+      if (columnarFormat != null) {
+        // for columnar formats, the Hive schema can be derived from the dataset schema
+        if (schema != null) {
+          createStatementBuilder.setSchema(schema);
+        } else {
+          createStatementBuilder.setSchema(ColumnarFileFormat.getSchema(properties));
+        }
+        return createStatementBuilder.buildWithFileFormat(columnarFormat.getExploreFormat());
       }
       // for text and csv, we know what to do
       Preconditions.checkArgument("text".equals(format) || "csv".equals(format),
@@ -702,7 +709,7 @@ public class ExploreTableManager {
   private List<String> generateFileSetAlterStatements(DatasetId datasetId, String tableName,
                                                       Map<String, String> properties,
                                                       Map<String, String> oldProperties)
-    throws IllegalArgumentException {
+    throws IllegalArgumentException, UnsupportedTypeException {
 
     String datasetName = datasetId.getDataset();
     String databaseName = ExploreProperties.getExploreDatabaseName(properties);
@@ -722,9 +729,10 @@ public class ExploreTableManager {
 
     if (format != null) {
       if (!(format.equals(oldFormat) && formatProps.equals(oldFormatProps))) {
-        if ("parquet".equals(format)) {
+        ColumnarFileFormat columnarFormat = ColumnarFileFormat.fromExploreFormat(format);
+        if (columnarFormat != null) {
           alterStatements.add(new AlterStatementBuilder(datasetName, databaseName, tableName, shouldEscapeColumns)
-                                .buildWithFileFormat("parquet"));
+                                .buildWithFileFormat(columnarFormat.getExploreFormat()));
           return alterStatements;
         }
         // for text and csv, we know what to do
@@ -775,6 +783,13 @@ public class ExploreTableManager {
     if (schema != null && !schema.equals(oldSchema)) {
       alterStatements.add(new AlterStatementBuilder(datasetName, databaseName, tableName, shouldEscapeColumns)
                             .buildWithSchema(schema));
+    } else if (schema == null && ColumnarFileFormat.fromExploreFormat(format) != null) {
+      // for columnar formats, the Hive schema is derived from the dataset schema if no explore schema is given
+      String datasetSchema = properties.get(DatasetProperties.SCHEMA);
+      if (datasetSchema != null && !datasetSchema.equals(oldProperties.get(DatasetProperties.SCHEMA))) {
+        alterStatements.add(new AlterStatementBuilder(datasetName, databaseName, tableName, shouldEscapeColumns)
+                              .buildWithSchema(ColumnarFileFormat.getSchema(properties)));
+      }
     }
 
     return alterStatements;
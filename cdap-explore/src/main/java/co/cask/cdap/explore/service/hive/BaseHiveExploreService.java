@@ -16,6 +16,8 @@
 
 package co.cask.cdap.explore.service.hive;
 
+import co.cask.cdap.api.metrics.MetricsCollectionService;
+import co.cask.cdap.api.metrics.MetricsContext;
 import co.cask.cdap.app.runtime.scheduler.SchedulerQueueResolver;
 import co.cask.cdap.common.NamespaceNotFoundException;
 import co.cask.cdap.common.conf.CConfiguration;
@@ -61,6 +63,7 @@ import com.google.common.base.Throwables;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.common.io.Closeables;
@@ -114,6 +117,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Executors;
@@ -135,6 +139,9 @@ public abstract class BaseHiveExploreService extends AbstractIdleService impleme
 
   private static final Logger LOG = LoggerFactory.getLogger(BaseHiveExploreService.class);
   private static final Gson GSON = new Gson();
+  // Statements that don't change any table, hence don't need to invalidate the caches
+  private static final List<String> READ_STATEMENT_PREFIXES = ImmutableList.of(
+    "select ", "show ", "describe ", "desc ", "explain ", "use ", "set ");
   private static final int PREVIEW_COUNT = 5;
   private static final long METASTORE_CLIENT_CLEANUP_PERIOD = 60;
   public static final String SPARK_YARN_DIST_FILES = "spark.yarn.dist.files";
@@ -176,6 +183,12 @@ public abstract class BaseHiveExploreService extends AbstractIdleService impleme
 
   private final Map<String, String> sparkConf = new HashMap<>();
 
+  private final AuthenticationContext authenticationContext;
+  // Table metadata, keyed by the Hive database for table lists and by the qualified table name for table infos
+  private final ExploreCache<String, List<TableNameInfo>> tablesCache;
+  private final ExploreCache<String, TableInfo> tableInfoCache;
+  private final QueryResultCache resultCache;
+
   protected abstract OperationHandle executeSync(SessionHandle sessionHandle, String statement)
     throws HiveSQLException, ExploreException;
 
@@ -198,7 +211,8 @@ public abstract class BaseHiveExploreService extends AbstractIdleService impleme
                                    NamespaceQueryAdmin namespaceQueryAdmin,
                                    SystemDatasetInstantiatorFactory datasetInstantiatorFactory,
                                    AuthorizationEnforcer authorizationEnforcer,
-                                   AuthenticationContext authenticationContext) {
+                                   AuthenticationContext authenticationContext,
+                                   MetricsCollectionService metricsCollectionService) {
     this.cConf = cConf;
     this.hConf = hConf;
     this.schedulerQueueResolver = new SchedulerQueueResolver(cConf, namespaceQueryAdmin);
@@ -229,6 +243,21 @@ public abstract class BaseHiveExploreService extends AbstractIdleService impleme
     this.cliService = createCLIService();
 
     this.txClient = txClient;
+    this.authenticationContext = authenticationContext;
+
+    MetricsContext metricsContext = metricsCollectionService.getContext(ImmutableMap.of(
+      Constants.Metrics.Tag.NAMESPACE, NamespaceId.SYSTEM.getNamespace(),
+      Constants.Metrics.Tag.COMPONENT, Constants.Service.EXPLORE_HTTP_USER_SERVICE));
+    long metadataCacheSize = cConf.getLong(Constants.Explore.METADATA_CACHE_MAX_SIZE);
+    long metadataCacheExpireSecs = cConf.getLong(Constants.Explore.METADATA_CACHE_EXPIRE_SECS);
+    this.tablesCache = new ExploreCache<>("tables", metadataCacheSize, metadataCacheExpireSecs, metricsContext);
+    this.tableInfoCache = new ExploreCache<>("table.info", metadataCacheSize, metadataCacheExpireSecs,
+                                             metricsContext);
+    // The result cache is disabled by having zero size
+    long resultCacheSize = cConf.getBoolean(Constants.Explore.RESULT_CACHE_ENABLED)
+      ? cConf.getLong(Constants.Explore.RESULT_CACHE_MAX_SIZE) : 0L;
+    this.resultCache = new QueryResultCache(resultCacheSize, cConf.getLong(Constants.Explore.RESULT_CACHE_EXPIRE_SECS),
+                                            cConf.getInt(Constants.Explore.RESULT_CACHE_MAX_ROWS), metricsContext);
 
     ContextManager.saveContext(datasetFramework, streamAdmin, datasetInstantiatorFactory, authorizationEnforcer,
                                authenticationContext);
@@ -238,6 +267,8 @@ public abstract class BaseHiveExploreService extends AbstractIdleService impleme
     LOG.info("Active handle timeout = {} secs", cConf.getLong(Constants.Explore.ACTIVE_OPERATION_TIMEOUT_SECS));
     LOG.info("Inactive handle timeout = {} secs", cConf.getLong(Constants.Explore.INACTIVE_OPERATION_TIMEOUT_SECS));
     LOG.info("Cleanup job schedule = {} secs", cleanupJobSchedule);
+    LOG.info("Metadata cache expiration = {} secs", metadataCacheExpireSecs);
+    LOG.info("Result cache enabled = {}", resultCache.isEnabled());
   }
 
   protected CLIService createCLIService() {
@@ -594,12 +625,20 @@ public abstract class BaseHiveExploreService extends AbstractIdleService impleme
     // TODO check if the database user is allowed to access if security is enabled
     try {
       String database = getHiveDatabase(namespace);
+      List<TableNameInfo> tableNames = tablesCache.get(database);
+      if (tableNames != null) {
+        return tableNames;
+      }
+
+      long generation = tablesCache.getGeneration();
       ImmutableList.Builder<TableNameInfo> builder = ImmutableList.builder();
       List<String> tables = getMetaStoreClient().getAllTables(database);
       for (String table : tables) {
         builder.add(new TableNameInfo(database, table));
       }
-      return builder.build();
+      tableNames = builder.build();
+      tablesCache.put(database, tableNames, generation);
+      return tableNames;
     } catch (TException e) {
       throw new ExploreException("Error connecting to Hive metastore", e);
     }
@@ -617,9 +656,22 @@ public abstract class BaseHiveExploreService extends AbstractIdleService impleme
     startAndWait();
 
     // TODO check if the database user is allowed to access if security is enabled
-    try {
-      String db = databaseName != null ? databaseName : getHiveDatabase(namespace);
+    String db = databaseName != null ? databaseName : getHiveDatabase(namespace);
+    // Hive table and database names are case insensitive
+    String key = (db + "." + table).toLowerCase(Locale.ENGLISH);
+    TableInfo tableInfo = tableInfoCache.get(key);
+    if (tableInfo != null) {
+      return tableInfo;
+    }
+
+    long generation = tableInfoCache.getGeneration();
+    tableInfo = fetchTableInfo(db, table);
+    tableInfoCache.put(key, tableInfo, generation);
+    return tableInfo;
+  }
 
+  private TableInfo fetchTableInfo(String db, String table) throws ExploreException, TableNotFoundException {
+    try {
       Table tableInfo = getMetaStoreClient().getTable(db, table);
       List<FieldSchema> tableFields = tableInfo.getSd().getCols();
       // for whatever reason, it seems like the table columns for partitioned tables are not present
@@ -826,6 +878,7 @@ public abstract class BaseHiveExploreService extends AbstractIdleService impleme
           String statement = String.format("DROP DATABASE IF EXISTS %s", database);
           operationHandle = executeAsync(sessionHandle, statement);
           QueryHandle handle = saveReadOnlyOperation(operationHandle, sessionHandle, sessionConf, statement, database);
+          invalidateCaches(database, statement);
           LOG.info("Deleting database {} with handle {}", database, handle);
           return handle;
         } catch (Throwable e) {
@@ -864,6 +917,7 @@ public abstract class BaseHiveExploreService extends AbstractIdleService impleme
           String statement = statements[i];
           LOG.trace("Executing statement synchronously: {}", statement);
           operationHandle = executeSync(sessionHandle, statement);
+          invalidateCaches(database, statement);
           QueryStatus status = doFetchStatus(operationHandle);
           if (QueryStatus.OpStatus.ERROR == status.getStatus()) {
             throw new HiveSQLException(status.getErrorMessage(), status.getSqlState());
@@ -877,6 +931,7 @@ public abstract class BaseHiveExploreService extends AbstractIdleService impleme
         operationHandle = executeAsync(sessionHandle, statement);
         QueryHandle handle = saveReadWriteOperation(operationHandle, sessionHandle, sessionConf,
                                                     statement, database);
+        invalidateCaches(database, statement);
         LOG.trace("Executing statement: {} with handle {}", statement, handle);
         return handle;
       } catch (Throwable e) {
@@ -910,6 +965,20 @@ public abstract class BaseHiveExploreService extends AbstractIdleService impleme
       Map<String, String> sessionConf = startSession(namespace, additionalSessionConf);
       String database = getHiveDatabase(namespace.getNamespace());
       try {
+        QueryResultCache.Collector resultCollector = null;
+        if (additionalSessionConf == null || additionalSessionConf.isEmpty()) {
+          QueryResultCache.Key resultKey = getResultCacheKey(namespace, database, statement);
+          if (resultKey != null) {
+            QueryResultCache.Result result = resultCache.get(resultKey);
+            if (result != null) {
+              QueryHandle handle = saveCachedOperation(sessionConf, statement, database, result);
+              LOG.trace("Returning cached result for statement: {} with handle {}", statement, handle);
+              return handle;
+            }
+            resultCollector = resultCache.createCollector(resultKey);
+          }
+        }
+
         sessionHandle = openHiveSession(sessionConf);
         // Switch database to the one being passed in.
         setCurrentDatabase(database);
@@ -917,6 +986,10 @@ public abstract class BaseHiveExploreService extends AbstractIdleService impleme
         operationHandle = executeAsync(sessionHandle, statement);
         QueryHandle handle = saveReadWriteOperation(operationHandle, sessionHandle, sessionConf,
                                                     statement, database);
+        if (resultCollector != null) {
+          getActiveOperationInfo(handle).setResultCollector(resultCollector);
+        }
+        invalidateCaches(database, statement);
         LOG.trace("Executing statement: {} with handle {}", statement, handle);
         return handle;
       } catch (Throwable e) {
@@ -969,6 +1042,10 @@ public abstract class BaseHiveExploreService extends AbstractIdleService impleme
 
     InactiveOperationInfo inactiveOperationInfo = inactiveHandleCache.getIfPresent(handle);
     if (inactiveOperationInfo != null) {
+      if (inactiveOperationInfo.hasCachedResults()) {
+        LOG.trace("Returning cached results for handle {}", handle);
+        return inactiveOperationInfo.nextCachedResults(size);
+      }
       // Operation has been made inactive, so all results should have been fetched already - return empty list.
       LOG.trace("Returning empty result for inactive handle {}", handle);
       return ImmutableList.of();
@@ -996,14 +1073,20 @@ public abstract class BaseHiveExploreService extends AbstractIdleService impleme
     throws HiveSQLException, ExploreException, HandleNotFoundException {
     startAndWait();
 
-    Lock nextLock = getActiveOperationInfo(handle).getNextLock();
+    OperationInfo operationInfo = getActiveOperationInfo(handle);
+    Lock nextLock = operationInfo.getNextLock();
     nextLock.lock();
     try {
       // Fetch results from Hive
       LOG.trace("Getting results for handle {}", handle);
-      OperationHandle operationHandle = getOperationHandle(handle);
+      OperationHandle operationHandle = operationInfo.getOperationHandle();
       if (operationHandle.hasResultSet()) {
-        return doFetchNextResults(operationHandle, FetchOrientation.FETCH_NEXT, size);
+        List<QueryResult> results = doFetchNextResults(operationHandle, FetchOrientation.FETCH_NEXT, size);
+        QueryResultCache.Collector resultCollector = operationInfo.getResultCollector();
+        if (resultCollector != null) {
+          resultCollector.add(results);
+        }
+        return results;
       } else {
         return Collections.emptyList();
       }
@@ -1019,7 +1102,11 @@ public abstract class BaseHiveExploreService extends AbstractIdleService impleme
     throws ExploreException, HandleNotFoundException, SQLException {
     startAndWait();
 
-    if (inactiveHandleCache.getIfPresent(handle) != null) {
+    InactiveOperationInfo inactiveOperationInfo = inactiveHandleCache.getIfPresent(handle);
+    if (inactiveOperationInfo != null) {
+      if (inactiveOperationInfo.hasCachedResults()) {
+        return inactiveOperationInfo.previewCachedResults(PREVIEW_COUNT);
+      }
       throw new HandleNotFoundException("Query is inactive.", true);
     }
 
@@ -1458,6 +1545,14 @@ public abstract class BaseHiveExploreService extends AbstractIdleService impleme
 
     closeTransaction(handle, opInfo);
 
+    QueryResultCache.Collector resultCollector = opInfo.getResultCollector();
+    if (resultCollector != null && status.getStatus() == QueryStatus.OpStatus.FINISHED) {
+      // All results have been fetched
+      resultCache.put(resultCollector, schema);
+    }
+    // Invalidate again after the statement completed, in case metadata was read while it was running
+    invalidateCaches(opInfo.getHiveDatabase(), opInfo.getStatement());
+
     LOG.trace("Timing out handle {} aggressively", handle);
     inactiveHandleCache.put(handle, new InactiveOperationInfo(opInfo, schema, status));
     activeHandleCache.invalidate(handle);
@@ -1497,11 +1592,83 @@ public abstract class BaseHiveExploreService extends AbstractIdleService impleme
         }
       }
       closeTransaction(handle, opInfo);
+      invalidateCaches(opInfo.getHiveDatabase(), opInfo.getStatement());
     } finally {
       activeHandleCache.invalidate(handle);
     }
   }
 
+  /**
+   * Saves information of a query that is answered from the result cache. The query is not run in Hive,
+   * hence it is made inactive right away.
+   */
+  private QueryHandle saveCachedOperation(Map<String, String> sessionConf, String statement, String hiveDatabase,
+                                          QueryResultCache.Result result) {
+    QueryHandle handle = QueryHandle.fromId(sessionConf.get(Constants.Explore.QUERY_ID));
+    OperationInfo opInfo = new ReadOnlyOperationInfo(null, null, sessionConf, statement, hiveDatabase);
+    // Releases the transaction and the credentials file created for the session
+    cleanUp(handle, opInfo);
+    inactiveHandleCache.put(handle, new InactiveOperationInfo(opInfo, result.getSchema(),
+                                                              new QueryStatus(QueryStatus.OpStatus.FINISHED, true),
+                                                              result.getRows()));
+    return handle;
+  }
+
+  /**
+   * Returns the key for caching the result of the given statement, or {@code null} if the result cannot be cached.
+   * Results are only cached for queries that only read from tables of partitioned file sets. The data of these
+   * tables only changes by adding or dropping partitions through Explore, which invalidates the cached results.
+   * Tables of other datasets are not cached, since their data changes with transactions that don't go through
+   * Explore.
+   */
+  @Nullable
+  private QueryResultCache.Key getResultCacheKey(NamespaceId namespace, String database, String statement) {
+    if (!resultCache.isEnabled()) {
+      return null;
+    }
+    Set<String> tables = QueryResultCache.getReferencedTables(statement);
+    if (tables == null) {
+      return null;
+    }
+    try {
+      for (String table : tables) {
+        int idx = table.indexOf('.');
+        TableInfo tableInfo = idx < 0
+          ? getTableInfo(namespace.getNamespace(), database, table)
+          : getTableInfo(namespace.getNamespace(), table.substring(0, idx), table.substring(idx + 1));
+        Map<String, String> parameters = tableInfo.getParameters();
+        boolean partitionedFileSet = parameters != null && parameters.containsKey(Constants.Explore.CDAP_NAME) &&
+          parameters.get("storage_handler") == null && !tableInfo.getPartitionKeys().isEmpty();
+        if (!partitionedFileSet) {
+          return null;
+        }
+      }
+      return resultCache.createKey(String.valueOf(authenticationContext.getPrincipal()), database, statement, tables);
+    } catch (Exception e) {
+      LOG.debug("Not caching the result of statement '{}'", statement, e);
+      return null;
+    }
+  }
+
+  /**
+   * Invalidates the metadata and result caches if the given statement may change any table.
+   */
+  private void invalidateCaches(@Nullable String database, String statement) {
+    String normalized = QueryResultCache.normalize(statement);
+    if (normalized.isEmpty()) {
+      return;
+    }
+    for (String prefix : READ_STATEMENT_PREFIXES) {
+      if (normalized.startsWith(prefix)) {
+        return;
+      }
+    }
+    LOG.trace("Invalidating Explore caches for statement: {}", statement);
+    tablesCache.invalidateAll();
+    tableInfoCache.invalidateAll();
+    resultCache.invalidate(database, statement);
+  }
+
   private Transaction startTransaction() throws IOException {
     Transaction tx = txClient.startLong();
     LOG.trace("Transaction {} started.", tx);
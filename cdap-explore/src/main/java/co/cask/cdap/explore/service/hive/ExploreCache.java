@@ -0,0 +1,109 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.explore.service.hive;
+
+import co.cask.cdap.api.metrics.MetricsContext;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * An in-memory cache with expiration, used by {@link BaseHiveExploreService} to cache table metadata and query
+ * results. Hits and misses are reported as the {@code explore.cache.<name>.hit} and
+ * {@code explore.cache.<name>.miss} metrics. The cache is disabled if the maximum size or the expiration is
+ * not positive.
+ *
+ * Values are only cached if there was no invalidation since before they were read. This makes sure that a value
+ * read concurrently with a DDL statement is never cached after the invalidation done for that statement.
+ *
+ * @param <K> type of the key
+ * @param <V> type of the value
+ */
+final class ExploreCache<K, V> {
+
+  private final Cache<K, V> cache;
+  private final MetricsContext metricsContext;
+  private final String hitMetric;
+  private final String missMetric;
+  // Guarded by this
+  private long generation;
+
+  ExploreCache(String name, long maxSize, long expireSeconds, MetricsContext metricsContext) {
+    this.cache = maxSize > 0 && expireSeconds > 0
+      ? CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(expireSeconds, TimeUnit.SECONDS)
+        .<K, V>build()
+      : null;
+    this.metricsContext = metricsContext;
+    this.hitMetric = "explore.cache." + name + ".hit";
+    this.missMetric = "explore.cache." + name + ".miss";
+  }
+
+  /**
+   * Returns {@code true} if this cache is enabled.
+   */
+  boolean isEnabled() {
+    return cache != null;
+  }
+
+  /**
+   * Returns the current generation of the cache. It must be called before reading the values to be put into
+   * this cache.
+   */
+  synchronized long getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Returns the cached value for the given key or {@code null} if it is not in the cache.
+   */
+  @Nullable
+  V get(K key) {
+    if (cache == null) {
+      return null;
+    }
+    V value = cache.getIfPresent(key);
+    metricsContext.increment(value == null ? missMetric : hitMetric, 1);
+    return value;
+  }
+
+  /**
+   * Caches the given value if the cache was not invalidated since the given generation.
+   *
+   * @param key the key of the value
+   * @param value the value to cache
+   * @param generation the generation returned by {@link #getGeneration()} before the value was read
+   */
+  synchronized void put(K key, V value, long generation) {
+    if (cache != null && generation == this.generation) {
+      cache.put(key, value);
+    }
+  }
+
+  /**
+   * Invalidates all values in this cache.
+   */
+  synchronized void invalidateAll() {
+    generation++;
+    if (cache != null) {
+      cache.invalidateAll();
+    }
+  }
+}
@@ -16,6 +16,7 @@
 
 package co.cask.cdap.explore.service.hive;
 
+import co.cask.cdap.api.metrics.MetricsCollectionService;
 import co.cask.cdap.common.conf.CConfiguration;
 import co.cask.cdap.common.conf.Constants;
 import co.cask.cdap.common.namespace.NamespaceQueryAdmin;
@@ -77,10 +78,11 @@ public class Hive12ExploreService extends BaseHiveExploreService {
                               StreamAdmin streamAdmin, NamespaceQueryAdmin namespaceQueryAdmin,
                               SystemDatasetInstantiatorFactory datasetInstantiatorFactory,
                               AuthorizationEnforcer authorizationEnforcer,
-                              AuthenticationContext authenticationContext) {
+                              AuthenticationContext authenticationContext,
+                              MetricsCollectionService metricsCollectionService) {
     super(txClient, datasetFramework, cConf, hConf, previewsDir, credentialsDir, streamAdmin, namespaceQueryAdmin,
           datasetInstantiatorFactory, authorizationEnforcer,
-          authenticationContext);
+          authenticationContext, metricsCollectionService);
   }
 
   @Override
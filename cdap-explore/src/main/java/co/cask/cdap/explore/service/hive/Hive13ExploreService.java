@@ -16,6 +16,7 @@
 
 package co.cask.cdap.explore.service.hive;
 
+import co.cask.cdap.api.metrics.MetricsCollectionService;
 import co.cask.cdap.common.conf.CConfiguration;
 import co.cask.cdap.common.conf.Constants;
 import co.cask.cdap.common.namespace.NamespaceQueryAdmin;
@@ -61,10 +62,11 @@ public class Hive13ExploreService extends BaseHiveExploreService {
                               StreamAdmin streamAdmin, NamespaceQueryAdmin namespaceQueryAdmin,
                               SystemDatasetInstantiatorFactory datasetInstantiatorFactory,
                               AuthorizationEnforcer authorizationEnforcer,
-                              AuthenticationContext authenticationContext) {
+                              AuthenticationContext authenticationContext,
+                              MetricsCollectionService metricsCollectionService) {
     super(txClient, datasetFramework, cConf, hConf, previewsDir, credentialsDir, streamAdmin, namespaceQueryAdmin,
           datasetInstantiatorFactory, authorizationEnforcer,
-          authenticationContext);
+          authenticationContext, metricsCollectionService);
     // This config sets the time Hive CLI getOperationStatus method will wait for the status of
     // a running query.
     System.setProperty(HiveConf.ConfVars.HIVE_SERVER2_LONG_POLLING_TIMEOUT.toString(), "50");
@@ -17,9 +17,12 @@
 package co.cask.cdap.explore.service.hive;
 
 import co.cask.cdap.proto.ColumnDesc;
+import co.cask.cdap.proto.QueryResult;
 import co.cask.cdap.proto.QueryStatus;
+import com.google.common.collect.ImmutableList;
 
 import java.util.List;
+import javax.annotation.Nullable;
 
 /**
  * OperationInfo representing an inactive operation.
@@ -27,13 +30,54 @@ import java.util.List;
 final class InactiveOperationInfo extends OperationInfo {
   private final List<ColumnDesc> schema;
   private final QueryStatus status;
+  // Results of a query that was answered from the result cache, which are not fetched yet
+  private final List<QueryResult> cachedResults;
+  private int position;
+  private List<QueryResult> previewResults;
 
   InactiveOperationInfo(OperationInfo operationInfo, List<ColumnDesc> schema, QueryStatus status) {
+    this(operationInfo, schema, status, null);
+  }
+
+  InactiveOperationInfo(OperationInfo operationInfo, List<ColumnDesc> schema, QueryStatus status,
+                        @Nullable List<QueryResult> cachedResults) {
     super(operationInfo.getSessionHandle(), operationInfo.getOperationHandle(),
           operationInfo.getSessionConf(), operationInfo.getStatement(),
           operationInfo.getTimestamp(), operationInfo.getHiveDatabase(), operationInfo.isReadOnly());
     this.schema = schema;
     this.status = status;
+    this.cachedResults = cachedResults;
+  }
+
+  /**
+   * Returns {@code true} if this operation was answered from the result cache.
+   */
+  boolean hasCachedResults() {
+    return cachedResults != null;
+  }
+
+  /**
+   * Returns the next cached results, or an empty list if all results have been fetched.
+   */
+  synchronized List<QueryResult> nextCachedResults(int size) {
+    if (cachedResults == null || position >= cachedResults.size()) {
+      return ImmutableList.of();
+    }
+    int end = (int) Math.min((long) position + size, cachedResults.size());
+    List<QueryResult> results = cachedResults.subList(position, end);
+    position = end;
+    return results;
+  }
+
+  /**
+   * Returns the preview of the cached results. Same as previews of running queries, the first call fetches
+   * the preview results and later calls return the same results.
+   */
+  synchronized List<QueryResult> previewCachedResults(int size) {
+    if (previewResults == null) {
+      previewResults = nextCachedResults(size);
+    }
+    return previewResults;
   }
 
   public List<ColumnDesc> getSchema() {
@@ -49,6 +49,7 @@ public abstract class OperationInfo {
 
   private File previewFile;
   private QueryStatus status;
+  private QueryResultCache.Collector resultCollector;
 
   OperationInfo(SessionHandle sessionHandle, OperationHandle operationHandle,
                 Map<String, String> sessionConf, String statement, long timestamp,
@@ -124,4 +125,17 @@ public abstract class OperationInfo {
   public void setStatus(QueryStatus status) {
     this.status = status;
   }
+
+  /**
+   * Returns the {@link QueryResultCache.Collector} that gathers the results of this operation for caching, or
+   * {@code null} if the results are not cached.
+   */
+  @Nullable
+  QueryResultCache.Collector getResultCollector() {
+    return resultCollector;
+  }
+
+  void setResultCollector(QueryResultCache.Collector resultCollector) {
+    this.resultCollector = resultCollector;
+  }
 }
@@ -0,0 +1,402 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.explore.service.hive;
+
+import co.cask.cdap.api.metrics.MetricsContext;
+import co.cask.cdap.proto.ColumnDesc;
+import co.cask.cdap.proto.QueryResult;
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.apache.hadoop.hive.ql.parse.ASTNode;
+import org.apache.hadoop.hive.ql.parse.ParseDriver;
+import org.apache.hadoop.hive.ql.parse.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+
+/**
+ * Cache of the results of Explore queries, used by {@link BaseHiveExploreService} to answer repeated queries
+ * without running them in Hive.
+ *
+ * Results are keyed by the normalized statement, the user and the version of every table referenced by the query.
+ * The version of a table changes with every statement run through Explore that changes the table, such as adding or
+ * dropping a partition, hence a cached result is not used anymore once any of its tables changed. Statements that
+ * may change tables that are not known invalidate all cached results. Only plain {@code SELECT} queries without
+ * non-deterministic functions are cached, and it is up to the caller to make sure that the data of all tables
+ * referenced by the query only changes through Explore statements.
+ */
+final class QueryResultCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(QueryResultCache.class);
+
+  // Functions that return different values for the same input
+  private static final Set<String> NON_DETERMINISTIC_FUNCTIONS = ImmutableSet.of(
+    "rand", "uuid", "unix_timestamp", "current_timestamp", "current_date", "current_user",
+    "reflect", "reflect2", "java_method", "in_file");
+
+  // Statements that change a single table, the table name is the first group
+  private static final Pattern TABLE_CHANGE_PATTERN = Pattern.compile(
+    "^(?:alter table|drop table(?: if exists)?|create (?:external )?table(?: if not exists)?|"
+      + "insert (?:into|overwrite) table|truncate table) ([^\\s(]+)");
+
+  private final ExploreCache<Key, Result> cache;
+  private final int maxRows;
+  // Versions of the tables that got changed, keyed by the table name qualified with the database
+  private final Map<String, Long> tableVersions = new HashMap<>();
+  private long lastVersion;
+
+  QueryResultCache(long maxSize, long expireSeconds, int maxRows, MetricsContext metricsContext) {
+    this.cache = new ExploreCache<>("result", maxSize, expireSeconds, metricsContext);
+    this.maxRows = maxRows;
+  }
+
+  /**
+   * Returns {@code true} if this cache is enabled.
+   */
+  boolean isEnabled() {
+    return cache.isEnabled();
+  }
+
+  /**
+   * Creates the key of a query.
+   *
+   * @param principal the name of the user running the query
+   * @param database the Hive database that the query runs in
+   * @param statement the query statement
+   * @param tables the tables referenced by the query, as returned by {@link #getReferencedTables(String)}
+   */
+  synchronized Key createKey(String principal, String database, String statement, Set<String> tables) {
+    Map<String, Long> versions = new TreeMap<>();
+    for (String table : tables) {
+      String qualifiedTable = qualify(database, table);
+      Long version = tableVersions.get(qualifiedTable);
+      versions.put(qualifiedTable, version == null ? 0L : version);
+    }
+    return new Key(principal, database, statement, versions);
+  }
+
+  /**
+   * Returns the cached result for the given key or {@code null} if it is not in the cache.
+   */
+  @Nullable
+  Result get(Key key) {
+    return cache.get(key);
+  }
+
+  /**
+   * Creates a {@link Collector} for gathering the result of a query with the given key as it is fetched.
+   */
+  Collector createCollector(Key key) {
+    return new Collector(key, cache.getGeneration(), maxRows);
+  }
+
+  /**
+   * Caches the result gathered by the given {@link Collector}, if the collector has the complete result.
+   *
+   * @param collector the collector that got all the rows of the query
+   * @param schema the schema of the query result
+   */
+  void put(Collector collector, List<ColumnDesc> schema) {
+    List<QueryResult> rows = collector.getRows();
+    if (rows != null) {
+      cache.put(collector.key, new Result(schema, rows), collector.generation);
+    }
+  }
+
+  /**
+   * Invalidates the cached results of queries that reference the table changed by the given statement. If the
+   * changed table is not known, all cached results are invalidated.
+   *
+   * @param database the Hive database that the statement runs in
+   * @param statement a statement that may change tables
+   */
+  void invalidate(@Nullable String database, String statement) {
+    Matcher matcher = TABLE_CHANGE_PATTERN.matcher(normalize(statement));
+    String table = matcher.find() ? matcher.group(1) : null;
+    if (table == null || (database == null && table.indexOf('.') < 0)) {
+      invalidateAll();
+      return;
+    }
+    StringBuilder name = new StringBuilder();
+    for (String part : table.split("\\.")) {
+      if (name.length() > 0) {
+        name.append('.');
+      }
+      name.append(unescape(part));
+    }
+    synchronized (this) {
+      // Results of queries that started before are cached with the old version, so they are never used
+      tableVersions.put(qualify(database, name.toString()), ++lastVersion);
+    }
+  }
+
+  /**
+   * Invalidates all cached results.
+   */
+  void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  private static String qualify(@Nullable String database, String table) {
+    return table.indexOf('.') < 0 ? (database + "." + table).toLowerCase(Locale.ENGLISH) : table;
+  }
+
+  /**
+   * Normalizes the given statement by removing the trailing semicolon, collapsing white spaces and converting
+   * to lower case, except for quoted string literals.
+   */
+  static String normalize(String statement) {
+    String trimmed = statement.trim();
+    if (trimmed.endsWith(";")) {
+      trimmed = trimmed.substring(0, trimmed.length() - 1).trim();
+    }
+
+    StringBuilder builder = new StringBuilder(trimmed.length());
+    char quote = 0;
+    boolean space = false;
+    for (int i = 0; i < trimmed.length(); i++) {
+      char c = trimmed.charAt(i);
+      if (quote != 0) {
+        builder.append(c);
+        if (c == '\\' && i + 1 < trimmed.length()) {
+          builder.append(trimmed.charAt(++i));
+        } else if (c == quote) {
+          quote = 0;
+        }
+        continue;
+      }
+      if (Character.isWhitespace(c)) {
+        space = true;
+        continue;
+      }
+      if (space) {
+        builder.append(' ');
+        space = false;
+      }
+      if (c == '\'' || c == '"') {
+        quote = c;
+      }
+      builder.append(Character.toLowerCase(c));
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Returns the names of the tables referenced by the given statement, or {@code null} if the result of the
+   * statement cannot be cached. A table name is prefixed with the database name and a dot if the database is
+   * given in the statement.
+   */
+  @Nullable
+  static Set<String> getReferencedTables(String statement) {
+    if (!normalize(statement).startsWith("select ")) {
+      return null;
+    }
+    ASTNode root;
+    try {
+      root = new ParseDriver().parse(statement);
+    } catch (ParseException e) {
+      LOG.trace("Failed to parse statement '{}', not caching its result", statement, e);
+      return null;
+    }
+    // The root of the parse tree is a nil node if the statement is followed by EOF
+    while (root.getToken() == null && root.getChildCount() > 0) {
+      root = (ASTNode) root.getChild(0);
+    }
+    if (!"TOK_QUERY".equals(root.getText())) {
+      return null;
+    }
+    Set<String> tables = new HashSet<>();
+    return collectTables(root, tables) ? tables : null;
+  }
+
+  /**
+   * Collects the names of tables referenced in the given tree. Token types are compared by name, since the token
+   * numbers are different for different Hive versions.
+   *
+   * @return {@code false} if the tree contains anything that prevents caching the query result
+   */
+  private static boolean collectTables(ASTNode node, Set<String> tables) {
+    String text = node.getText();
+    switch (text) {
+      case "TOK_TABNAME":
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < node.getChildCount(); i++) {
+          if (i > 0) {
+            name.append('.');
+          }
+          name.append(unescape(node.getChild(i).getText()));
+        }
+        tables.add(name.toString());
+        return true;
+      case "TOK_FUNCTION":
+      case "TOK_FUNCTIONDI":
+      case "TOK_FUNCTIONSTAR":
+        if (node.getChildCount() > 0
+          && NON_DETERMINISTIC_FUNCTIONS.contains(unescape(node.getChild(0).getText()))) {
+          return false;
+        }
+        break;
+      case "TOK_DIR":
+        // SELECT queries write to a temporary file, anything else is an INSERT
+        if (node.getChildCount() == 0 || !"TOK_TMP_FILE".equals(node.getChild(0).getText())) {
+          return false;
+        }
+        return true;
+      case "TOK_TAB":
+      case "TOK_LOCAL_DIR":
+      case "TOK_INSERT_INTO":
+      case "TOK_CTE":
+        return false;
+      default:
+        break;
+    }
+    for (int i = 0; i < node.getChildCount(); i++) {
+      if (!collectTables((ASTNode) node.getChild(i), tables)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String unescape(String identifier) {
+    String name = identifier;
+    if (name.length() > 1 && name.startsWith("`") && name.endsWith("`")) {
+      name = name.substring(1, name.length() - 1);
+    }
+    return name.toLowerCase(Locale.ENGLISH);
+  }
+
+  /**
+   * The key of a cached query result.
+   */
+  static final class Key {
+    private final String principal;
+    private final String database;
+    private final String statement;
+    private final Map<String, Long> tableVersions;
+
+    /**
+     * Creates a key for a query.
+     *
+     * @param principal the name of the user running the query
+     * @param database the Hive database that the query runs in
+     * @param statement the query statement
+     * @param tableVersions the versions of the tables referenced by the query
+     */
+    Key(String principal, String database, String statement, Map<String, Long> tableVersions) {
+      this.principal = principal;
+      this.database = database;
+      this.statement = normalize(statement);
+      this.tableVersions = ImmutableMap.copyOf(tableVersions);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key other = (Key) o;
+      return principal.equals(other.principal)
+        && database.equals(other.database)
+        && statement.equals(other.statement)
+        && tableVersions.equals(other.tableVersions);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(principal, database, statement, tableVersions);
+    }
+  }
+
+  /**
+   * A cached query result.
+   */
+  static final class Result {
+    private final List<ColumnDesc> schema;
+    private final List<QueryResult> rows;
+
+    Result(List<ColumnDesc> schema, List<QueryResult> rows) {
+      this.schema = ImmutableList.copyOf(schema);
+      this.rows = ImmutableList.copyOf(rows);
+    }
+
+    List<ColumnDesc> getSchema() {
+      return schema;
+    }
+
+    List<QueryResult> getRows() {
+      return rows;
+    }
+  }
+
+  /**
+   * Gathers the rows of a query as they are fetched, to be cached when all rows got fetched. Queries with more
+   * rows than the maximum are not cached.
+   */
+  static final class Collector {
+    private final Key key;
+    private final long generation;
+    private final int maxRows;
+    // Set to null if there are too many rows to cache
+    private List<QueryResult> rows;
+
+    private Collector(Key key, long generation, int maxRows) {
+      this.key = key;
+      this.generation = generation;
+      this.maxRows = maxRows;
+      this.rows = new ArrayList<>();
+    }
+
+    /**
+     * Adds the given rows fetched from the query.
+     */
+    synchronized void add(List<QueryResult> fetched) {
+      if (rows == null) {
+        return;
+      }
+      if (rows.size() + fetched.size() > maxRows) {
+        rows = null;
+        return;
+      }
+      rows.addAll(fetched);
+    }
+
+    /**
+     * Returns the rows added so far or {@code null} if there are too many rows to cache.
+     */
+    @Nullable
+    synchronized List<QueryResult> getRows() {
+      return rows;
+    }
+  }
+}
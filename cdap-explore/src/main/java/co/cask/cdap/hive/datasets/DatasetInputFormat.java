@@ -20,9 +20,21 @@ import co.cask.cdap.api.data.batch.RecordScannable;
 import co.cask.cdap.api.data.batch.RecordScanner;
 import co.cask.cdap.api.data.batch.Split;
 import co.cask.cdap.api.data.batch.Splits;
+import co.cask.cdap.api.data.schema.Schema;
+import co.cask.cdap.api.dataset.DatasetSpecification;
+import co.cask.cdap.api.dataset.lib.ObjectMappedTable;
+import co.cask.cdap.api.dataset.table.Table;
+import co.cask.cdap.api.dataset.table.TableProperties;
+import co.cask.cdap.explore.HiveUtilities;
 import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.index.IndexPredicateAnalyzer;
+import org.apache.hadoop.hive.ql.index.IndexSearchCondition;
+import org.apache.hadoop.hive.ql.plan.ExprNodeConstantDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeGenericFuncDesc;
+import org.apache.hadoop.hive.ql.plan.TableScanDesc;
 import org.apache.hadoop.hive.shims.ShimLoader;
 import org.apache.hadoop.io.ObjectWritable;
 import org.apache.hadoop.mapred.FileSplit;
@@ -34,17 +46,23 @@ import org.apache.hadoop.mapred.Reporter;
 import org.apache.hadoop.mapreduce.Job;
 import org.apache.hadoop.mapreduce.JobContext;
 import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.Nullable;
 
 /**
  * Map reduce input format to read from datasets that implement RecordScannable.
  */
 public class DatasetInputFormat implements InputFormat<Void, ObjectWritable> {
+  private static final Logger LOG = LoggerFactory.getLogger(DatasetInputFormat.class);
+
   @Override
   public InputSplit[] getSplits(JobConf jobConf, int numSplits) throws IOException {
     try (DatasetAccessor datasetAccessor = new DatasetAccessor(jobConf)) {
@@ -58,7 +76,7 @@ public class DatasetInputFormat implements InputFormat<Void, ObjectWritable> {
         JobContext jobContext = ShimLoader.getHadoopShims().newJobContext(job);
         Path[] tablePaths = FileInputFormat.getInputPaths(jobContext);
 
-        List<Split> dsSplits = recordScannable.getSplits();
+        List<Split> dsSplits = getSplits(recordScannable, datasetAccessor, jobConf);
 
         InputSplit[] inputSplits = new InputSplit[dsSplits.size()];
         for (int i = 0; i < dsSplits.size(); i++) {
@@ -69,6 +87,82 @@ public class DatasetInputFormat implements InputFormat<Void, ObjectWritable> {
     }
   }
 
+  /**
+   * Returns the splits of the given dataset. For {@link Table} and {@link ObjectMappedTable}, only the splits
+   * in the range of row keys selected by the query predicate on the row key field are returned.
+   */
+  private List<Split> getSplits(RecordScannable<?> recordScannable, DatasetAccessor datasetAccessor,
+                                Configuration conf) {
+    // the conf contains a 'hive.io.filter.expr.serialized' key which contains the serialized form of ExprNodeDesc.
+    // Hive still evaluates the whole predicate on the records returned, hence the range only needs to contain
+    // all the rows selected by the predicate.
+    String serializedExpr = conf.get(TableScanDesc.FILTER_EXPR_CONF_STR);
+    if (serializedExpr == null
+      || !(recordScannable instanceof Table || recordScannable instanceof ObjectMappedTable)) {
+      return recordScannable.getSplits();
+    }
+
+    try {
+      RowKeyRange range = getRowKeyRange(serializedExpr, datasetAccessor.getDatasetSpec(), conf);
+      if (range == null) {
+        return recordScannable.getSplits();
+      }
+      if (range.isEmpty()) {
+        return Collections.emptyList();
+      }
+      LOG.debug("Restricting splits of dataset {} to the row keys selected by the query predicate",
+                datasetAccessor.getDatasetId());
+      if (recordScannable instanceof Table) {
+        return ((Table) recordScannable).getSplits(-1, range.getStart(), range.getStop());
+      }
+      return ((ObjectMappedTable<?>) recordScannable).getSplits(-1, range.getStart(), range.getStop());
+    } catch (Throwable t) {
+      LOG.warn("Exception analyzing query predicate. A full table scan will be performed.", t);
+      return recordScannable.getSplits();
+    }
+  }
+
+  /**
+   * Analyzes the query predicate to compute the range of row keys selected by it. Returns {@code null} if
+   * the predicate doesn't restrict the row key.
+   */
+  @Nullable
+  private RowKeyRange getRowKeyRange(String serializedExpr, DatasetSpecification spec, Configuration conf) {
+    String rowField = TableProperties.getRowFieldName(spec.getProperties());
+    Schema schema = TableProperties.getSchema(spec.getProperties());
+    if (rowField == null || schema == null || schema.getField(rowField) == null) {
+      return null;
+    }
+    Schema rowSchema = schema.getField(rowField).getSchema();
+    if (rowSchema.isNullable()) {
+      rowSchema = rowSchema.getNonNullable();
+    }
+
+    ExprNodeGenericFuncDesc expr = HiveUtilities.deserializeExpression(serializedExpr, conf);
+
+    // Analyze the query to extract predicates on the row key field, which is lowercase in Hive
+    IndexPredicateAnalyzer analyzer = new IndexPredicateAnalyzer();
+    for (RowKeyRange.CompareOp op : RowKeyRange.CompareOp.values()) {
+      analyzer.addComparisonOp(op.getOpClassName());
+    }
+    analyzer.clearAllowedColumnNames();
+    analyzer.allowColumnName(rowField.toLowerCase());
+
+    List<IndexSearchCondition> conditions = Lists.newArrayList();
+    analyzer.analyzePredicate(expr, conditions);
+
+    RowKeyRange range = new RowKeyRange(rowSchema.getType());
+    boolean restricted = false;
+    for (IndexSearchCondition condition : conditions) {
+      RowKeyRange.CompareOp op = RowKeyRange.CompareOp.from(condition.getComparisonOp());
+      ExprNodeConstantDesc value = condition.getConstantDesc();
+      if (op != null && value != null) {
+        restricted = range.add(op, value.getValue()) || restricted;
+      }
+    }
+    return restricted ? range : null;
+  }
+
   @Override
   public RecordReader<Void, ObjectWritable> getRecordReader(final InputSplit split, JobConf jobConf, Reporter reporter)
     throws IOException {
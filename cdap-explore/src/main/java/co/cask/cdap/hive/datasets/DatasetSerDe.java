@@ -35,6 +35,7 @@ import co.cask.cdap.proto.id.DatasetId;
 import com.google.common.collect.Lists;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.serde2.ColumnProjectionUtils;
 import org.apache.hadoop.hive.serde2.SerDe;
 import org.apache.hadoop.hive.serde2.SerDeException;
 import org.apache.hadoop.hive.serde2.SerDeStats;
@@ -49,7 +50,9 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import javax.annotation.Nullable;
 
 /**
  * SerDe to serialize Dataset Objects. It MUST implement the deprecated SerDe interface instead of extending the
@@ -95,12 +98,30 @@ public class DatasetSerDe implements SerDe {
       getDatasetSchema(conf, datasetId);
     }
 
-    this.deserializer = new ObjectDeserializer(properties, schema);
+    // Only deserialize the columns read by the query
+    this.deserializer = new ObjectDeserializer(properties, schema, getProjectedColumns(conf));
     ArrayList<String> columnNames = Lists.newArrayList(StringUtils.split(properties.getProperty("columns"), ","));
     this.serializer = new ObjectSerializer(columnNames);
     this.objectInspector = deserializer.getInspector();
   }
 
+  /**
+   * Returns the positions of the columns read by the query, or {@code null} if all columns are read.
+   */
+  @Nullable
+  private List<Integer> getProjectedColumns(@Nullable Configuration conf) {
+    if (conf == null) {
+      return null;
+    }
+    try {
+      return ColumnProjectionUtils.isReadAllColumns(conf) ? null : ColumnProjectionUtils.getReadColumnIDs(conf);
+    } catch (NoSuchMethodError e) {
+      // Older versions of Hive don't have the read all columns setting
+      LOG.debug("Column projection is not supported by this Hive version. All columns will be deserialized.");
+      return null;
+    }
+  }
+
   private void getDatasetSchema(Configuration conf, DatasetId datasetId) throws SerDeException {
 
     try (ContextManager.Context hiveContext = ContextManager.getContext(conf)) {
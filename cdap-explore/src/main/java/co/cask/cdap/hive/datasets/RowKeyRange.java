@@ -0,0 +1,183 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.hive.datasets;
+
+import co.cask.cdap.api.common.Bytes;
+import co.cask.cdap.api.data.schema.Schema;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPEqual;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPEqualOrGreaterThan;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPEqualOrLessThan;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPGreaterThan;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPLessThan;
+
+import javax.annotation.Nullable;
+
+/**
+ * The range of row keys of a {@link co.cask.cdap.api.dataset.table.Table} based dataset that is selected by
+ * comparisons of the row key field with constant values in a query. The start key is inclusive and the stop key
+ * is exclusive, which is the same as for splits of a table. A {@code null} start or stop key means unbounded.
+ *
+ * Range comparisons are only used for string and bytes keys, since their row keys are ordered the same as the
+ * values. Numeric keys are encoded with the sign bit, which doesn't preserve the ordering, hence only equality
+ * comparisons are used for them.
+ */
+final class RowKeyRange {
+
+  private final Schema.Type keyType;
+  private byte[] start;
+  private byte[] stop;
+
+  RowKeyRange(Schema.Type keyType) {
+    this.keyType = keyType;
+  }
+
+  /**
+   * Narrows this range by the given comparison of the row key with a constant value.
+   *
+   * @param op the comparison operation
+   * @param value the constant value that the row key is compared with
+   * @return {@code true} if the range was narrowed, {@code false} if the comparison cannot be used for the row key
+   */
+  boolean add(CompareOp op, @Nullable Object value) {
+    if (value == null) {
+      return false;
+    }
+    if (op != CompareOp.EQUAL && keyType != Schema.Type.STRING && keyType != Schema.Type.BYTES) {
+      return false;
+    }
+    byte[] key = toRowKey(value);
+    if (key == null) {
+      return false;
+    }
+
+    switch (op) {
+      case EQUAL:
+        setStart(key);
+        setStop(Bytes.concat(key, new byte[1]));
+        break;
+      case EQUAL_OR_GREATER:
+        setStart(key);
+        break;
+      case GREATER:
+        setStart(Bytes.concat(key, new byte[1]));
+        break;
+      case EQUAL_OR_LESS:
+        setStop(Bytes.concat(key, new byte[1]));
+        break;
+      case LESS:
+        setStop(key);
+        break;
+    }
+    return true;
+  }
+
+  /**
+   * Returns the inclusive start key or {@code null} if there is no lower bound.
+   */
+  @Nullable
+  byte[] getStart() {
+    return start;
+  }
+
+  /**
+   * Returns the exclusive stop key or {@code null} if there is no upper bound.
+   */
+  @Nullable
+  byte[] getStop() {
+    return stop;
+  }
+
+  /**
+   * Returns {@code true} if there is no row key in this range.
+   */
+  boolean isEmpty() {
+    return start != null && stop != null && Bytes.compareTo(start, stop) >= 0;
+  }
+
+  private void setStart(byte[] key) {
+    if (start == null || Bytes.compareTo(key, start) > 0) {
+      start = key;
+    }
+  }
+
+  private void setStop(byte[] key) {
+    if (stop == null || Bytes.compareTo(key, stop) < 0) {
+      stop = key;
+    }
+  }
+
+  /**
+   * Encodes the given value the same way as the row key is encoded for the key type, or returns {@code null}
+   * if the value cannot be encoded as the row key.
+   */
+  @Nullable
+  private byte[] toRowKey(Object value) {
+    switch (keyType) {
+      case STRING:
+        return value instanceof String ? Bytes.toBytes((String) value) : null;
+      case BYTES:
+        return value instanceof byte[] ? (byte[]) value : null;
+      case INT:
+        if (isIntegral(value) && ((Number) value).longValue() == ((Number) value).intValue()) {
+          return Bytes.toBytes(((Number) value).intValue());
+        }
+        return null;
+      case LONG:
+        return isIntegral(value) ? Bytes.toBytes(((Number) value).longValue()) : null;
+      default:
+        return null;
+    }
+  }
+
+  private boolean isIntegral(Object value) {
+    return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+  }
+
+  /**
+   * Comparison operations that can be used to narrow a {@link RowKeyRange}.
+   */
+  enum CompareOp {
+    EQUAL(GenericUDFOPEqual.class.getName()),
+    EQUAL_OR_GREATER(GenericUDFOPEqualOrGreaterThan.class.getName()),
+    EQUAL_OR_LESS(GenericUDFOPEqualOrLessThan.class.getName()),
+    GREATER(GenericUDFOPGreaterThan.class.getName()),
+    LESS(GenericUDFOPLessThan.class.getName());
+
+    private final String opClassName;
+
+    CompareOp(String opClassName) {
+      this.opClassName = opClassName;
+    }
+
+    String getOpClassName() {
+      return opClassName;
+    }
+
+    /**
+     * Returns a {@link CompareOp} by matching the given class name or {@code null} if there is none matching.
+     */
+    @Nullable
+    static CompareOp from(String opClassName) {
+      for (CompareOp op : values()) {
+        if (op.getOpClassName().equals(opClassName)) {
+          return op;
+        }
+      }
+      return null;
+    }
+  }
+}
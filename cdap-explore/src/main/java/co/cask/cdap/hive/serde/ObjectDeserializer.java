@@ -21,9 +21,14 @@ import co.cask.cdap.api.data.format.StructuredRecord;
 import co.cask.cdap.api.data.format.UnexpectedFormatException;
 import co.cask.cdap.api.data.schema.Schema;
 import co.cask.cdap.hive.objectinspector.ObjectInspectorFactory;
+import co.cask.cdap.internal.io.ASMFieldAccessorFactory;
+import co.cask.cdap.internal.io.FieldAccessor;
+import co.cask.cdap.internal.io.FieldAccessorFactory;
+import co.cask.cdap.internal.io.ReflectionFieldAccessorFactory;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.reflect.TypeToken;
 import org.apache.hadoop.hive.serde.serdeConstants;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector;
@@ -35,7 +40,6 @@ import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
 import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoUtils;
 
 import java.lang.reflect.Array;
-import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -43,18 +47,32 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
 
 /**
  * Helper class for translating objects that fit a cdap {@link Schema} into objects
  * that Hive can understand.
  */
 public class ObjectDeserializer {
+  private static final int MAX_STRUCT_FLATTENERS = 1000;
+
   private final List<String> fieldNames;
   private final List<TypeInfo> fieldTypes;
   private final ObjectInspector inspector;
+  // positions of the columns to deserialize, or null to deserialize all columns
+  private final boolean[] projected;
   // we can almost do without the schema. The problem is that everything in Hive is lowercase,
   // but when we look up record fields we need the case sensitive field name.
   private final Schema schema;
+  // field accessors for reading fields of non StructuredRecord objects, which are generated once per record class
+  private final FieldAccessorFactory fieldAccessorFactory;
+  private final FieldAccessorFactory reflectionAccessorFactory;
+  // flatteners of the records and nested structs, created when the first record is flattened
+  private final ConcurrentMap<FlattenerKey, RecordFlattener> structFlatteners;
+  // the flattener of the top level record, which is looked up for every record
+  private volatile RecordFlattener recordFlattener;
 
   /**
    * Creates an ObjectTranslator that will be able to deserialize objects that fit a {@link Schema} into objects
@@ -66,6 +84,20 @@ public class ObjectDeserializer {
     this(properties, schema, 0);
   }
 
+  /**
+   * Creates an ObjectTranslator that will be able to deserialize objects that fit a {@link Schema} into objects
+   * that a Hive ObjectInspector can understand. Only the columns read by the query are deserialized when flattening
+   * records, while other columns are set to {@code null}. The ObjectInspector will still use all columns.
+   *
+   * @param properties Properties object passed to a SerDe during initialization that contains the table columns
+   * @param projectedColumns positions of the columns read by the query, or {@code null} if all columns are read
+   */
+  public ObjectDeserializer(Properties properties, Schema schema, @Nullable Collection<Integer> projectedColumns) {
+    this(Lists.newArrayList(properties.getProperty(serdeConstants.LIST_COLUMNS).split(",")),
+         TypeInfoUtils.getTypeInfosFromTypeString(properties.getProperty(serdeConstants.LIST_COLUMN_TYPES)),
+         schema, 0, projectedColumns);
+  }
+
   /**
    * Creates an ObjectTranslator that will be able to deserialize objects that fit a {@link Schema} into objects
    * that a Hive ObjectInspector can understand. Will ignore columns that are before the given field offset when
@@ -86,12 +118,22 @@ public class ObjectDeserializer {
 
   @VisibleForTesting
   ObjectDeserializer(List<String> fieldNames, List<TypeInfo> fieldTypes, Schema schema, int fieldOffset) {
+    this(fieldNames, fieldTypes, schema, fieldOffset, null);
+  }
+
+  @VisibleForTesting
+  ObjectDeserializer(List<String> fieldNames, List<TypeInfo> fieldTypes, Schema schema, int fieldOffset,
+                     @Nullable Collection<Integer> projectedColumns) {
     this.fieldNames = fieldNames.subList(fieldOffset, fieldNames.size());
     this.fieldTypes = fieldTypes.subList(fieldOffset, fieldTypes.size());
     // inspector should still use all names and types passed in. This is in case there are some fields that are
     // determined outside of this class, such as the stream case where timestamp and headers are read elsewhere
     this.inspector = createInspector(fieldNames, fieldTypes);
     this.schema = schema;
+    this.fieldAccessorFactory = new ASMFieldAccessorFactory();
+    this.reflectionAccessorFactory = new ReflectionFieldAccessorFactory();
+    this.structFlatteners = new ConcurrentHashMap<>();
+    this.projected = getProjected(projectedColumns, fieldOffset, this.fieldNames.size());
   }
 
   /**
@@ -104,8 +146,8 @@ public class ObjectDeserializer {
   }
 
   /**
-   * Using reflection, deserialize an object that fits a {@link Schema} into one that can be examined
-   * by an ObjectInspector.
+   * Deserialize an object that fits a {@link Schema} into one that can be examined by an ObjectInspector.
+   * If the object is flattened into a list of fields, the returned list is reused by the next call.
    *
    * @param obj object that fits a {@link Schema}.
    * @return translated object that is understandable by Hive.
@@ -116,13 +158,14 @@ public class ObjectDeserializer {
     if (fieldTypes.size() == 1) {
       return deserializeField(obj, fieldTypes.get(0), schema);
     } else {
-      return flattenRecord(obj, fieldNames, fieldTypes, schema);
+      return flattenRecord(obj, fieldNames, fieldTypes, schema, projected, true);
     }
   }
 
   /**
-   * Using reflection, flatten an object into a list of fields so it can be examined by an ObjectInspector.
+   * Flatten an object into a list of fields so it can be examined by an ObjectInspector.
    * Assumes the field names and types given as input were derived from the schema of the object.
+   * The returned list is reused by the next call.
    *
    * @param obj object that fits a {@link Schema}.
    * @return list of fields in the record, translated to be understandable by Hive.
@@ -130,11 +173,12 @@ public class ObjectDeserializer {
    * @throws IllegalAccessException
    */
   public List<Object> translateRecord(Object obj) throws NoSuchFieldException, IllegalAccessException {
-    return flattenRecord(obj, fieldNames, fieldTypes, schema);
+    return flattenRecord(obj, fieldNames, fieldTypes, schema, projected, true);
   }
 
   private List<Object> flattenRecord(Object obj, List<String> fieldNames, List<TypeInfo> fieldTypes,
-                                     Schema schema) throws NoSuchFieldException, IllegalAccessException {
+                                     Schema schema, @Nullable boolean[] projected, boolean reuse)
+    throws NoSuchFieldException, IllegalAccessException {
     boolean isNullable = schema.isNullable();
     if (obj == null) {
       if (isNullable) {
@@ -146,18 +190,33 @@ public class ObjectDeserializer {
     if (isNullable) {
       schema = schema.getNonNullable();
     }
+    return getFlattener(fieldNames, fieldTypes, schema, projected).flatten(obj, reuse);
+  }
 
-    Map<String, Schema.Field> fieldMap = getFieldMap(schema);
-    List<Object> objectFields = Lists.newArrayListWithCapacity(fieldNames.size());
-    for (int i = 0; i < fieldNames.size(); i++) {
-      String hiveName = fieldNames.get(i);
-      TypeInfo fieldType = fieldTypes.get(i);
-      Schema.Field schemaField = fieldMap.get(hiveName);
-      // use the name from the schema field in case it is not all lowercase
-      Object recordField = getRecordField(obj, schemaField.getName());
-      objectFields.add(deserializeField(recordField, fieldType, schemaField.getSchema()));
+  /**
+   * Returns the {@link RecordFlattener} for the given hive fields and record schema. The field names and the
+   * schema of a struct are the same instances for every record, hence they are used as the key.
+   */
+  private RecordFlattener getFlattener(List<String> fieldNames, List<TypeInfo> fieldTypes,
+                                       Schema schema, @Nullable boolean[] projected) {
+    RecordFlattener flattener = recordFlattener;
+    if (flattener != null && flattener.fieldNames == fieldNames && flattener.schema == schema) {
+      return flattener;
+    }
+    FlattenerKey key = new FlattenerKey(fieldNames, schema);
+    flattener = structFlatteners.get(key);
+    if (flattener == null) {
+      flattener = new RecordFlattener(fieldNames, fieldTypes, schema, projected);
+      // The number of structs is bounded by the schema. The limit is just a safeguard.
+      if (structFlatteners.size() < MAX_STRUCT_FLATTENERS) {
+        RecordFlattener existing = structFlatteners.putIfAbsent(key, flattener);
+        flattener = existing == null ? flattener : existing;
+      }
     }
-    return objectFields;
+    if (fieldNames == this.fieldNames) {
+      recordFlattener = flattener;
+    }
+    return flattener;
   }
 
   /**
@@ -203,7 +262,7 @@ public class ObjectDeserializer {
         StructTypeInfo structTypeInfo = (StructTypeInfo) typeInfo;
         ArrayList<String> innerFieldNames = structTypeInfo.getAllStructFieldNames();
         ArrayList<TypeInfo> innerFieldTypes = structTypeInfo.getAllStructFieldTypeInfos();
-        return flattenRecord(field, innerFieldNames, innerFieldTypes, schema);
+        return flattenRecord(field, innerFieldNames, innerFieldTypes, schema, null, false);
       case UNION:
         // TODO: decide what to do here
         return field;
@@ -313,19 +372,6 @@ public class ObjectDeserializer {
     return translatedMap;
   }
 
-  // get a field from the object using the get method if the object is a StructuredRecord,
-  // or using reflection if it is not.
-  private Object getRecordField(Object record, String fieldName)
-    throws NoSuchFieldException, IllegalAccessException {
-    if (record instanceof StructuredRecord) {
-      return ((StructuredRecord) record).get(fieldName);
-    }
-    Class recordClass = record.getClass();
-    Field field = recordClass.getDeclaredField(fieldName);
-    field.setAccessible(true);
-    return field.get(record);
-  }
-
   // get a map from the expected hive name of a field in the schema to the field in the schema.
   private Map<String, Schema.Field> getFieldMap(Schema schema) {
     Map<String, Schema.Field> fieldMap = Maps.newHashMap();
@@ -335,6 +381,23 @@ public class ObjectDeserializer {
     return fieldMap;
   }
 
+  /**
+   * Returns which of the fields after the field offset are projected, or {@code null} if all fields are projected.
+   */
+  @Nullable
+  private static boolean[] getProjected(@Nullable Collection<Integer> projectedColumns, int fieldOffset, int size) {
+    if (projectedColumns == null) {
+      return null;
+    }
+    boolean[] projected = new boolean[size];
+    for (int column : projectedColumns) {
+      if (column >= fieldOffset && column - fieldOffset < size) {
+        projected[column - fieldOffset] = true;
+      }
+    }
+    return projected;
+  }
+
   private ObjectInspector createInspector(List<String> fieldNames, List<TypeInfo> fieldTypes) {
     List<ObjectInspector> fieldInspectors = Lists.newArrayListWithCapacity(fieldTypes.size());
     for (TypeInfo typeInfo : fieldTypes) {
@@ -342,4 +405,142 @@ public class ObjectDeserializer {
     }
     return ObjectInspectorFactory.getStandardStructObjectInspector(fieldNames, fieldInspectors);
   }
+
+  /**
+   * Flattens records of a given schema into the list of fields expected by Hive. The schema fields of the hive
+   * fields and the {@link FieldAccessor} for reading them are resolved once instead of for every record.
+   */
+  private final class RecordFlattener {
+
+    private final List<String> fieldNames;
+    private final List<TypeInfo> fieldTypes;
+    private final Schema schema;
+    private final Schema.Field[] schemaFields;
+    private final boolean[] projected;
+    private final List<Object> reusedFields;
+    private volatile RecordAccessors accessors;
+
+    RecordFlattener(List<String> fieldNames, List<TypeInfo> fieldTypes, Schema schema, @Nullable boolean[] projected) {
+      this.fieldNames = fieldNames;
+      this.fieldTypes = fieldTypes;
+      this.schema = schema;
+      this.projected = projected;
+      this.reusedFields = new ArrayList<>(fieldNames.size());
+
+      Map<String, Schema.Field> fieldMap = getFieldMap(schema);
+      this.schemaFields = new Schema.Field[fieldNames.size()];
+      for (int i = 0; i < schemaFields.length; i++) {
+        schemaFields[i] = fieldMap.get(fieldNames.get(i));
+      }
+    }
+
+    /**
+     * Flattens the given record. If reuse is {@code true}, the same list is returned for every call.
+     */
+    List<Object> flatten(Object record, boolean reuse) throws NoSuchFieldException, IllegalAccessException {
+      FieldAccessor[] fieldAccessors = record instanceof StructuredRecord ? null : getAccessors(record.getClass());
+      List<Object> objectFields;
+      if (reuse) {
+        objectFields = reusedFields;
+        objectFields.clear();
+      } else {
+        objectFields = new ArrayList<>(schemaFields.length);
+      }
+
+      for (int i = 0; i < schemaFields.length; i++) {
+        // skip the fields that are not read by the query
+        if (projected != null && !projected[i]) {
+          objectFields.add(null);
+          continue;
+        }
+        Schema.Field schemaField = getSchemaField(i);
+        // use the name from the schema field in case it is not all lowercase
+        Object recordField = fieldAccessors == null
+          ? ((StructuredRecord) record).get(schemaField.getName())
+          : fieldAccessors[i].get(record);
+        objectFields.add(deserializeField(recordField, fieldTypes.get(i), schemaField.getSchema()));
+      }
+      return objectFields;
+    }
+
+    private Schema.Field getSchemaField(int idx) {
+      Schema.Field schemaField = schemaFields[idx];
+      if (schemaField == null) {
+        throw new UnexpectedFormatException("Field " + fieldNames.get(idx) + " not found in schema " + schema);
+      }
+      return schemaField;
+    }
+
+    /**
+     * Returns the {@link FieldAccessor} of each field for the given record class. The accessors of the last
+     * record class are kept, since records read from a dataset are usually of the same class.
+     */
+    private FieldAccessor[] getAccessors(Class<?> recordClass) throws NoSuchFieldException {
+      RecordAccessors accessors = this.accessors;
+      if (accessors != null && accessors.recordClass == recordClass) {
+        return accessors.fieldAccessors;
+      }
+
+      TypeToken<?> recordType = TypeToken.of(recordClass);
+      FieldAccessor[] fieldAccessors = new FieldAccessor[schemaFields.length];
+      for (int i = 0; i < fieldAccessors.length; i++) {
+        if (projected != null && !projected[i]) {
+          continue;
+        }
+        String fieldName = getSchemaField(i).getName();
+        try {
+          fieldAccessors[i] = fieldAccessorFactory.getFieldAccessor(recordType, fieldName);
+        } catch (Exception e) {
+          // Fallback to reflection if the accessor class cannot be generated
+          recordClass.getDeclaredField(fieldName);
+          fieldAccessors[i] = reflectionAccessorFactory.getFieldAccessor(recordType, fieldName);
+        }
+      }
+      this.accessors = new RecordAccessors(recordClass, fieldAccessors);
+      return fieldAccessors;
+    }
+  }
+
+  /**
+   * The {@link FieldAccessor} of each field for a record class.
+   */
+  private static final class RecordAccessors {
+    private final Class<?> recordClass;
+    private final FieldAccessor[] fieldAccessors;
+
+    RecordAccessors(Class<?> recordClass, FieldAccessor[] fieldAccessors) {
+      this.recordClass = recordClass;
+      this.fieldAccessors = fieldAccessors;
+    }
+  }
+
+  /**
+   * Key for looking up the {@link RecordFlattener} of a struct, using the identity of the field names and schema.
+   */
+  private static final class FlattenerKey {
+    private final List<String> fieldNames;
+    private final Schema schema;
+
+    FlattenerKey(List<String> fieldNames, Schema schema) {
+      this.fieldNames = fieldNames;
+      this.schema = schema;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      FlattenerKey other = (FlattenerKey) o;
+      return fieldNames == other.fieldNames && schema == other.schema;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(fieldNames) + System.identityHashCode(schema);
+    }
+  }
 }
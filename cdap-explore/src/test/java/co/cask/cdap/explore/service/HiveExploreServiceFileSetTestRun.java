@@ -135,6 +135,100 @@ public class HiveExploreServiceFileSetTestRun extends BaseHiveExploreServiceTest
                Collections.<QueryResult>emptyList());
   }
 
+  @Test
+  public void testOrcFileSetWithDatasetSchema() throws Exception {
+    final DatasetId datasetInstanceId = NAMESPACE_ID.dataset("orcschema");
+    final String tableName = getDatasetHiveName(datasetInstanceId);
+
+    // create an orc file set without explore schema, the table schema is derived from the dataset schema
+    Schema schema = Schema.recordOf("rec",
+                                    Schema.Field.of("id", Schema.of(Schema.Type.LONG)),
+                                    Schema.Field.of("name", Schema.nullableOf(Schema.of(Schema.Type.STRING))));
+    datasetFramework.addInstance("orcFileSet", datasetInstanceId, FileSetProperties.builder()
+      .setEnableExploreOnCreate(true)
+      .add(DatasetProperties.SCHEMA, schema.toString())
+      .build());
+
+    // verify that the hive table was created for this file set, with the columns of the dataset schema
+    runCommand(NAMESPACE_ID, "show tables", true,
+               Lists.newArrayList(new ColumnDesc("tab_name", "STRING", 1, "from deserializer")),
+               Lists.newArrayList(new QueryResult(Lists.<Object>newArrayList(tableName))));
+    runCommand(NAMESPACE_ID, "SELECT * FROM " + tableName, false,
+               Lists.newArrayList(
+                 new ColumnDesc(tableName + ".id", "BIGINT", 1, null),
+                 new ColumnDesc(tableName + ".name", "STRING", 2, null)),
+               Collections.<QueryResult>emptyList());
+
+    // update the dataset schema, this should alter the columns of the table
+    Schema newSchema = Schema.recordOf("rec",
+                                       Schema.Field.of("id", Schema.of(Schema.Type.LONG)),
+                                       Schema.Field.of("name", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+                                       Schema.Field.of("score", Schema.of(Schema.Type.DOUBLE)));
+    datasetFramework.updateInstance(datasetInstanceId, FileSetProperties.builder()
+      .setEnableExploreOnCreate(true)
+      .add(DatasetProperties.SCHEMA, newSchema.toString())
+      .build());
+    List<ColumnDesc> expectedColumns = Lists.newArrayList(
+      new ColumnDesc(tableName + ".id", "BIGINT", 1, null),
+      new ColumnDesc(tableName + ".name", "STRING", 2, null),
+      new ColumnDesc(tableName + ".score", "DOUBLE", 3, null));
+    runCommand(NAMESPACE_ID, "SELECT * FROM " + tableName, false,
+               expectedColumns, Collections.<QueryResult>emptyList());
+
+    // verify that the table is stored as orc with the new columns by inserting and reading back data
+    ExploreExecutionResult result = exploreClient.submit(
+      NAMESPACE_ID, String.format("insert into table %s values (1, 'samuel', 1.5), (2, 'dwayne', 2.5)",
+                                  tableName)).get();
+    result.close();
+    runCommand(NAMESPACE_ID, "SELECT * FROM " + tableName, true,
+               expectedColumns,
+               Lists.newArrayList(
+                 new QueryResult(Lists.<Object>newArrayList(1L, "samuel", 1.5)),
+                 new QueryResult(Lists.<Object>newArrayList(2L, "dwayne", 2.5))));
+  }
+
+  @Test
+  public void testParquetPartitionedFileSetWithDatasetSchema() throws Exception {
+    final DatasetId datasetInstanceId = NAMESPACE_ID.dataset("parquetschema");
+    final String tableName = getDatasetHiveName(datasetInstanceId);
+
+    // create a parquet partitioned file set without explore schema
+    datasetFramework.addInstance("parquetPartitionedFileSet", datasetInstanceId, PartitionedFileSetProperties.builder()
+      .setPartitioning(Partitioning.builder().addIntField("number").build())
+      .setEnableExploreOnCreate(true)
+      .add(DatasetProperties.SCHEMA, SCHEMA.toString())
+      .build());
+
+    // verify that the hive table was created with the columns of the dataset schema and the partition column
+    runCommand(NAMESPACE_ID, "show tables", true,
+               Lists.newArrayList(new ColumnDesc("tab_name", "STRING", 1, "from deserializer")),
+               Lists.newArrayList(new QueryResult(Lists.<Object>newArrayList(tableName))));
+    runCommand(NAMESPACE_ID, "SELECT * FROM " + tableName, false,
+               Lists.newArrayList(
+                 new ColumnDesc(tableName + ".key", "STRING", 1, null),
+                 new ColumnDesc(tableName + ".value", "STRING", 2, null),
+                 new ColumnDesc(tableName + ".number", "INT", 3, null)),
+               Collections.<QueryResult>emptyList());
+
+    // update the dataset schema, this should replace the columns of the table
+    datasetFramework.updateInstance(datasetInstanceId, PartitionedFileSetProperties.builder()
+      .setPartitioning(Partitioning.builder().addIntField("number").build())
+      .setEnableExploreOnCreate(true)
+      .add(DatasetProperties.SCHEMA, K_SCHEMA.toString())
+      .build());
+    runCommand(NAMESPACE_ID, "SELECT * FROM " + tableName, false,
+               Lists.newArrayList(
+                 new ColumnDesc(tableName + ".key", "STRING", 1, null),
+                 new ColumnDesc(tableName + ".number", "INT", 2, null)),
+               Collections.<QueryResult>emptyList());
+
+    // drop the dataset and verify the Hive table is gone
+    datasetFramework.deleteInstance(datasetInstanceId);
+    runCommand(NAMESPACE_ID, "show tables", false,
+               Lists.newArrayList(new ColumnDesc("tab_name", "STRING", 1, "from deserializer")),
+               Collections.<QueryResult>emptyList());
+  }
+
   @Test
   public void testCreateAddAlterDrop() throws Exception {
     testCreateAddAlterDrop(null, null);
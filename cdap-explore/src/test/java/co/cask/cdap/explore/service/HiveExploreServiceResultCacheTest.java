@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.explore.service;
+
+import co.cask.cdap.api.dataset.DatasetDefinition;
+import co.cask.cdap.api.dataset.lib.PartitionKey;
+import co.cask.cdap.api.dataset.lib.PartitionedFileSet;
+import co.cask.cdap.api.dataset.lib.PartitionedFileSetProperties;
+import co.cask.cdap.api.dataset.lib.Partitioning;
+import co.cask.cdap.common.conf.CConfiguration;
+import co.cask.cdap.common.conf.Constants;
+import co.cask.cdap.proto.ColumnDesc;
+import co.cask.cdap.proto.QueryResult;
+import co.cask.cdap.proto.id.DatasetId;
+import co.cask.cdap.test.SlowTests;
+import com.google.common.collect.Lists;
+import org.apache.tephra.DefaultTransactionExecutor;
+import org.apache.tephra.TransactionAware;
+import org.apache.tephra.TransactionExecutor;
+import org.apache.twill.filesystem.Location;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.List;
+
+/**
+ * Tests that the Explore service answers repeated queries from the result cache, and that cached results are not
+ * used anymore once the partitions of a queried table change.
+ */
+@Category(SlowTests.class)
+public class HiveExploreServiceResultCacheTest extends BaseHiveExploreServiceTest {
+
+  @ClassRule
+  public static TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  @BeforeClass
+  public static void start() throws Exception {
+    CConfiguration cConf = CConfiguration.create();
+    cConf.setBoolean(Constants.Explore.RESULT_CACHE_ENABLED, true);
+    initialize(cConf, tmpFolder);
+  }
+
+  @After
+  public void deleteAll() throws Exception {
+    datasetFramework.deleteAllInstances(NAMESPACE_ID);
+  }
+
+  @Test
+  public void testResultCache() throws Exception {
+    DatasetId datasetId = NAMESPACE_ID.dataset("cached");
+    String tableName = getDatasetHiveName(datasetId);
+
+    datasetFramework.addInstance(PartitionedFileSet.class.getName(), datasetId, PartitionedFileSetProperties.builder()
+      .setPartitioning(Partitioning.builder().addIntField("number").build())
+      .setEnableExploreOnCreate(true)
+      .setExploreSchema("key STRING, value INT")
+      .setExploreFormat("csv")
+      .build());
+    PartitionedFileSet partitioned = datasetFramework.getDataset(datasetId, DatasetDefinition.NO_ARGUMENTS, null);
+    Assert.assertNotNull(partitioned);
+
+    Location location1 = partitioned.getEmbeddedFileSet().getLocation("file1/nn");
+    FileWriterHelper.generateTextFile(location1.getOutputStream(), ",", "x", 1, 3);
+    addPartition(partitioned, PartitionKey.builder().addIntField("number", 1).build(), "file1");
+
+    String query = "SELECT key, value FROM " + tableName + " ORDER BY key";
+    List<ColumnDesc> expectedColumns = Lists.newArrayList(new ColumnDesc("key", "STRING", 1, null),
+                                                          new ColumnDesc("value", "INT", 2, null));
+    List<QueryResult> expectedResults = Lists.newArrayList(
+      new QueryResult(Lists.<Object>newArrayList("x1", 1)),
+      new QueryResult(Lists.<Object>newArrayList("x2", 2)));
+    runCommand(NAMESPACE_ID, query, true, expectedColumns, expectedResults);
+
+    // delete the file of the partition without going through Explore. The same query must still return
+    // the rows of the deleted file, which means that it is answered from the cache
+    Assert.assertTrue(location1.delete());
+    runCommand(NAMESPACE_ID, query, true, expectedColumns, expectedResults);
+    // differently formatted statements are the same query
+    runCommand(NAMESPACE_ID, "  select key, value\nFROM " + tableName + " order by key;", true,
+               expectedColumns, expectedResults);
+
+    // adding a partition changes the table, hence the query runs again and only sees the new partition
+    Location location2 = partitioned.getEmbeddedFileSet().getLocation("file2/nn");
+    FileWriterHelper.generateTextFile(location2.getOutputStream(), ",", "y", 3, 4);
+    addPartition(partitioned, PartitionKey.builder().addIntField("number", 2).build(), "file2");
+    runCommand(NAMESPACE_ID, query, true, expectedColumns,
+               Lists.newArrayList(new QueryResult(Lists.<Object>newArrayList("y3", 3))));
+  }
+
+  private void addPartition(final PartitionedFileSet partitioned, final PartitionKey key,
+                            final String path) throws Exception {
+    TransactionExecutor executor = new DefaultTransactionExecutor(transactionSystemClient,
+                                                                  (TransactionAware) partitioned);
+    executor.execute(new TransactionExecutor.Subroutine() {
+      @Override
+      public void apply() throws Exception {
+        partitioned.addPartition(key, path);
+      }
+    });
+  }
+}
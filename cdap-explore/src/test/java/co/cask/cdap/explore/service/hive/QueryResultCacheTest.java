@@ -0,0 +1,141 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.explore.service.hive;
+
+import co.cask.cdap.api.metrics.NoopMetricsContext;
+import co.cask.cdap.proto.ColumnDesc;
+import co.cask.cdap.proto.QueryResult;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Unit tests for {@link QueryResultCache}.
+ */
+public class QueryResultCacheTest {
+
+  private static final List<ColumnDesc> SCHEMA = ImmutableList.of(new ColumnDesc("t.k", "STRING", 1, null));
+  private static final Set<String> TABLES = ImmutableSet.of("t", "db2.u");
+
+  @Test
+  public void testNormalize() {
+    Assert.assertEquals("select * from t where k = 'A  B'",
+                        QueryResultCache.normalize("  SELECT *\n  FROM T\tWHERE k = 'A  B';  "));
+    Assert.assertEquals("select * from t where k = \"It\\\"S\"",
+                        QueryResultCache.normalize("select * from t where k = \"It\\\"S\""));
+  }
+
+  @Test
+  public void testReferencedTables() {
+    Assert.assertEquals(ImmutableSet.of("dataset_a", "db.dataset_b"),
+                        QueryResultCache.getReferencedTables(
+                          "SELECT a.k, count(*) FROM dataset_a a JOIN db.`Dataset_B` b ON a.k = b.k GROUP BY a.k"));
+    Assert.assertEquals(ImmutableSet.of("dataset_a"),
+                        QueryResultCache.getReferencedTables(
+                          "select * from (select k from dataset_a where k > 'x') s limit 10"));
+
+    // Statements that are not plain queries or are not deterministic are not cached
+    Assert.assertNull(QueryResultCache.getReferencedTables("show tables"));
+    Assert.assertNull(QueryResultCache.getReferencedTables("insert into table dataset_a select * from dataset_b"));
+    Assert.assertNull(QueryResultCache.getReferencedTables("select k, rand() from dataset_a"));
+    Assert.assertNull(QueryResultCache.getReferencedTables("select * from dataset_a where ts < unix_timestamp()"));
+    Assert.assertNull(QueryResultCache.getReferencedTables("select from where"));
+  }
+
+  @Test
+  public void testKey() {
+    QueryResultCache cache = new QueryResultCache(10, 3600, 3, new NoopMetricsContext());
+    QueryResultCache.Key key = cache.createKey("alice", "db", "select * from t join db2.u", TABLES);
+
+    // Same statement and tables
+    Assert.assertEquals(key, cache.createKey("alice", "db", "SELECT *  FROM t JOIN db2.u;", TABLES));
+    // Different user or statement
+    Assert.assertNotEquals(key, cache.createKey("bob", "db", "select * from t join db2.u", TABLES));
+    Assert.assertNotEquals(key, cache.createKey("alice", "db", "select k from t join db2.u", TABLES));
+
+    // Changes of other tables don't change the key
+    cache.invalidate("db", "ALTER TABLE v ADD PARTITION (number=1) LOCATION '/v/1'");
+    cache.invalidate("db2", "drop table if exists t");
+    Assert.assertEquals(key, cache.createKey("alice", "db", "select * from t join db2.u", TABLES));
+
+    // Changes of a referenced table change the key, with and without the database in the statement
+    cache.invalidate("db", "ALTER TABLE t ADD PARTITION (number=1) LOCATION '/t/1'");
+    QueryResultCache.Key newKey = cache.createKey("alice", "db", "select * from t join db2.u", TABLES);
+    Assert.assertNotEquals(key, newKey);
+    cache.invalidate("db", "ALTER TABLE `DB2`.`U` DROP PARTITION (number=1)");
+    Assert.assertNotEquals(newKey, cache.createKey("alice", "db", "select * from t join db2.u", TABLES));
+  }
+
+  @Test
+  public void testCache() {
+    QueryResultCache cache = new QueryResultCache(10, 3600, 3, new NoopMetricsContext());
+    Assert.assertTrue(cache.isEnabled());
+
+    QueryResultCache.Key key = cache.createKey("alice", "db", "select * from t", ImmutableSet.of("t"));
+    Assert.assertNull(cache.get(key));
+
+    // Results are collected as they are fetched
+    QueryResultCache.Collector collector = cache.createCollector(key);
+    collector.add(ImmutableList.of(row("a"), row("b")));
+    collector.add(ImmutableList.of(row("c")));
+    cache.put(collector, SCHEMA);
+    QueryResultCache.Result result = cache.get(key);
+    Assert.assertNotNull(result);
+    Assert.assertEquals(SCHEMA, result.getSchema());
+    Assert.assertEquals(ImmutableList.of(row("a"), row("b"), row("c")), result.getRows());
+
+    // Statements that change tables that are not known invalidate all results
+    cache.invalidate("db", "DROP DATABASE IF EXISTS db");
+    Assert.assertNull(cache.get(key));
+
+    // Results with too many rows are not cached
+    collector = cache.createCollector(key);
+    collector.add(ImmutableList.of(row("a"), row("b")));
+    collector.add(ImmutableList.of(row("c"), row("d")));
+    cache.put(collector, SCHEMA);
+    Assert.assertNull(cache.get(key));
+
+    // Results collected before an invalidation are not cached
+    collector = cache.createCollector(key);
+    collector.add(ImmutableList.of(row("a")));
+    cache.invalidateAll();
+    cache.put(collector, SCHEMA);
+    Assert.assertNull(cache.get(key));
+
+    // Results collected before the table changed are not used for queries after the change
+    collector = cache.createCollector(key);
+    collector.add(ImmutableList.of(row("a")));
+    cache.invalidate("db", "alter table t drop partition (number=1)");
+    cache.put(collector, SCHEMA);
+    Assert.assertNull(cache.get(cache.createKey("alice", "db", "select * from t", ImmutableSet.of("t"))));
+
+    // Disabled cache doesn't cache anything
+    cache = new QueryResultCache(0, 3600, 3, new NoopMetricsContext());
+    Assert.assertFalse(cache.isEnabled());
+    collector = cache.createCollector(key);
+    cache.put(collector, SCHEMA);
+    Assert.assertNull(cache.get(key));
+  }
+
+  private QueryResult row(String value) {
+    return new QueryResult(ImmutableList.<Object>of(value));
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.hive.datasets;
+
+import co.cask.cdap.api.common.Bytes;
+import co.cask.cdap.api.data.schema.Schema;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit-test for {@link RowKeyRange}.
+ */
+public class RowKeyRangeTest {
+
+  @Test
+  public void testStringRange() {
+    RowKeyRange range = new RowKeyRange(Schema.Type.STRING);
+    Assert.assertTrue(range.add(RowKeyRange.CompareOp.GREATER, "b"));
+    Assert.assertTrue(range.add(RowKeyRange.CompareOp.EQUAL_OR_GREATER, "a"));
+    Assert.assertTrue(range.add(RowKeyRange.CompareOp.EQUAL_OR_LESS, "x"));
+    Assert.assertTrue(range.add(RowKeyRange.CompareOp.LESS, "y"));
+
+    // The narrowest bounds are used, with the start inclusive and the stop exclusive
+    Assert.assertArrayEquals(Bytes.concat(Bytes.toBytes("b"), new byte[1]), range.getStart());
+    Assert.assertArrayEquals(Bytes.concat(Bytes.toBytes("x"), new byte[1]), range.getStop());
+    Assert.assertFalse(range.isEmpty());
+
+    Assert.assertTrue(range.add(RowKeyRange.CompareOp.LESS, "b"));
+    Assert.assertTrue(range.isEmpty());
+  }
+
+  @Test
+  public void testEqual() {
+    RowKeyRange range = new RowKeyRange(Schema.Type.STRING);
+    Assert.assertTrue(range.add(RowKeyRange.CompareOp.EQUAL, "key"));
+    Assert.assertArrayEquals(Bytes.toBytes("key"), range.getStart());
+    Assert.assertArrayEquals(Bytes.concat(Bytes.toBytes("key"), new byte[1]), range.getStop());
+    Assert.assertFalse(range.isEmpty());
+
+    // Unsupported values are ignored
+    Assert.assertFalse(range.add(RowKeyRange.CompareOp.EQUAL, 10));
+    Assert.assertFalse(range.add(RowKeyRange.CompareOp.EQUAL, null));
+  }
+
+  @Test
+  public void testNumericKeys() {
+    // Only equality can be used for numeric keys
+    RowKeyRange range = new RowKeyRange(Schema.Type.LONG);
+    Assert.assertFalse(range.add(RowKeyRange.CompareOp.GREATER, 5L));
+    Assert.assertNull(range.getStart());
+    Assert.assertNull(range.getStop());
+
+    Assert.assertTrue(range.add(RowKeyRange.CompareOp.EQUAL, 5));
+    Assert.assertArrayEquals(Bytes.toBytes(5L), range.getStart());
+
+    range = new RowKeyRange(Schema.Type.INT);
+    Assert.assertFalse(range.add(RowKeyRange.CompareOp.EQUAL, Long.MAX_VALUE));
+    Assert.assertFalse(range.add(RowKeyRange.CompareOp.EQUAL, 1.5d));
+    Assert.assertTrue(range.add(RowKeyRange.CompareOp.EQUAL, 7L));
+    Assert.assertArrayEquals(Bytes.toBytes(7), range.getStart());
+    Assert.assertArrayEquals(Bytes.concat(Bytes.toBytes(7), new byte[1]), range.getStop());
+
+    Assert.assertTrue(range.add(RowKeyRange.CompareOp.EQUAL, 8));
+    Assert.assertTrue(range.isEmpty());
+  }
+}
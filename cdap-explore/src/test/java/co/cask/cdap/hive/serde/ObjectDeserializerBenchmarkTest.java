@@ -0,0 +1,129 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.hive.serde;
+
+import co.cask.cdap.api.data.schema.Schema;
+import co.cask.cdap.internal.io.ReflectionSchemaGenerator;
+import co.cask.cdap.test.XSlowTests;
+import com.google.common.base.Stopwatch;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to flatten wide records with {@link ObjectDeserializer}, compared to flattening them with
+ * reflection and a schema field lookup for every record, which is how {@link ObjectDeserializer} used to work.
+ * The number of records can be set with the {@code explore.benchmark.records} system property.
+ */
+@Category(XSlowTests.class)
+public class ObjectDeserializerBenchmarkTest {
+
+  @Test
+  public void testFlatten() throws Exception {
+    int records = Integer.getInteger("explore.benchmark.records", 2000000);
+    Schema schema = new ReflectionSchemaGenerator().generate(WideRecord.class);
+    List<String> fieldNames = new ArrayList<>();
+    List<TypeInfo> fieldTypes = new ArrayList<>();
+    for (Field field : WideRecord.class.getDeclaredFields()) {
+      if (field.isSynthetic()) {
+        continue;
+      }
+      fieldNames.add(field.getName().toLowerCase());
+      fieldTypes.add(field.getType() == String.class ? TypeInfoFactory.stringTypeInfo
+                       : field.getType() == long.class ? TypeInfoFactory.longTypeInfo : TypeInfoFactory.intTypeInfo);
+    }
+    WideRecord record = new WideRecord();
+
+    ObjectDeserializer deserializer = new ObjectDeserializer(fieldNames, fieldTypes, schema);
+    // Warm up both before measuring
+    for (int i = 0; i < 100000; i++) {
+      deserializer.translateRecord(record);
+      flattenWithReflection(record, fieldNames, schema);
+    }
+
+    Stopwatch stopwatch = new Stopwatch().start();
+    for (int i = 0; i < records; i++) {
+      flattenWithReflection(record, fieldNames, schema);
+    }
+    report("reflection", records, stopwatch.elapsedTime(TimeUnit.MILLISECONDS));
+
+    stopwatch = new Stopwatch().start();
+    for (int i = 0; i < records; i++) {
+      deserializer.translateRecord(record);
+    }
+    report("object deserializer", records, stopwatch.elapsedTime(TimeUnit.MILLISECONDS));
+  }
+
+  private void report(String name, int records, long elapsedMs) {
+    System.out.printf("%s: %d records in %d ms, %.0f records/sec%n",
+                      name, records, elapsedMs, records * 1000.0 / Math.max(1, elapsedMs));
+  }
+
+  private List<Object> flattenWithReflection(Object record, List<String> fieldNames,
+                                             Schema schema) throws Exception {
+    Map<String, Schema.Field> fieldMap = new HashMap<>();
+    for (Schema.Field field : schema.getFields()) {
+      fieldMap.put(field.getName().toLowerCase(), field);
+    }
+    List<Object> fields = new ArrayList<>(fieldNames.size());
+    for (String fieldName : fieldNames) {
+      Field field = record.getClass().getDeclaredField(fieldMap.get(fieldName).getName());
+      field.setAccessible(true);
+      fields.add(field.get(record));
+    }
+    return fields;
+  }
+
+  /**
+   * A record with many fields, which is typical for tables with a wide schema.
+   */
+  @SuppressWarnings("unused")
+  public static final class WideRecord {
+    private String stringField1 = "value 1";
+    private String stringField2 = "value 2";
+    private String stringField3 = "value 3";
+    private String stringField4 = "value 4";
+    private String stringField5 = "value 5";
+    private String stringField6 = "value 6";
+    private String stringField7 = "value 7";
+    private String stringField8 = "value 8";
+    private int intField1 = 1;
+    private int intField2 = 2;
+    private int intField3 = 3;
+    private int intField4 = 4;
+    private int intField5 = 5;
+    private int intField6 = 6;
+    private int intField7 = 7;
+    private int intField8 = 8;
+    private long longField1 = 1L;
+    private long longField2 = 2L;
+    private long longField3 = 3L;
+    private long longField4 = 4L;
+    private long longField5 = 5L;
+    private long longField6 = 6L;
+    private long longField7 = 7L;
+    private long longField8 = 8L;
+  }
+}
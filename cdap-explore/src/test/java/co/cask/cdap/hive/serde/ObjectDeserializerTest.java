@@ -22,6 +22,7 @@ import co.cask.cdap.api.data.schema.Schema;
 import co.cask.cdap.internal.io.ReflectionSchemaGenerator;
 import co.cask.cdap.internal.io.SchemaGenerator;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
@@ -369,6 +370,57 @@ public class ObjectDeserializerTest {
     assertSimpleRecordEquals(expected, translated);
   }
 
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testMultipleRecords() throws Exception {
+    ObjectDeserializer translator = new ObjectDeserializer(
+      NestedRecord.getFieldNames(), NestedRecord.getFieldTypes(), schemaGenerator.generate(NestedRecord.class));
+
+    // The same deserializer is used for many records, which should be translated with their own values
+    for (int i = 0; i < 10; i++) {
+      NestedRecord nestedRecord = new NestedRecord();
+      nestedRecord.record.uriField = new URI("http://abc.com/" + i);
+      List<Object> expected = nestedRecord.getAsList();
+      List<Object> translated = translator.translateRecord(nestedRecord);
+      Assert.assertEquals(expected.get(0), translated.get(0));
+      Assert.assertEquals(expected.get(1), translated.get(1));
+      assertSimpleRecordEquals((List<Object>) expected.get(2), (List<Object>) translated.get(2));
+    }
+
+    // StructuredRecord and objects of the same schema can be mixed
+    SimpleRecord simpleRecord = new SimpleRecord(new URI("http://abc.com"), new URL("http://123.com"));
+    Schema schema = schemaGenerator.generate(SimpleRecord.class);
+    translator = new ObjectDeserializer(HiveSimpleRecord.getFieldNames(), HiveSimpleRecord.getFieldTypes(), schema);
+    List<Object> expected = new HiveSimpleRecord(simpleRecord).getAsList();
+    assertSimpleRecordEquals(expected, translator.translateRecord(simpleRecord));
+
+    StructuredRecord.Builder builder = StructuredRecord.builder(schema);
+    for (Schema.Field field : schema.getFields()) {
+      builder.set(field.getName(), SimpleRecord.class.getDeclaredField(field.getName()).get(simpleRecord));
+    }
+    assertSimpleRecordEquals(expected, translator.translateRecord(builder.build()));
+    assertSimpleRecordEquals(expected, translator.translateRecord(simpleRecord));
+  }
+
+  @Test
+  public void testProjection() throws Exception {
+    SimpleRecord simpleRecord = new SimpleRecord(new URI("http://abc.com"), new URL("http://123.com"));
+    List<Object> expected = new HiveSimpleRecord(simpleRecord).getAsList();
+    // only deserialize the boolean and the string fields
+    ObjectDeserializer translator =
+      new ObjectDeserializer(HiveSimpleRecord.getFieldNames(), HiveSimpleRecord.getFieldTypes(),
+                             schemaGenerator.generate(SimpleRecord.class), 0, ImmutableSet.of(0, 8));
+    List<Object> translated = translator.translateRecord(simpleRecord);
+    Assert.assertEquals(expected.size(), translated.size());
+    for (int i = 0; i < translated.size(); i++) {
+      if (i == 0 || i == 8) {
+        Assert.assertEquals(expected.get(i), translated.get(i));
+      } else {
+        Assert.assertNull(translated.get(i));
+      }
+    }
+  }
+
   @SuppressWarnings("unchecked")
   @Test
   public void testNestedRecord() throws Exception {
@@ -22,6 +22,7 @@ import co.cask.cdap.common.conf.Constants;
 import co.cask.cdap.common.conf.SConfiguration;
 import co.cask.cdap.gateway.router.handlers.AuditLogHandler;
 import co.cask.cdap.gateway.router.handlers.AuthenticationHandler;
+import co.cask.cdap.gateway.router.handlers.BackendChannelPool;
 import co.cask.cdap.gateway.router.handlers.HttpRequestRouter;
 import co.cask.cdap.gateway.router.handlers.HttpStatusRequestHandler;
 import co.cask.cdap.security.auth.AccessTokenTransformer;
@@ -84,6 +85,7 @@ public class NettyRouter extends AbstractIdleService {
   private final CConfiguration cConf;
   private final boolean sslEnabled;
   private final SSLHandlerFactory sslHandlerFactory;
+  private final BackendChannelPool backendChannelPool;
 
   private DiscoveryServiceClient discoveryServiceClient;
   private Cancellable serverCancellable;
@@ -105,6 +107,7 @@ public class NettyRouter extends AbstractIdleService {
     this.accessTokenTransformer = accessTokenTransformer;
     this.discoveryServiceClient = discoveryServiceClient;
     this.sslEnabled = cConf.getBoolean(Constants.Security.SSL.EXTERNAL_ENABLED);
+    this.backendChannelPool = new BackendChannelPool(cConf);
     if (isSSLEnabled()) {
       this.serviceToPortMap.put(Constants.Router.GATEWAY_DISCOVERY_NAME,
                                 cConf.getInt(Constants.Router.ROUTER_SSL_PORT));
@@ -142,6 +145,8 @@ public class NettyRouter extends AbstractIdleService {
 
     serverCancellable.cancel();
     tokenValidator.stopAndWait();
+    LOG.debug("Backend connections acquired: {}, connected: {}",
+              backendChannelPool.getAcquireCount(), backendChannelPool.getConnectCount());
 
     LOG.info("Stopped Netty Router.");
   }
@@ -197,7 +202,7 @@ public class NettyRouter extends AbstractIdleService {
           // Always let the client to continue sending the request body after the authentication passed
           pipeline.addLast("expect-continue", new HttpServerExpectContinueHandler());
           // for now there's only one hardcoded rule, but if there will be more, we may want it generic and configurable
-          pipeline.addLast("http-request-handler", new HttpRequestRouter(cConf, serviceLookup));
+          pipeline.addLast("http-request-handler", new HttpRequestRouter(serviceLookup, backendChannelPool));
         }
       });
   }
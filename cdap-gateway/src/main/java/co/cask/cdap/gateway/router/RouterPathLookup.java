@@ -1,5 +1,5 @@
 /*
- * Copyright © 2014-2016 Cask Data, Inc.
+ * Copyright © 2014-2017 Cask Data, Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License"); you may not
  * use this file except in compliance with the License. You may obtain a copy of
@@ -20,9 +20,13 @@ import co.cask.cdap.common.conf.Constants;
 import co.cask.cdap.common.service.ServiceDiscoverable;
 import co.cask.cdap.proto.ProgramType;
 import co.cask.http.AbstractHttpHandler;
+import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpRequest;
 import org.apache.commons.lang.StringUtils;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * Class to match the request path to corresponding service like app-fabric, or metrics service.
  */
@@ -48,6 +52,9 @@ public final class RouterPathLookup extends AbstractHttpHandler {
   public static final RouteDestination MESSAGING = new RouteDestination(Constants.Service.MESSAGING_SERVICE);
   public static final RouteDestination DONT_ROUTE = new RouteDestination(Constants.Router.DONT_ROUTE_SERVICE);
 
+  // Routes of the v3 APIs, compiled once and shared by all requests
+  private static final RouterPathTrie ROUTES = createRoutes();
+
   /**
    * Returns the CDAP service which will handle the HttpRequest
    *
@@ -58,20 +65,26 @@ public final class RouterPathLookup extends AbstractHttpHandler {
    */
   public RouteDestination getRoutingService(String fallbackService, String requestPath, HttpRequest httpRequest) {
     try {
-      String method = httpRequest.method().name();
-      AllowedMethod requestMethod = AllowedMethod.valueOf(method);
-      String[] uriParts = StringUtils.split(requestPath, '/');
+      // Requests with other methods are routed to app-fabric
+      AllowedMethod.valueOf(httpRequest.method().name());
+      int start = RouterPathTrie.skipSeparators(requestPath, 0);
+      if (start == requestPath.length()) {
+        return APP_FABRIC_HTTP;
+      }
+      boolean isV3 = isSegment(requestPath, start, Constants.Gateway.API_VERSION_3_TOKEN);
 
       //Check if the call should go to webapp
       //If service contains "$HOST" and if first split element is NOT the gateway version, then send it to WebApp
       //WebApp serves only static files (HTML, CSS, JS) and so /<appname> calls should go to WebApp
       //But stream calls issued by the UI should be routed to the appropriate CDAP service
-      if (fallbackService.contains("$HOST") && (uriParts.length >= 1)
-        && !("/" + uriParts[0]).equals(Constants.Gateway.API_VERSION_3)) {
+      if (fallbackService.contains("$HOST") && !isV3) {
         return new RouteDestination(fallbackService);
       }
-      if (uriParts[0].equals(Constants.Gateway.API_VERSION_3_TOKEN)) {
-        return getV3RoutingService(uriParts, requestMethod);
+      if (isV3) {
+        RouterPathTrie.Route route = ROUTES.match(requestPath, httpRequest.method());
+        if (route != null) {
+          return route.getDestination(requestPath);
+        }
       }
     } catch (Exception e) {
       // Ignore exception. Default routing to app-fabric.
@@ -79,162 +92,140 @@ public final class RouterPathLookup extends AbstractHttpHandler {
     return APP_FABRIC_HTTP;
   }
 
-  private boolean isUserServiceType(String uriPart) {
-    for (ProgramType type : ServiceDiscoverable.getUserServiceTypes()) {
-      if (type.getCategoryName().equals(uriPart)) {
-        return true;
-      }
-    }
-    return false;
+  /**
+   * Returns whether the path segment starting at the given position is equal to the given segment.
+   */
+  private static boolean isSegment(String path, int start, String segment) {
+    int end = start + segment.length();
+    return path.regionMatches(start, segment, 0, segment.length())
+      && (end == path.length() || path.charAt(end) == '/');
   }
 
-  private RouteDestination getV3RoutingService(String [] uriParts, AllowedMethod requestMethod) {
-    if ((uriParts.length >= 2) && uriParts[1].equals("feeds")) {
-      // TODO find a better way to handle that - this looks hackish
-      return null;
-    } else if ((uriParts.length >= 11) && "versions".equals(uriParts[5]) && isUserServiceType(uriParts[7])
-      && "methods".equals(uriParts[9])) {
+  /**
+   * Creates the {@link RouterPathTrie} for the v3 APIs. Routes are added in the order of precedence.
+   */
+  private static RouterPathTrie createRoutes() {
+    RouterPathTrie.Builder builder = RouterPathTrie.builder();
+
+    // TODO find a better way to handle that - this looks hackish
+    builder.addPrefix(null, "v3", "feeds");
+
+    for (ProgramType type : ServiceDiscoverable.getUserServiceTypes()) {
       // User defined services (version specific) handle methods on them:
       //Path: "/v3/namespaces/{namespace-id}/apps/{app-id}/versions/{version-id}/services/{service-id}/methods/
       //       <user-defined-method-path>"
-      String serviceName = ServiceDiscoverable.getName(uriParts[2], uriParts[4],
-                                                       ProgramType.valueOfCategoryName(uriParts[7]), uriParts[8]);
-      String version = uriParts[6];
-      return new RouteDestination(serviceName, version);
-    } else if ((uriParts.length >= 9) && isUserServiceType(uriParts[5]) && "methods".equals(uriParts[7])) {
+      builder.addDynamicPrefix(new RouterPathTrie.RouteResolver() {
+        @Override
+        public RouteDestination resolve(String path) {
+          String[] uriParts = StringUtils.split(path, '/');
+          String serviceName = ServiceDiscoverable.getName(uriParts[2], uriParts[4],
+                                                           ProgramType.valueOfCategoryName(uriParts[7]), uriParts[8]);
+          return new RouteDestination(serviceName, uriParts[6]);
+        }
+      }, "v3", null, null, null, null, "versions", null, type.getCategoryName(), null, "methods", null);
+    }
+    for (ProgramType type : ServiceDiscoverable.getUserServiceTypes()) {
       //User defined services handle methods on them:
       //Path: "/v3/namespaces/{namespace-id}/apps/{app-id}/services/{service-id}/methods/<user-defined-method-path>"
-      return new RouteDestination(ServiceDiscoverable.getName(uriParts[2], uriParts[4],
-                                                              ProgramType.valueOfCategoryName(uriParts[5]),
-                                                              uriParts[6]));
-    } else if (matches(uriParts, "v3", "system", "services", null, "logs")) {
-      //Log Handler Path /v3/system/services/<service-id>/logs
-      return METRICS;
-    } else if (matches(uriParts, "v3", "namespaces", null, "apps", null, "metadata") ||
-      matches(uriParts, "v3", "namespaces", null, "apps", null, null, null, "metadata") ||
-      matches(uriParts, "v3", "namespaces", null, "artifacts", null, "versions", null, "metadata") ||
-      matches(uriParts, "v3", "namespaces", null, "datasets", null, "metadata") ||
-      matches(uriParts, "v3", "namespaces", null, "streams", null, "metadata") ||
-      matches(uriParts, "v3", "namespaces", null, "streams", null, "views", null, "metadata") ||
-
-      matches(uriParts, "v3", "namespaces", null, "apps", null, "metadata", "properties") ||
-      matches(uriParts, "v3", "namespaces", null, "artifacts", null, "versions", null, "metadata", "properties") ||
-      matches(uriParts, "v3", "namespaces", null, "apps", null, null, null, "metadata", "properties") ||
-      matches(uriParts, "v3", "namespaces", null, "datasets", null, "metadata", "properties") ||
-      matches(uriParts, "v3", "namespaces", null, "streams", null, "metadata", "properties") ||
-      matches(uriParts, "v3", "namespaces", null, "streams", null, "views", null, "metadata", "properties") ||
-
-      matches(uriParts, "v3", "namespaces", null, "apps", null, "metadata", "tags") ||
-      matches(uriParts, "v3", "namespaces", null, "artifacts", null, "versions", null, "metadata", "tags") ||
-      matches(uriParts, "v3", "namespaces", null, "apps", null, null, null, "metadata", "tags") ||
-      matches(uriParts, "v3", "namespaces", null, "datasets", null, "metadata", "tags") ||
-      matches(uriParts, "v3", "namespaces", null, "streams", null, "metadata", "tags") ||
-      matches(uriParts, "v3", "namespaces", null, "streams", null, "views", null, "metadata", "tags") ||
-
-      matches(uriParts, "v3", "namespaces", null, "metadata", "search") ||
-      matches(uriParts, "v3", "namespaces", null, "datasets", null, "lineage") ||
-      matches(uriParts, "v3", "namespaces", null, "streams", null, "lineage") ||
-      matches(uriParts, "v3", "namespaces", null, "apps", null, null, null, "runs", null, "metadata")) {
-      return METADATA_SERVICE;
-    } else if (matches(uriParts, "v3", "security", "authorization") ||
-      matches(uriParts, "v3", "namespaces", null, "securekeys")) {
-      // Authorization and Secure Store Handlers currently run in App Fabric
-      return APP_FABRIC_HTTP;
-    } else if (matches(uriParts, "v3", "security", "store", "namespaces", null)) {
-      return APP_FABRIC_HTTP;
-    } else if ((matches(uriParts, "v3", "namespaces", null, "streams", null, "programs")
-      || matches(uriParts, "v3", "namespaces", null, "data", "datasets", null, "programs")) &&
-      requestMethod.equals(AllowedMethod.GET)) {
-      return APP_FABRIC_HTTP;
-    } else if (matches(uriParts, "v3", "namespaces", null, "previews")) {
-      return PREVIEW_HTTP;
-    } else if (matches(uriParts, "v3", "system", "serviceproviders")) {
-      return APP_FABRIC_HTTP;
-    } else if ((uriParts.length >= 4) && uriParts[1].equals("namespaces") && uriParts[3].equals("streams")) {
-      return STREAMS_SERVICE;
-    } else if ((uriParts.length >= 8 && uriParts[7].equals("logs")) ||
-      (uriParts.length >= 10 && uriParts[9].equals("logs")) ||
-      (uriParts.length >= 6 && uriParts[5].equals("logs"))) {
-      //Log Handler Paths:
-      // /v3/namespaces/<namespaceid>/apps/<appid>/<programid-type>/<programid>/logs
-      // /v3/namespaces/{namespace-id}/apps/{app-id}/{program-type}/{program-id}/runs/{run-id}/logs
-      return METRICS;
-    } else if (uriParts.length >= 2 && uriParts[1].equals("metrics")) {
-      //Metrics Search Handler Path /v3/metrics
-      return METRICS;
-    } else if (uriParts.length >= 5 && uriParts[1].equals("data") && uriParts[2].equals("explore") &&
-      (uriParts[3].equals("queries") || uriParts[3].equals("jdbc") || uriParts[3].equals("namespaces"))) {
-      // non-namespaced explore operations. For example, /v3/data/explore/queries/{id}
-      return EXPLORE_HTTP_USER_SERVICE;
-    } else if (uriParts.length >= 6 && uriParts[3].equals("data") && uriParts[4].equals("explore") &&
-      (uriParts[5].equals("queries") || uriParts[5].equals("streams") || uriParts[5].equals("datasets")
-        || uriParts[5].equals("tables") || uriParts[5].equals("jdbc"))) {
-      // namespaced explore operations. For example, /v3/namespaces/{namespace-id}/data/explore/streams/{stream}/enable
-      return EXPLORE_HTTP_USER_SERVICE;
-    } else if ((uriParts.length == 3) && uriParts[1].equals("explore") && uriParts[2].equals("status")) {
-      return EXPLORE_HTTP_USER_SERVICE;
-    } else if (matches(uriParts, "v3", "system", "services", null, "status")
-      || matches(uriParts, "v3", "system", "services", null, "stacks")) {
-      switch (uriParts[3]) {
-        case Constants.Service.LOGSAVER: return LOG_SAVER;
-        case Constants.Service.TRANSACTION: return TRANSACTION;
-        case Constants.Service.METRICS_PROCESSOR: return METRICS_PROCESSOR;
-        case Constants.Service.METRICS: return METRICS;
-        case Constants.Service.APP_FABRIC_HTTP: return APP_FABRIC_HTTP;
-        case Constants.Service.STREAMS: return STREAMS_SERVICE;
-        case Constants.Service.DATASET_EXECUTOR: return DATASET_EXECUTOR;
-        case Constants.Service.REMOTE_SYSTEM_OPERATION: return DATASET_EXECUTOR;
-        case Constants.Service.METADATA_SERVICE: return METADATA_SERVICE;
-        case Constants.Service.EXPLORE_HTTP_USER_SERVICE: return EXPLORE_HTTP_USER_SERVICE;
-        case Constants.Service.MESSAGING_SERVICE: return MESSAGING;
-        default: return null;
-      }
-    } else if (uriParts.length == 7 && uriParts[3].equals("data") && uriParts[4].equals("datasets") &&
-      (uriParts[6].equals("flows") || uriParts[6].equals("workers") || uriParts[6].equals("mapreduce"))) {
-      // namespaced app fabric data operations:
-      // /v3/namespaces/{namespace-id}/data/datasets/{name}/flows
-      // /v3/namespaces/{namespace-id}/data/datasets/{name}/workers
-      // /v3/namespaces/{namespace-id}/data/datasets/{name}/mapreduce
-      return APP_FABRIC_HTTP;
-    } else if ((uriParts.length >= 4) && uriParts[3].equals("data")) {
-      // other data operations. For example:
-      // /v3/namespaces/{namespace-id}/data/datasets
-      // /v3/namespaces/{namespace-id}/data/datasets/{name}
-      // /v3/namespaces/{namespace-id}/data/datasets/{name}/properties
-      // /v3/namespaces/{namespace-id}/data/datasets/{name}/admin/{method}
-      return DATASET_MANAGER;
-    } else if ((uriParts.length >= 4) && uriParts[3].equals("artifact-internals")) {
-      // we don't want to expose endpoints in artifact handler that are internal and can only by called by programs
-      // /v3/namespaces/{namespace-id}/artifact-internals/list/artifacts
-      // /v3/namespaces/{namespace-id}/artifact-internals/artifact/{artifact-name}
-      return DONT_ROUTE;
+      builder.addDynamicPrefix(new RouterPathTrie.RouteResolver() {
+        @Override
+        public RouteDestination resolve(String path) {
+          String[] uriParts = StringUtils.split(path, '/');
+          return new RouteDestination(ServiceDiscoverable.getName(uriParts[2], uriParts[4],
+                                                                  ProgramType.valueOfCategoryName(uriParts[5]),
+                                                                  uriParts[6]));
+        }
+      }, "v3", null, null, null, null, type.getCategoryName(), null, "methods", null);
     }
-    return APP_FABRIC_HTTP;
-  }
 
-  /**
-   * Determines if actual matches expected.
-   *
-   * - actual may be longer than expected, but we'll return true as long as expected was found
-   * - null in expected means "accept any string"
-   *
-   * @param actual actual string array to check
-   * @param expected expected string array format
-   * @return true if actual matches expected
-   */
-  private boolean matches(String[] actual, String... expected) {
-    if (actual.length < expected.length) {
-      return false;
+    //Log Handler Path /v3/system/services/<service-id>/logs
+    builder.addPrefix(METRICS, "v3", "system", "services", null, "logs");
+
+    // Prefixes also cover the metadata properties and tags of each entity, e.g. .../metadata/properties
+    builder
+      .addPrefix(METADATA_SERVICE, "v3", "namespaces", null, "apps", null, "metadata")
+      .addPrefix(METADATA_SERVICE, "v3", "namespaces", null, "apps", null, null, null, "metadata")
+      .addPrefix(METADATA_SERVICE, "v3", "namespaces", null, "artifacts", null, "versions", null, "metadata")
+      .addPrefix(METADATA_SERVICE, "v3", "namespaces", null, "datasets", null, "metadata")
+      .addPrefix(METADATA_SERVICE, "v3", "namespaces", null, "streams", null, "metadata")
+      .addPrefix(METADATA_SERVICE, "v3", "namespaces", null, "streams", null, "views", null, "metadata")
+      .addPrefix(METADATA_SERVICE, "v3", "namespaces", null, "metadata", "search")
+      .addPrefix(METADATA_SERVICE, "v3", "namespaces", null, "datasets", null, "lineage")
+      .addPrefix(METADATA_SERVICE, "v3", "namespaces", null, "streams", null, "lineage")
+      .addPrefix(METADATA_SERVICE, "v3", "namespaces", null, "apps", null, null, null, "runs", null, "metadata");
+
+    // Authorization and Secure Store Handlers currently run in App Fabric
+    builder
+      .addPrefix(APP_FABRIC_HTTP, "v3", "security", "authorization")
+      .addPrefix(APP_FABRIC_HTTP, "v3", "namespaces", null, "securekeys")
+      .addPrefix(APP_FABRIC_HTTP, "v3", "security", "store", "namespaces", null)
+      .addPrefix(HttpMethod.GET, APP_FABRIC_HTTP, "v3", "namespaces", null, "streams", null, "programs")
+      .addPrefix(HttpMethod.GET, APP_FABRIC_HTTP, "v3", "namespaces", null, "data", "datasets", null, "programs")
+      .addPrefix(PREVIEW_HTTP, "v3", "namespaces", null, "previews")
+      .addPrefix(APP_FABRIC_HTTP, "v3", "system", "serviceproviders")
+      .addPrefix(STREAMS_SERVICE, "v3", "namespaces", null, "streams");
+
+    //Log Handler Paths:
+    // /v3/namespaces/<namespaceid>/apps/<appid>/<programid-type>/<programid>/logs
+    // /v3/namespaces/{namespace-id}/apps/{app-id}/{program-type}/{program-id}/runs/{run-id}/logs
+    builder
+      .addPrefix(METRICS, "v3", null, null, null, null, null, null, "logs")
+      .addPrefix(METRICS, "v3", null, null, null, null, null, null, null, null, "logs")
+      .addPrefix(METRICS, "v3", null, null, null, null, "logs");
+
+    //Metrics Search Handler Path /v3/metrics
+    builder.addPrefix(METRICS, "v3", "metrics");
+
+    // non-namespaced explore operations. For example, /v3/data/explore/queries/{id}
+    for (String operation : new String[] { "queries", "jdbc", "namespaces" }) {
+      builder.addPrefix(EXPLORE_HTTP_USER_SERVICE, "v3", "data", "explore", operation, null);
+    }
+    // namespaced explore operations. For example, /v3/namespaces/{namespace-id}/data/explore/streams/{stream}/enable
+    for (String operation : new String[] { "queries", "streams", "datasets", "tables", "jdbc" }) {
+      builder.addPrefix(EXPLORE_HTTP_USER_SERVICE, "v3", null, null, "data", "explore", operation);
     }
+    builder.addExact(EXPLORE_HTTP_USER_SERVICE, "v3", "explore", "status");
 
-    for (int i = 0; i < expected.length; i++) {
-      if (expected[i] == null) {
-        continue;
-      }
-      if (!expected[i].equals(actual[i])) {
-        return false;
+    Map<String, RouteDestination> systemServices = new LinkedHashMap<>();
+    systemServices.put(Constants.Service.LOGSAVER, LOG_SAVER);
+    systemServices.put(Constants.Service.TRANSACTION, TRANSACTION);
+    systemServices.put(Constants.Service.METRICS_PROCESSOR, METRICS_PROCESSOR);
+    systemServices.put(Constants.Service.METRICS, METRICS);
+    systemServices.put(Constants.Service.APP_FABRIC_HTTP, APP_FABRIC_HTTP);
+    systemServices.put(Constants.Service.STREAMS, STREAMS_SERVICE);
+    systemServices.put(Constants.Service.DATASET_EXECUTOR, DATASET_EXECUTOR);
+    systemServices.put(Constants.Service.REMOTE_SYSTEM_OPERATION, DATASET_EXECUTOR);
+    systemServices.put(Constants.Service.METADATA_SERVICE, METADATA_SERVICE);
+    systemServices.put(Constants.Service.EXPLORE_HTTP_USER_SERVICE, EXPLORE_HTTP_USER_SERVICE);
+    systemServices.put(Constants.Service.MESSAGING_SERVICE, MESSAGING);
+    for (String operation : new String[] { "status", "stacks" }) {
+      for (Map.Entry<String, RouteDestination> entry : systemServices.entrySet()) {
+        builder.addPrefix(entry.getValue(), "v3", "system", "services", entry.getKey(), operation);
       }
+      // Unknown system services are not routed
+      builder.addPrefix(null, "v3", "system", "services", null, operation);
+    }
+
+    // namespaced app fabric data operations:
+    // /v3/namespaces/{namespace-id}/data/datasets/{name}/flows
+    // /v3/namespaces/{namespace-id}/data/datasets/{name}/workers
+    // /v3/namespaces/{namespace-id}/data/datasets/{name}/mapreduce
+    for (String programs : new String[] { "flows", "workers", "mapreduce" }) {
+      builder.addExact(APP_FABRIC_HTTP, "v3", null, null, "data", "datasets", null, programs);
     }
-    return true;
+
+    // other data operations. For example:
+    // /v3/namespaces/{namespace-id}/data/datasets
+    // /v3/namespaces/{namespace-id}/data/datasets/{name}
+    // /v3/namespaces/{namespace-id}/data/datasets/{name}/properties
+    // /v3/namespaces/{namespace-id}/data/datasets/{name}/admin/{method}
+    builder.addPrefix(DATASET_MANAGER, "v3", null, null, "data");
+
+    // we don't want to expose endpoints in artifact handler that are internal and can only by called by programs
+    // /v3/namespaces/{namespace-id}/artifact-internals/list/artifacts
+    // /v3/namespaces/{namespace-id}/artifact-internals/artifact/{artifact-name}
+    builder.addPrefix(DONT_ROUTE, "v3", null, null, "artifact-internals");
+
+    return builder.build();
   }
 }
@@ -0,0 +1,281 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.gateway.router;
+
+import io.netty.handler.codec.http.HttpMethod;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * A trie of URI path patterns for finding the {@link RouteDestination} of a request path.
+ *
+ * Each pattern is a list of path segments, where {@code null} matches any segment. A route either matches all paths
+ * that start with its pattern, or only paths with exactly the same number of segments. A route can also be
+ * restricted to a {@link HttpMethod}. If more than one route matches a path, the route that was added first wins,
+ * hence routes should be added in the order of precedence.
+ *
+ * The trie is immutable once built. Matching walks the request path in place, without splitting it into segments.
+ * Empty segments are ignored, the same as {@code StringUtils.split(path, '/')} does.
+ */
+final class RouterPathTrie {
+
+  private final Node root;
+
+  private RouterPathTrie(Node root) {
+    this.root = root;
+  }
+
+  static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Returns the {@link Route} with the highest precedence that matches the given path and method.
+   *
+   * @param path the normalized request path without the query string
+   * @param method the request method
+   * @return the matching {@link Route} or {@code null} if no route matches
+   */
+  @Nullable
+  Route match(String path, HttpMethod method) {
+    return match(root, path, skipSeparators(path, 0), method, null);
+  }
+
+  /**
+   * Returns the position of the first character of the next segment, starting from the given position.
+   */
+  static int skipSeparators(String path, int pos) {
+    while (pos < path.length() && path.charAt(pos) == '/') {
+      pos++;
+    }
+    return pos;
+  }
+
+  @Nullable
+  private Route match(Node node, String path, int pos, HttpMethod method, @Nullable Route best) {
+    best = select(node.prefixRoutes, method, best);
+    if (pos == path.length()) {
+      return select(node.exactRoutes, method, best);
+    }
+
+    int segmentEnd = path.indexOf('/', pos);
+    if (segmentEnd < 0) {
+      segmentEnd = path.length();
+    }
+    int segmentLength = segmentEnd - pos;
+    int next = skipSeparators(path, segmentEnd);
+
+    // Literals of a node are distinct, hence at most one of them can match the segment
+    for (int i = 0; i < node.literals.length; i++) {
+      String literal = node.literals[i];
+      if (literal.length() == segmentLength && path.regionMatches(pos, literal, 0, segmentLength)) {
+        if (mayImprove(node.literalChildren[i], best)) {
+          best = match(node.literalChildren[i], path, next, method, best);
+        }
+        break;
+      }
+    }
+    if (node.wildcardChild != null && mayImprove(node.wildcardChild, best)) {
+      best = match(node.wildcardChild, path, next, method, best);
+    }
+    return best;
+  }
+
+  /**
+   * Returns whether the subtree of the given node has any route with higher precedence than the given route.
+   */
+  private boolean mayImprove(Node node, @Nullable Route best) {
+    return best == null || node.minPriority < best.priority;
+  }
+
+  /**
+   * Returns the route with the highest precedence among the given best route and the routes accepting the method.
+   */
+  @Nullable
+  private Route select(Route[] routes, HttpMethod method, @Nullable Route best) {
+    // Routes of a node are sorted by priority
+    for (Route route : routes) {
+      if (best != null && route.priority >= best.priority) {
+        break;
+      }
+      if (route.method == null || route.method.equals(method)) {
+        return route;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Resolves the {@link RouteDestination} of a request path that depends on the segments of the path.
+   */
+  interface RouteResolver {
+
+    /**
+     * Returns the {@link RouteDestination} for the given path, or {@code null} if the request should not be routed.
+     */
+    @Nullable
+    RouteDestination resolve(String path);
+  }
+
+  /**
+   * A route in the {@link RouterPathTrie}.
+   */
+  static final class Route {
+    private final int priority;
+    private final HttpMethod method;
+    private final RouteDestination destination;
+    private final RouteResolver resolver;
+
+    private Route(int priority, @Nullable HttpMethod method,
+                  @Nullable RouteDestination destination, @Nullable RouteResolver resolver) {
+      this.priority = priority;
+      this.method = method;
+      this.destination = destination;
+      this.resolver = resolver;
+    }
+
+    /**
+     * Returns the {@link RouteDestination} of the given path matched by this route.
+     */
+    @Nullable
+    RouteDestination getDestination(String path) {
+      return resolver == null ? destination : resolver.resolve(path);
+    }
+  }
+
+  /**
+   * Builder for {@link RouterPathTrie}.
+   */
+  static final class Builder {
+    private final BuilderNode root = new BuilderNode();
+    private int priority;
+
+    private Builder() {
+    }
+
+    /**
+     * Adds a route for all paths starting with the given pattern.
+     */
+    Builder addPrefix(@Nullable RouteDestination destination, String... pattern) {
+      return add(pattern, false, new Route(priority, null, destination, null));
+    }
+
+    /**
+     * Adds a route for all paths starting with the given pattern that are requested with the given method.
+     */
+    Builder addPrefix(HttpMethod method, @Nullable RouteDestination destination, String... pattern) {
+      return add(pattern, false, new Route(priority, method, destination, null));
+    }
+
+    /**
+     * Adds a route for all paths starting with the given pattern, with the destination resolved from the path.
+     */
+    Builder addDynamicPrefix(RouteResolver resolver, String... pattern) {
+      return add(pattern, false, new Route(priority, null, null, resolver));
+    }
+
+    /**
+     * Adds a route for all paths that have the same number of segments as the given pattern and match it.
+     */
+    Builder addExact(@Nullable RouteDestination destination, String... pattern) {
+      return add(pattern, true, new Route(priority, null, destination, null));
+    }
+
+    RouterPathTrie build() {
+      return new RouterPathTrie(root.build());
+    }
+
+    private Builder add(String[] pattern, boolean exact, Route route) {
+      BuilderNode node = root;
+      node.minPriority = Math.min(node.minPriority, route.priority);
+      for (String segment : pattern) {
+        node = node.getChild(segment);
+        node.minPriority = Math.min(node.minPriority, route.priority);
+      }
+      (exact ? node.exactRoutes : node.prefixRoutes).add(route);
+      priority++;
+      return this;
+    }
+  }
+
+  /**
+   * A mutable node used while building the trie.
+   */
+  private static final class BuilderNode {
+    private final Map<String, BuilderNode> literalChildren = new LinkedHashMap<>();
+    private final List<Route> prefixRoutes = new ArrayList<>();
+    private final List<Route> exactRoutes = new ArrayList<>();
+    private BuilderNode wildcardChild;
+    private int minPriority = Integer.MAX_VALUE;
+
+    BuilderNode getChild(@Nullable String segment) {
+      if (segment == null) {
+        if (wildcardChild == null) {
+          wildcardChild = new BuilderNode();
+        }
+        return wildcardChild;
+      }
+      BuilderNode child = literalChildren.get(segment);
+      if (child == null) {
+        child = new BuilderNode();
+        literalChildren.put(segment, child);
+      }
+      return child;
+    }
+
+    Node build() {
+      String[] literals = new String[literalChildren.size()];
+      Node[] children = new Node[literalChildren.size()];
+      int i = 0;
+      for (Map.Entry<String, BuilderNode> entry : literalChildren.entrySet()) {
+        literals[i] = entry.getKey();
+        children[i] = entry.getValue().build();
+        i++;
+      }
+      return new Node(literals, children, wildcardChild == null ? null : wildcardChild.build(),
+                      prefixRoutes.toArray(new Route[prefixRoutes.size()]),
+                      exactRoutes.toArray(new Route[exactRoutes.size()]), minPriority);
+    }
+  }
+
+  /**
+   * An immutable node of the trie.
+   */
+  private static final class Node {
+    private final String[] literals;
+    private final Node[] literalChildren;
+    private final Node wildcardChild;
+    private final Route[] prefixRoutes;
+    private final Route[] exactRoutes;
+    // The minimum priority of all routes in the subtree of this node
+    private final int minPriority;
+
+    Node(String[] literals, Node[] literalChildren, @Nullable Node wildcardChild,
+         Route[] prefixRoutes, Route[] exactRoutes, int minPriority) {
+      this.literals = literals;
+      this.literalChildren = literalChildren;
+      this.wildcardChild = wildcardChild;
+      this.prefixRoutes = prefixRoutes;
+      this.exactRoutes = exactRoutes;
+      this.minPriority = minPriority;
+    }
+  }
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright © 2018 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.gateway.router.handlers;
+
+import co.cask.cdap.common.conf.CConfiguration;
+import co.cask.cdap.common.conf.Constants;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoop;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import io.netty.handler.timeout.IdleStateHandler;
+import org.apache.twill.discovery.Discoverable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import javax.net.ssl.SSLException;
+
+/**
+ * A pool of idle keep-alive connections to internal services, shared by all inbound connections of the router.
+ *
+ * Idle channels are kept per event loop and per {@link Discoverable}. An outbound channel is always served by the
+ * same event loop as the inbound channel it is forwarding for, so that there is no concurrent calls between the
+ * inbound and outbound channel callbacks. It also means the idle channels of an event loop are only accessed by
+ * the event loop thread, hence don't need synchronization.
+ *
+ * Idle channels are closed by the {@link IdleStateHandler} in the channel pipeline after
+ * {@link Constants.Router#CONNECTION_TIMEOUT_SECS}, and are removed from the pool when they are closed. The entry of
+ * a {@link Discoverable} is removed when it has no more idle channels, so that endpoints that went away don't stay
+ * in the pool.
+ */
+public final class BackendChannelPool {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BackendChannelPool.class);
+  private static final byte[] HTTPS_SCHEME_BYTES = Constants.Security.SSL_URI_SCHEME.getBytes();
+
+  private final int idleTimeoutSecs;
+  private final int maxIdlePerDestination;
+  private final ConcurrentMap<EventLoop, Map<Discoverable, Deque<Channel>>> idleChannels;
+  private final AtomicInteger idleCount;
+  private final AtomicLong acquireCount;
+  private final AtomicLong connectCount;
+  private volatile SslContext sslContext;
+
+  public BackendChannelPool(CConfiguration cConf) {
+    this.idleTimeoutSecs = cConf.getInt(Constants.Router.CONNECTION_TIMEOUT_SECS);
+    this.maxIdlePerDestination = cConf.getInt(Constants.Router.BACKEND_POOL_MAX_IDLE_CONNECTIONS);
+    this.idleChannels = new ConcurrentHashMap<>();
+    this.idleCount = new AtomicInteger();
+    this.acquireCount = new AtomicLong();
+    this.connectCount = new AtomicLong();
+  }
+
+  /**
+   * Acquires a channel to the given {@link Discoverable} for forwarding requests of the given inbound channel.
+   * An idle channel is reused if there is one, otherwise a new connection is made.
+   * This method must be called from the event loop of the inbound channel.
+   *
+   * @param inboundChannel the inbound channel that responses should be forwarded to
+   * @param discoverable the endpoint to connect to
+   * @return a {@link ChannelFuture} that completes when the channel is ready for writing
+   */
+  ChannelFuture acquire(Channel inboundChannel, Discoverable discoverable) {
+    acquireCount.incrementAndGet();
+
+    final EventLoop eventLoop = inboundChannel.eventLoop();
+    Channel channel = pollIdleChannel(eventLoop, discoverable);
+    while (channel != null) {
+      // Channels closed by the remote end may not have been removed from the pool yet
+      if (channel.isActive()) {
+        LOG.trace("Reuse channel {} for {}", channel, discoverable);
+        getOutboundHandler(channel).setInboundChannel(inboundChannel);
+        return channel.newSucceededFuture();
+      }
+      channel = pollIdleChannel(eventLoop, discoverable);
+    }
+
+    connectCount.incrementAndGet();
+    LOG.trace("Create new channel for {}", discoverable);
+    ChannelFuture connectFuture = createBootstrap(inboundChannel, discoverable)
+      .connect(discoverable.getSocketAddress());
+
+    // Remove the channel from the pool when it is closed while idle
+    final Channel newChannel = connectFuture.channel();
+    newChannel.closeFuture().addListener(new ChannelFutureListener() {
+      @Override
+      public void operationComplete(ChannelFuture future) throws Exception {
+        removeIdleChannel(eventLoop, discoverable, newChannel);
+      }
+    });
+    return connectFuture;
+  }
+
+  /**
+   * Releases a channel acquired by {@link #acquire(Channel, Discoverable)}. The channel is returned to the pool if
+   * the last request and response were completed with keep-alive. Otherwise the channel is closed.
+   * This method must be called from the event loop of the channel.
+   *
+   * @param channel the channel to release
+   * @param discoverable the endpoint that the channel is connected to
+   */
+  void release(Channel channel, Discoverable discoverable) {
+    OutboundHandler handler = getOutboundHandler(channel);
+    if (handler == null || !handler.isReusable() || !channel.isActive()) {
+      Channels.closeOnFlush(channel);
+      return;
+    }
+
+    Deque<Channel> channels = getIdleChannels(channel.eventLoop(), discoverable);
+    if (channels.size() >= maxIdlePerDestination) {
+      Channels.closeOnFlush(channel);
+      return;
+    }
+
+    handler.setInboundChannel(null);
+    // Most recently used channels are reused first, so that the least used ones become idle and get closed
+    channels.addFirst(channel);
+    idleCount.incrementAndGet();
+  }
+
+  /**
+   * Returns the number of idle channels in the pool.
+   */
+  public int getIdleCount() {
+    return idleCount.get();
+  }
+
+  /**
+   * Returns the number of times a channel was acquired from the pool.
+   */
+  public long getAcquireCount() {
+    return acquireCount.get();
+  }
+
+  /**
+   * Returns the number of new connections made because there was no idle channel to reuse.
+   */
+  public long getConnectCount() {
+    return connectCount.get();
+  }
+
+  /**
+   * Removes and returns the most recently used idle channel to the given {@link Discoverable}, or returns
+   * {@code null} if there is none. The entry of the {@link Discoverable} is removed when it becomes empty.
+   */
+  @Nullable
+  private Channel pollIdleChannel(EventLoop eventLoop, Discoverable discoverable) {
+    Map<Discoverable, Deque<Channel>> channelsMap = idleChannels.get(eventLoop);
+    Deque<Channel> channels = channelsMap == null ? null : channelsMap.get(discoverable);
+    if (channels == null) {
+      return null;
+    }
+    Channel channel = channels.pollFirst();
+    if (channel != null) {
+      idleCount.decrementAndGet();
+    }
+    if (channels.isEmpty()) {
+      channelsMap.remove(discoverable);
+    }
+    return channel;
+  }
+
+  /**
+   * Removes the given channel from the idle channels of the given {@link Discoverable} if it is idle. The entry of
+   * the {@link Discoverable} is removed when it becomes empty.
+   */
+  private void removeIdleChannel(EventLoop eventLoop, Discoverable discoverable, Channel channel) {
+    Map<Discoverable, Deque<Channel>> channelsMap = idleChannels.get(eventLoop);
+    Deque<Channel> channels = channelsMap == null ? null : channelsMap.get(discoverable);
+    if (channels == null) {
+      return;
+    }
+    if (channels.remove(channel)) {
+      idleCount.decrementAndGet();
+    }
+    if (channels.isEmpty()) {
+      channelsMap.remove(discoverable);
+    }
+  }
+
+  private Deque<Channel> getIdleChannels(EventLoop eventLoop, Discoverable discoverable) {
+    Map<Discoverable, Deque<Channel>> channelsMap = idleChannels.get(eventLoop);
+    if (channelsMap == null) {
+      // Only the event loop thread adds the entry for itself, hence there won't be a race
+      channelsMap = new HashMap<>();
+      idleChannels.put(eventLoop, channelsMap);
+    }
+    Deque<Channel> channels = channelsMap.get(discoverable);
+    if (channels == null) {
+      channels = new ArrayDeque<>();
+      channelsMap.put(discoverable, channels);
+    }
+    return channels;
+  }
+
+  @Nullable
+  private OutboundHandler getOutboundHandler(Channel channel) {
+    return channel.pipeline().get(OutboundHandler.class);
+  }
+
+  /**
+   * Creates a {@link Bootstrap} for connecting to the given endpoint. It must use the event loop of the
+   * inbound channel to make sure thread safety between the inbound and outbound channels callbacks.
+   */
+  private Bootstrap createBootstrap(final Channel inboundChannel, final Discoverable discoverable) {
+    return new Bootstrap()
+      .group(inboundChannel.eventLoop())
+      .channel(NioSocketChannel.class)
+      .option(ChannelOption.SO_KEEPALIVE, true)
+      .handler(new ChannelInitializer<SocketChannel>() {
+        @Override
+        protected void initChannel(SocketChannel ch) throws Exception {
+          ChannelPipeline pipeline = ch.pipeline();
+
+          SslHandler sslHandler = getSslHandler(discoverable, ch.alloc());
+          if (sslHandler != null) {
+            pipeline.addLast("ssl", sslHandler);
+          }
+          pipeline.addLast("idle-state-handler", new IdleStateHandler(0, 0, idleTimeoutSecs));
+          pipeline.addLast("codec", new HttpClientCodec());
+          pipeline.addLast("forwarder", new OutboundHandler(inboundChannel));
+        }
+      });
+  }
+
+  /**
+   * Returns the {@link SslHandler} to be used for a given discoverable endpoint
+   *
+   * @param discoverable the endpoint to connect to
+   * @return the {@link SslHandler} or {@code null} if SSL is not needed
+   */
+  @Nullable
+  private SslHandler getSslHandler(Discoverable discoverable, ByteBufAllocator alloc) throws SSLException {
+    if (!Arrays.equals(HTTPS_SCHEME_BYTES, discoverable.getPayload())) {
+      return null;
+    }
+    SslContext context = sslContext;
+    if (context != null) {
+      return context.newHandler(alloc);
+    }
+    synchronized (this) {
+      context = sslContext;
+      if (context == null) {
+        sslContext = context = SslContextBuilder.forClient()
+          .trustManager(InsecureTrustManagerFactory.INSTANCE).build();
+      }
+      return context.newHandler(alloc);
+    }
+  }
+}
@@ -26,42 +26,72 @@ import io.netty.handler.codec.http.HttpUtil;
 import io.netty.handler.codec.http.LastHttpContent;
 import io.netty.handler.timeout.IdleState;
 import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.util.ReferenceCountUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+
 /**
  * A {@link ChannelDuplexHandler} for forwarding requests/responses between the router and the internal service.
  * It also handle idle state event for closing idled internal connections.
+ * The inbound channel can be changed when the connection is reused through the {@link BackendChannelPool}.
  */
 public class OutboundHandler extends ChannelDuplexHandler {
   private static final Logger LOG = LoggerFactory.getLogger(OutboundHandler.class);
 
-  private final Channel inboundChannel;
+  private Channel inboundChannel;
   private boolean requestInProgress;
+  private boolean requestCompleted;
+  private boolean requestKeepAlive;
   private boolean keepAlive;
 
   public OutboundHandler(Channel inboundChannel) {
     this.inboundChannel = inboundChannel;
   }
 
+  /**
+   * Sets the inbound channel to forward responses to, or {@code null} if the connection is idle.
+   */
+  void setInboundChannel(@Nullable Channel inboundChannel) {
+    this.inboundChannel = inboundChannel;
+  }
+
+  /**
+   * Returns whether the connection can be reused for another request. It is only true if both the last request
+   * and response are completed, and both of them have keep-alive.
+   */
+  boolean isReusable() {
+    return !requestInProgress && requestCompleted && requestKeepAlive && keepAlive;
+  }
+
   @Override
   public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
-    // One receiving messages from the internal service, forward it to the inbound channel
-    inboundChannel.write(msg);
-
     if (msg instanceof HttpResponse) {
       keepAlive = HttpUtil.isKeepAlive((HttpResponse) msg);
     }
 
-    // A response is completed by receiving the last http content
+    // A response is completed by receiving the last http content.
+    // Update the state before forwarding, since forwarding the last content can release this connection.
     if (msg instanceof LastHttpContent) {
       requestInProgress = false;
     }
+
+    // One receiving messages from the internal service, forward it to the inbound channel
+    if (inboundChannel == null) {
+      // Unexpected message on an idle connection, which can't be reused anymore
+      ReferenceCountUtil.release(msg);
+      ctx.channel().close();
+      return;
+    }
+    inboundChannel.write(msg);
   }
 
   @Override
   public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
-    inboundChannel.flush();
+    if (inboundChannel != null) {
+      inboundChannel.flush();
+    }
   }
 
   @Override
@@ -69,14 +99,19 @@ public class OutboundHandler extends ChannelDuplexHandler {
     // A request starts with a HttpRequest
     if (msg instanceof HttpRequest) {
       requestInProgress = true;
-      keepAlive = HttpUtil.isKeepAlive((HttpRequest) msg);
+      requestCompleted = false;
+      requestKeepAlive = keepAlive = HttpUtil.isKeepAlive((HttpRequest) msg);
+    }
+    if (msg instanceof LastHttpContent) {
+      requestCompleted = true;
     }
     ctx.write(msg, promise);
   }
 
   @Override
   public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
-    if (requestInProgress) {
+    final Channel inboundChannel = this.inboundChannel;
+    if (requestInProgress && inboundChannel != null) {
       final Channel channel = ctx.channel();
       ctx.executor().execute(() -> {
         // If outboundChannel is not saturated anymore, continue accepting
@@ -97,7 +132,7 @@ public class OutboundHandler extends ChannelDuplexHandler {
   @Override
   public void channelInactive(ChannelHandlerContext ctx) throws Exception {
     // Close the inbound channel if there is request in progress, or the last request/response has keep-alive == false
-    if (requestInProgress || !keepAlive) {
+    if (inboundChannel != null && (requestInProgress || !keepAlive)) {
       Channels.closeOnFlush(inboundChannel);
     }
     ctx.fireChannelInactive();
@@ -16,6 +16,7 @@
 
 package co.cask.cdap.gateway.router;
 
+import co.cask.cdap.common.conf.CConfiguration;
 import co.cask.cdap.common.conf.Constants;
 import co.cask.cdap.common.discovery.RandomEndpointStrategy;
 import co.cask.cdap.common.discovery.ResolvingDiscoverable;
@@ -358,6 +359,29 @@ public abstract class NettyRouterTestBase {
     Assert.assertEquals(1, defaultServer1.getNumConnectionsClosed());
   }
 
+  @Test
+  public void testBackendConnectionReuse() throws Exception {
+    String path = "/v2/ping";
+    URI uri = new URI(resolveURI(Constants.Router.GATEWAY_DISCOVERY_NAME, path));
+
+    // Make each request on a new client connection. The backend connections should be reused across them.
+    int times = 30;
+    for (int i = 0; i < times; i++) {
+      try (Socket socket = getSocketFactory().createSocket(uri.getHost(), uri.getPort())) {
+        PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+        Assert.assertEquals("HTTP/1.1 200 OK", makeRequest(uri, out, socket.getInputStream()));
+      }
+    }
+
+    // Idle backend connections are pooled per router worker thread, hence there are at most
+    // as many connections per server as the number of worker threads
+    int maxConnections = CConfiguration.create().getInt(Constants.Router.SERVER_WORKER_THREADS) * allServers.size();
+    int numConnections = defaultServer1.getNumConnectionsOpened() + defaultServer2.getNumConnectionsOpened();
+    Assert.assertEquals(times, defaultServer1.getNumRequests() + defaultServer2.getNumRequests());
+    Assert.assertTrue("Expected at most " + maxConnections + " connections, but got " + numConnections,
+                      numConnections <= maxConnections);
+  }
+
   private String makeRequest(URI uri, PrintWriter out, InputStream inputStream) throws IOException {
     //Send request
     out.print("GET " + uri.getPath() + " HTTP/1.1\r\n" +
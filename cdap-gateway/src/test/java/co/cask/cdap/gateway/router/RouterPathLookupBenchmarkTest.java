@@ -0,0 +1,97 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.gateway.router;
+
+import co.cask.cdap.test.XSlowTests;
+import com.google.common.base.Stopwatch;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpVersion;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of {@link RouterPathLookup} over a mix of typical CDAP request paths.
+ * The number of lookups can be set with the {@code router.benchmark.lookups} system property.
+ */
+@Category(XSlowTests.class)
+public class RouterPathLookupBenchmarkTest {
+
+  private static final String FALLBACK_SERVICE = "gateway";
+
+  // Request paths and methods, roughly in the proportion seen on a busy cluster
+  private static final String[][] REQUESTS = {
+    { "GET", "/v3/namespaces/default/apps/PurchaseHistory/services/CatalogLookup/methods/v1/product/1" },
+    { "GET", "/v3/namespaces/default/apps/PurchaseHistory/services/CatalogLookup/methods/v1/product/1" },
+    { "POST", "/v3/namespaces/default/apps/App/versions/1.0/services/Svc/methods/ingest" },
+    { "POST", "/v3/namespaces/default/streams/purchases" },
+    { "POST", "/v3/namespaces/default/streams/purchases" },
+    { "POST", "/v3/namespaces/default/streams/purchases/batch" },
+    { "GET", "/v3/namespaces/default/apps/PurchaseHistory/flows/PurchaseFlow/status" },
+    { "GET", "/v3/namespaces/default/apps/PurchaseHistory/workflows/PurchaseHistoryWorkflow/runs" },
+    { "GET", "/v3/namespaces/default/apps/PurchaseHistory/flows/PurchaseFlow/runs/abcd/logs" },
+    { "POST", "/v3/metrics/query" },
+    { "POST", "/v3/metrics/search" },
+    { "GET", "/v3/namespaces/default/apps/PurchaseHistory/metadata/tags" },
+    { "GET", "/v3/namespaces/default/metadata/search" },
+    { "GET", "/v3/namespaces/default/data/datasets/purchases" },
+    { "POST", "/v3/namespaces/default/data/explore/queries" },
+    { "GET", "/v3/data/explore/queries/abcd/next" },
+    { "GET", "/v3/system/services/appfabric/status" },
+    { "GET", "/v3/namespaces" },
+    { "GET", "/v3/namespaces/default/apps" },
+    { "GET", "/ns/apps/index.html" },
+  };
+
+  @Test
+  public void testLookup() {
+    int lookups = Integer.getInteger("router.benchmark.lookups", 10000000);
+    RouterPathLookup pathLookup = new RouterPathLookup();
+
+    List<HttpRequest> requests = new ArrayList<>();
+    for (String[] request : REQUESTS) {
+      requests.add(new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.valueOf(request[0]), request[1]));
+    }
+
+    // Warm up
+    int routed = lookup(pathLookup, requests, lookups / 10);
+    Assert.assertTrue(routed > 0);
+
+    Stopwatch stopwatch = new Stopwatch().start();
+    routed = lookup(pathLookup, requests, lookups);
+    long elapsedMs = stopwatch.elapsedTime(TimeUnit.MILLISECONDS);
+    System.out.printf("%d lookups (%d routed) in %d ms, %.1f ns per lookup%n",
+                      lookups, routed, elapsedMs, elapsedMs * 1000000d / lookups);
+  }
+
+  private int lookup(RouterPathLookup pathLookup, List<HttpRequest> requests, int lookups) {
+    int routed = 0;
+    for (int i = 0; i < lookups; i++) {
+      HttpRequest request = requests.get(i % requests.size());
+      if (pathLookup.getRoutingService(FALLBACK_SERVICE, request.uri(), request) != null) {
+        routed++;
+      }
+    }
+    return routed;
+  }
+}
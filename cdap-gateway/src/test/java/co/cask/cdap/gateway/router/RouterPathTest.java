@@ -504,6 +504,14 @@ public class RouterPathTest {
     assertRouting(String.format("/v3/system/services/%s/stacks", "unknown.service"), null);
   }
 
+  @Test
+  public void testNonNamespacedExplorePath() {
+    assertRouting("/v3/data/explore/queries/abcd", RouterPathLookup.EXPLORE_HTTP_USER_SERVICE);
+    assertRouting("/v3/data//explore/jdbc/tables/", RouterPathLookup.EXPLORE_HTTP_USER_SERVICE);
+    // non-namespaced explore operations need at least one more segment
+    assertRouting("/v3/data/explore/queries", RouterPathLookup.APP_FABRIC_HTTP);
+  }
+
   private void assertRouting(String path, RouteDestination destination) {
     for (HttpMethod method : ImmutableList.of(HttpMethod.GET, HttpMethod.POST, HttpMethod.DELETE)) {
       HttpRequest httpRequest = new DefaultHttpRequest(VERSION, method, path);
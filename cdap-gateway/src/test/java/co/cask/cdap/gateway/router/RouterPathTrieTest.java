@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.gateway.router;
+
+import io.netty.handler.codec.http.HttpMethod;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit-test for {@link RouterPathTrie}.
+ */
+public class RouterPathTrieTest {
+
+  private static final RouteDestination FIRST = new RouteDestination("first");
+  private static final RouteDestination SECOND = new RouteDestination("second");
+  private static final RouteDestination THIRD = new RouteDestination("third");
+
+  @Test
+  public void testPrecedence() {
+    RouterPathTrie trie = RouterPathTrie.builder()
+      .addPrefix(FIRST, "v3", null, "b")
+      .addPrefix(SECOND, "v3", "a")
+      .addPrefix(THIRD, "v3", "a", "b", "c")
+      .build();
+
+    // Routes added first win, even if a later route is more specific
+    assertMatch(trie, "/v3/a/b/c", HttpMethod.GET, FIRST);
+    assertMatch(trie, "/v3/a/c", HttpMethod.GET, SECOND);
+    assertMatch(trie, "/v3/x/b/c", HttpMethod.GET, FIRST);
+    Assert.assertNull(trie.match("/v3/x/c", HttpMethod.GET));
+    Assert.assertNull(trie.match("/v3", HttpMethod.GET));
+  }
+
+  @Test
+  public void testExactAndMethod() {
+    RouterPathTrie trie = RouterPathTrie.builder()
+      .addExact(FIRST, "v3", "a", null)
+      .addPrefix(HttpMethod.GET, SECOND, "v3", "a")
+      .addPrefix(THIRD, "v3")
+      .build();
+
+    assertMatch(trie, "/v3/a/b", HttpMethod.POST, FIRST);
+    assertMatch(trie, "/v3/a/b/", HttpMethod.POST, FIRST);
+    assertMatch(trie, "/v3/a/b/c", HttpMethod.GET, SECOND);
+    assertMatch(trie, "/v3/a/b/c", HttpMethod.POST, THIRD);
+    assertMatch(trie, "/v3/a", HttpMethod.GET, SECOND);
+  }
+
+  @Test
+  public void testEmptySegments() {
+    RouterPathTrie trie = RouterPathTrie.builder()
+      .addExact(FIRST, "v3", "a", "b")
+      .addPrefix(null, "v3", "a")
+      .build();
+
+    assertMatch(trie, "///v3//a///b//", HttpMethod.GET, FIRST);
+    assertMatch(trie, "v3/a/b", HttpMethod.GET, FIRST);
+    RouterPathTrie.Route route = trie.match("/v3/a/b/c", HttpMethod.GET);
+    Assert.assertNotNull(route);
+    Assert.assertNull(route.getDestination("/v3/a/b/c"));
+  }
+
+  @Test
+  public void testDynamicRoute() {
+    RouterPathTrie trie = RouterPathTrie.builder()
+      .addDynamicPrefix(new RouterPathTrie.RouteResolver() {
+        @Override
+        public RouteDestination resolve(String path) {
+          return new RouteDestination(path.substring(path.lastIndexOf('/') + 1));
+        }
+      }, "v3", "services", null)
+      .build();
+
+    assertMatch(trie, "/v3/services/foo", HttpMethod.GET, new RouteDestination("foo"));
+  }
+
+  private void assertMatch(RouterPathTrie trie, String path, HttpMethod method, RouteDestination expected) {
+    RouterPathTrie.Route route = trie.match(path, method);
+    Assert.assertNotNull(route);
+    Assert.assertEquals(expected, route.getDestination(path));
+  }
+}
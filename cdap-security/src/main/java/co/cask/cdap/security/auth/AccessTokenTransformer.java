@@ -16,24 +16,33 @@
 
 package co.cask.cdap.security.auth;
 
+import co.cask.cdap.common.conf.CConfiguration;
+import co.cask.cdap.common.conf.Constants;
 import co.cask.cdap.common.io.Codec;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.inject.Inject;
 import org.apache.commons.codec.binary.Base64;
 
 import java.io.IOException;
 
 /**
- * It takes the access token and transforms it to Access Token Identifier.
+ * It takes the access token and transforms it to Access Token Identifier. Transformation results are cached, so that
+ * the same access token is not decoded and re-encoded for every request.
  */
 public class AccessTokenTransformer {
   private final Codec<AccessToken> accessTokenCodec;
   private final Codec<AccessTokenIdentifier> accessTokenIdentifierCodec;
+  private final Cache<String, AccessTokenIdentifierPair> transformed;
 
   @Inject
-  public AccessTokenTransformer(Codec<AccessToken> accessTokenCodec,
+  public AccessTokenTransformer(CConfiguration cConf, Codec<AccessToken> accessTokenCodec,
                                 Codec<AccessTokenIdentifier> accessTokenIdentifierCodec) {
     this.accessTokenCodec = accessTokenCodec;
     this.accessTokenIdentifierCodec = accessTokenIdentifierCodec;
+    this.transformed = CacheBuilder.newBuilder()
+      .maximumSize(Math.max(0, cConf.getInt(Constants.Security.TOKEN_VALIDATION_CACHE_MAX_ENTRIES)))
+      .build();
   }
 
   /**
@@ -43,12 +52,19 @@ public class AccessTokenTransformer {
    * @throws IOException
    */
   public AccessTokenIdentifierPair transform(String accessToken) throws IOException {
+    AccessTokenIdentifierPair pair = transformed.getIfPresent(accessToken);
+    if (pair != null) {
+      return pair;
+    }
+
     byte[] decodedAccessToken = Base64.decodeBase64(accessToken);
     AccessToken accessTokenObj = accessTokenCodec.decode(decodedAccessToken);
     AccessTokenIdentifier accessTokenIdentifierObj = accessTokenObj.getIdentifier();
     byte[] encodedAccessTokenIdentifier = accessTokenIdentifierCodec.encode(accessTokenIdentifierObj);
-    return new AccessTokenIdentifierPair(Base64.encodeBase64String(encodedAccessTokenIdentifier).trim(),
+    pair = new AccessTokenIdentifierPair(Base64.encodeBase64String(encodedAccessTokenIdentifier).trim(),
                                          accessTokenIdentifierObj);
+    transformed.put(accessToken, pair);
+    return pair;
   }
 
   /**
@@ -16,7 +16,11 @@
 
 package co.cask.cdap.security.auth;
 
+import co.cask.cdap.common.conf.CConfiguration;
+import co.cask.cdap.common.conf.Constants;
 import co.cask.cdap.common.io.Codec;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.util.concurrent.AbstractIdleService;
 import com.google.inject.Inject;
 import org.apache.commons.codec.binary.Base64;
@@ -27,17 +31,22 @@ import java.io.IOException;
 
 /**
  * This class validates the accessToken and returns the different states
- * of accessToken validation.
+ * of accessToken validation. Tokens that passed validation are cached, so that their digests are not recomputed
+ * for every request made with the same token.
  */
 public class AccessTokenValidator extends AbstractIdleService implements TokenValidator {
   private static final Logger LOG = LoggerFactory.getLogger(AccessTokenValidator.class);
   private final TokenManager tokenManager;
   private final Codec<AccessToken> accessTokenCodec;
+  private final Cache<String, AccessToken> validTokens;
 
   @Inject
-  public AccessTokenValidator(TokenManager tokenManager, Codec<AccessToken> accessTokenCodec) {
+  public AccessTokenValidator(CConfiguration cConf, TokenManager tokenManager, Codec<AccessToken> accessTokenCodec) {
     this.tokenManager = tokenManager;
     this.accessTokenCodec = accessTokenCodec;
+    this.validTokens = CacheBuilder.newBuilder()
+      .maximumSize(Math.max(0, cConf.getInt(Constants.Security.TOKEN_VALIDATION_CACHE_MAX_ENTRIES)))
+      .build();
   }
 
   @Override
@@ -58,11 +67,26 @@ public class AccessTokenValidator extends AbstractIdleService implements TokenVa
       LOG.debug("Token is missing");
       return TokenState.MISSING;
     }
+
+    // A token validated before only needs to be checked for expiration and removal of its secret key
+    accessToken = validTokens.getIfPresent(token);
+    if (accessToken != null) {
+      try {
+        tokenManager.revalidate(accessToken);
+        return TokenState.VALID;
+      } catch (InvalidTokenException ite) {
+        validTokens.invalidate(token);
+        LOG.debug("{} {}", ite.getReason(), ite);
+        return ite.getReason();
+      }
+    }
+
     byte[] decodedToken = Base64.decodeBase64(token);
 
     try {
       accessToken = accessTokenCodec.decode(decodedToken);
       tokenManager.validateSecret(accessToken);
+      validTokens.put(token, accessToken);
     } catch (IOException ioe) {
       state = TokenState.INVALID;
       LOG.debug("Unknown Schema version for Access Token. {}", ioe);
@@ -64,4 +64,10 @@ public interface KeyManager extends Service {
   <T> void validateMAC(Codec<T> codec, Signed<T> signedMessage)
     throws InvalidDigestException, InvalidKeyException;
 
+  /**
+   * Returns whether the secret key with the given ID is still available for validating digests.
+   * @param keyId Identifier of the secret key.
+   */
+  boolean isKeyAvailable(int keyId);
+
 }
@@ -73,10 +73,7 @@ public class TokenManager extends AbstractIdleService {
    * recomputed value.
    */
   public void validateSecret(AccessToken token) throws InvalidTokenException {
-    long now = System.currentTimeMillis();
-    if (token.getIdentifier().getExpireTimestamp() < now) {
-      throw new InvalidTokenException(TokenState.EXPIRED, "Token is expired.");
-    }
+    validateExpiration(token);
 
     try {
       keyManager.validateMAC(identifierCodec, token);
@@ -86,4 +83,25 @@ public class TokenManager extends AbstractIdleService {
       throw new InvalidTokenException(TokenState.INTERNAL, "Invalid key for token.", ike);
     }
   }
+
+  /**
+   * Given an {@link AccessToken} instance that passed {@link #validateSecret(AccessToken)} before, checks that the
+   * token has not yet expired and that the secret key used to sign it is still available. The digest is not
+   * recomputed.
+   * @param token The token instance to validate.
+   * @throws InvalidTokenException If the provided token instance is expired or its secret key was removed.
+   */
+  public void revalidate(AccessToken token) throws InvalidTokenException {
+    validateExpiration(token);
+    if (!keyManager.isKeyAvailable(token.getKeyId())) {
+      throw new InvalidTokenException(TokenState.INTERNAL, "Invalid key for token.");
+    }
+  }
+
+  private void validateExpiration(AccessToken token) throws InvalidTokenException {
+    long now = System.currentTimeMillis();
+    if (token.getIdentifier().getExpireTimestamp() < now) {
+      throw new InvalidTokenException(TokenState.EXPIRED, "Token is expired.");
+    }
+  }
 }
@@ -34,6 +34,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 import javax.annotation.Nullable;
 
@@ -68,6 +69,41 @@ public class DefaultAuthorizationEnforcer extends AbstractAuthorizationEnforcer
     doEnforce(entity, principal, Collections.singleton(action));
   }
 
+  @Override
+  public void enforce(Set<? extends EntityId> entities, Principal principal, Set<Action> actions) throws Exception {
+    if (!isSecurityAuthorizationEnabled()) {
+      return;
+    }
+
+    // bypass the check when the principal is the master user and the entity is in the system namespace
+    Set<EntityId> toEnforce = new LinkedHashSet<>();
+    for (EntityId entity : entities) {
+      if (!isAccessingSystemNSAsMasterUser(entity, principal) && !isEnforcingOnSamePrincipalId(entity, principal)) {
+        toEnforce.add(entity);
+      }
+    }
+    if (toEnforce.isEmpty()) {
+      return;
+    }
+
+    LOG.trace("Enforcing actions {} on {} for principal {}.", actions, toEnforce, principal);
+    // Let the authorizer check all entities together, so that it can evaluate privileges in the same hierarchy once
+    StopWatch watch = new StopWatch();
+    watch.start();
+    try {
+      authorizerInstantiator.get().enforce(toEnforce, principal, actions);
+    } finally {
+      watch.stop();
+      long timeTaken = watch.getTime();
+      String logLine = "Enforced actions {} on {} for principal {}. Time spent in enforcement was {} ms.";
+      if (timeTaken > logTimeTakenAsWarn) {
+        LOG.warn(logLine, actions, toEnforce, principal, timeTaken);
+      } else {
+        LOG.trace(logLine, actions, toEnforce, principal, timeTaken);
+      }
+    }
+  }
+
   @Override
   public Set<? extends EntityId> isVisible(Set<? extends EntityId> entityIds, Principal principal) throws Exception {
     if (!isSecurityAuthorizationEnabled()) {
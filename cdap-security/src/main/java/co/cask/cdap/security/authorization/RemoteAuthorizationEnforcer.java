@@ -36,6 +36,7 @@ import com.google.common.base.Predicate;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
@@ -52,7 +53,9 @@ import java.io.IOException;
 import java.lang.reflect.Type;
 import java.net.HttpURLConnection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -71,6 +74,7 @@ public class RemoteAuthorizationEnforcer extends AbstractAuthorizationEnforcer {
     .registerTypeAdapter(EntityId.class, new EntityIdTypeAdapter())
     .create();
   private static final Type SET_ENTITY_TYPE = new TypeToken<Set<EntityId>>() { }.getType();
+  private static final Type SET_PRIVILEGE_TYPE = new TypeToken<Set<AuthorizationPrivilege>>() { }.getType();
 
   private static final Function<VisibilityKey, EntityId> VISIBILITY_KEY_ENTITY_ID_FUNCTION =
     new Function<VisibilityKey, EntityId>() {
@@ -115,6 +119,13 @@ public class RemoteAuthorizationEnforcer extends AbstractAuthorizationEnforcer {
           LOG.trace("Cache miss for {}", authorizationPrivilege);
           return doEnforce(authorizationPrivilege);
         }
+
+        @Override
+        public Map<AuthorizationPrivilege, Boolean> loadAll(
+          Iterable<? extends AuthorizationPrivilege> authorizationPrivileges) throws Exception {
+          LOG.trace("Cache miss for {}", authorizationPrivileges);
+          return doEnforce(authorizationPrivileges);
+        }
       });
 
     visibilityCache = CacheBuilder.newBuilder()
@@ -149,6 +160,42 @@ public class RemoteAuthorizationEnforcer extends AbstractAuthorizationEnforcer {
     }
   }
 
+  @Override
+  public void enforce(Set<? extends EntityId> entities, Principal principal, Set<Action> actions) throws Exception {
+    if (!isSecurityAuthorizationEnabled()) {
+      return;
+    }
+
+    Set<AuthorizationPrivilege> authorizationPrivileges = new LinkedHashSet<>();
+    for (EntityId entity : entities) {
+      for (Action action : actions) {
+        authorizationPrivileges.add(new AuthorizationPrivilege(principal, entity, action));
+      }
+    }
+    // All privileges that are not in the cache are enforced with a single call to the master
+    Map<AuthorizationPrivilege, Boolean> allowed = cacheEnabled
+      ? authPolicyCache.getAll(authorizationPrivileges)
+      : doEnforce(authorizationPrivileges);
+
+    EntityId unauthorizedEntity = null;
+    Set<Action> disallowed = EnumSet.noneOf(Action.class);
+    for (AuthorizationPrivilege authorizationPrivilege : authorizationPrivileges) {
+      if (allowed.get(authorizationPrivilege)) {
+        continue;
+      }
+      // Report the disallowed actions of the first unauthorized entity
+      if (unauthorizedEntity == null) {
+        unauthorizedEntity = authorizationPrivilege.getEntity();
+      }
+      if (unauthorizedEntity.equals(authorizationPrivilege.getEntity())) {
+        disallowed.add(authorizationPrivilege.getAction());
+      }
+    }
+    if (unauthorizedEntity != null) {
+      throw new UnauthorizedException(principal, disallowed, unauthorizedEntity);
+    }
+  }
+
   @Override
   public Set<? extends EntityId> isVisible(Set<? extends EntityId> entityIds, Principal principal) throws Exception {
     if (!isSecurityAuthorizationEnabled()) {
@@ -183,6 +230,24 @@ public class RemoteAuthorizationEnforcer extends AbstractAuthorizationEnforcer {
     }
   }
 
+  private Map<AuthorizationPrivilege, Boolean> doEnforce(
+    Iterable<? extends AuthorizationPrivilege> authorizationPrivileges) throws IOException {
+    if (!authorizationPrivileges.iterator().hasNext()) {
+      return Collections.emptyMap();
+    }
+
+    HttpRequest request = remoteClient.requestBuilder(HttpMethod.POST, "enforceAll")
+      .withBody(GSON.toJson(ImmutableList.copyOf(authorizationPrivileges)))
+      .build();
+    Set<AuthorizationPrivilege> allowed = GSON.fromJson(remoteClient.execute(request).getResponseBodyAsString(),
+                                                        SET_PRIVILEGE_TYPE);
+    Map<AuthorizationPrivilege, Boolean> result = new HashMap<>();
+    for (AuthorizationPrivilege authorizationPrivilege : authorizationPrivileges) {
+      result.put(authorizationPrivilege, allowed.contains(authorizationPrivilege));
+    }
+    return result;
+  }
+
   private Set<? extends EntityId> visibilityCheckCall(VisibilityRequest visibilityRequest) throws IOException {
     HttpRequest request = remoteClient.requestBuilder(HttpMethod.POST, "isVisible")
       .withBody(GSON.toJson(visibilityRequest))
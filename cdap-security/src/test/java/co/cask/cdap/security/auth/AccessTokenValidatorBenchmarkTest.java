@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.security.auth;
+
+import co.cask.cdap.common.conf.CConfiguration;
+import co.cask.cdap.common.conf.Constants;
+import co.cask.cdap.common.guice.ConfigModule;
+import co.cask.cdap.common.guice.IOModule;
+import co.cask.cdap.common.io.Codec;
+import co.cask.cdap.test.XSlowTests;
+import com.google.common.base.Stopwatch;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import org.apache.commons.codec.binary.Base64;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the number of access tokens validated per second by {@link AccessTokenValidator}, with requests
+ * reusing a few hundred distinct tokens. The number of validations can be set with the
+ * {@code security.benchmark.validations} system property.
+ */
+@Category(XSlowTests.class)
+public class AccessTokenValidatorBenchmarkTest {
+
+  private static final int DISTINCT_TOKENS = 500;
+
+  @Test
+  public void testCachedValidation() throws Exception {
+    benchmark("cached", CConfiguration.create());
+  }
+
+  @Test
+  public void testUncachedValidation() throws Exception {
+    CConfiguration cConf = CConfiguration.create();
+    cConf.setInt(Constants.Security.TOKEN_VALIDATION_CACHE_MAX_ENTRIES, 0);
+    benchmark("uncached", cConf);
+  }
+
+  private void benchmark(String name, CConfiguration cConf) throws Exception {
+    int validations = Integer.getInteger("security.benchmark.validations", 1000000);
+    Injector injector = Guice.createInjector(new ConfigModule(cConf), new IOModule());
+    Codec<AccessToken> tokenCodec = injector.getInstance(AccessTokenCodec.class);
+    TokenManager tokenManager = new TokenManager(new InMemoryKeyManager(cConf),
+                                                 injector.getInstance(AccessTokenIdentifierCodec.class));
+    AccessTokenValidator validator = new AccessTokenValidator(cConf, tokenManager, tokenCodec);
+    validator.startAndWait();
+    try {
+      long now = System.currentTimeMillis();
+      List<String> tokens = new ArrayList<>();
+      for (int i = 0; i < DISTINCT_TOKENS; i++) {
+        AccessToken token = tokenManager.signIdentifier(
+          new AccessTokenIdentifier("user" + i, Collections.singletonList("users"), now, now + 3600 * 1000));
+        tokens.add(Base64.encodeBase64String(tokenCodec.encode(token)).trim());
+      }
+
+      // Warm up
+      Assert.assertEquals(validations / 10, validate(validator, tokens, validations / 10));
+
+      Stopwatch stopwatch = new Stopwatch().start();
+      Assert.assertEquals(validations, validate(validator, tokens, validations));
+      long elapsedMs = Math.max(1L, stopwatch.elapsedTime(TimeUnit.MILLISECONDS));
+      System.out.printf("%s: %d validations in %d ms, %.0f tokens validated per second%n",
+                        name, validations, elapsedMs, validations * 1000d / elapsedMs);
+    } finally {
+      validator.stopAndWait();
+    }
+  }
+
+  private int validate(TokenValidator validator, List<String> tokens, int validations) {
+    int valid = 0;
+    for (int i = 0; i < validations; i++) {
+      if (validator.validate(tokens.get(i % tokens.size())).isValid()) {
+        valid++;
+      }
+    }
+    return valid;
+  }
+}
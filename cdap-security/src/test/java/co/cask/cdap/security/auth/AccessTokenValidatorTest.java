@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.security.auth;
+
+import co.cask.cdap.common.conf.CConfiguration;
+import co.cask.cdap.common.conf.Constants;
+import co.cask.cdap.common.guice.ConfigModule;
+import co.cask.cdap.common.guice.IOModule;
+import co.cask.cdap.common.io.Codec;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import org.apache.commons.codec.binary.Base64;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link AccessTokenValidator}.
+ */
+public class AccessTokenValidatorTest {
+
+  private static final long TOKEN_DURATION = 3600 * 1000;
+
+  @Test
+  public void testValidation() throws Exception {
+    testValidation(CConfiguration.create());
+  }
+
+  @Test
+  public void testValidationWithoutCache() throws Exception {
+    CConfiguration cConf = CConfiguration.create();
+    cConf.setInt(Constants.Security.TOKEN_VALIDATION_CACHE_MAX_ENTRIES, 0);
+    testValidation(cConf);
+  }
+
+  private void testValidation(CConfiguration cConf) throws Exception {
+    Injector injector = Guice.createInjector(new ConfigModule(cConf), new IOModule());
+    Codec<AccessToken> tokenCodec = injector.getInstance(AccessTokenCodec.class);
+    InMemoryKeyManager keyManager = new InMemoryKeyManager(cConf);
+    TokenManager tokenManager = new TokenManager(keyManager, injector.getInstance(AccessTokenIdentifierCodec.class));
+    AccessTokenValidator validator = new AccessTokenValidator(cConf, tokenManager, tokenCodec);
+    validator.startAndWait();
+    try {
+      Assert.assertEquals(TokenState.MISSING, validator.validate(null));
+
+      long now = System.currentTimeMillis();
+      AccessToken token = tokenManager.signIdentifier(
+        new AccessTokenIdentifier("alice", Collections.singletonList("users"), now, now + TOKEN_DURATION));
+      String encodedToken = encode(tokenCodec, token);
+      // Validate twice, so that the second time goes through the cache if it is enabled
+      Assert.assertEquals(TokenState.VALID, validator.validate(encodedToken));
+      Assert.assertEquals(TokenState.VALID, validator.validate(encodedToken));
+
+      // A token with the same identity but a different digest shouldn't be valid
+      byte[] invalidDigest = Arrays.copyOf(token.getDigestBytes(), token.getDigestBytes().length);
+      invalidDigest[0]++;
+      String invalidToken = encode(tokenCodec, new AccessToken(token.getIdentifier(), token.getKeyId(), invalidDigest));
+      Assert.assertEquals(TokenState.INVALID, validator.validate(invalidToken));
+
+      // A validated token should expire
+      AccessToken shortToken = tokenManager.signIdentifier(
+        new AccessTokenIdentifier("bob", Collections.singletonList("users"), now, now + 1000));
+      String encodedShortToken = encode(tokenCodec, shortToken);
+      Assert.assertEquals(TokenState.VALID, validator.validate(encodedShortToken));
+      TimeUnit.MILLISECONDS.sleep(shortToken.getIdentifier().getExpireTimestamp() - System.currentTimeMillis() + 1);
+      Assert.assertEquals(TokenState.EXPIRED, validator.validate(encodedShortToken));
+
+      // A validated token is no longer valid once its secret key is removed
+      keyManager.allKeys.remove(token.getKeyId());
+      Assert.assertEquals(TokenState.INTERNAL, validator.validate(encodedToken));
+    } finally {
+      validator.stopAndWait();
+    }
+  }
+
+  private String encode(Codec<AccessToken> tokenCodec, AccessToken token) throws Exception {
+    return Base64.encodeBase64String(tokenCodec.encode(token)).trim();
+  }
+}
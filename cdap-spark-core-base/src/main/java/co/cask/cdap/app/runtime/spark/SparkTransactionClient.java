@@ -19,6 +19,7 @@ package co.cask.cdap.app.runtime.spark;
 import co.cask.cdap.api.common.Bytes;
 import com.google.common.base.Stopwatch;
 import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.SettableFuture;
 import org.apache.tephra.Transaction;
 import org.apache.tephra.TransactionCodec;
 import org.apache.tephra.TransactionFailureException;
@@ -27,6 +28,9 @@ import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import javax.annotation.Nullable;
@@ -34,14 +38,23 @@ import javax.annotation.Nullable;
 /**
  * Client class to interact with {@link SparkTransactionHandler} through HTTP. It is used by tasks executed inside
  * executor processes.
+ *
+ * Requests wait on the server side until the transaction of the stage is available, instead of polling repeatedly.
+ * Concurrent requests for the same stage are coalesced into one request, so that all tasks of the same stage running
+ * in the same executor process through the client returned by {@link #getShared(URI)} share one request.
+ * Transactions are not remembered after the request completed, since Spark can reuse a stage id in later jobs,
+ * for example to recompute lost map outputs, and each job has its own transaction.
  */
 public final class SparkTransactionClient {
 
   private static final TransactionCodec TX_CODEC = new TransactionCodec();
   private static final long DEFAULT_TX_POLL_INTERVAL_MS = 50;
+  private static final ConcurrentMap<URI, SparkTransactionClient> SHARED_CLIENTS = new ConcurrentHashMap<>();
 
   private final URI txServiceBaseURI;
   private final long txPollIntervalMillis;
+  // In progress requests, keyed by stage id
+  private final ConcurrentMap<Integer, SettableFuture<Transaction>> inProgress;
 
   public SparkTransactionClient(URI txServiceBaseURI) {
     this(txServiceBaseURI, DEFAULT_TX_POLL_INTERVAL_MS);
@@ -50,6 +63,30 @@ public final class SparkTransactionClient {
   public SparkTransactionClient(URI txServiceBaseURI, long txPollIntervalMillis) {
     this.txServiceBaseURI = txServiceBaseURI;
     this.txPollIntervalMillis = txPollIntervalMillis;
+    this.inProgress = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Returns a {@link SparkTransactionClient} that is shared within the current process for the given driver
+   * service URI. Since all tasks of a stage use the same transaction, concurrent requests of the tasks in the
+   * process are coalesced into one request.
+   */
+  public static SparkTransactionClient getShared(URI txServiceBaseURI) {
+    SparkTransactionClient client = SHARED_CLIENTS.get(txServiceBaseURI);
+    if (client != null) {
+      return client;
+    }
+    client = new SparkTransactionClient(txServiceBaseURI, DEFAULT_TX_POLL_INTERVAL_MS);
+    SparkTransactionClient existing = SHARED_CLIENTS.putIfAbsent(txServiceBaseURI, client);
+    return existing == null ? client : existing;
+  }
+
+  /**
+   * Removes the shared {@link SparkTransactionClient} for the given driver service URI. It is called when the driver
+   * service stopped.
+   */
+  public static void removeShared(URI txServiceBaseURI) {
+    SHARED_CLIENTS.remove(txServiceBaseURI);
   }
 
   /**
@@ -68,25 +105,74 @@ public final class SparkTransactionClient {
   public Transaction getTransaction(int stageId, long timeout,
                                     TimeUnit timeUnit) throws TimeoutException, InterruptedException,
                                                               TransactionFailureException {
-
-    long timeoutMillis = Math.max(0L, timeUnit.toMillis(timeout) - txPollIntervalMillis);
+    long timeoutMillis = timeUnit.toMillis(timeout);
     Stopwatch stopwatch = new Stopwatch().start();
-    Transaction transaction = getTransaction(stageId);
+    while (true) {
+      // Only one request per stage is made at a time, concurrent callers wait for the result of that request
+      SettableFuture<Transaction> future = SettableFuture.create();
+      SettableFuture<Transaction> existing = inProgress.putIfAbsent(stageId, future);
+      if (existing == null) {
+        try {
+          Transaction transaction = fetchTransaction(stageId, timeoutMillis, stopwatch);
+          if (transaction == null) {
+            throw createTimeoutException(stageId, timeout, timeUnit);
+          }
+          future.set(transaction);
+          return transaction;
+        } catch (Throwable t) {
+          future.setException(t);
+          throw t;
+        } finally {
+          inProgress.remove(stageId, future);
+        }
+      }
 
-    while (transaction == null && stopwatch.elapsedMillis() < timeoutMillis) {
-      TimeUnit.MILLISECONDS.sleep(txPollIntervalMillis);
-      transaction = getTransaction(stageId);
+      long remaining = timeoutMillis - stopwatch.elapsedMillis();
+      try {
+        return existing.get(Math.max(0L, remaining), TimeUnit.MILLISECONDS);
+      } catch (TimeoutException e) {
+        throw createTimeoutException(stageId, timeout, timeUnit);
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof TransactionFailureException) {
+          throw (TransactionFailureException) cause;
+        }
+        // The other request timed out or was interrupted. Retry with this caller's own timeout.
+        if (stopwatch.elapsedMillis() >= timeoutMillis) {
+          throw createTimeoutException(stageId, timeout, timeUnit);
+        }
+      }
     }
-    if (transaction == null) {
-      throw new TimeoutException("Cannot get transaction for stage " + stageId + " after " + timeout + " " + timeUnit);
+  }
+
+  private TimeoutException createTimeoutException(int stageId, long timeout, TimeUnit timeUnit) {
+    return new TimeoutException("Cannot get transaction for stage " + stageId + " after " + timeout + " " + timeUnit);
+  }
+
+  /**
+   * Requests the {@link Transaction} for the given stage until it is available or the timeout passed.
+   *
+   * @return the {@link Transaction} of the stage or {@code null} if the timeout passed
+   */
+  @Nullable
+  private Transaction fetchTransaction(int stageId, long timeoutMillis,
+                                       Stopwatch stopwatch) throws InterruptedException, TransactionFailureException {
+    Transaction transaction = getTransaction(stageId, timeoutMillis - stopwatch.elapsedMillis());
+    long remaining = timeoutMillis - stopwatch.elapsedMillis();
+    while (transaction == null && remaining > 0) {
+      // The server responds before the timeout if it cannot be reached, hence wait a bit before retrying
+      TimeUnit.MILLISECONDS.sleep(Math.min(txPollIntervalMillis, remaining));
+      transaction = getTransaction(stageId, timeoutMillis - stopwatch.elapsedMillis());
+      remaining = timeoutMillis - stopwatch.elapsedMillis();
     }
     return transaction;
   }
 
   @Nullable
-  private Transaction getTransaction(int stageId) throws TransactionFailureException {
+  private Transaction getTransaction(int stageId, long timeoutMillis) throws TransactionFailureException {
     try {
-      URL url = txServiceBaseURI.resolve("/spark/stages/" + stageId + "/transaction").toURL();
+      URL url = txServiceBaseURI.resolve("/spark/stages/" + stageId + "/transaction?timeout="
+                                           + Math.max(0L, timeoutMillis)).toURL();
       HttpURLConnection urlConn = (HttpURLConnection) url.openConnection();
       try {
         int responseCode = urlConn.getResponseCode();
@@ -18,6 +18,7 @@ package co.cask.cdap.app.runtime.spark;
 
 import co.cask.cdap.data2.transaction.Transactions;
 import co.cask.http.AbstractHttpHandler;
+import co.cask.http.HandlerContext;
 import co.cask.http.HttpResponder;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableSet;
@@ -28,19 +29,28 @@ import org.apache.tephra.Transaction;
 import org.apache.tephra.TransactionCodec;
 import org.apache.tephra.TransactionFailureException;
 import org.apache.tephra.TransactionSystemClient;
+import org.apache.twill.common.Threads;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.annotation.Nullable;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
 
 /**
  * Provides transaction management for Spark job and stage executors. It also expose an endpoint for stage executors
@@ -51,6 +61,8 @@ public final class SparkTransactionHandler extends AbstractHttpHandler {
 
   private static final Logger LOG = LoggerFactory.getLogger(SparkTransactionHandler.class);
   private static final TransactionCodec TX_CODEC = new TransactionCodec();
+  // Maximum time that a request waits for the job of a stage to start
+  private static final long MAX_WAIT_MILLIS = TimeUnit.SECONDS.toMillis(30);
   private static final TransactionInfo IMPLICIT_TX_INFO = new TransactionInfo() {
     @Nullable
     @Override
@@ -80,11 +92,23 @@ public final class SparkTransactionHandler extends AbstractHttpHandler {
   // In the executor node, there is only StageId. The Spark StageId is unique across job, so it's ok to use a map.
   private final ConcurrentMap<Integer, Integer> stageToJob;
   private final ConcurrentMap<Integer, JobTransaction> jobTransactions;
+  // Requests that are waiting for the job of a stage to start, keyed by the stage id
+  private final ConcurrentMap<Integer, Set<PendingRequest>> pendingRequests;
+  // Executor for responding to pending requests
+  private final ScheduledExecutorService executor;
 
   SparkTransactionHandler(TransactionSystemClient txClient) {
     this.txClient = txClient;
     this.stageToJob = new ConcurrentHashMap<>();
     this.jobTransactions = new ConcurrentHashMap<>();
+    this.pendingRequests = new ConcurrentHashMap<>();
+    this.executor = Executors.newSingleThreadScheduledExecutor(
+      Threads.createDaemonThreadFactory("spark-transaction-handler"));
+  }
+
+  @Override
+  public void destroy(HandlerContext context) {
+    executor.shutdownNow();
   }
 
   /**
@@ -125,6 +149,17 @@ public final class SparkTransactionHandler extends AbstractHttpHandler {
       stageToJob.put(stageId, jobId);
     }
     this.stageToJob.putAll(stageToJob);
+
+    // Respond to requests that are waiting for the job to start. It must be done after the stage to job map
+    // got updated, so that requests that are added after this won't wait.
+    for (Integer stageId : stageIds) {
+      Set<PendingRequest> requests = pendingRequests.remove(stageId);
+      if (requests != null) {
+        for (PendingRequest pendingRequest : requests) {
+          respondAsync(pendingRequest);
+        }
+      }
+    }
   }
 
   /**
@@ -151,11 +186,71 @@ public final class SparkTransactionHandler extends AbstractHttpHandler {
   }
 
   /**
-   * Handler method to get a serialized {@link Transaction} for the given stage.
+   * Handler method to get a serialized {@link Transaction} for the given stage. If the job of the stage hasn't been
+   * registered yet, the response is delayed until the job started or the given timeout passed, so that the
+   * client doesn't need to poll repeatedly.
    */
   @GET
   @Path("/spark/stages/{stage}/transaction")
-  public void getTransaction(HttpRequest request, HttpResponder responder, @PathParam("stage") int stageId) {
+  public void getTransaction(HttpRequest request, HttpResponder responder, @PathParam("stage") int stageId,
+                             @QueryParam("timeout") @DefaultValue("0") long timeoutMillis) {
+    if (timeoutMillis <= 0 || stageToJob.containsKey(stageId)) {
+      sendTransaction(stageId, responder);
+      return;
+    }
+
+    final PendingRequest pendingRequest = new PendingRequest(stageId, responder);
+    Set<PendingRequest> requests = pendingRequests.get(stageId);
+    if (requests == null) {
+      Set<PendingRequest> newRequests = Collections.newSetFromMap(new ConcurrentHashMap<PendingRequest, Boolean>());
+      requests = pendingRequests.putIfAbsent(stageId, newRequests);
+      if (requests == null) {
+        requests = newRequests;
+      }
+    }
+    requests.add(pendingRequest);
+
+    // The job may have started before the request was added
+    if (stageToJob.containsKey(stageId)) {
+      requests.remove(pendingRequest);
+      respondAsync(pendingRequest);
+      return;
+    }
+
+    pendingRequest.setTimeout(executor.schedule(new Runnable() {
+      @Override
+      public void run() {
+        Set<PendingRequest> requests = pendingRequests.get(pendingRequest.getStageId());
+        if (requests != null) {
+          requests.remove(pendingRequest);
+        }
+        if (pendingRequest.complete()) {
+          sendTransaction(pendingRequest.getStageId(), pendingRequest.getResponder());
+        }
+      }
+    }, Math.min(timeoutMillis, MAX_WAIT_MILLIS), TimeUnit.MILLISECONDS));
+  }
+
+  /**
+   * Responds to the given {@link PendingRequest} with the stage transaction, using the {@link #executor} since
+   * starting the transaction involves a remote call.
+   */
+  private void respondAsync(final PendingRequest pendingRequest) {
+    if (!pendingRequest.complete()) {
+      return;
+    }
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        sendTransaction(pendingRequest.getStageId(), pendingRequest.getResponder());
+      }
+    });
+  }
+
+  /**
+   * Sends the serialized {@link Transaction} for the given stage.
+   */
+  private void sendTransaction(int stageId, HttpResponder responder) {
     // Lookup the jobId from the stageId
     Integer jobId = stageToJob.get(stageId);
     if (jobId == null) {
@@ -196,6 +291,49 @@ public final class SparkTransactionHandler extends AbstractHttpHandler {
     }
   }
 
+  /**
+   * A request for a stage transaction that is waiting for the job of the stage to start.
+   */
+  private static final class PendingRequest {
+    private final int stageId;
+    private final HttpResponder responder;
+    private final AtomicBoolean completed;
+    private volatile ScheduledFuture<?> timeout;
+
+    PendingRequest(int stageId, HttpResponder responder) {
+      this.stageId = stageId;
+      this.responder = responder;
+      this.completed = new AtomicBoolean();
+    }
+
+    int getStageId() {
+      return stageId;
+    }
+
+    HttpResponder getResponder() {
+      return responder;
+    }
+
+    void setTimeout(ScheduledFuture<?> timeout) {
+      this.timeout = timeout;
+    }
+
+    /**
+     * Marks this request as completed and cancels the timeout.
+     *
+     * @return {@code true} if the caller should respond to this request, {@code false} if it has been completed
+     */
+    boolean complete() {
+      if (!completed.compareAndSet(false, true)) {
+        return false;
+      }
+      ScheduledFuture<?> timeout = this.timeout;
+      if (timeout != null) {
+        timeout.cancel(false);
+      }
+      return true;
+    }
+  }
 
   /**
    * A private class for handling the {@link Transaction} lifecycle for a job.
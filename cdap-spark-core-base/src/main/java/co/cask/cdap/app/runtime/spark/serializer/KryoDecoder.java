@@ -24,14 +24,26 @@ import java.nio.ByteBuffer;
 import javax.annotation.Nullable;
 
 /**
- * A {@link Decoder} for reading data from Kryo.
+ * A {@link Decoder} for reading data from Kryo, written by {@link KryoEncoder}.
  */
 public class KryoDecoder implements Decoder {
 
   private final Input input;
+  private final boolean variableLength;
 
   public KryoDecoder(Input input) {
+    this(input, false);
+  }
+
+  /**
+   * Creates a decoder that reads from the given {@link Input}.
+   *
+   * @param input the input to read from
+   * @param variableLength {@code true} if int and long values were written with variable length encoding
+   */
+  public KryoDecoder(Input input, boolean variableLength) {
     this.input = input;
+    this.variableLength = variableLength;
   }
 
   @Nullable
@@ -47,12 +59,12 @@ public class KryoDecoder implements Decoder {
 
   @Override
   public int readInt() throws IOException {
-    return input.readInt();
+    return variableLength ? input.readInt(false) : input.readInt();
   }
 
   @Override
   public long readLong() throws IOException {
-    return input.readLong();
+    return variableLength ? input.readLong(false) : input.readLong();
   }
 
   @Override
@@ -72,7 +84,7 @@ public class KryoDecoder implements Decoder {
 
   @Override
   public ByteBuffer readBytes() throws IOException {
-    int len = input.readInt();
+    int len = readLength();
     return ByteBuffer.wrap(input.readBytes(len));
   }
 
@@ -93,6 +105,10 @@ public class KryoDecoder implements Decoder {
 
   @Override
   public void skipBytes() throws IOException {
-    input.skip(input.readInt());
+    input.skip(readLength());
+  }
+
+  private int readLength() {
+    return variableLength ? input.readInt(true) : input.readInt();
   }
 }
@@ -24,14 +24,28 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 
 /**
- * A {@link Encoder} for writing data to Kryo.
+ * A {@link Encoder} for writing data to Kryo. Int and long values can optionally be written with variable length
+ * encoding, which takes less space for values of small magnitude, such as lengths, indices and most numeric fields.
  */
 public class KryoEncoder implements Encoder {
 
   private final Output output;
+  private final boolean variableLength;
 
   public KryoEncoder(Output output) {
+    this(output, false);
+  }
+
+  /**
+   * Creates an encoder that writes to the given {@link Output}.
+   *
+   * @param output the output to write to
+   * @param variableLength {@code true} to write int and long values with variable length encoding. The data must be
+   *                       read by a {@link KryoDecoder} created with the same setting.
+   */
+  public KryoEncoder(Output output, boolean variableLength) {
     this.output = output;
+    this.variableLength = variableLength;
   }
 
   @Override
@@ -47,13 +61,21 @@ public class KryoEncoder implements Encoder {
 
   @Override
   public Encoder writeInt(int i) throws IOException {
-    output.writeInt(i);
+    if (variableLength) {
+      output.writeInt(i, false);
+    } else {
+      output.writeInt(i);
+    }
     return this;
   }
 
   @Override
   public Encoder writeLong(long l) throws IOException {
-    output.writeLong(l);
+    if (variableLength) {
+      output.writeLong(l, false);
+    } else {
+      output.writeLong(l);
+    }
     return this;
   }
 
@@ -83,7 +105,11 @@ public class KryoEncoder implements Encoder {
 
   @Override
   public Encoder writeBytes(byte[] bytes, int off, int len) throws IOException {
-    output.writeInt(len);
+    if (variableLength) {
+      output.writeInt(len, true);
+    } else {
+      output.writeInt(len);
+    }
     output.writeBytes(bytes, off, len);
     return this;
   }
@@ -0,0 +1,170 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.app.runtime.spark.serializer;
+
+import co.cask.cdap.api.data.schema.Schema;
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import org.apache.spark.SparkConf;
+import org.apache.spark.SparkEnv;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * A registry of {@link Schema}s that are known to the driver and all executors of a Spark application. It allows the
+ * Kryo serializers to write a small schema id instead of the schema itself, which is otherwise written with every
+ * {@link co.cask.cdap.api.data.format.StructuredRecord} that get shuffled or cached.
+ *
+ * The schemas are set as a JSON array in the {@link SparkConf} with the {@link #SCHEMAS_CONF_KEY}, hence they are
+ * sent to the executors once when the application starts. Schema ids are only meaningful within the application, so
+ * the registry shouldn't be used by applications that persist serialized data, such as streaming checkpoints.
+ *
+ * Schemas are identified by their JSON, instead of {@link Schema#equals(Object)}, which ignores record names, so that
+ * records always come back with the record names of the schema they were written with.
+ *
+ * The serializers only use the compact format, with schema ids and variable length numbers, if the registry is not
+ * empty. Otherwise they use the same format as before the registry was introduced, so that data serialized by
+ * applications that don't register schemas, such as streaming checkpoints, stays readable after an upgrade.
+ */
+public final class SchemaRegistry {
+
+  public static final String SCHEMAS_CONF_KEY = "spark.cdap.kryo.schemas";
+
+  private static final SchemaRegistry EMPTY = new SchemaRegistry(Collections.<Schema>emptyList());
+
+  // The registry of the current SparkEnv
+  private static volatile EnvRegistry envRegistry;
+
+  private final List<Schema> schemas;
+  // Schema ids keyed by the JSON of the schema
+  private final Map<String, Integer> schemaIds;
+
+  /**
+   * Returns the {@link SchemaRegistry} of the current Spark application, or an empty registry if there is none.
+   */
+  public static SchemaRegistry get() {
+    SparkEnv env = SparkEnv.get();
+    if (env == null) {
+      return EMPTY;
+    }
+    EnvRegistry registry = envRegistry;
+    if (registry == null || registry.env != env) {
+      registry = new EnvRegistry(env, parse(env.conf().get(SCHEMAS_CONF_KEY, null)));
+      envRegistry = registry;
+    }
+    return registry.registry;
+  }
+
+  /**
+   * Returns the value to set in the {@link SparkConf} with the {@link #SCHEMAS_CONF_KEY} for registering the given
+   * schemas.
+   */
+  public static String toConfValue(Iterable<Schema> schemas) {
+    return "[" + Joiner.on(',').join(schemas) + "]";
+  }
+
+  /**
+   * Creates a {@link SchemaRegistry} from the value set by {@link #toConfValue(Iterable)}.
+   *
+   * @throws IllegalArgumentException if the value is not a valid JSON array of schemas
+   */
+  public static SchemaRegistry parse(@Nullable String confValue) {
+    if (confValue == null || confValue.isEmpty()) {
+      return EMPTY;
+    }
+    JsonArray array = new JsonParser().parse(confValue).getAsJsonArray();
+    List<Schema> schemas = new ArrayList<>(array.size());
+    for (JsonElement element : array) {
+      try {
+        schemas.add(Schema.parseJson(element.toString()));
+      } catch (IOException e) {
+        throw new IllegalArgumentException("Invalid schema in " + SCHEMAS_CONF_KEY + ": " + element, e);
+      }
+    }
+    return new SchemaRegistry(schemas);
+  }
+
+  /**
+   * Creates a registry of the given schemas. The id of each schema is the position of its first occurrence.
+   */
+  public SchemaRegistry(Iterable<Schema> schemas) {
+    this.schemas = ImmutableList.copyOf(schemas);
+    this.schemaIds = new HashMap<>();
+    for (int i = 0; i < this.schemas.size(); i++) {
+      String json = this.schemas.get(i).toString();
+      if (!schemaIds.containsKey(json)) {
+        schemaIds.put(json, i);
+      }
+    }
+  }
+
+  /**
+   * Returns the id of the given schema or {@code -1} if the schema is not registered.
+   */
+  public int getId(Schema schema) {
+    Integer id = schemaIds.get(schema.toString());
+    return id == null ? -1 : id;
+  }
+
+  /**
+   * Returns the schema of the given id.
+   *
+   * @throws IllegalArgumentException if there is no schema with the given id
+   */
+  public Schema getSchema(int id) {
+    if (id < 0 || id >= schemas.size()) {
+      throw new IllegalArgumentException("No schema registered with id " + id);
+    }
+    return schemas.get(id);
+  }
+
+  /**
+   * Returns the number of registered schemas.
+   */
+  public int size() {
+    return schemas.size();
+  }
+
+  /**
+   * Returns {@code true} if there is no registered schema, in which case the serializers use the original format.
+   */
+  public boolean isEmpty() {
+    return schemas.isEmpty();
+  }
+
+  /**
+   * Holds the {@link SchemaRegistry} parsed from the configuration of a {@link SparkEnv}.
+   */
+  private static final class EnvRegistry {
+    private final SparkEnv env;
+    private final SchemaRegistry registry;
+
+    private EnvRegistry(SparkEnv env, SchemaRegistry registry) {
+      this.env = env;
+      this.registry = registry;
+    }
+  }
+}
@@ -22,25 +22,85 @@ import com.esotericsoftware.kryo.KryoException;
 import com.esotericsoftware.kryo.Serializer;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 import java.io.IOException;
+import javax.annotation.Nullable;
 
 /**
  * A Kryo {@link Serializer} for {@link Schema}.
+ *
+ * If the {@link SchemaRegistry} is not empty, a registered schema is written as its id, and other schemas are written
+ * as JSON after a zero id. If the registry is empty, schemas are written as JSON only, the same as before the registry
+ * was introduced. The parsed schemas are cached, since the same schema is usually read many times.
  */
 public class SchemaSerializer extends Serializer<Schema> {
 
+  // Cache of parsed schemas, keyed by the JSON of the schema
+  private static final Cache<String, Schema> PARSED_SCHEMAS = CacheBuilder.newBuilder().maximumSize(1000).build();
+
+  private final SchemaRegistry registry;
+
+  /**
+   * Creates a serializer that uses the {@link SchemaRegistry} of the current Spark application.
+   */
+  public SchemaSerializer() {
+    this(null);
+  }
+
+  /**
+   * Creates a serializer that uses the given {@link SchemaRegistry}.
+   *
+   * @param registry the registry to use or {@code null} to use the registry of the current Spark application
+   */
+  public SchemaSerializer(@Nullable SchemaRegistry registry) {
+    this.registry = registry;
+  }
+
   @Override
   public void write(Kryo kryo, Output output, Schema schema) {
+    SchemaRegistry registry = getRegistry();
+    if (!registry.isEmpty()) {
+      // Write the schema id plus one, or zero followed by the schema JSON if the schema is not registered
+      int id = registry.getId(schema);
+      output.writeInt(id + 1, true);
+      if (id >= 0) {
+        return;
+      }
+    }
     output.writeString(schema.toString());
   }
 
   @Override
   public Schema read(Kryo kryo, Input input, Class<Schema> type) {
+    SchemaRegistry registry = getRegistry();
+    if (!registry.isEmpty()) {
+      int id = input.readInt(true);
+      if (id > 0) {
+        try {
+          return registry.getSchema(id - 1);
+        } catch (IllegalArgumentException e) {
+          throw new KryoException("Fail to deserialize Schema", e);
+        }
+      }
+    }
+
+    String json = input.readString();
+    Schema schema = PARSED_SCHEMAS.getIfPresent(json);
+    if (schema != null) {
+      return schema;
+    }
     try {
-      return Schema.parseJson(input.readString());
+      schema = Schema.parseJson(json);
     } catch (IOException e) {
       throw new KryoException("Fail to deserialize Schema", e);
     }
+    PARSED_SCHEMAS.put(json, schema);
+    return schema;
+  }
+
+  private SchemaRegistry getRegistry() {
+    return registry == null ? SchemaRegistry.get() : registry;
   }
 }
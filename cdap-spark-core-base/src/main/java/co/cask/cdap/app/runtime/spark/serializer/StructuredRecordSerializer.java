@@ -27,22 +27,46 @@ import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 
 import java.io.IOException;
+import javax.annotation.Nullable;
 
 /**
  * A Kryo {@link Serializer} for {@link StructuredRecord}.
+ *
+ * The record is written as its schema, which is a small id if the schema is in the {@link SchemaRegistry}, followed
+ * by the field values in the schema order, without field names. Int and long values are written with variable
+ * length encoding only if the {@link SchemaRegistry} is not empty, so that the format stays the same as before the
+ * registry was introduced for applications that don't register schemas.
  */
 public class StructuredRecordSerializer extends Serializer<StructuredRecord> {
 
   private static final StructuredRecordDatumWriter DATUM_WRITER = new StructuredRecordDatumWriter();
   private static final StructuredRecordDatumReader DATUM_READER = new StructuredRecordDatumReader();
 
+  private final SchemaRegistry registry;
+
+  /**
+   * Creates a serializer that uses the {@link SchemaRegistry} of the current Spark application.
+   */
+  public StructuredRecordSerializer() {
+    this(null);
+  }
+
+  /**
+   * Creates a serializer that uses the given {@link SchemaRegistry}.
+   *
+   * @param registry the registry to use or {@code null} to use the registry of the current Spark application
+   */
+  public StructuredRecordSerializer(@Nullable SchemaRegistry registry) {
+    this.registry = registry;
+  }
+
   @Override
   public void write(Kryo kryo, Output output, StructuredRecord record) {
-    // First write out the schema
+    // First write out the schema, which is handled by the SchemaSerializer
     kryo.writeObject(output, record.getSchema());
     // Then write out the data
     try {
-      DATUM_WRITER.encode(record, new KryoEncoder(output));
+      DATUM_WRITER.encode(record, new KryoEncoder(output, isCompact()));
     } catch (IOException e) {
       throw new KryoException("Failed to encode StructuredRecord " + record.getSchema().getRecordName(), e);
     }
@@ -53,9 +77,16 @@ public class StructuredRecordSerializer extends Serializer<StructuredRecord> {
     // Read the schema
     Schema schema = kryo.readObject(input, Schema.class);
     try {
-      return DATUM_READER.read(new KryoDecoder(input), schema);
+      return DATUM_READER.read(new KryoDecoder(input, isCompact()), schema);
     } catch (IOException e) {
       throw new KryoException("Failed to decode StructuredRecord " + schema.getRecordName(), e);
     }
   }
+
+  /**
+   * Returns {@code true} if the compact format with variable length numbers is used.
+   */
+  private boolean isCompact() {
+    return !(registry == null ? SchemaRegistry.get() : registry).isEmpty();
+  }
 }
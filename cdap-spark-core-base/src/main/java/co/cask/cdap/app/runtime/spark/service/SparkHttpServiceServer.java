@@ -77,6 +77,7 @@ public class SparkHttpServiceServer extends AbstractServiceHttpServer<SparkHttpS
   protected List<SparkHandlerDelegatorContext> createDelegatorContexts() throws Exception {
     List<SparkHandlerDelegatorContext> contexts = new ArrayList<>();
     InstantiatorFactory instantiatorFactory = new InstantiatorFactory(false);
+    int handlerPoolSize = getHandlerPoolSize();
 
     for (SparkHttpServiceHandlerSpecification spec : context.getSpecification().getHandlers()) {
       Class<?> handlerClass = getProgram().getClassLoader().loadClass(spec.getClassName());
@@ -87,7 +88,8 @@ public class SparkHttpServiceServer extends AbstractServiceHttpServer<SparkHttpS
         Constants.Metrics.Tag.HANDLER, handlerClass.getSimpleName());
 
       contexts.add(new SparkHandlerDelegatorContext(type, instantiatorFactory, spec,
-                                                    runtimeContext.getProgramMetrics(), handlerMetricsContext));
+                                                    runtimeContext.getProgramMetrics(), handlerMetricsContext,
+                                                    handlerPoolSize));
     }
 
     return contexts;
@@ -104,8 +106,9 @@ public class SparkHttpServiceServer extends AbstractServiceHttpServer<SparkHttpS
                                            InstantiatorFactory instantiatorFactory,
                                            SparkHttpServiceHandlerSpecification spec,
                                            MetricsContext programMetricsContext,
-                                           MetricsContext handlerMetricsContext) {
-      super(handlerType, instantiatorFactory, programMetricsContext, handlerMetricsContext);
+                                           MetricsContext handlerMetricsContext,
+                                           int handlerPoolSize) {
+      super(handlerType, instantiatorFactory, programMetricsContext, handlerMetricsContext, handlerPoolSize);
       this.spec = spec;
     }
 
@@ -193,6 +193,9 @@ abstract class AbstractSparkExecutionContext(sparkClassLoader: SparkClassLoader,
       SparkRuntimeEnv.stop().foreach(sc => applicationEndLatch.await())
     } finally {
       try {
+        // Remove the shared client of the driver service that is being stopped, so that it is not kept in the static
+        // map of shared clients after the program ends. In local mode, many programs run in the same process.
+        SparkTransactionClient.removeShared(sparkDriveHttpService.getBaseURI)
         sparkDriveHttpService.stopAndWait()
       } finally {
         compilerCleanupManager.close()
@@ -304,7 +307,7 @@ abstract class AbstractSparkExecutionContext(sparkClassLoader: SparkClassLoader,
 
   override def fromStream[T: ClassTag](sc: SparkContext, streamName: String, startTime: Long, endTime: Long)
                                       (implicit decoder: StreamEvent => T): RDD[T] = {
-    val rdd: RDD[(Long, StreamEvent)] = fromStream(sc, getNamespace, streamName, startTime, endTime, None)
+    val rdd: RDD[(Long, StreamEvent)] = fromStream(sc, getNamespace, streamName, Seq((startTime, endTime)), None)
 
     // Wrap the StreamEvent with a SerializableStreamEvent
     // Don't use rdd.values() as it brings in implicit object from SparkContext, which is not available in Spark 1.2
@@ -313,7 +316,7 @@ abstract class AbstractSparkExecutionContext(sparkClassLoader: SparkClassLoader,
 
   override def fromStream[T: ClassTag](sc: SparkContext, namespace: String, streamName: String, startTime: Long,
                                        endTime: Long) (implicit decoder: StreamEvent => T): RDD[T] = {
-    val rdd: RDD[(Long, StreamEvent)] = fromStream(sc, namespace, streamName, startTime, endTime, None)
+    val rdd: RDD[(Long, StreamEvent)] = fromStream(sc, namespace, streamName, Seq((startTime, endTime)), None)
 
     // Wrap the StreamEvent with a SerializableStreamEvent
     // Don't use rdd.values() as it brings in implicit object from SparkContext, which is not available in Spark 1.2
@@ -322,38 +325,37 @@ abstract class AbstractSparkExecutionContext(sparkClassLoader: SparkClassLoader,
 
   override def fromStream[T: ClassTag](sc: SparkContext, streamName: String, formatSpec: FormatSpecification,
                                        startTime: Long, endTime: Long): RDD[(Long, GenericStreamEventData[T])] = {
-    fromStream(sc, getNamespace, streamName, startTime, endTime, Some(formatSpec))
+    fromStream(sc, getNamespace, streamName, Seq((startTime, endTime)), Some(formatSpec))
   }
 
   override def fromStream[T: ClassTag](sc: SparkContext, namespace: String,
                                        streamName: String,
                                        formatSpec: FormatSpecification,
                                        startTime: Long, endTime: Long): RDD[(Long, GenericStreamEventData[T])] = {
-    fromStream(sc, namespace, streamName, startTime, endTime, Some(formatSpec))
+    fromStream(sc, namespace, streamName, Seq((startTime, endTime)), Some(formatSpec))
   }
 
   /**
-    * Creates a [[org.apache.spark.rdd.RDD]] by reading from the given stream and time range.
+    * Creates a [[org.apache.spark.rdd.RDD]] by reading from the given stream and time ranges.
     *
     * @param sc the [[org.apache.spark.SparkContext]] to use
     * @param namespace namespace of the stream
     * @param streamName name of the stream
-    * @param startTime  the starting time of the stream to be read in milliseconds (inclusive);
-    *                   passing in `0` means start reading from the first event available in the stream.
-    * @param endTime the ending time of the streams to be read in milliseconds (exclusive);
-    *                passing in `Long#MAX_VALUE` means read up to latest event available in the stream.
+    * @param timeRanges a non-empty sequence of (startTime, endTime) in milliseconds to read from, with inclusive
+    *                   start time and exclusive end time. All ranges are read by the same
+    *                   [[org.apache.spark.rdd.RDD]], hence the stream partitions are only listed once.
     * @param formatSpec if provided, it describes the format in the stream and will be used to decode stream events
     *                   to the given value type `T`
     * @return a new [[org.apache.spark.rdd.RDD]] instance that reads from the given stream.
     */
-  private def fromStream[T: ClassTag](sc: SparkContext, namespace: String, streamName: String,
-                                      startTime: Long, endTime: Long,
-                                      formatSpec: Option[FormatSpecification]): RDD[(Long, T)] = {
+  private[spark] def fromStream[T: ClassTag](sc: SparkContext, namespace: String, streamName: String,
+                                             timeRanges: Seq[(Long, Long)],
+                                             formatSpec: Option[FormatSpecification]): RDD[(Long, T)] = {
     val streamId = new StreamId(namespace, streamName)
 
     // Clone the configuration since it's dataset specification and shouldn't affect the global hConf
     val configuration = configureStreamInput(new Configuration(runtimeContext.getConfiguration),
-      streamId, startTime, endTime, formatSpec)
+      streamId, timeRanges, formatSpec)
 
     val valueClass = implicitly[ClassTag[T]].runtimeClass.asInstanceOf[Class[T]]
     val rdd = sc.newAPIHadoopRDD(configuration, classOf[SparkStreamInputFormat[LongWritable, T]],
@@ -514,7 +516,7 @@ abstract class AbstractSparkExecutionContext(sparkClassLoader: SparkClassLoader,
 
     sc.runJob(rdd, (context: TaskContext, itor: Iterator[T]) => {
       // This executes in the Exeuctor
-      val sparkTxClient = new SparkTransactionClient(txServiceBaseURI.value)
+      val sparkTxClient = SparkTransactionClient.getShared(txServiceBaseURI.value)
       val metricsWriter = metricsWriterFactory(context)
       val datasetCache = SparkRuntimeContextProvider.get().getDatasetCache
       val dataset: Dataset = datasetCache.getDataset(namespace, datasetName,
@@ -553,15 +555,18 @@ abstract class AbstractSparkExecutionContext(sparkClassLoader: SparkClassLoader,
 
   }
 
-  private def configureStreamInput(configuration: Configuration, streamId: StreamId, startTime: Long,
-                                   endTime: Long, formatSpec: Option[FormatSpecification]): Configuration = {
+  private def configureStreamInput(configuration: Configuration, streamId: StreamId, timeRanges: Seq[(Long, Long)],
+                                   formatSpec: Option[FormatSpecification]): Configuration = {
     val streamConfig = runtimeContext.getStreamAdmin.getConfig(streamId)
     val streamPath = StreamUtils.createGenerationLocation(streamConfig.getLocation,
                                                           StreamUtils.getGeneration(streamConfig))
     AbstractStreamInputFormat.setStreamId(configuration, streamId)
     AbstractStreamInputFormat.setTTL(configuration, streamConfig.getTTL)
     AbstractStreamInputFormat.setStreamPath(configuration, streamPath.toURI)
-    AbstractStreamInputFormat.setTimeRange(configuration, startTime, endTime)
+    AbstractStreamInputFormat.setTimeRange(configuration, timeRanges.map(_._1).min, timeRanges.map(_._2).max)
+    if (timeRanges.size > 1) {
+      timeRanges.foreach(range => AbstractStreamInputFormat.addTimeRange(configuration, range._1, range._2))
+    }
     // Either use the identity decoder or use the format spec to decode
     formatSpec.fold(
       AbstractStreamInputFormat.inferDecoderClass(configuration, classOf[StreamEvent])
@@ -52,7 +52,7 @@ abstract class DatumScannerBasedRDD[R: ClassTag](@(transient @param) sc: SparkCo
 
   final override def compute(partition: Partition, context: TaskContext): Iterator[R] = {
     val split = partition.asInstanceOf[SplitPartition].split
-    val sparkTxClient = new SparkTransactionClient(txServiceBaseURI.value)
+    val sparkTxClient = SparkTransactionClient.getShared(txServiceBaseURI.value)
 
     val datasetCache = SparkRuntimeContextProvider.get().getDatasetCache
     val dataset: Dataset = datasetCache.getDataset(namespace, datasetName, arguments, true, AccessType.READ)
@@ -25,6 +25,7 @@ import co.cask.cdap.api.dataset.Dataset
 import co.cask.cdap.api.dataset.DatasetProperties
 import co.cask.cdap.api.dataset.DatasetSpecification
 import co.cask.cdap.api.dataset.InstanceNotFoundException
+import co.cask.cdap.api.dataset.table.TableProperties
 import co.cask.cdap.api.spark.sql.DataFrames
 import co.cask.cdap.app.runtime.spark.SparkClassLoader
 import co.cask.cdap.app.runtime.spark.SparkRuntimeContext
@@ -92,7 +93,7 @@ class DefaultSource extends RelationProvider
     sparkClassLoader.loadClass(datasetSpec.getType) match {
       // RecordScannable Dataset
       case cls if classOf[RecordScannable[_]].isAssignableFrom(cls) =>
-        new RecordScannableRelation(sqlContext, schema, datasetId, parameters)
+        new RecordScannableRelation(sqlContext, schema, datasetId, parameters, getRowKey(datasetSpec))
 
       // TODO (CDAP-387): Handling of FileSet and PartitionedFileSet
       case _ => throw new IllegalArgumentException("Unsupport type " + datasetSpec.getType)
@@ -166,6 +167,21 @@ class DefaultSource extends RelationProvider
     }
   }
 
+  /**
+    * Gets the name and the schema type of the row key field from the dataset properties, if there is one.
+    */
+  private def getRowKey(datasetSpec: DatasetSpecification): Option[(String, Schema.Type)] = {
+    val properties = datasetSpec.getProperties
+    for {
+      rowField <- Option(TableProperties.getRowFieldName(properties))
+      schema <- Option(TableProperties.getSchema(properties))
+      field <- Option(schema.getField(rowField))
+    } yield {
+      val fieldSchema = field.getSchema
+      (rowField, if (fieldSchema.isNullable) fieldSchema.getNonNullable.getType else fieldSchema.getType)
+    }
+  }
+
   /**
     * Gets the schema based on the dataset properties.
     *
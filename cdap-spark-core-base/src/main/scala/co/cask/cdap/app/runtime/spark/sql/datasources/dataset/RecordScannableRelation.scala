@@ -16,42 +16,75 @@
 
 package co.cask.cdap.app.runtime.spark.sql.datasources.dataset
 
+import co.cask.cdap.api.common.Bytes
 import co.cask.cdap.api.data.batch.RecordScannable
 import co.cask.cdap.api.data.batch.Split
 import co.cask.cdap.api.data.batch.Splits
 import co.cask.cdap.api.data.format.StructuredRecord
+import co.cask.cdap.api.data.schema.Schema
 import co.cask.cdap.api.data.schema.UnsupportedTypeException
 import co.cask.cdap.api.dataset.Dataset
-import co.cask.cdap.api.spark.sql.DataFrames
+import co.cask.cdap.api.dataset.lib.ObjectMappedTable
+import co.cask.cdap.api.dataset.table.Table
 import co.cask.cdap.app.runtime.spark.SparkClassLoader
 import co.cask.cdap.app.runtime.spark.data.RecordScannableRDD
 import co.cask.cdap.proto.id.DatasetId
+import com.google.common.annotations.VisibleForTesting
 import org.apache.spark.rdd.RDD
 import org.apache.spark.sql.Row
 import org.apache.spark.sql.SQLContext
+import org.apache.spark.sql.catalyst.expressions.GenericRow
+import org.apache.spark.sql.sources.And
 import org.apache.spark.sql.sources.BaseRelation
+import org.apache.spark.sql.sources.EqualNullSafe
+import org.apache.spark.sql.sources.EqualTo
 import org.apache.spark.sql.sources.Filter
+import org.apache.spark.sql.sources.GreaterThan
+import org.apache.spark.sql.sources.GreaterThanOrEqual
+import org.apache.spark.sql.sources.In
+import org.apache.spark.sql.sources.LessThan
+import org.apache.spark.sql.sources.LessThanOrEqual
 import org.apache.spark.sql.sources.PrunedFilteredScan
+import org.apache.spark.sql.types.ArrayType
+import org.apache.spark.sql.types.DataType
+import org.apache.spark.sql.types.DataTypes
+import org.apache.spark.sql.types.MapType
 import org.apache.spark.sql.types.StructType
 
+import java.nio.ByteBuffer
+import java.sql.Date
+import java.sql.Timestamp
 import java.util
 
 import scala.collection.JavaConversions._
 import scala.reflect.ClassTag
 
 /**
+  * A BaseRelation and PrunedFilteredScan for reading from [[co.cask.cdap.api.data.batch.RecordScannable]] dataset
+  * as DataFrame.
   *
+  * For [[co.cask.cdap.api.dataset.table.Table]] and [[co.cask.cdap.api.dataset.lib.ObjectMappedTable]] datasets
+  * that have a row key field, filters on the row key field restrict the splits being scanned. Spark still evaluates
+  * all the filters on the rows returned, hence the splits only need to contain all the rows selected by the filters.
+  *
+  * @param rowKey the name and type of the row key field, if the dataset has one
   */
 private[dataset] class RecordScannableRelation(override val sqlContext: SQLContext,
                                                override val schema: StructType,
                                                datasetId: DatasetId,
-                                               parameters: Map[String, String])
+                                               parameters: Map[String, String],
+                                               rowKey: Option[(String, Schema.Type)])
   extends BaseRelation with Serializable with PrunedFilteredScan {
 
+  import RecordScannableRelation._
+
   override def buildScan(requiredColumns: Array[String], filters: Array[Filter]): RDD[Row] = {
     val sparkClassLoader = SparkClassLoader.findFromContext()
     val sec = sparkClassLoader.getSparkExecutionContext(false)
 
+    // Determine the range of row keys selected by the filters
+    val keyRange = rowKey.flatMap(key => determineKeyRange(key._1, key._2, filters))
+
     // Creates the RDD[Row] based on the RecordScannable
     sec.createDatasetCompute()(datasetId.getNamespace, datasetId.getDataset, parameters, (dataset: Dataset) => {
       val sc = sqlContext.sparkContext
@@ -63,19 +96,26 @@ private[dataset] class RecordScannableRelation(override val sqlContext: SQLConte
         .map(Splits.decode(_, new util.ArrayList[Split](), sparkClassLoader))
 
       dataset.asInstanceOf[RecordScannable[_]].getRecordType match {
+        case _ if inputSplits.isEmpty && keyRange.exists(isEmptyRange) => sc.emptyRDD[Row]
         case recordType if classOf[StructuredRecord] == recordType => {
           val recordScannable = dataset.asInstanceOf[RecordScannable[StructuredRecord]]
           new RecordScannableRDD[StructuredRecord](sc, datasetId.getNamespace, datasetId.getDataset, parameters,
-                                                   inputSplits.getOrElse(recordScannable.getSplits),
+                                                   inputSplits.getOrElse(getSplits(recordScannable, keyRange)),
                                                    driveHttpServiceURI)
-            .map(DataFrames.toRow(_, rowSchema))
+            .mapPartitions(records => {
+              // Create the converter once per partition instead of serializing it with the closure
+              val converter = createRowConverter(rowSchema)
+              records.map(converter)
+            })
         }
         case beanType: Class[_] => {
           val recordScannable = dataset.asInstanceOf[RecordScannable[_]]
           val rdd = new RecordScannableRDD(sc, datasetId.getNamespace, datasetId.getDataset, parameters,
-                                 inputSplits.getOrElse(recordScannable.getSplits),
+                                 inputSplits.getOrElse(getSplits(recordScannable, keyRange)),
                                  driveHttpServiceURI)(ClassTag(beanType))
-          sqlContext.createDataFrame(rdd, beanType).rdd
+          // Only the required columns, in the order requested, are returned
+          val dataFrame = sqlContext.createDataFrame(rdd, beanType)
+          dataFrame.select(requiredColumns.map(dataFrame.col): _*).rdd
         }
         case anyType =>
           throw new UnsupportedTypeException(s"Dataset $datasetId has record type $anyType is not supported")
@@ -83,3 +123,227 @@ private[dataset] class RecordScannableRelation(override val sqlContext: SQLConte
     })
   }
 }
+
+/**
+  * Companion object to provide helper methods.
+  */
+private[dataset] object RecordScannableRelation {
+
+  private val ZERO = Array[Byte](0)
+
+  /**
+    * Determines the range of row keys selected by the given filters. Range comparisons are only used for string
+    * and bytes keys, since the encoding of numeric keys doesn't preserve the ordering.
+    *
+    * @param colName the column name of the row key field
+    * @param keyType the schema type of the row key field
+    * @param filters the set of filters from the SQL expression, provided by Spark.
+    *                By Spark definition, they will be AND together
+    * @return a tuple of (startKey, stopKey), with inclusive start and exclusive stop, where `null` means unbounded,
+    *         or [[scala.None]] if the filters don't restrict the row key
+    */
+  @VisibleForTesting
+  def determineKeyRange(colName: String, keyType: Schema.Type,
+                        filters: Array[Filter]): Option[(Array[Byte], Array[Byte])] = {
+    val ranges = filters.flatMap(determineKeyRange(colName, keyType, _))
+    if (ranges.isEmpty) None else Some(ranges.reduce(intersectRanges))
+  }
+
+  /**
+    * Returns `true` if there is no row key in the given range.
+    */
+  @VisibleForTesting
+  def isEmptyRange(range: (Array[Byte], Array[Byte])): Boolean = {
+    range._1 != null && range._2 != null && Bytes.compareTo(range._1, range._2) >= 0
+  }
+
+  /**
+    * Creates a function to convert [[co.cask.cdap.api.data.format.StructuredRecord]] to Row with the given schema.
+    * The conversion for each field is determined once, instead of inspecting the data type for every value.
+    */
+  @VisibleForTesting
+  def createRowConverter(rowSchema: StructType): (StructuredRecord) => Row = {
+    val converter = createConverter(rowSchema, "")
+    (record: StructuredRecord) => converter(record).asInstanceOf[Row]
+  }
+
+  /**
+    * Determines the range of row keys based on the given Filter.
+    */
+  private def determineKeyRange(colName: String, keyType: Schema.Type,
+                                filter: Filter): Option[(Array[Byte], Array[Byte])] = {
+    val ordered = keyType == Schema.Type.STRING || keyType == Schema.Type.BYTES
+    filter match {
+      case EqualTo(`colName`, value) => toRowKey(keyType, value).map(key => range(key, next(key)))
+      case EqualNullSafe(`colName`, value) => toRowKey(keyType, value).map(key => range(key, next(key)))
+      case GreaterThan(`colName`, value) if ordered => toRowKey(keyType, value).map(key => range(next(key), null))
+      case GreaterThanOrEqual(`colName`, value) if ordered => toRowKey(keyType, value).map(key => range(key, null))
+      case LessThan(`colName`, value) if ordered => toRowKey(keyType, value).map(key => range(null, key))
+      case LessThanOrEqual(`colName`, value) if ordered => toRowKey(keyType, value).map(key => range(null, next(key)))
+
+      // The range covers all the values, from the smallest to the largest one
+      case In(`colName`, values) if values.nonEmpty && (ordered || values.distinct.length == 1) => {
+        val keys = values.map(toRowKey(keyType, _))
+        if (keys.exists(_.isEmpty)) {
+          None
+        } else {
+          val sorted = keys.map(_.get).sortWith(Bytes.compareTo(_, _) < 0)
+          Some(range(sorted.head, next(sorted.last)))
+        }
+      }
+
+      case And(left, right) =>
+        (determineKeyRange(colName, keyType, left), determineKeyRange(colName, keyType, right)) match {
+          case (Some(leftRange), Some(rightRange)) => Some(intersectRanges(leftRange, rightRange))
+          case (leftRange, rightRange) => leftRange.orElse(rightRange)
+        }
+
+      // Or and Not are not used for narrowing the range
+      case _ => None
+    }
+  }
+
+  /**
+    * Returns a tuple of (startKey, stopKey).
+    */
+  private def range(start: Array[Byte], stop: Array[Byte]): (Array[Byte], Array[Byte]) = (start, stop)
+
+  /**
+    * Returns the smallest row key that is larger than the given key.
+    */
+  private def next(key: Array[Byte]): Array[Byte] = Bytes.concat(key, ZERO)
+
+  /**
+    * Computes the intersection of two row key ranges.
+    */
+  private def intersectRanges(left: (Array[Byte], Array[Byte]),
+                              right: (Array[Byte], Array[Byte])): (Array[Byte], Array[Byte]) = {
+    val start = if (left._1 == null) right._1
+                else if (right._1 == null) left._1
+                else if (Bytes.compareTo(left._1, right._1) >= 0) left._1
+                else right._1
+    val stop = if (left._2 == null) right._2
+               else if (right._2 == null) left._2
+               else if (Bytes.compareTo(left._2, right._2) <= 0) left._2
+               else right._2
+    (start, stop)
+  }
+
+  /**
+    * Encodes the given value the same way as the row key is encoded for the key type.
+    */
+  private def toRowKey(keyType: Schema.Type, value: Any): Option[Array[Byte]] = {
+    (keyType, value) match {
+      case (Schema.Type.STRING, s: String) => Some(Bytes.toBytes(s))
+      case (Schema.Type.BYTES, b: Array[Byte]) => Some(b)
+      case (Schema.Type.INT, i: Int) => Some(Bytes.toBytes(i))
+      case (Schema.Type.INT, s: Short) => Some(Bytes.toBytes(s.toInt))
+      case (Schema.Type.INT, b: Byte) => Some(Bytes.toBytes(b.toInt))
+      case (Schema.Type.INT, l: Long) if l.isValidInt => Some(Bytes.toBytes(l.toInt))
+      case (Schema.Type.LONG, l: Long) => Some(Bytes.toBytes(l))
+      case (Schema.Type.LONG, i: Int) => Some(Bytes.toBytes(i.toLong))
+      case _ => None
+    }
+  }
+
+  /**
+    * Returns the splits of the given dataset. For [[co.cask.cdap.api.dataset.table.Table]] and
+    * [[co.cask.cdap.api.dataset.lib.ObjectMappedTable]], only the splits in the given row key range are returned.
+    */
+  private def getSplits(recordScannable: RecordScannable[_],
+                        keyRange: Option[(Array[Byte], Array[Byte])]): util.List[Split] = {
+    (recordScannable, keyRange) match {
+      case (table: Table, Some(range)) => table.getSplits(-1, range._1, range._2)
+      case (table: ObjectMappedTable[_], Some(range)) => table.getSplits(-1, range._1, range._2)
+      case _ => recordScannable.getSplits
+    }
+  }
+
+  /**
+    * Creates a function to convert a value of a [[co.cask.cdap.api.data.format.StructuredRecord]] field to a value
+    * of the given Spark SQL data type. The conversion is the same as the one done by
+    * [[co.cask.cdap.api.spark.sql.DataFrames]].
+    */
+  private def createConverter(dataType: DataType, path: String): (Any) => Any = {
+    dataType match {
+      case DataTypes.BooleanType | DataTypes.ByteType | DataTypes.ShortType | DataTypes.IntegerType |
+           DataTypes.LongType | DataTypes.FloatType | DataTypes.DoubleType | DataTypes.StringType =>
+        (value: Any) => value
+      case DataTypes.NullType => (value: Any) => null
+      case DataTypes.BinaryType => {
+        case buffer: ByteBuffer => Bytes.toBytes(buffer)
+        case value => value
+      }
+      case DataTypes.TimestampType => {
+        case null => null
+        case value => new Timestamp(value.asInstanceOf[Long])
+      }
+      case DataTypes.DateType => {
+        case null => null
+        case value => new Date(value.asInstanceOf[Long])
+      }
+      case arrayType: ArrayType => {
+        val elementPath = path + "[]"
+        val elementConverter = checkNull(createConverter(arrayType.elementType, elementPath),
+                                         arrayType.containsNull, "array element", elementPath)
+        (value: Any) => value match {
+          case null => null
+          case collection: util.Collection[_] => collection.map(elementConverter).toSeq
+          case array: Array[_] => array.map(elementConverter).toSeq
+          case _ => throw new IllegalArgumentException(
+            s"Value type ${value.getClass} is not supported as array type value. " +
+              "It must either be a Collection or an array")
+        }
+      }
+      case mapType: MapType => {
+        val mapPath = path + "<>"
+        val keyConverter = checkNull(createConverter(mapType.keyType, mapPath), false, "map key", mapPath)
+        val valueConverter = checkNull(createConverter(mapType.valueType, mapPath),
+                                       mapType.valueContainsNull, "map value", mapPath)
+        (value: Any) => value match {
+          case null => null
+          case map: util.Map[_, _] => map.map(entry => (keyConverter(entry._1), valueConverter(entry._2)))
+        }
+      }
+      case structType: StructType => {
+        val fields = structType.fields
+        val names = fields.map(_.name)
+        val converters = fields.map(field => {
+          val fieldPath = path + "/" + field.name
+          checkNull(createConverter(field.dataType, fieldPath), field.nullable, "row field", fieldPath)
+        })
+        (value: Any) => value match {
+          case null => null
+          case record: StructuredRecord => {
+            val values = new Array[Any](names.length)
+            var i = 0
+            while (i < names.length) {
+              values(i) = converters(i)(record.get[AnyRef](names(i)))
+              i += 1
+            }
+            new GenericRow(values)
+          }
+        }
+      }
+      // Not support the CalendarInterval type for now, as there is no equivalent in Schema
+      case _ => throw new IllegalArgumentException("Unsupported data type: " + dataType.typeName)
+    }
+  }
+
+  /**
+    * Wraps the given converter to fail on null values if null is not allowed.
+    */
+  private def checkNull(converter: (Any) => Any, nullable: Boolean, name: String, path: String): (Any) => Any = {
+    if (nullable) {
+      converter
+    } else {
+      (value: Any) => {
+        val result = converter(value)
+        if (result == null) {
+          throw new IllegalArgumentException(s"Null value is not allowed for $name at $path")
+        }
+        result
+      }
+    }
+  }
+}
@@ -92,16 +92,18 @@ private[stream] class StreamRelation(override val sqlContext: SQLContext, stream
   override def buildScan(requiredColumns: Array[String], filters: Array[Filter]): RDD[Row] = {
     // If there is no filter or if there is no timestamp column, we can't filter by timestamp, hence
     // need to do a full scan
-    if (filters.length == 0 || timestampColName.isEmpty) {
-      scanStream(requiredColumns, 0, Long.MaxValue)
+    val timeRanges = if (filters.length == 0 || timestampColName.isEmpty) {
+      Seq((0L, Long.MaxValue))
     } else {
       // Determine the timestamp ranges based on the filters. Only take ranges with startTime < endTime
-      determineTimeRanges(timestampColName.get, filters)
-          .filter(range => range._1 < range._2)
-          .foldLeft(sqlContext.sparkContext.emptyRDD : RDD[Row])((rdd, range) => {
-            // union all rdds from each time range
-            rdd ++ scanStream(requiredColumns, range._1, range._2)
-          })
+      determineTimeRanges(timestampColName.get, filters).filter(range => range._1 < range._2)
+    }
+
+    if (timeRanges.isEmpty) {
+      sqlContext.sparkContext.emptyRDD[Row]
+    } else {
+      // All time ranges are scanned by one RDD so that the stream partitions are only listed once
+      scanStream(requiredColumns, timeRanges)
     }
   }
 
@@ -123,27 +125,28 @@ private[stream] class StreamRelation(override val sqlContext: SQLContext, stream
   }
 
   /**
-    * Scans the stream from the given time range. The stream events will be converted to Rows, based on the
+    * Scans the stream from the given time ranges. The stream events will be converted to Rows, based on the
     * format specification.
     *
     * @param requiredColumns the list of columns needed in the resulting Row
-    * @param startTime start time for the scan (inclusive)
-    * @param endTime end time for the scan (exclusive)
+    * @param timeRanges sequence of (startTime, endTime) to scan, with inclusive start time and exclusive end time
     * @return a RDD of Row
     */
-  private def scanStream(requiredColumns: Array[String], startTime: Long, endTime: Long): RDD[Row] = {
+  private def scanStream(requiredColumns: Array[String], timeRanges: Seq[(Long, Long)]): RDD[Row] = {
     val sec = SparkClassLoader.findFromContext().getSparkExecutionContext(false)
     val sc = sqlContext.sparkContext
 
     formatSpec.fold({
       // No format spec, use raw converter
-      implicit val converter = createStreamEventConverter(timestampColName, headersColName, requiredColumns)
-      sec.fromStream[Row](sc, streamId.getNamespace, streamId.getStream, startTime, endTime)
+      val converter = createStreamEventConverter(timestampColName, headersColName, requiredColumns)
+      sec.fromStream[StreamEvent](sc, streamId.getNamespace, streamId.getStream, timeRanges, None)
+         .map(t => converter(t._2))
     })(format => {
       // Use format spec
       val converter = createStructuredRecordConverter(timestampColName, headersColName,
                                                       requiredColumns, streamBodySchema)
-      sec.fromStream[StructuredRecord](sc, streamId.getNamespace, streamId.getStream, format, startTime, endTime)
+      sec.fromStream[GenericStreamEventData[StructuredRecord]](sc, streamId.getNamespace, streamId.getStream,
+                                                               timeRanges, Some(format))
          .map(converter)
     })
   }
@@ -248,12 +251,12 @@ private[stream] object StreamRelation {
   private def determineTimeRanges(colName: String, filter: Filter, startTime: Long, endTime: Long)
                                  (implicit negate: Boolean = false): Seq[(Long, Long)] = {
     determineFilter(filter) match {
-      case EqualTo(colName, value: Long) => Seq(range(value, safeIncrement(value)))
-      case EqualNullSafe(colName, value: Long) if value != null => Seq(range(value, safeIncrement(value)))
-      case GreaterThan(colName, value: Long) => Seq(range(safeIncrement(value), endTime))
-      case GreaterThanOrEqual(colName, value: Long) => Seq(range(value, endTime))
-      case LessThan(colName, value: Long) => Seq(range(startTime, value))
-      case LessThanOrEqual(colName, value: Long) => Seq(range(startTime, safeIncrement(value)))
+      case EqualTo(`colName`, value: Long) => Seq(range(value, safeIncrement(value)))
+      case EqualNullSafe(`colName`, value: Long) if value != null => Seq(range(value, safeIncrement(value)))
+      case GreaterThan(`colName`, value: Long) => Seq(range(safeIncrement(value), endTime))
+      case GreaterThanOrEqual(`colName`, value: Long) => Seq(range(value, endTime))
+      case LessThan(`colName`, value: Long) => Seq(range(startTime, value))
+      case LessThanOrEqual(`colName`, value: Long) => Seq(range(startTime, safeIncrement(value)))
 
       // Compute intersection of ranges
       case And(left, right) => intersectRanges(determineTimeRanges(colName, left, startTime, endTime),
@@ -263,9 +266,10 @@ private[stream] object StreamRelation {
                                                    determineTimeRanges(colName, right, startTime, endTime))
 
       // Create N ranges and combine
-      case In(colName, values) => sortAndCombineRanges(values.distinct.map {
-        case value: Long => range(value, safeIncrement(value))
-      })
+      case In(`colName`, values) if values.forall(_.isInstanceOf[Long]) =>
+        sortAndCombineRanges(values.distinct.map {
+          case value: Long => range(value, safeIncrement(value))
+        })
 
       // Flip the negation flag for child nodes
       case Not(child) => determineTimeRanges(colName, child, startTime, endTime)(!negate)
@@ -16,7 +16,11 @@
 
 package co.cask.cdap.app.runtime.spark;
 
+import co.cask.http.AbstractHttpHandler;
+import co.cask.http.HttpHandler;
+import co.cask.http.HttpResponder;
 import com.google.common.collect.ImmutableSet;
+import io.netty.handler.codec.http.HttpRequest;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.tephra.Transaction;
 import org.apache.tephra.TransactionFailureException;
@@ -35,6 +39,7 @@ import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Random;
@@ -46,10 +51,16 @@ import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nullable;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
 
 /**
  * Unit tests for the {@link SparkTransactionHandler}.
@@ -225,6 +236,71 @@ public class SparkTransactionHandlerTest {
     sparkTxHandler.jobEnded(1, true);
   }
 
+  /**
+   * Tests that the shared {@link SparkTransactionClient} waits for the job to start and makes one request for
+   * concurrent tasks of the same stage.
+   */
+  @Test(timeout = 60000L)
+  public void testSharedClient() throws Exception {
+    // Serve the transaction requests through a handler that counts the requests made by the client
+    CountingTransactionHandler countingHandler = new CountingTransactionHandler(sparkTxHandler);
+    SparkDriverHttpService countingService = new SparkDriverHttpService(
+      "test", InetAddress.getLoopbackAddress().getCanonicalHostName(), countingHandler);
+    countingService.startAndWait();
+
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    int threads = 10;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      final SparkTransactionClient client = SparkTransactionClient.getShared(countingService.getBaseURI());
+      Assert.assertSame(client, SparkTransactionClient.getShared(countingService.getBaseURI()));
+
+      // Delay the call to jobStarted by 1 second
+      scheduler.schedule(new Runnable() {
+        @Override
+        public void run() {
+          sparkTxHandler.jobStarted(1000, ImmutableSet.of(1000));
+        }
+      }, 1, TimeUnit.SECONDS);
+
+      CompletionService<Transaction> completionService = new ExecutorCompletionService<>(executor);
+      for (int i = 0; i < threads; i++) {
+        completionService.submit(new Callable<Transaction>() {
+          @Override
+          public Transaction call() throws Exception {
+            return client.getTransaction(1000, 10, TimeUnit.SECONDS);
+          }
+        });
+      }
+
+      // All tasks of the same stage must get the same transaction through one request
+      Set<Transaction> transactions = new HashSet<>();
+      for (int i = 0; i < threads; i++) {
+        transactions.add(new TransactionWrapper(completionService.take().get()));
+      }
+      Assert.assertEquals(1, transactions.size());
+      Assert.assertEquals(1, countingHandler.getRequests());
+
+      sparkTxHandler.jobEnded(1000, true);
+
+      // Spark can reuse the stage id in a later job, e.g. to recompute lost map outputs. The stage must get the
+      // transaction of the new job instead of the one of the completed job.
+      sparkTxHandler.jobStarted(1001, ImmutableSet.of(1000));
+      Assert.assertNotEquals(transactions.iterator().next(),
+                             new TransactionWrapper(client.getTransaction(1000, 10, TimeUnit.SECONDS)));
+      Assert.assertEquals(2, countingHandler.getRequests());
+      sparkTxHandler.jobEnded(1001, true);
+
+      SparkTransactionClient.removeShared(countingService.getBaseURI());
+      Assert.assertNotSame(client, SparkTransactionClient.getShared(countingService.getBaseURI()));
+    } finally {
+      executor.shutdown();
+      scheduler.shutdown();
+      SparkTransactionClient.removeShared(countingService.getBaseURI());
+      countingService.stopAndWait();
+    }
+  }
+
   /**
    * Simulates a single job run which contains multiple stages.
    *
@@ -439,4 +515,30 @@ public class SparkTransactionHandlerTest {
       );
     }
   }
+
+  /**
+   * A {@link HttpHandler} that counts the transaction requests and delegates them to a
+   * {@link SparkTransactionHandler}.
+   */
+  public static final class CountingTransactionHandler extends AbstractHttpHandler {
+
+    private final SparkTransactionHandler delegate;
+    private final AtomicInteger requests = new AtomicInteger();
+
+    CountingTransactionHandler(SparkTransactionHandler delegate) {
+      this.delegate = delegate;
+    }
+
+    @GET
+    @Path("/spark/stages/{stage}/transaction")
+    public void getTransaction(HttpRequest request, HttpResponder responder, @PathParam("stage") int stageId,
+                               @QueryParam("timeout") @DefaultValue("0") long timeoutMillis) {
+      requests.incrementAndGet();
+      delegate.getTransaction(request, responder, stageId, timeoutMillis);
+    }
+
+    int getRequests() {
+      return requests.get();
+    }
+  }
 }
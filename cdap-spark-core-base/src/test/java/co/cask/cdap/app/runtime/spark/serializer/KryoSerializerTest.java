@@ -22,6 +22,7 @@ import co.cask.cdap.format.StructuredRecordStringConverter;
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import org.junit.Assert;
 import org.junit.Test;
@@ -87,6 +88,89 @@ public class KryoSerializerTest {
                         StructuredRecordStringConverter.toJsonString(newRecord));
   }
 
+  @Test
+  public void testSchemaRegistry() throws IOException {
+    Schema schema = createSchema();
+    Schema otherSchema = Schema.recordOf("other", Schema.Field.of("string", Schema.of(Schema.Type.STRING)));
+    Schema unknownSchema = Schema.recordOf("unknown", Schema.Field.of("int", Schema.of(Schema.Type.INT)));
+
+    SchemaRegistry registry = SchemaRegistry.parse(SchemaRegistry.toConfValue(ImmutableList.of(otherSchema, schema)));
+    Assert.assertEquals(2, registry.size());
+    Assert.assertEquals(1, registry.getId(schema));
+    Assert.assertEquals(-1, registry.getId(unknownSchema));
+
+    Kryo kryo = new Kryo();
+    kryo.addDefaultSerializer(Schema.class, new SchemaSerializer(registry));
+    kryo.addDefaultSerializer(StructuredRecord.class, new StructuredRecordSerializer(registry));
+
+    // Registered schema is written as the id
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try (Output output = new Output(bos)) {
+      kryo.writeObject(output, schema);
+    }
+    Assert.assertEquals(1, bos.size());
+    Assert.assertEquals(schema, kryo.readObject(new Input(bos.toByteArray()), Schema.class));
+
+    // Records with both registered and unregistered schemas can be read back
+    StructuredRecord record = StructuredRecord.builder(otherSchema).set("string", "Hello World").build();
+    StructuredRecord unknownRecord = StructuredRecord.builder(unknownSchema).set("int", -10).build();
+
+    bos.reset();
+    try (Output output = new Output(bos)) {
+      kryo.writeObject(output, record);
+      kryo.writeObject(output, unknownRecord);
+    }
+
+    Input input = new Input(bos.toByteArray());
+    Assert.assertEquals(StructuredRecordStringConverter.toJsonString(record),
+                        StructuredRecordStringConverter.toJsonString(kryo.readObject(input, StructuredRecord.class)));
+    Assert.assertEquals(StructuredRecordStringConverter.toJsonString(unknownRecord),
+                        StructuredRecordStringConverter.toJsonString(kryo.readObject(input, StructuredRecord.class)));
+
+    // Empty registry
+    Assert.assertEquals(0, SchemaRegistry.parse(null).size());
+    Assert.assertEquals(0, SchemaRegistry.parse("[]").size());
+  }
+
+  @Test
+  public void testSchemaRegistryRecordNames() {
+    // Schemas that only differ in record names are equal, but must be registered with different ids
+    Schema schema = Schema.recordOf("first", Schema.Field.of("string", Schema.of(Schema.Type.STRING)));
+    Schema renamedSchema = Schema.recordOf("second", Schema.Field.of("string", Schema.of(Schema.Type.STRING)));
+    Assert.assertEquals(schema, renamedSchema);
+
+    SchemaRegistry registry = SchemaRegistry.parse(SchemaRegistry.toConfValue(ImmutableList.of(schema, renamedSchema)));
+    Assert.assertEquals(0, registry.getId(schema));
+    Assert.assertEquals(1, registry.getId(renamedSchema));
+
+    Kryo kryo = new Kryo();
+    kryo.addDefaultSerializer(Schema.class, new SchemaSerializer(registry));
+
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try (Output output = new Output(bos)) {
+      kryo.writeObject(output, renamedSchema);
+    }
+    Assert.assertEquals("second", kryo.readObject(new Input(bos.toByteArray()), Schema.class).getRecordName());
+  }
+
+  @Test
+  public void testEmptySchemaRegistryFormat() {
+    // Without registered schemas, the schema is written as JSON only, which is the format before the registry
+    Schema schema = createSchema();
+
+    Kryo kryo = new Kryo();
+    kryo.addDefaultSerializer(Schema.class, new SchemaSerializer(SchemaRegistry.parse(null)));
+
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try (Output output = new Output(bos)) {
+      kryo.writeObject(output, schema);
+    }
+
+    Input input = new Input(bos.toByteArray());
+    Assert.assertEquals(schema.toString(), input.readString());
+    Assert.assertTrue(input.eof());
+  }
+
   private Schema createSchema() {
     return Schema.recordOf("record",
       Schema.Field.of("boolean", Schema.of(Schema.Type.BOOLEAN)),
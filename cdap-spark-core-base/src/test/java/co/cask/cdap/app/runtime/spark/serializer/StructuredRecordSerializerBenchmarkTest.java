@@ -0,0 +1,159 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.app.runtime.spark.serializer;
+
+import co.cask.cdap.api.data.format.StructuredRecord;
+import co.cask.cdap.api.data.schema.Schema;
+import co.cask.cdap.test.XSlowTests;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the serialized size and the time to write and read wide {@link StructuredRecord}s with Kryo streams,
+ * with and without the schema in the {@link SchemaRegistry}. The number of records and the number of fields can be
+ * set with the {@code spark.benchmark.records} and {@code spark.benchmark.fields} system properties.
+ *
+ * It doesn't run a Spark job, hence the bytes per record only approximate the shuffle write bytes. Spark writes
+ * records of a shuffle block through the same Kryo serializers, but it also writes the keys of pair RDDs and
+ * compresses the blocks, which this benchmark doesn't do.
+ */
+@Category(XSlowTests.class)
+public class StructuredRecordSerializerBenchmarkTest {
+
+  @Test
+  public void testSerializers() {
+    int records = Integer.getInteger("spark.benchmark.records", 200000);
+    Schema schema = createSchema(Integer.getInteger("spark.benchmark.fields", 50));
+    List<StructuredRecord> block = createRecords(schema, 1000);
+
+    SchemaRegistry emptyRegistry = new SchemaRegistry(Collections.<Schema>emptyList());
+    SchemaRegistry registry = new SchemaRegistry(ImmutableList.of(schema));
+
+    // Warm up both modes before measuring
+    for (int i = 0; i < 20; i++) {
+      run(createKryo(emptyRegistry), block, block.size());
+      run(createKryo(registry), block, block.size());
+    }
+
+    run("schema", createKryo(emptyRegistry), block, records);
+    run("registry", createKryo(registry), block, records);
+  }
+
+  private void run(String name, Kryo kryo, List<StructuredRecord> block, int records) {
+    Stopwatch stopwatch = new Stopwatch().start();
+    long bytes = run(kryo, block, records);
+    long elapsedMs = stopwatch.elapsedTime(TimeUnit.MILLISECONDS);
+    System.out.printf("%s: %d records in %d ms, %.0f records/sec and %.1f bytes per record%n",
+                      name, records, elapsedMs, records * 1000.0 / Math.max(1, elapsedMs), (double) bytes / records);
+  }
+
+  /**
+   * Writes and reads back the given number of records in blocks, similar to shuffle blocks in Spark.
+   *
+   * @return the total number of bytes written
+   */
+  private long run(Kryo kryo, List<StructuredRecord> block, int records) {
+    long bytes = 0;
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    for (int written = 0; written < records; written += block.size()) {
+      int count = Math.min(block.size(), records - written);
+
+      bos.reset();
+      try (Output output = new Output(bos)) {
+        for (int i = 0; i < count; i++) {
+          kryo.writeClassAndObject(output, block.get(i));
+        }
+      }
+      bytes += bos.size();
+
+      Input input = new Input(bos.toByteArray());
+      for (int i = 0; i < count; i++) {
+        Assert.assertTrue(kryo.readClassAndObject(input) instanceof StructuredRecord);
+      }
+    }
+    return bytes;
+  }
+
+  private Kryo createKryo(SchemaRegistry registry) {
+    Kryo kryo = new Kryo();
+    kryo.addDefaultSerializer(Schema.class, new SchemaSerializer(registry));
+    kryo.addDefaultSerializer(StructuredRecord.class, new StructuredRecordSerializer(registry));
+    return kryo;
+  }
+
+  /**
+   * Creates a wide schema with a mix of numeric and string fields, which is typical for a pipeline record.
+   */
+  private Schema createSchema(int fields) {
+    List<Schema.Field> schemaFields = new ArrayList<>(fields);
+    for (int i = 0; i < fields; i++) {
+      switch (i % 4) {
+        case 0:
+          schemaFields.add(Schema.Field.of("int_field_" + i, Schema.of(Schema.Type.INT)));
+          break;
+        case 1:
+          schemaFields.add(Schema.Field.of("long_field_" + i, Schema.of(Schema.Type.LONG)));
+          break;
+        case 2:
+          schemaFields.add(Schema.Field.of("double_field_" + i, Schema.of(Schema.Type.DOUBLE)));
+          break;
+        default:
+          schemaFields.add(Schema.Field.of("string_field_" + i,
+                                           Schema.nullableOf(Schema.of(Schema.Type.STRING))));
+      }
+    }
+    return Schema.recordOf("wide", schemaFields);
+  }
+
+  private List<StructuredRecord> createRecords(Schema schema, int size) {
+    Random random = new Random();
+    List<StructuredRecord> records = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      StructuredRecord.Builder builder = StructuredRecord.builder(schema);
+      for (Schema.Field field : schema.getFields()) {
+        switch (field.getSchema().getType()) {
+          case INT:
+            builder.set(field.getName(), random.nextInt(10000));
+            break;
+          case LONG:
+            builder.set(field.getName(), System.currentTimeMillis() + random.nextInt(10000));
+            break;
+          case DOUBLE:
+            builder.set(field.getName(), random.nextDouble());
+            break;
+          default:
+            builder.set(field.getName(), random.nextBoolean() ? null : "value-" + random.nextInt(1000));
+        }
+      }
+      records.add(builder.build());
+    }
+    return records;
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.app.runtime.spark.sql.datasources.dataset
+
+import co.cask.cdap.api.common.Bytes
+import co.cask.cdap.api.data.format.StructuredRecord
+import co.cask.cdap.api.data.schema.Schema
+import co.cask.cdap.api.spark.sql.DataFrames
+import com.google.common.collect.ImmutableList
+import com.google.common.collect.ImmutableMap
+import org.apache.spark.sql.sources.And
+import org.apache.spark.sql.sources.EqualTo
+import org.apache.spark.sql.sources.Filter
+import org.apache.spark.sql.sources.GreaterThan
+import org.apache.spark.sql.sources.GreaterThanOrEqual
+import org.apache.spark.sql.sources.In
+import org.apache.spark.sql.sources.LessThan
+import org.apache.spark.sql.sources.LessThanOrEqual
+import org.apache.spark.sql.sources.Or
+import org.apache.spark.sql.types.StructType
+import org.junit.Assert
+import org.junit.Test
+
+import java.nio.ByteBuffer
+
+/**
+  * Unit-test for [[RecordScannableRelation]] functions without launch Spark SQL.
+  */
+class RecordScannableRelationTest {
+
+  /**
+    * Test for row key ranges of string keys.
+    */
+  @Test
+  def testStringKeyRange(): Unit = {
+    // key = x
+    assertRange(Some(("b", "b\u0000")), Schema.Type.STRING, EqualTo("key", "b"))
+
+    // key > x and key <= y
+    assertRange(Some(("b\u0000", "d\u0000")), Schema.Type.STRING, GreaterThan("key", "b"), LessThanOrEqual("key", "d"))
+
+    // key >= x and key < y, combined with And
+    assertRange(Some(("b", "d")), Schema.Type.STRING, And(GreaterThanOrEqual("key", "b"), LessThan("key", "d")))
+
+    // key in (x, y, z) covers from the smallest to the largest value
+    assertRange(Some(("a", "c\u0000")), Schema.Type.STRING, In("key", Array("c", "a", "b")))
+
+    // Intersection of ranges
+    assertRange(Some(("c", "d")), Schema.Type.STRING, GreaterThanOrEqual("key", "a"), GreaterThanOrEqual("key", "c"),
+                LessThan("key", "d"), LessThan("key", "f"))
+
+    // Filters on other columns, or and unsupported values don't restrict the range
+    assertRange(None, Schema.Type.STRING, EqualTo("value", "b"))
+    assertRange(None, Schema.Type.STRING, Or(EqualTo("key", "a"), EqualTo("key", "b")))
+    assertRange(None, Schema.Type.STRING, EqualTo("key", 10))
+
+    // Filters on other columns are ignored
+    assertRange(Some(("b", null)), Schema.Type.STRING, GreaterThanOrEqual("key", "b"), EqualTo("value", "x"))
+
+    // Empty range
+    val range = RecordScannableRelation.determineKeyRange("key", Schema.Type.STRING,
+                                                          Array(GreaterThan("key", "d"), LessThan("key", "b")))
+    Assert.assertTrue(range.exists(RecordScannableRelation.isEmptyRange))
+  }
+
+  /**
+    * Test for row key ranges of numeric keys, which only use equality.
+    */
+  @Test
+  def testNumericKeyRange(): Unit = {
+    var range = RecordScannableRelation.determineKeyRange("key", Schema.Type.INT, Array(EqualTo("key", 10)))
+    Assert.assertArrayEquals(Bytes.toBytes(10), range.get._1)
+    Assert.assertArrayEquals(Bytes.concat(Bytes.toBytes(10), Array[Byte](0)), range.get._2)
+
+    range = RecordScannableRelation.determineKeyRange("key", Schema.Type.LONG, Array(In("key", Array(10L))))
+    Assert.assertArrayEquals(Bytes.toBytes(10L), range.get._1)
+    Assert.assertArrayEquals(Bytes.concat(Bytes.toBytes(10L), Array[Byte](0)), range.get._2)
+
+    // Range comparisons and multiple values are not used
+    Assert.assertEquals(None, RecordScannableRelation.determineKeyRange("key", Schema.Type.INT,
+                                                                        Array(GreaterThan("key", 10))))
+    Assert.assertEquals(None, RecordScannableRelation.determineKeyRange("key", Schema.Type.LONG,
+                                                                        Array(In("key", Array(10L, 20L)))))
+  }
+
+  /**
+    * Test the Row converter produces the same Row as the DataFrames.toRow method.
+    */
+  @Test
+  def testRowConverter(): Unit = {
+    val innerSchema = Schema.recordOf("inner", Schema.Field.of("x", Schema.of(Schema.Type.INT)))
+    val schema = Schema.recordOf(
+      "record",
+      Schema.Field.of("boolean", Schema.of(Schema.Type.BOOLEAN)),
+      Schema.Field.of("long", Schema.of(Schema.Type.LONG)),
+      Schema.Field.of("string", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+      Schema.Field.of("bytes", Schema.of(Schema.Type.BYTES)),
+      Schema.Field.of("array", Schema.arrayOf(Schema.of(Schema.Type.STRING))),
+      Schema.Field.of("map", Schema.mapOf(Schema.of(Schema.Type.STRING), Schema.of(Schema.Type.INT))),
+      Schema.Field.of("inner", innerSchema)
+    )
+
+    val record = StructuredRecord.builder(schema)
+      .set("boolean", true)
+      .set("long", 10L)
+      .set("string", null)
+      .set("bytes", ByteBuffer.wrap(Bytes.toBytes("bytes")))
+      .set("array", ImmutableList.of("a", "b"))
+      .set("map", ImmutableMap.of("k", 1))
+      .set("inner", StructuredRecord.builder(innerSchema).set("x", 5).build())
+      .build()
+
+    val structType = DataFrames.toDataType[StructType](schema)
+    val row = RecordScannableRelation.createRowConverter(structType)(record)
+    val expected = DataFrames.toRow(record, structType)
+
+    Assert.assertEquals(expected.length, row.length)
+    for (i <- 0 until row.length) {
+      (expected.get(i), row.get(i)) match {
+        case (e: Array[Byte], r: Array[Byte]) => Assert.assertArrayEquals(e, r)
+        case (e, r) => Assert.assertEquals(e, r)
+      }
+    }
+
+    // Only the required columns are converted
+    val prunedType = StructType(Seq(structType("inner"), structType("long")))
+    val prunedRow = RecordScannableRelation.createRowConverter(prunedType)(record)
+    Assert.assertEquals(2, prunedRow.length)
+    Assert.assertEquals(5, prunedRow.getStruct(0).getInt(0))
+    Assert.assertEquals(10L, prunedRow.getLong(1))
+  }
+
+  private def assertRange(expected: Option[(String, String)], keyType: Schema.Type, filters: Filter*): Unit = {
+    val range = RecordScannableRelation.determineKeyRange("key", keyType, filters.toArray)
+    Assert.assertEquals(expected, range.map(r => (Option(r._1).map(key => Bytes.toString(key)).orNull,
+                                                  Option(r._2).map(key => Bytes.toString(key)).orNull)))
+  }
+}
@@ -124,6 +124,13 @@ class StreamRelationTest {
                                                                  EqualTo("x", "y")))
     Assert.assertEquals(Seq((11L, 20L)), ranges)
 
+    // AND with filters on a non timestamp column of long type
+    // (ts > 10 AND x < 15 AND x in (30, 40))
+    ranges = StreamRelation.determineTimeRanges("ts", Array(GreaterThan("ts", 10L),
+                                                                 LessThan("x", 15L),
+                                                                 In("x", Array(30L, 40L))))
+    Assert.assertEquals(Seq((11L, Long.MaxValue)), ranges)
+
     // AND with condition that can never be satisfied.
     // (ts < 10 AND ts > 20)
     ranges = StreamRelation.determineTimeRanges("ts", Array(LessThan("ts", 10L), GreaterThan("ts", 20L)))
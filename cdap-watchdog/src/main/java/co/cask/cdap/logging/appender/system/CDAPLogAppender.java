@@ -149,7 +149,8 @@ public class CDAPLogAppender extends AppenderBase<ILoggingEvent> implements Flus
                                           syncIntervalBytes,
                                           new FileMetaDataWriter(context.getDatasetManager(), context),
                                           context.getLocationFactory());
-      if (context.getInstanceId() == 0) {
+      // Only the first worker of the first instance performs the clean up
+      if (context.getInstanceId() == 0 && context.getObject(Constants.Logging.PIPELINE_WORKER_ID) == null) {
         scheduledExecutorService =
           Executors.newSingleThreadScheduledExecutor(Threads.createDaemonThreadFactory("log-clean-up"));
         FileMetadataCleaner fileMetadataCleaner = new FileMetadataCleaner(context.getDatasetManager(), context);
@@ -21,6 +21,7 @@ import co.cask.cdap.common.io.ByteBuffers;
 import co.cask.cdap.common.io.Syncable;
 import co.cask.cdap.logging.serialize.LoggingEvent;
 import co.cask.cdap.logging.serialize.LoggingEventSerializer;
+import co.cask.cdap.logging.write.LogFileIndex;
 import com.google.common.io.Closeables;
 import org.apache.avro.Schema;
 import org.apache.avro.file.DataFileWriter;
@@ -30,17 +31,23 @@ import org.apache.twill.filesystem.Location;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedOutputStream;
 import java.io.Closeable;
+import java.io.DataOutputStream;
 import java.io.Flushable;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import javax.annotation.Nullable;
 
 /**
  * Represents output stream for a log file.
  *
  * Since there is no way to check the state of the underlying file on an exception,
  * all methods of this class assume that the file state is bad on any exception and close the file.
+ *
+ * Along with the log file, a {@link LogFileIndex} is written, with one entry for the events written between
+ * two flushes. Failures to write the index are not fatal, since the log file is readable without it.
  */
 
 class LogFileOutputStream implements Closeable, Flushable, Syncable {
@@ -55,6 +62,14 @@ class LogFileOutputStream implements Closeable, Flushable, Syncable {
   private DataFileWriter<GenericRecord> dataFileWriter;
   private long fileSize;
 
+  private Location indexLocation;
+  private OutputStream indexStream;
+  private DataOutputStream indexOutput;
+  private long blockStartPosition;
+  private long blockMinTimestamp;
+  private long blockMaxTimestamp;
+  private int blockLevels;
+
   LogFileOutputStream(Location location, String filePermissions,
                       int syncIntervalBytes, long createTime, Closeable closeable) throws IOException {
     this.location = location;
@@ -70,18 +85,34 @@ class LogFileOutputStream implements Closeable, Flushable, Syncable {
       this.dataFileWriter.setSyncInterval(syncIntervalBytes);
       this.createTime = createTime;
       this.fileSize = 0;
+      this.blockStartPosition = dataFileWriter.sync();
+      resetBlock();
     } catch (IOException e) {
       Closeables.closeQuietly(outputStream);
       Closeables.closeQuietly(dataFileWriter);
       throw e;
     }
+    createIndex(filePermissions);
   }
 
   Location getLocation() {
     return location;
   }
 
+  /**
+   * Returns the location of the index of the log file, or {@code null} if the index is not written.
+   */
+  @Nullable
+  Location getIndexLocation() {
+    return indexOutput == null ? null : indexLocation;
+  }
+
   void append(ILoggingEvent event) throws IOException {
+    long timestamp = event.getTimeStamp();
+    blockMinTimestamp = Math.min(blockMinTimestamp, timestamp);
+    blockMaxTimestamp = Math.max(blockMaxTimestamp, timestamp);
+    blockLevels |= LogFileIndex.getLevelBit(event.getLevel());
+
     // If the event is already a LoggingEvent, we don't need to re-encode.
     if (event instanceof LoggingEvent) {
       ByteBuffer encoded = ((LoggingEvent) event).getEncoded();
@@ -115,6 +146,7 @@ class LogFileOutputStream implements Closeable, Flushable, Syncable {
   @Override
   public void flush() throws IOException {
     fileSize = dataFileWriter.sync();
+    appendIndexEntry(fileSize);
   }
 
   @Override
@@ -125,15 +157,75 @@ class LogFileOutputStream implements Closeable, Flushable, Syncable {
     } else {
       outputStream.flush();
     }
+    if (indexStream instanceof org.apache.hadoop.fs.Syncable) {
+      try {
+        ((org.apache.hadoop.fs.Syncable) indexStream).hflush();
+      } catch (IOException e) {
+        indexFailed(e);
+      }
+    }
   }
 
   @Override
   public void close() throws IOException {
     LOG.trace("Closing file {}", location);
     try {
-      dataFileWriter.close();
+      try {
+        // Sync the last block, so that it gets indexed as well
+        appendIndexEntry(dataFileWriter.sync());
+      } finally {
+        dataFileWriter.close();
+      }
     } finally {
+      Closeables.closeQuietly(indexOutput);
       closeable.close();
     }
   }
+
+  private void createIndex(String filePermissions) {
+    indexLocation = LogFileIndex.getIndexLocation(location);
+    try {
+      indexStream = filePermissions.isEmpty()
+        ? indexLocation.getOutputStream() : indexLocation.getOutputStream(filePermissions);
+      indexOutput = new DataOutputStream(new BufferedOutputStream(indexStream));
+      LogFileIndex.writeHeader(indexOutput);
+      indexOutput.flush();
+    } catch (IOException e) {
+      indexFailed(e);
+    }
+  }
+
+  /**
+   * Appends an index entry for the events written since the last entry, up to the given sync position.
+   */
+  private void appendIndexEntry(long endPosition) {
+    if (indexOutput != null && blockLevels != 0 && endPosition > blockStartPosition) {
+      try {
+        LogFileIndex.writeEntry(indexOutput, blockStartPosition, endPosition,
+                                blockMinTimestamp, blockMaxTimestamp, blockLevels);
+        indexOutput.flush();
+      } catch (IOException e) {
+        indexFailed(e);
+      }
+    }
+    blockStartPosition = endPosition;
+    resetBlock();
+  }
+
+  private void resetBlock() {
+    blockMinTimestamp = Long.MAX_VALUE;
+    blockMaxTimestamp = Long.MIN_VALUE;
+    blockLevels = 0;
+  }
+
+  /**
+   * Stops writing the index. The entries already written remain valid, since readers do not skip
+   * the part of the log file that is not covered by the index.
+   */
+  private void indexFailed(IOException e) {
+    LOG.warn("Failed to write index for log file {}. Log file will be read without index.", location, e);
+    Closeables.closeQuietly(indexOutput != null ? indexOutput : indexStream);
+    indexOutput = null;
+    indexStream = null;
+  }
 }
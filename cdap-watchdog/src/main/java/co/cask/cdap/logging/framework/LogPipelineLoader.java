@@ -104,6 +104,26 @@ public class LogPipelineLoader {
     }
   }
 
+  /**
+   * Loads the log pipeline configuration of the given {@link LogPipelineSpecification} again, with a new
+   * {@link LoggerContext}. This is used to run multiple instances of the same pipeline.
+   *
+   * @param contextProvider a guice {@link Provider} for creating new instance of {@link LoggerContext}.
+   * @param spec the {@link LogPipelineSpecification} returned from {@link #load(Provider)}
+   * @param <T> Type of the {@link LoggerContext}
+   * @return a new {@link LogPipelineSpecification} for the same pipeline
+   * @throws InvalidPipelineException if failed to load the pipeline configuration
+   */
+  public <T extends LoggerContext> LogPipelineSpecification<T> load(Provider<T> contextProvider,
+                                                                    LogPipelineSpecification<?> spec)
+    throws InvalidPipelineException {
+    try {
+      return load(contextProvider, spec.getSource());
+    } catch (JoranException e) {
+      throw new InvalidPipelineException("Failed to process log processing pipeline config at " + spec.getSource(), e);
+    }
+  }
+
   /**
    * Loads the log pipeline configurations
    *
@@ -263,7 +283,8 @@ public class LogPipelineLoader {
       Constants.Logging.PIPELINE_KAFKA_FETCH_SIZE,
       Constants.Logging.PIPELINE_CHECKPOINT_INTERVAL_MS,
       Constants.Logging.PIPELINE_LOGGER_CACHE_SIZE,
-      Constants.Logging.PIPELINE_LOGGER_CACHE_EXPIRATION_MS
+      Constants.Logging.PIPELINE_LOGGER_CACHE_EXPIRATION_MS,
+      Constants.Logging.PIPELINE_PARTITIONED
     );
 
     // For each of the allowed key, try to resolves through the configurator execution context.
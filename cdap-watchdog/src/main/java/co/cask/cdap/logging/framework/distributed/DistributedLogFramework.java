@@ -23,12 +23,16 @@ import co.cask.cdap.common.resource.ResourceBalancerService;
 import co.cask.cdap.common.service.RetryOnStartFailureService;
 import co.cask.cdap.common.service.RetryStrategies;
 import co.cask.cdap.common.service.RetryStrategy;
+import co.cask.cdap.logging.framework.InvalidPipelineException;
 import co.cask.cdap.logging.framework.LogPipelineLoader;
 import co.cask.cdap.logging.framework.LogPipelineSpecification;
+import co.cask.cdap.logging.meta.CheckpointManager;
 import co.cask.cdap.logging.meta.CheckpointManagerFactory;
+import co.cask.cdap.logging.meta.SharedCheckpointManager;
 import co.cask.cdap.logging.pipeline.LogProcessorPipelineContext;
 import co.cask.cdap.logging.pipeline.kafka.KafkaLogProcessorPipeline;
 import co.cask.cdap.logging.pipeline.kafka.KafkaPipelineConfig;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Supplier;
@@ -45,9 +49,11 @@ import org.apache.twill.kafka.client.BrokerService;
 import org.apache.twill.zookeeper.ZKClient;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ExecutionException;
 
 /**
@@ -80,34 +86,47 @@ public class DistributedLogFramework extends ResourceBalancerService {
 
   @Override
   protected Service createService(Set<Integer> partitions) {
-    Map<String, LogPipelineSpecification<AppenderContext>> specs = new LogPipelineLoader(cConf).load(contextProvider);
-    int pipelineCount = specs.size();
+    LogPipelineLoader pipelineLoader = new LogPipelineLoader(cConf);
+    Map<String, LogPipelineSpecification<AppenderContext>> specs = pipelineLoader.load(contextProvider);
+    int pipelineCount = 0;
+    for (LogPipelineSpecification<AppenderContext> pipelineSpec : specs.values()) {
+      pipelineCount += isPartitioned(pipelineSpec) ? partitions.size() : 1;
+    }
 
-    // Create one KafkaLogProcessorPipeline per spec
+    // Create one KafkaLogProcessorPipeline per spec, or one per spec and partition if the pipeline is partitioned
     final List<Service> pipelines = new ArrayList<>();
     for (final LogPipelineSpecification<AppenderContext> pipelineSpec : specs.values()) {
       final CConfiguration cConf = pipelineSpec.getConf();
-      final AppenderContext context = pipelineSpec.getContext();
-
-      long bufferSize = getBufferSize(pipelineCount, cConf, partitions.size());
+      long bufferSize = getBufferSize(pipelineCount, cConf, partitions.size(), isPartitioned(pipelineSpec));
       final String topic = cConf.get(Constants.Logging.KAFKA_TOPIC);
-      final KafkaPipelineConfig config = new KafkaPipelineConfig(
-        topic, partitions, bufferSize,
-        cConf.getLong(Constants.Logging.PIPELINE_EVENT_DELAY_MS),
-        cConf.getInt(Constants.Logging.PIPELINE_KAFKA_FETCH_SIZE),
-        cConf.getLong(Constants.Logging.PIPELINE_CHECKPOINT_INTERVAL_MS)
-      );
-
-      RetryStrategy retryStrategy = RetryStrategies.fromConfiguration(cConf, "system.log.process.");
-      pipelines.add(new RetryOnStartFailureService(new Supplier<Service>() {
-        @Override
-        public Service get() {
-          return new KafkaLogProcessorPipeline(
-            new LogProcessorPipelineContext(cConf, context.getName(), context,
-                                            context.getMetricsContext(), context.getInstanceId()),
-            checkpointManagerFactory.create(topic, pipelineSpec.getCheckpointPrefix()), brokerService, config);
+      CheckpointManager checkpointManager = checkpointManagerFactory.create(topic, pipelineSpec.getCheckpointPrefix());
+
+      if (!isPartitioned(pipelineSpec)) {
+        pipelines.add(createPipeline(pipelineSpec.getContext(), pipelineSpec.getContext().getName(),
+                                     checkpointManager, cConf, partitions, bufferSize));
+        continue;
+      }
+
+      // Each partition is processed by a separate pipeline with its own logger context, such that appenders
+      // are not shared between threads. The checkpoint manager is shared so that all partitions are checkpointed
+      // together.
+      CheckpointManager sharedCheckpointManager = new SharedCheckpointManager(checkpointManager);
+      int workerId = 0;
+      for (int partition : new TreeSet<>(partitions)) {
+        AppenderContext context = pipelineSpec.getContext();
+        if (workerId > 0) {
+          try {
+            context = pipelineLoader.load(createWorkerContextProvider(workerId), pipelineSpec).getContext();
+          } catch (InvalidPipelineException e) {
+            // This shouldn't happen since the same configuration was loaded successfully
+            throw new IllegalStateException("Failed to load pipeline " + pipelineSpec.getName()
+                                              + " for partition " + partition, e);
+          }
         }
-      }, retryStrategy));
+        pipelines.add(createPipeline(context, context.getName() + "-" + partition, sharedCheckpointManager,
+                                     cConf, Collections.singleton(partition), bufferSize));
+        workerId++;
+      }
     }
 
     // Returns a Service that start/stop all pipelines.
@@ -136,6 +155,52 @@ public class DistributedLogFramework extends ResourceBalancerService {
     };
   }
 
+  /**
+   * Returns {@code true} if the given pipeline processes each partition with a separate pipeline.
+   */
+  private boolean isPartitioned(LogPipelineSpecification<AppenderContext> pipelineSpec) {
+    return pipelineSpec.getConf().getBoolean(Constants.Logging.PIPELINE_PARTITIONED, false);
+  }
+
+  /**
+   * Creates a {@link Service} that runs a {@link KafkaLogProcessorPipeline} for the given set of partitions.
+   */
+  private Service createPipeline(final AppenderContext context, final String name,
+                                 final CheckpointManager checkpointManager, final CConfiguration cConf,
+                                 Set<Integer> partitions, long bufferSize) {
+    final KafkaPipelineConfig config = new KafkaPipelineConfig(
+      cConf.get(Constants.Logging.KAFKA_TOPIC), partitions, bufferSize,
+      cConf.getLong(Constants.Logging.PIPELINE_EVENT_DELAY_MS),
+      cConf.getInt(Constants.Logging.PIPELINE_KAFKA_FETCH_SIZE),
+      cConf.getLong(Constants.Logging.PIPELINE_CHECKPOINT_INTERVAL_MS)
+    );
+
+    RetryStrategy retryStrategy = RetryStrategies.fromConfiguration(cConf, "system.log.process.");
+    return new RetryOnStartFailureService(new Supplier<Service>() {
+      @Override
+      public Service get() {
+        return new KafkaLogProcessorPipeline(
+          new LogProcessorPipelineContext(cConf, name, context,
+                                          context.getMetricsContext(), context.getInstanceId()),
+          checkpointManager, brokerService, config);
+      }
+    }, retryStrategy);
+  }
+
+  /**
+   * Returns a {@link Provider} of {@link AppenderContext} for the given worker of a partitioned pipeline.
+   */
+  private Provider<AppenderContext> createWorkerContextProvider(final int workerId) {
+    return new Provider<AppenderContext>() {
+      @Override
+      public AppenderContext get() {
+        AppenderContext context = contextProvider.get();
+        context.putObject(Constants.Logging.PIPELINE_WORKER_ID, workerId);
+        return context;
+      }
+    };
+  }
+
   /**
    * Blocks and validates all the given futures completed successfully.
    */
@@ -167,12 +232,19 @@ public class DistributedLogFramework extends ResourceBalancerService {
   }
 
   /**
-   * Determines the buffer size for one pipeline.
+   * Determines the buffer size for one pipeline. A configured buffer size is for the pipeline specification, hence
+   * it is divided among the per-partition pipelines of a partitioned pipeline.
+   *
+   * @param numberOfPipelines the total number of pipelines, with each per-partition pipeline counted separately
+   * @param cConf the configuration of the pipeline
+   * @param partitions the number of partitions processed
+   * @param partitioned {@code true} if each partition is processed by a separate pipeline
    */
-  private long getBufferSize(int numberOfPipelines, CConfiguration cConf, int partitions) {
+  @VisibleForTesting
+  static long getBufferSize(int numberOfPipelines, CConfiguration cConf, int partitions, boolean partitioned) {
     long bufferSize = cConf.getLong(Constants.Logging.PIPELINE_BUFFER_SIZE);
     if (bufferSize > 0) {
-      return bufferSize;
+      return partitioned ? Math.max(1L, bufferSize / Math.max(1, partitions)) : bufferSize;
     }
 
     double bufferRatio = cConf.getDouble(Constants.Logging.PIPELINE_AUTO_BUFFER_RATIO);
@@ -174,11 +174,16 @@ public class FileMetaDataReader {
       while ((row = scanner.next()) != null) {
         // column value is the file location
         byte[] value = row.get(LoggingStoreTableUtil.META_TABLE_COLUMN_KEY);
+        // index column is only present for files written with an index
+        byte[] indexValue = row.get(LoggingStoreTableUtil.META_TABLE_INDEX_COLUMN_KEY);
         files.add(new LogLocation(LogLocation.VERSION_1,
                                   Bytes.toLong(row.getRow(), prefixLength, Bytes.SIZEOF_LONG),
                                   Bytes.toLong(row.getRow(), prefixLength + Bytes.SIZEOF_LONG, Bytes.SIZEOF_LONG),
                                   // we store path in new format
                                   Locations.getLocationFromAbsolutePath(locationFactory, (Bytes.toString(value))),
+                                  indexValue == null ? null
+                                    : Locations.getLocationFromAbsolutePath(locationFactory,
+                                                                            Bytes.toString(indexValue)),
                                   logPathIdentifier.getNamespaceId(), impersonator));
 
       }
@@ -29,6 +29,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.charset.StandardCharsets;
+import javax.annotation.Nullable;
 
 /**
  * Class for writing log file meta data.
@@ -53,18 +54,41 @@ public class FileMetaDataWriter {
    * @param currentTimeMs current time during file creation.
    * @param location log file location.
    */
+  public void writeMetaData(LogPathIdentifier identifier, long eventTimeMs,
+                            long currentTimeMs, Location location) throws Exception {
+    writeMetaData(identifier, eventTimeMs, currentTimeMs, location, null);
+  }
+
+  /**
+   * Persists meta data associated with a log file.
+   *
+   * @param identifier logging context identifier.
+   * @param eventTimeMs start log time associated with the file.
+   * @param currentTimeMs current time during file creation.
+   * @param location log file location.
+   * @param indexLocation location of the index of the log file, {@code null} if the log file has no index.
+   */
   public void writeMetaData(final LogPathIdentifier identifier,
                             final long eventTimeMs,
                             final long currentTimeMs,
-                            final Location location) throws Exception {
+                            final Location location,
+                            @Nullable final Location indexLocation) throws Exception {
     LOG.debug("Writing meta data for logging context {} with startTimeMs {} sequence Id {} and location {}",
               identifier.getRowkey(), eventTimeMs, currentTimeMs, location);
     Transactionals.execute(transactional, new TxRunnable() {
       @Override
       public void run(DatasetContext context) throws Exception {
         Table table = LoggingStoreTableUtil.getMetadataTable(context, datasetManager);
-        table.put(getRowKey(identifier, eventTimeMs, currentTimeMs),
-                  LoggingStoreTableUtil.META_TABLE_COLUMN_KEY, Bytes.toBytes(location.toURI().getPath()));
+        byte[] rowKey = getRowKey(identifier, eventTimeMs, currentTimeMs);
+        if (indexLocation == null) {
+          table.put(rowKey, LoggingStoreTableUtil.META_TABLE_COLUMN_KEY, Bytes.toBytes(location.toURI().getPath()));
+        } else {
+          table.put(rowKey,
+                    new byte[][] { LoggingStoreTableUtil.META_TABLE_COLUMN_KEY,
+                      LoggingStoreTableUtil.META_TABLE_INDEX_COLUMN_KEY },
+                    new byte[][] { Bytes.toBytes(location.toURI().getPath()),
+                      Bytes.toBytes(indexLocation.toURI().getPath()) });
+        }
       }
     }, Exception.class);
   }
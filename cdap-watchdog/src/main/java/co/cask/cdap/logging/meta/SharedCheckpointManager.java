@@ -0,0 +1,62 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.logging.meta;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A thread-safe {@link CheckpointManager} that is shared by multiple log processing pipelines, each processing
+ * a different set of partitions. The checkpoints saved by each pipeline are merged with the latest checkpoints
+ * saved by the other pipelines, and all of them are persisted together through the delegating
+ * {@link CheckpointManager}.
+ */
+public final class SharedCheckpointManager implements CheckpointManager {
+
+  private final CheckpointManager delegate;
+  private final Map<Integer, Checkpoint> checkpoints;
+
+  public SharedCheckpointManager(CheckpointManager delegate) {
+    this.delegate = delegate;
+    this.checkpoints = new HashMap<>();
+  }
+
+  @Override
+  public synchronized void saveCheckpoints(Map<Integer, ? extends Checkpoint> checkpoints) throws Exception {
+    // Copy the checkpoints, since the caller may keep updating mutable checkpoints after this call
+    Map<Integer, Checkpoint> merged = new HashMap<>(this.checkpoints);
+    for (Map.Entry<Integer, ? extends Checkpoint> entry : checkpoints.entrySet()) {
+      Checkpoint checkpoint = entry.getValue();
+      merged.put(entry.getKey(), new Checkpoint(checkpoint.getNextOffset(), checkpoint.getNextEventTime(),
+                                                checkpoint.getMaxEventTime()));
+    }
+    delegate.saveCheckpoints(merged);
+    // Only remember the checkpoints after they are persisted successfully
+    this.checkpoints.putAll(merged);
+  }
+
+  @Override
+  public synchronized Map<Integer, Checkpoint> getCheckpoint(Set<Integer> partitions) throws Exception {
+    return delegate.getCheckpoint(partitions);
+  }
+
+  @Override
+  public synchronized Checkpoint getCheckpoint(int partition) throws Exception {
+    return delegate.getCheckpoint(partition);
+  }
+}
@@ -80,7 +80,11 @@ public class RollingLocationLogAppender extends FileAppender<ILoggingEvent> impl
       AppenderContext context = (AppenderContext) this.context;
       locationManager = new LocationManager(context.getLocationFactory(), basePath, dirPermissions, filePermissions,
                                             fileMaxInactiveTimeMs);
-      filePath = filePath.replace("instanceId", Integer.toString(context.getInstanceId()));
+      // Use separate files for each worker if the pipeline has multiple workers in one instance
+      Object workerId = context.getObject(Constants.Logging.PIPELINE_WORKER_ID);
+      String instanceId = workerId == null ? Integer.toString(context.getInstanceId())
+                                           : context.getInstanceId() + "." + workerId;
+      filePath = filePath.replace("instanceId", instanceId);
     } else if (!Boolean.TRUE.equals(context.getObject(Constants.Logging.PIPELINE_VALIDATION))) {
       throw new IllegalStateException("Expected logger context instance of " + AppenderContext.class.getName() +
                                         " but got " + context.getClass().getName());
@@ -0,0 +1,379 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.logging.write;
+
+import ch.qos.logback.classic.Level;
+import co.cask.cdap.common.io.Locations;
+import co.cask.cdap.logging.filter.AndFilter;
+import co.cask.cdap.logging.filter.Filter;
+import co.cask.cdap.logging.filter.LogLevelExpression;
+import co.cask.cdap.logging.filter.OrFilter;
+import com.google.common.collect.ImmutableList;
+import org.apache.twill.filesystem.Location;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * A sparse index of an Avro log file, stored in a separate file next to the log file. Each entry summarizes the
+ * Avro blocks written between two syncs of the log file with the sync positions the range starts and ends at,
+ * the minimum and maximum event timestamps, and a bitmap of the log levels of the events in the range.
+ * Readers use it to skip ranges that cannot contain events accepted by a filter, without decoding them.
+ *
+ * The index file contains a header followed by fixed size entries, so that a trailing entry that is only
+ * partially written, e.g. while the log file is still open, is simply ignored.
+ */
+public final class LogFileIndex {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LogFileIndex.class);
+
+  public static final String INDEX_FILE_SUFFIX = ".idx";
+  public static final int ALL_LEVELS = 0x1f;
+
+  static final int MAGIC = 0x434c4958;    // "CLIX"
+  static final int VERSION = 1;
+  // start position, end position, min timestamp, max timestamp and level bitmap
+  static final int ENTRY_SIZE = 4 * Long.BYTES + Integer.BYTES;
+
+  private static final List<Level> LEVELS = ImmutableList.of(Level.TRACE, Level.DEBUG, Level.INFO,
+                                                             Level.WARN, Level.ERROR);
+
+  private final List<Entry> entries;
+  // The maximum event timestamp of all entries up to each entry, which is non-decreasing even if
+  // events were not written in timestamp order, and hence can be binary searched
+  private final long[] maxTimestamps;
+
+  private LogFileIndex(List<Entry> entries) {
+    this.entries = entries;
+    this.maxTimestamps = new long[entries.size()];
+    long maxTimestamp = Long.MIN_VALUE;
+    for (int i = 0; i < entries.size(); i++) {
+      maxTimestamp = Math.max(maxTimestamp, entries.get(i).getMaxTimestamp());
+      maxTimestamps[i] = maxTimestamp;
+    }
+  }
+
+  /**
+   * Returns the {@link Location} of the index file for the given log file. The index location is recorded with
+   * the file metadata, so that readers don't need to look for it.
+   */
+  public static Location getIndexLocation(Location logFile) {
+    Location parent = Locations.getParent(logFile);
+    if (parent == null) {
+      throw new IllegalArgumentException("Log file " + logFile + " does not have a parent directory");
+    }
+    return parent.append(logFile.getName() + INDEX_FILE_SUFFIX);
+  }
+
+  /**
+   * Returns the bit that represents the given {@link Level} in the level bitmap of an index entry. Unknown levels
+   * are represented by all bits, so that ranges containing them are never skipped.
+   */
+  public static int getLevelBit(Level level) {
+    switch (level.toInt()) {
+      case Level.TRACE_INT:
+        return 0x01;
+      case Level.DEBUG_INT:
+        return 0x02;
+      case Level.INFO_INT:
+        return 0x04;
+      case Level.WARN_INT:
+        return 0x08;
+      case Level.ERROR_INT:
+        return 0x10;
+      default:
+        return ALL_LEVELS;
+    }
+  }
+
+  /**
+   * Returns a level bitmap of the log levels that can be accepted by the given {@link Filter}.
+   * Filters that are not based on log levels accept all levels.
+   */
+  public static int getLevelMask(Filter filter) {
+    if (filter instanceof LogLevelExpression) {
+      Level minLevel = ((LogLevelExpression) filter).getLevel();
+      int mask = 0;
+      for (Level level : LEVELS) {
+        if (level.isGreaterOrEqual(minLevel)) {
+          mask |= getLevelBit(level);
+        }
+      }
+      return mask;
+    }
+    if (filter instanceof AndFilter) {
+      int mask = ALL_LEVELS;
+      for (Filter expression : ((AndFilter) filter).getExpressions()) {
+        mask &= getLevelMask(expression);
+      }
+      return mask;
+    }
+    if (filter instanceof OrFilter) {
+      int mask = 0;
+      for (Filter expression : ((OrFilter) filter).getExpressions()) {
+        mask |= getLevelMask(expression);
+      }
+      return mask;
+    }
+    return ALL_LEVELS;
+  }
+
+  /**
+   * Reads an index file.
+   *
+   * @param indexLocation the location of the index file
+   * @param maxPosition entries that end after this position in the log file are ignored. This is used to ignore
+   *                    the entries of blocks that are not visible to readers of an open log file yet.
+   * @return the {@link LogFileIndex} or {@code null} if the index file is missing or not valid
+   */
+  @Nullable
+  public static LogFileIndex read(Location indexLocation, long maxPosition) {
+    try (InputStream is = indexLocation.getInputStream()) {
+      return read(is, maxPosition);
+    } catch (Exception e) {
+      // The index is only an optimization, the log file is always readable without it
+      LOG.debug("Failed to read log file index {}", indexLocation, e);
+      return null;
+    }
+  }
+
+  /**
+   * Reads an index from the given {@link InputStream}.
+   *
+   * @return the {@link LogFileIndex} or {@code null} if the stream does not contain a valid index
+   */
+  @Nullable
+  static LogFileIndex read(InputStream is, long maxPosition) throws IOException {
+    DataInputStream input = new DataInputStream(is);
+    try {
+      if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+        return null;
+      }
+    } catch (EOFException e) {
+      return null;
+    }
+
+    List<Entry> entries = new ArrayList<>();
+    byte[] buffer = new byte[ENTRY_SIZE];
+    while (true) {
+      try {
+        input.readFully(buffer);
+      } catch (EOFException e) {
+        // Ignore the partially written trailing entry, if any
+        break;
+      }
+      ByteBuffer entryBuffer = ByteBuffer.wrap(buffer);
+      Entry entry = new Entry(entryBuffer.getLong(), entryBuffer.getLong(), entryBuffer.getLong(),
+                              entryBuffer.getLong(), entryBuffer.getInt());
+      // Entries must be contiguous and in increasing position order. Stop at the first inconsistency.
+      if (entry.getStartPosition() >= entry.getEndPosition() || entry.getEndPosition() > maxPosition
+        || (!entries.isEmpty() && entries.get(entries.size() - 1).getEndPosition() > entry.getStartPosition())) {
+        break;
+      }
+      entries.add(entry);
+    }
+    return new LogFileIndex(entries);
+  }
+
+  /**
+   * Writes the header of an index file.
+   */
+  public static void writeHeader(DataOutputStream output) throws IOException {
+    output.writeInt(MAGIC);
+    output.writeInt(VERSION);
+  }
+
+  /**
+   * Writes an index entry.
+   */
+  public static void writeEntry(DataOutputStream output, long startPosition, long endPosition,
+                                long minTimestamp, long maxTimestamp, int levels) throws IOException {
+    output.writeLong(startPosition);
+    output.writeLong(endPosition);
+    output.writeLong(minTimestamp);
+    output.writeLong(maxTimestamp);
+    output.writeInt(levels);
+  }
+
+  /**
+   * Returns the index entries, sorted by position.
+   */
+  public List<Entry> getEntries() {
+    return entries;
+  }
+
+  /**
+   * Returns whether the index covers the log file from the given position, which should be the position of the
+   * first block in the log file.
+   */
+  public boolean startsAt(long position) {
+    return !entries.isEmpty() && entries.get(0).getStartPosition() == position;
+  }
+
+  /**
+   * Returns the position in the log file up to which the index covers it. Blocks after this position
+   * were written after the last index entry, and must be read without the index.
+   */
+  public long getEndPosition() {
+    return entries.isEmpty() ? -1L : entries.get(entries.size() - 1).getEndPosition();
+  }
+
+  /**
+   * Returns the sync position to start reading from to find the events at or after the given timestamp.
+   * All the events before the returned position are before the given timestamp.
+   *
+   * @param fromTimeMs the timestamp to find
+   * @return the start position of the first entry that can contain events at or after the timestamp, or the
+   *         {@link #getEndPosition() end position} of the index if there is no such entry
+   */
+  public long getStartPosition(long fromTimeMs) {
+    int low = 0;
+    int high = maxTimestamps.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (maxTimestamps[mid] < fromTimeMs) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low < entries.size() ? entries.get(low).getStartPosition() : getEndPosition();
+  }
+
+  /**
+   * Returns the position to continue reading from, when a reader is about to read the block at the given sync
+   * position. If the position is the start of an indexed range that cannot contain events at or after
+   * {@code fromTimeMs} with a level in {@code levelMask}, the end position of that range (and of the consecutive
+   * ranges that can be skipped as well) is returned. Otherwise the given position is returned.
+   *
+   * @param syncPosition the sync position of the block about to be read
+   * @param fromTimeMs events before this timestamp are not needed
+   * @param levelMask the bitmap of levels that are needed, as returned by {@link #getLevelMask(Filter)}
+   * @return the position to seek to
+   */
+  public long skip(long syncPosition, long fromTimeMs, int levelMask) {
+    int idx = findEntry(syncPosition);
+    if (idx < 0) {
+      return syncPosition;
+    }
+
+    long position = syncPosition;
+    while (idx < entries.size()) {
+      Entry entry = entries.get(idx);
+      if (entry.getStartPosition() != position || entry.mayContain(fromTimeMs, levelMask)) {
+        break;
+      }
+      position = entry.getEndPosition();
+      idx++;
+    }
+    return position;
+  }
+
+  /**
+   * Binary searches for the entry that starts at the given position.
+   *
+   * @return index of the entry or {@code -1} if there is no such entry
+   */
+  private int findEntry(long startPosition) {
+    int low = 0;
+    int high = entries.size() - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      long midPosition = entries.get(mid).getStartPosition();
+      if (midPosition < startPosition) {
+        low = mid + 1;
+      } else if (midPosition > startPosition) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * An entry in the {@link LogFileIndex}.
+   */
+  public static final class Entry {
+    private final long startPosition;
+    private final long endPosition;
+    private final long minTimestamp;
+    private final long maxTimestamp;
+    private final int levels;
+
+    Entry(long startPosition, long endPosition, long minTimestamp, long maxTimestamp, int levels) {
+      this.startPosition = startPosition;
+      this.endPosition = endPosition;
+      this.minTimestamp = minTimestamp;
+      this.maxTimestamp = maxTimestamp;
+      this.levels = levels;
+    }
+
+    /**
+     * Returns the sync position of the first block in this range.
+     */
+    public long getStartPosition() {
+      return startPosition;
+    }
+
+    /**
+     * Returns the sync position right after the last block in this range.
+     */
+    public long getEndPosition() {
+      return endPosition;
+    }
+
+    public long getMinTimestamp() {
+      return minTimestamp;
+    }
+
+    public long getMaxTimestamp() {
+      return maxTimestamp;
+    }
+
+    public int getLevels() {
+      return levels;
+    }
+
+    /**
+     * Returns whether this range may contain events at or after the given timestamp with any of the given levels.
+     */
+    boolean mayContain(long fromTimeMs, int levelMask) {
+      return maxTimestamp >= fromTimeMs && (levels & levelMask) != 0;
+    }
+
+    @Override
+    public String toString() {
+      return "Entry{" +
+        "startPosition=" + startPosition +
+        ", endPosition=" + endPosition +
+        ", minTimestamp=" + minTimestamp +
+        ", maxTimestamp=" + maxTimestamp +
+        ", levels=" + levels +
+        '}';
+    }
+  }
+}
@@ -50,6 +50,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.concurrent.Callable;
+import javax.annotation.Nullable;
 
 /**
  * LogLocation representing a log file and methods to read the file's contents.
@@ -67,15 +68,22 @@ public class LogLocation {
   private final long eventTimeMs;
   private final long fileCreationTimeMs;
   private final Location location;
+  private final Location indexLocation;
   private final NamespaceId namespaceId;
   private final Impersonator impersonator;
 
   public LogLocation(String frameworkVersion, long eventTimeMs, long fileCreationTimeMs, Location location,
                      String namespaceId, Impersonator impersonator) {
+    this(frameworkVersion, eventTimeMs, fileCreationTimeMs, location, null, namespaceId, impersonator);
+  }
+
+  public LogLocation(String frameworkVersion, long eventTimeMs, long fileCreationTimeMs, Location location,
+                     @Nullable Location indexLocation, String namespaceId, Impersonator impersonator) {
     this.frameworkVersion = frameworkVersion;
     this.eventTimeMs = eventTimeMs;
     this.fileCreationTimeMs = fileCreationTimeMs;
     this.location = location;
+    this.indexLocation = indexLocation;
     this.namespaceId = new NamespaceId(namespaceId);
     this.impersonator = impersonator;
   }
@@ -104,6 +112,15 @@ public class LogLocation {
     return location;
   }
 
+  /**
+   * get location of the index of the log file
+   * @return Location or {@code null} if the log file has no index
+   */
+  @Nullable
+  public Location getIndexLocation() {
+    return indexLocation;
+  }
+
   /**
    * get the timestamp associated with the file
    * @return
@@ -152,8 +169,11 @@ public class LogLocation {
   public Collection<LogEvent> readLogPrev(Filter logFilter, long fromTimeMs, final int maxEvents) throws IOException {
     Deque<Collection<LogEvent>> logSegments = new LinkedList<>();
     int count = 0;
+    int levelMask = LogFileIndex.getLevelMask(logFilter);
     try {
+      LogFileIndex index = readIndex();
       try (DataFileReader<GenericRecord> dataFileReader = createReader()) {
+        long firstBlockPosition = dataFileReader.previousSync();
 
         if (!dataFileReader.hasNext()) {
           return ImmutableList.of();
@@ -167,10 +187,20 @@ public class LogLocation {
           skipLen = DEFAULT_SKIP_LEN;
         }
 
+        // Use the index to find the sync positions if it covers the file, except for a short unindexed tail
+        if (index != null && index.startsAt(firstBlockPosition) && length - index.getEndPosition() <= skipLen) {
+          count = readLogPrevWithIndex(dataFileReader, index, levelMask, logFilter, fromTimeMs, maxEvents,
+                                       logSegments);
+          LOG.trace("Read log events {} from log file {} using index", count, location);
+          int skip = count >= maxEvents ? count - maxEvents : 0;
+          return Lists.newArrayList(Iterables.skip(Iterables.concat(logSegments), skip));
+        }
+
         // For open file, endPosition sync marker is unknown so start from file length and read up to the actual EOF
         dataFileReader.sync(length);
         long finalSync = dataFileReader.previousSync();
-        List<LogEvent> logSegment = readToEndSyncPosition(dataFileReader, logFilter, fromTimeMs, -1);
+        List<LogEvent> logSegment = readToEndSyncPosition(dataFileReader, new BlockSkipper(index, levelMask),
+                                                          logFilter, fromTimeMs, -1);
 
         if (!logSegment.isEmpty()) {
           logSegments.addFirst(logSegment);
@@ -187,7 +217,8 @@ public class LogLocation {
           // Skip to sync position less than current sync position
           startPosition = skipToPosition(dataFileReader, startPosition, endPosition, skipLen);
           currentSync = dataFileReader.previousSync();
-          logSegment = readToEndSyncPosition(dataFileReader, logFilter, fromTimeMs, endPosition);
+          logSegment = readToEndSyncPosition(dataFileReader, new BlockSkipper(index, levelMask),
+                                             logFilter, fromTimeMs, endPosition);
 
           if (!logSegment.isEmpty()) {
             logSegments.addFirst(logSegment);
@@ -206,17 +237,57 @@ public class LogLocation {
     return Lists.newArrayList(Iterables.skip(Iterables.concat(logSegments), skip));
   }
 
+  /**
+   * Reads the log events backwards using the sync positions recorded in the given {@link LogFileIndex}, instead of
+   * searching for them. Indexed ranges that cannot contain matching events are not read at all.
+   *
+   * @return number of log events read
+   */
+  private int readLogPrevWithIndex(DataFileReader<GenericRecord> dataFileReader, LogFileIndex index, int levelMask,
+                                   Filter logFilter, long fromTimeMs, int maxEvents,
+                                   Deque<Collection<LogEvent>> logSegments) throws IOException {
+    // Read the blocks written after the last index entry, if any
+    dataFileReader.seek(index.getEndPosition());
+    List<LogEvent> logSegment = readToEndSyncPosition(dataFileReader, new BlockSkipper(null, levelMask),
+                                                      logFilter, fromTimeMs, -1);
+    if (!logSegment.isEmpty()) {
+      logSegments.addFirst(logSegment);
+    }
+    int count = logSegment.size();
+
+    List<LogFileIndex.Entry> entries = index.getEntries();
+    for (int i = entries.size() - 1; i >= 0 && count < maxEvents; i--) {
+      LogFileIndex.Entry entry = entries.get(i);
+      if (entry.getMinTimestamp() > fromTimeMs || (entry.getLevels() & levelMask) == 0) {
+        continue;
+      }
+      dataFileReader.seek(entry.getStartPosition());
+      logSegment = readToEndSyncPosition(dataFileReader, new BlockSkipper(null, levelMask),
+                                         logFilter, fromTimeMs, entry.getEndPosition());
+      if (!logSegment.isEmpty()) {
+        logSegments.addFirst(logSegment);
+        count += logSegment.size();
+      }
+    }
+    return count;
+  }
+
   /**
    *  Read current block in Avro file from current block sync marker to next block sync marker
    */
-  private List<LogEvent> readToEndSyncPosition(DataFileReader<GenericRecord> dataFileReader, Filter logFilter,
-                                               long fromTimeMs, long endSyncPosition) throws IOException {
+  private List<LogEvent> readToEndSyncPosition(DataFileReader<GenericRecord> dataFileReader, BlockSkipper skipper,
+                                               Filter logFilter, long fromTimeMs,
+                                               long endSyncPosition) throws IOException {
 
     List<LogEvent> logSegment = new ArrayList<>();
-    long currentSyncPosition = dataFileReader.previousSync();
     // Read up to the end if endSyncPosition is not known (in case of an open file)
     // or read until endSyncPosition has been reached
-    while (dataFileReader.hasNext() && (endSyncPosition == -1 || (currentSyncPosition < endSyncPosition))) {
+    while (skipper.hasNext(dataFileReader)) {
+      // Skipping blocks may have moved the reader past the endSyncPosition
+      long currentSyncPosition = dataFileReader.previousSync();
+      if (endSyncPosition != -1 && currentSyncPosition >= endSyncPosition) {
+        break;
+      }
       ILoggingEvent loggingEvent = new LoggingEvent(dataFileReader.next());
       loggingEvent.prepareForDeferredProcessing();
 
@@ -229,7 +300,6 @@ public class LogLocation {
         logSegment.add(new LogEvent(loggingEvent,
                                     new LogOffset(LogOffset.INVALID_KAFKA_OFFSET, loggingEvent.getTimeStamp())));
       }
-      currentSyncPosition = dataFileReader.previousSync();
     }
 
     return logSegment;
@@ -259,6 +329,7 @@ public class LogLocation {
     private final long maxEvents;
 
     private DataFileReader<GenericRecord> dataFileReader;
+    private BlockSkipper skipper;
 
     private ILoggingEvent loggingEvent;
     private GenericRecord datum;
@@ -276,7 +347,15 @@ public class LogLocation {
 
       try {
         dataFileReader = createReader();
-        if (dataFileReader.hasNext()) {
+        long firstBlockPosition = dataFileReader.previousSync();
+        LogFileIndex index = readIndex();
+        skipper = new BlockSkipper(index, fromTimeMs, LogFileIndex.getLevelMask(logFilter));
+        if (index != null && index.startsAt(firstBlockPosition)) {
+          // Seek directly to the first block that can contain events at or after fromTimeMs
+          long position = index.getStartPosition(fromTimeMs);
+          LOG.trace("Seeking to pos {} using index", position);
+          dataFileReader.seek(position);
+        } else if (dataFileReader.hasNext()) {
           datum = dataFileReader.next();
           loggingEvent = new LoggingEvent(datum);
           loggingEvent.prepareForDeferredProcessing();
@@ -315,7 +394,7 @@ public class LogLocation {
     private void computeNext() {
       try {
         // read events from file
-        while (next == null && dataFileReader.hasNext()) {
+        while (next == null && skipper.hasNext(dataFileReader)) {
           loggingEvent = new LoggingEvent(dataFileReader.next(datum));
           loggingEvent.prepareForDeferredProcessing();
 
@@ -371,6 +450,61 @@ public class LogLocation {
     }
   }
 
+  /**
+   * Reads the {@link LogFileIndex} of this log file, if it has one. Only the entries of blocks that are already
+   * visible to the reader of the log file are used.
+   */
+  @Nullable
+  private LogFileIndex readIndex() throws IOException {
+    return indexLocation == null ? null : LogFileIndex.read(indexLocation, location.length());
+  }
+
+  /**
+   * Moves a {@link DataFileReader} past the indexed blocks that cannot contain events accepted by a filter.
+   * Positions that are not covered by the {@link LogFileIndex} are always read.
+   */
+  private final class BlockSkipper {
+
+    private final LogFileIndex index;
+    private final long fromTimeMs;
+    private final int levelMask;
+    private long lastBlockStart = -1;
+
+    BlockSkipper(@Nullable LogFileIndex index, int levelMask) {
+      this(index, Long.MIN_VALUE, levelMask);
+    }
+
+    BlockSkipper(@Nullable LogFileIndex index, long fromTimeMs, int levelMask) {
+      this.index = index;
+      this.fromTimeMs = fromTimeMs;
+      this.levelMask = levelMask;
+    }
+
+    /**
+     * Same as {@link DataFileReader#hasNext()}, but skips the blocks that don't need to be decoded.
+     */
+    boolean hasNext(DataFileReader<GenericRecord> dataFileReader) throws IOException {
+      if (index == null) {
+        return dataFileReader.hasNext();
+      }
+      while (dataFileReader.hasNext()) {
+        long blockStart = dataFileReader.previousSync();
+        if (blockStart == lastBlockStart) {
+          // still reading the current block
+          return true;
+        }
+        lastBlockStart = blockStart;
+        long position = index.skip(blockStart, fromTimeMs, levelMask);
+        if (position == blockStart) {
+          return true;
+        }
+        LOG.trace("Skipping log file {} from position {} to {}", location, blockStart, position);
+        dataFileReader.seek(position);
+      }
+      return false;
+    }
+  }
+
   private DataFileReader<GenericRecord> createReader() throws IOException {
     boolean shouldImpersonate = this.getFrameworkVersion().equals(VERSION_0);
     return new DataFileReader<>(new LocationSeekableInput(location, namespaceId, impersonator, shouldImpersonate),
@@ -107,7 +107,12 @@ public class MessagingMetricsProcessorService extends AbstractExecutionThreadSer
   private final boolean skipMigration;
   private final DatasetFramework datasetFramework;
   private final String metricsPrefixForDelayMetrics;
+  // maximum number of milliseconds to aggregate metrics in memory before writing them to the metric store
+  private final long aggregationFlushIntervalMillis;
+  // Only accessed by the thread that is persisting
+  private final MetricValuesAggregator metricsAggregator;
   private long metricsProcessedCount;
+  private long lastFlushTime;
 
   private MetricsConsumerMetaTable metaTable;
   private ScheduledExecutorService metricsTableDeleterExecutor;
@@ -197,6 +202,8 @@ public class MessagingMetricsProcessorService extends AbstractExecutionThreadSer
       LOG.error("Got exception while accessing dataset {}", metricsTable, e);
     }
     this.skipMigration = skipMigration;
+    this.aggregationFlushIntervalMillis = cConf.getLong(Constants.Metrics.AGGREGATION_FLUSH_INTERVAL_MS, 0L);
+    this.metricsAggregator = new MetricValuesAggregator();
   }
 
   @Nullable
@@ -317,7 +324,7 @@ public class MessagingMetricsProcessorService extends AbstractExecutionThreadSer
 
     // Persist metricsFromAllTopics and messageId's after all ProcessMetricsThread's complete.
     // No need to make a copy of metricsFromAllTopics and topicProcessMetaMap because no thread is writing to them
-    persistMetricsAndTopicProcessMeta(metricsFromAllTopics, topicProcessMetaMap);
+    persistMetricsAndTopicProcessMeta(metricsFromAllTopics, topicProcessMetaMap, true);
   }
 
   @Override
@@ -342,18 +349,30 @@ public class MessagingMetricsProcessorService extends AbstractExecutionThreadSer
   }
 
   /**
-   * Persist metrics from all topics into metric store and messageId's of the last persisted metrics of each topic
-   * into metrics meta table
+   * Aggregate metrics from all topics, and persist the aggregated metrics into metric store and messageId's of
+   * the last persisted metrics of each topic into metrics meta table if it is time to flush the aggregated metrics.
    *
    * @param metricValues a deque of {@link MetricValues}
    * @param topicProcessMetaMap a map with each key {@link TopicIdMetaKey} representing a topic
    *                            and {@link TopicProcessMeta} which has info on messageId and processing stats
+   * @param forceFlush {@code true} to always persist the aggregated metrics
    */
   private void persistMetricsAndTopicProcessMeta(Deque<MetricValues> metricValues,
-                                                 Map<TopicIdMetaKey, TopicProcessMeta> topicProcessMetaMap) {
+                                                 Map<TopicIdMetaKey, TopicProcessMeta> topicProcessMetaMap,
+                                                 boolean forceFlush) {
     try {
-      if (!metricValues.isEmpty()) {
-        persistMetrics(metricValues, topicProcessMetaMap);
+      metricsAggregator.add(metricValues);
+      long now = System.currentTimeMillis();
+      // Keep aggregating unless it is time to flush or there are too many distinct metrics in memory.
+      // The messageId's are only persisted when flushing, such that metrics not yet persisted will be reprocessed
+      // after restart.
+      if (!forceFlush && now - lastFlushTime < aggregationFlushIntervalMillis
+        && metricsAggregator.size() < queueSize) {
+        return;
+      }
+      lastFlushTime = now;
+      if (!metricsAggregator.isEmpty()) {
+        persistMetrics(topicProcessMetaMap);
       }
       persistTopicProcessMeta(topicProcessMetaMap);
     } catch (Exception e) {
@@ -374,14 +393,13 @@ public class MessagingMetricsProcessorService extends AbstractExecutionThreadSer
   }
 
   /**
-   * Persist metrics into metric store
-   *
-   * @param metricValues a non-empty deque of {@link MetricValues}
+   * Persist the metrics aggregated in {@link #metricsAggregator} into metric store
    */
-  private void persistMetrics(Deque<MetricValues> metricValues,
-                              Map<TopicIdMetaKey, TopicProcessMeta> topicProcessMetaMap) throws Exception {
+  private void persistMetrics(Map<TopicIdMetaKey, TopicProcessMeta> topicProcessMetaMap) throws Exception {
     long now = System.currentTimeMillis();
-    long lastMetricTime = metricValues.peekLast().getTimestamp();
+    long lastMetricTime = metricsAggregator.getLastTimestamp();
+    int metricsCount = metricsAggregator.getInputCount();
+    List<MetricValues> metricValues = metricsAggregator.drain();
     List<MetricValue> topicLevelDelays = new ArrayList<>();
 
     //add topic level delay metrics
@@ -395,11 +413,11 @@ public class MessagingMetricsProcessorService extends AbstractExecutionThreadSer
                                            MetricType.GAUGE, delay));
     }
     List<MetricValue> processorMetrics = new ArrayList<>(topicLevelDelays);
-    processorMetrics.add(new MetricValue(processMetricName, MetricType.COUNTER, metricValues.size()));
+    processorMetrics.add(new MetricValue(processMetricName, MetricType.COUNTER, metricsCount));
 
     metricValues.add(new MetricValues(metricsContextMap, TimeUnit.MILLISECONDS.toSeconds(now), processorMetrics));
     metricStore.add(metricValues);
-    metricsProcessedCount += metricValues.size();
+    metricsProcessedCount += metricsCount;
     PROGRESS_LOG.debug("{} metrics persisted. Last metric's timestamp: {}",
                        metricsProcessedCount, lastMetricTime);
   }
@@ -556,7 +574,7 @@ public class MessagingMetricsProcessorService extends AbstractExecutionThreadSer
           iterator.remove();
         }
         // Persist the copy of metrics and MessageId's
-        persistMetricsAndTopicProcessMeta(metricsCopy, topicProcessMetaMapCopy);
+        persistMetricsAndTopicProcessMeta(metricsCopy, topicProcessMetaMapCopy, false);
       } catch (Exception e) {
         LOG.warn("Failed to persist metrics. Will be retried in next iteration.", e);
       } finally {
@@ -0,0 +1,196 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.metrics.process;
+
+import co.cask.cdap.api.metrics.MetricStore;
+import co.cask.cdap.api.metrics.MetricType;
+import co.cask.cdap.api.metrics.MetricValue;
+import co.cask.cdap.api.metrics.MetricValues;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregates {@link MetricValues} in memory before they are written to the {@link MetricStore}.
+ * Counters with the same tags, timestamp and name are summed up, and only the latest value of a gauge is kept.
+ * This reduces the number of facts the metric store needs to expand into aggregations and resolutions,
+ * and the number of increments on the metrics table.
+ *
+ * The relative order in which the latest gauge values are added is preserved, such that gauges of different
+ * timestamps that fall into the same time bucket of a coarser resolution still resolve to the latest one.
+ *
+ * This class is not thread safe.
+ */
+final class MetricValuesAggregator {
+
+  // Interned tags, so that keys with the same tags share the same map instance
+  private final Map<Map<String, String>, Map<String, String>> tagsCache;
+  // Insertion ordered map from metric to the aggregated value
+  private final LinkedHashMap<MetricKey, long[]> values;
+  private int inputCount;
+  private long lastTimestamp;
+
+  MetricValuesAggregator() {
+    this.tagsCache = new HashMap<>();
+    this.values = new LinkedHashMap<>();
+  }
+
+  /**
+   * Adds the given {@link MetricValues} to this aggregator.
+   */
+  void add(Iterable<MetricValues> metricValues) {
+    for (MetricValues metricValue : metricValues) {
+      Map<String, String> tags = tagsCache.get(metricValue.getTags());
+      if (tags == null) {
+        tags = metricValue.getTags();
+        tagsCache.put(tags, tags);
+      }
+      for (MetricValue metric : metricValue.getMetrics()) {
+        add(new MetricKey(tags, metricValue.getTimestamp(), metric.getName(), metric.getType()), metric.getValue());
+      }
+      inputCount++;
+      lastTimestamp = metricValue.getTimestamp();
+    }
+  }
+
+  /**
+   * Returns the number of distinct metrics held by this aggregator.
+   */
+  int size() {
+    return values.size();
+  }
+
+  /**
+   * Returns {@code true} if there is no {@link MetricValues} added since the last {@link #drain()}.
+   */
+  boolean isEmpty() {
+    return inputCount == 0;
+  }
+
+  /**
+   * Returns the number of {@link MetricValues} added since the last {@link #drain()}.
+   */
+  int getInputCount() {
+    return inputCount;
+  }
+
+  /**
+   * Returns the timestamp of the last {@link MetricValues} added since the last {@link #drain()}.
+   */
+  long getLastTimestamp() {
+    return lastTimestamp;
+  }
+
+  /**
+   * Returns the aggregated metrics and resets this aggregator. Consecutive metrics with the same tags and
+   * timestamp are grouped into the same {@link MetricValues}.
+   */
+  List<MetricValues> drain() {
+    List<MetricValues> result = new ArrayList<>();
+    Map<String, String> tags = null;
+    long timestamp = -1L;
+    List<MetricValue> metrics = null;
+
+    Iterator<Map.Entry<MetricKey, long[]>> iterator = values.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<MetricKey, long[]> entry = iterator.next();
+      MetricKey key = entry.getKey();
+      // Tags are interned, hence identity comparison is sufficient
+      if (metrics == null || tags != key.tags || timestamp != key.timestamp) {
+        if (metrics != null) {
+          result.add(new MetricValues(tags, timestamp, metrics));
+        }
+        tags = key.tags;
+        timestamp = key.timestamp;
+        metrics = new ArrayList<>();
+      }
+      metrics.add(new MetricValue(key.name, key.type, entry.getValue()[0]));
+      iterator.remove();
+    }
+    if (metrics != null) {
+      result.add(new MetricValues(tags, timestamp, metrics));
+    }
+
+    tagsCache.clear();
+    inputCount = 0;
+    return result;
+  }
+
+  private void add(MetricKey key, long value) {
+    if (key.type == MetricType.COUNTER) {
+      long[] aggregated = values.get(key);
+      if (aggregated == null) {
+        values.put(key, new long[] { value });
+      } else {
+        aggregated[0] += value;
+      }
+      return;
+    }
+
+    // For gauges, move it to the end so that it is written after any value added before it
+    long[] aggregated = values.remove(key);
+    if (aggregated == null) {
+      aggregated = new long[1];
+    }
+    aggregated[0] = value;
+    values.put(key, aggregated);
+  }
+
+  /**
+   * Key for identifying a metric to aggregate.
+   */
+  private static final class MetricKey {
+    private final Map<String, String> tags;
+    private final long timestamp;
+    private final String name;
+    private final MetricType type;
+    private final int hashCode;
+
+    MetricKey(Map<String, String> tags, long timestamp, String name, MetricType type) {
+      this.tags = tags;
+      this.timestamp = timestamp;
+      this.name = name;
+      this.type = type;
+      // Tags are interned, hence use identity hash code to avoid hashing the whole map for every metric
+      int hash = System.identityHashCode(tags);
+      hash = 31 * hash + (int) (timestamp ^ (timestamp >>> 32));
+      hash = 31 * hash + name.hashCode();
+      this.hashCode = 31 * hash + type.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      MetricKey other = (MetricKey) o;
+      return tags == other.tags && timestamp == other.timestamp && type == other.type && name.equals(other.name);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.logging.appender.system;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import co.cask.cdap.api.dataset.lib.CloseableIterator;
+import co.cask.cdap.logging.filter.Filter;
+import co.cask.cdap.logging.filter.FilterParser;
+import co.cask.cdap.logging.read.LogEvent;
+import co.cask.cdap.logging.write.LogLocation;
+import co.cask.cdap.test.XSlowTests;
+import com.google.common.base.Stopwatch;
+import org.apache.twill.filesystem.LocalLocationFactory;
+import org.apache.twill.filesystem.Location;
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading the tail of a large log file with and without the {@link co.cask.cdap.logging.write.LogFileIndex}.
+ * The size of the log file in MB can be set with the {@code log.index.benchmark.size.mb} system property.
+ */
+@Category(XSlowTests.class)
+public class LogFileIndexBenchmarkTest {
+
+  @ClassRule
+  public static final TemporaryFolder TMP_FOLDER = new TemporaryFolder();
+
+  // Namespace is only used for impersonation, which is not needed for log files of the new logging framework
+  private static final String NAMESPACE = "default";
+  private static final int FLUSH_EVENTS = 1000;
+  private static final int MAX_EVENTS = 100;
+
+  @Test
+  public void testReadTail() throws Exception {
+    long maxSize = Long.getLong("log.index.benchmark.size.mb", 1024L) * 1024 * 1024;
+    Location location = new LocalLocationFactory(TMP_FOLDER.newFolder()).create("benchmark.avro");
+
+    Logger logger = (Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME);
+    long timestamp = System.currentTimeMillis();
+    long lastTimestamp;
+    Location indexLocation;
+    LogFileOutputStream outputStream = new LogFileOutputStream(location, "", 64 * 1024, timestamp, new Closeable() {
+      @Override
+      public void close() throws IOException {
+        // no-op
+      }
+    });
+    try {
+      indexLocation = outputStream.getIndexLocation();
+      Assert.assertNotNull(indexLocation);
+      long count = 0;
+      while (outputStream.getSize() < maxSize) {
+        Level level = count % 1000 == 0 ? Level.ERROR : Level.INFO;
+        LoggingEvent event = new LoggingEvent(getClass().getName(), logger, level,
+                                              "Test log message " + count, null, null);
+        event.setTimeStamp(timestamp + count);
+        outputStream.append(event);
+        if (++count % FLUSH_EVENTS == 0) {
+          outputStream.flush();
+        }
+      }
+      lastTimestamp = timestamp + count - 1;
+    } finally {
+      outputStream.close();
+    }
+
+    LogLocation withoutIndex = new LogLocation(LogLocation.VERSION_1, timestamp, timestamp, location,
+                                               NAMESPACE, null);
+    LogLocation withIndex = new LogLocation(LogLocation.VERSION_1, timestamp, timestamp, location, indexLocation,
+                                            NAMESPACE, null);
+
+    for (String filterStr : new String[] { "", "loglevel=ERROR" }) {
+      Filter filter = filterStr.isEmpty() ? Filter.EMPTY_FILTER : FilterParser.parse(filterStr);
+      String withoutName = "without index, filter '" + filterStr + "'";
+      String withName = "with index, filter '" + filterStr + "'";
+
+      // getLogPrev from the end of the file
+      Collection<LogEvent> expected = timeReadPrev(withoutIndex, filter, lastTimestamp, withoutName);
+      Collection<LogEvent> actual = timeReadPrev(withIndex, filter, lastTimestamp, withName);
+      assertEquals(expected, actual);
+
+      // getLogNext from close to the end of the file
+      long fromTimeMs = lastTimestamp - 10 * FLUSH_EVENTS;
+      assertEquals(timeReadNext(withoutIndex, filter, fromTimeMs, withoutName),
+                   timeReadNext(withIndex, filter, fromTimeMs, withName));
+    }
+  }
+
+  private Collection<LogEvent> timeReadPrev(LogLocation logLocation, Filter filter,
+                                            long fromTimeMs, String name) throws IOException {
+    Stopwatch stopwatch = new Stopwatch().start();
+    Collection<LogEvent> events = logLocation.readLogPrev(filter, fromTimeMs, MAX_EVENTS);
+    System.out.printf("readLogPrev %s: %d events in %d ms%n",
+                      name, events.size(), stopwatch.elapsedTime(TimeUnit.MILLISECONDS));
+    return events;
+  }
+
+  private Collection<LogEvent> timeReadNext(LogLocation logLocation, Filter filter, long fromTimeMs, String name) {
+    Stopwatch stopwatch = new Stopwatch().start();
+    List<LogEvent> events = new ArrayList<>();
+    try (CloseableIterator<LogEvent> iterator = logLocation.readLog(filter, fromTimeMs, Long.MAX_VALUE, MAX_EVENTS)) {
+      while (iterator.hasNext()) {
+        events.add(iterator.next());
+      }
+    }
+    System.out.printf("readLog %s: %d events in %d ms%n",
+                      name, events.size(), stopwatch.elapsedTime(TimeUnit.MILLISECONDS));
+    return events;
+  }
+
+  private void assertEquals(Collection<LogEvent> expected, Collection<LogEvent> actual) {
+    Assert.assertEquals(expected.size(), actual.size());
+    List<String> expectedMessages = new ArrayList<>();
+    for (LogEvent event : expected) {
+      expectedMessages.add(getKey(event));
+    }
+    List<String> actualMessages = new ArrayList<>();
+    for (LogEvent event : actual) {
+      actualMessages.add(getKey(event));
+    }
+    Assert.assertEquals(expectedMessages, actualMessages);
+  }
+
+  private String getKey(LogEvent event) {
+    return event.getLoggingEvent().getTimeStamp() + ":" + event.getLoggingEvent().getMessage();
+  }
+}
@@ -193,6 +193,24 @@ public class DistributedLogFrameworkTest {
     Assert.assertEquals(msgCount, checkpoint.getNextOffset());
   }
 
+  @Test
+  public void testBufferSize() {
+    CConfiguration cConf = CConfiguration.create();
+
+    // A configured buffer size is divided among the per-partition pipelines
+    cConf.setLong(Constants.Logging.PIPELINE_BUFFER_SIZE, 1000L);
+    Assert.assertEquals(1000L, DistributedLogFramework.getBufferSize(1, cConf, 4, false));
+    Assert.assertEquals(250L, DistributedLogFramework.getBufferSize(4, cConf, 4, true));
+    Assert.assertEquals(1000L, DistributedLogFramework.getBufferSize(1, cConf, 1, true));
+
+    // The derived buffer size of the per-partition pipelines adds up to no more than the one of a single pipeline
+    cConf.setLong(Constants.Logging.PIPELINE_BUFFER_SIZE, 0L);
+    long bufferSize = DistributedLogFramework.getBufferSize(1, cConf, 4, false);
+    long partitionBufferSize = DistributedLogFramework.getBufferSize(4, cConf, 4, true);
+    Assert.assertTrue(partitionBufferSize > 0);
+    Assert.assertTrue(partitionBufferSize * 4 <= bufferSize);
+  }
+
   private Injector createInjector() throws IOException {
     CConfiguration cConf = CConfiguration.copy(KAFKA_TESTER.getCConf());
     cConf.set(Constants.CFG_LOCAL_DATA_DIR, TEMP_FOLDER.newFolder().getAbsolutePath());
@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.logging.meta;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Unit-test for {@link SharedCheckpointManager}.
+ */
+public class SharedCheckpointManagerTest {
+
+  @Test
+  public void testMergeCheckpoints() throws Exception {
+    RecordingCheckpointManager delegate = new RecordingCheckpointManager();
+    CheckpointManager checkpointManager = new SharedCheckpointManager(delegate);
+
+    checkpointManager.saveCheckpoints(ImmutableMap.of(0, new Checkpoint(10, 100, 100)));
+    checkpointManager.saveCheckpoints(ImmutableMap.of(1, new Checkpoint(20, 200, 200)));
+    checkpointManager.saveCheckpoints(ImmutableMap.of(0, new Checkpoint(30, 300, 300)));
+
+    List<Map<Integer, Checkpoint>> saved = delegate.getSaved();
+    Assert.assertEquals(3, saved.size());
+    Assert.assertEquals(ImmutableMap.of(0, 10L), getOffsets(saved.get(0)));
+    // Checkpoints of all partitions are persisted together
+    Assert.assertEquals(ImmutableMap.of(0, 10L, 1, 20L), getOffsets(saved.get(1)));
+    Assert.assertEquals(ImmutableMap.of(0, 30L, 1, 20L), getOffsets(saved.get(2)));
+
+    // A failed save shouldn't be remembered
+    delegate.setFail(true);
+    try {
+      checkpointManager.saveCheckpoints(ImmutableMap.of(1, new Checkpoint(40, 400, 400)));
+      Assert.fail("Expected save failure");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    delegate.setFail(false);
+    checkpointManager.saveCheckpoints(ImmutableMap.of(2, new Checkpoint(50, 500, 500)));
+    Assert.assertEquals(ImmutableMap.of(0, 30L, 1, 20L, 2, 50L), getOffsets(saved.get(saved.size() - 1)));
+  }
+
+  private Map<Integer, Long> getOffsets(Map<Integer, Checkpoint> checkpoints) {
+    Map<Integer, Long> offsets = new HashMap<>();
+    for (Map.Entry<Integer, Checkpoint> entry : checkpoints.entrySet()) {
+      offsets.put(entry.getKey(), entry.getValue().getNextOffset());
+    }
+    return offsets;
+  }
+
+  /**
+   * A {@link CheckpointManager} that records the checkpoints being saved.
+   */
+  private static final class RecordingCheckpointManager implements CheckpointManager {
+
+    private final List<Map<Integer, Checkpoint>> saved = new ArrayList<>();
+    private boolean fail;
+
+    List<Map<Integer, Checkpoint>> getSaved() {
+      return saved;
+    }
+
+    void setFail(boolean fail) {
+      this.fail = fail;
+    }
+
+    @Override
+    public void saveCheckpoints(Map<Integer, ? extends Checkpoint> checkpoints) throws Exception {
+      if (fail) {
+        throw new IllegalStateException("Failed to save checkpoints");
+      }
+      saved.add(new HashMap<>(checkpoints));
+    }
+
+    @Override
+    public Map<Integer, Checkpoint> getCheckpoint(Set<Integer> partitions) throws Exception {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Checkpoint getCheckpoint(int partition) throws Exception {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
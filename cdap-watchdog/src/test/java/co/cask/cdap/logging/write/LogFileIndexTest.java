@@ -0,0 +1,133 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.logging.write;
+
+import ch.qos.logback.classic.Level;
+import co.cask.cdap.logging.filter.Filter;
+import co.cask.cdap.logging.filter.FilterParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Tests for {@link LogFileIndex}.
+ */
+public class LogFileIndexTest {
+
+  @Test
+  public void testLevelMask() {
+    int infoAndAbove = LogFileIndex.getLevelBit(Level.INFO) | LogFileIndex.getLevelBit(Level.WARN)
+      | LogFileIndex.getLevelBit(Level.ERROR);
+    Assert.assertEquals(infoAndAbove, LogFileIndex.getLevelMask(FilterParser.parse("loglevel=INFO")));
+    Assert.assertEquals(LogFileIndex.getLevelBit(Level.ERROR),
+                        LogFileIndex.getLevelMask(FilterParser.parse("loglevel=ERROR AND .app=app1")));
+    Assert.assertEquals(LogFileIndex.ALL_LEVELS,
+                        LogFileIndex.getLevelMask(FilterParser.parse("loglevel=ERROR OR .app=app1")));
+    Assert.assertEquals(LogFileIndex.ALL_LEVELS, LogFileIndex.getLevelMask(Filter.EMPTY_FILTER));
+  }
+
+  @Test
+  public void testReadAndSkip() throws IOException {
+    int error = LogFileIndex.getLevelBit(Level.ERROR);
+    int info = LogFileIndex.getLevelBit(Level.INFO);
+
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    DataOutputStream output = new DataOutputStream(bos);
+    LogFileIndex.writeHeader(output);
+    LogFileIndex.writeEntry(output, 100, 200, 1000, 1999, info);
+    LogFileIndex.writeEntry(output, 200, 300, 2000, 2999, info | error);
+    LogFileIndex.writeEntry(output, 300, 400, 3000, 3999, info);
+    LogFileIndex.writeEntry(output, 400, 500, 4000, 4999, info);
+    output.flush();
+
+    // A partially written trailing entry should be ignored
+    byte[] bytes = bos.toByteArray();
+    LogFileIndex index = LogFileIndex.read(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 5)),
+                                           Long.MAX_VALUE);
+    Assert.assertNotNull(index);
+    Assert.assertEquals(3, index.getEntries().size());
+
+    index = LogFileIndex.read(new ByteArrayInputStream(bytes), Long.MAX_VALUE);
+    Assert.assertNotNull(index);
+    Assert.assertEquals(4, index.getEntries().size());
+
+    int errorMask = LogFileIndex.getLevelMask(FilterParser.parse("loglevel=ERROR"));
+    // Skip the first block since it has no errors, but stop at the second one
+    Assert.assertEquals(200, index.skip(100, 0, errorMask));
+    Assert.assertEquals(200, index.skip(200, 0, errorMask));
+    // The last two blocks can be skipped together, up to the end of the indexed part
+    Assert.assertEquals(500, index.skip(300, 0, errorMask));
+    // Skip by time
+    Assert.assertEquals(300, index.skip(100, 2500, LogFileIndex.ALL_LEVELS));
+    // Positions that are not the start of an entry are never skipped
+    Assert.assertEquals(150, index.skip(150, 0, errorMask));
+    Assert.assertEquals(500, index.skip(500, 0, errorMask));
+
+    // Invalid header
+    Assert.assertNull(LogFileIndex.read(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }),
+                                        Long.MAX_VALUE));
+  }
+
+  @Test
+  public void testStartPosition() throws IOException {
+    int info = LogFileIndex.getLevelBit(Level.INFO);
+
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    DataOutputStream output = new DataOutputStream(bos);
+    LogFileIndex.writeHeader(output);
+    LogFileIndex.writeEntry(output, 100, 200, 1000, 1999, info);
+    // Events in the second block are out of order
+    LogFileIndex.writeEntry(output, 200, 300, 1500, 3500, info);
+    LogFileIndex.writeEntry(output, 300, 400, 3000, 3999, info);
+    LogFileIndex.writeEntry(output, 400, 500, 4000, 4999, info);
+    output.flush();
+
+    LogFileIndex index = LogFileIndex.read(new ByteArrayInputStream(bos.toByteArray()), Long.MAX_VALUE);
+    Assert.assertNotNull(index);
+    Assert.assertTrue(index.startsAt(100));
+    Assert.assertFalse(index.startsAt(200));
+    Assert.assertEquals(500, index.getEndPosition());
+
+    Assert.assertEquals(100, index.getStartPosition(0));
+    Assert.assertEquals(100, index.getStartPosition(1999));
+    Assert.assertEquals(200, index.getStartPosition(2000));
+    // The third block may have events at 3600, but so does the second one
+    Assert.assertEquals(200, index.getStartPosition(3500));
+    Assert.assertEquals(300, index.getStartPosition(3600));
+    Assert.assertEquals(400, index.getStartPosition(4500));
+    // Nothing at or after the timestamp in the indexed part
+    Assert.assertEquals(500, index.getStartPosition(5000));
+
+    // Entries beyond the visible length of the log file are ignored
+    index = LogFileIndex.read(new ByteArrayInputStream(bos.toByteArray()), 450);
+    Assert.assertNotNull(index);
+    Assert.assertEquals(3, index.getEntries().size());
+    Assert.assertEquals(400, index.getEndPosition());
+    Assert.assertEquals(400, index.getStartPosition(4500));
+
+    // An empty index doesn't cover anything
+    index = LogFileIndex.read(new ByteArrayInputStream(bos.toByteArray()), 150);
+    Assert.assertNotNull(index);
+    Assert.assertFalse(index.startsAt(100));
+    Assert.assertEquals(-1, index.getEndPosition());
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.metrics.process;
+
+import co.cask.cdap.api.dataset.lib.cube.DimensionValue;
+import co.cask.cdap.api.dataset.lib.cube.MeasureType;
+import co.cask.cdap.api.dataset.lib.cube.Measurement;
+import co.cask.cdap.api.metrics.MetricType;
+import co.cask.cdap.api.metrics.MetricValue;
+import co.cask.cdap.api.metrics.MetricValues;
+import co.cask.cdap.api.metrics.MetricsCollector;
+import co.cask.cdap.data2.dataset2.lib.table.inmemory.InMemoryMetricsTable;
+import co.cask.cdap.data2.dataset2.lib.table.inmemory.InMemoryTableService;
+import co.cask.cdap.data2.dataset2.lib.timeseries.EntityTable;
+import co.cask.cdap.data2.dataset2.lib.timeseries.Fact;
+import co.cask.cdap.data2.dataset2.lib.timeseries.FactTable;
+import co.cask.cdap.test.XSlowTests;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the number of increments on the metrics table when writing batches of repetitive metrics
+ * to a {@link FactTable} one by one, and after aggregating them with the {@link MetricValuesAggregator}.
+ */
+@Category(XSlowTests.class)
+public class MetricValuesAggregatorBenchmarkTest {
+
+  private static final int RESOLUTION = 1;
+  private static final int BATCHES = 200;
+  private static final int BATCH_SIZE = 500;
+  private static final int CONTEXTS = 20;
+
+  @Test
+  public void testAggregation() {
+    long timestamp = System.currentTimeMillis() / 1000;
+    List<List<MetricValues>> batches = new ArrayList<>();
+    for (int i = 0; i < BATCHES; i++) {
+      List<MetricValues> batch = new ArrayList<>();
+      for (int j = 0; j < BATCH_SIZE; j++) {
+        Map<String, String> tags = ImmutableMap.of("ns", "default", "app", "app" + (j % CONTEXTS));
+        // Metrics are emitted every second, hence a few batches share the same timestamp
+        batch.add(new MetricValues(tags, "events.processed", timestamp + i / 10, 1L, MetricType.COUNTER));
+      }
+      batches.add(batch);
+    }
+
+    CountingMetricsCollector withoutCollector = new CountingMetricsCollector();
+    FactTable withoutTable = createFactTable("without", withoutCollector);
+    Stopwatch stopwatch = new Stopwatch().start();
+    for (List<MetricValues> batch : batches) {
+      withoutTable.add(toFacts(batch));
+    }
+    System.out.printf("Without aggregation: %d increments in %d ms%n",
+                      withoutCollector.getCount(), stopwatch.elapsedTime(TimeUnit.MILLISECONDS));
+
+    CountingMetricsCollector withCollector = new CountingMetricsCollector();
+    FactTable withTable = createFactTable("with", withCollector);
+    MetricValuesAggregator aggregator = new MetricValuesAggregator();
+    stopwatch = new Stopwatch().start();
+    for (List<MetricValues> batch : batches) {
+      aggregator.add(batch);
+    }
+    withTable.add(toFacts(aggregator.drain()));
+    System.out.printf("With aggregation: %d increments in %d ms%n",
+                      withCollector.getCount(), stopwatch.elapsedTime(TimeUnit.MILLISECONDS));
+
+    Assert.assertTrue(withCollector.getCount() < withoutCollector.getCount());
+  }
+
+  private FactTable createFactTable(String name, MetricsCollector metricsCollector) {
+    InMemoryTableService.create(name + "Entity");
+    InMemoryTableService.create(name + "Data");
+    FactTable table = new FactTable(new InMemoryMetricsTable(name + "Data"),
+                                    new EntityTable(new InMemoryMetricsTable(name + "Entity")), RESOLUTION, 3600);
+    table.setMetricsCollector(metricsCollector);
+    return table;
+  }
+
+  private List<Fact> toFacts(List<MetricValues> metricValues) {
+    List<Fact> facts = new ArrayList<>();
+    for (MetricValues metricValue : metricValues) {
+      List<DimensionValue> dimensionValues = new ArrayList<>();
+      for (Map.Entry<String, String> tag : metricValue.getTags().entrySet()) {
+        dimensionValues.add(new DimensionValue(tag.getKey(), tag.getValue()));
+      }
+      List<Measurement> measurements = new ArrayList<>();
+      for (MetricValue metric : metricValue.getMetrics()) {
+        MeasureType type = metric.getType() == MetricType.COUNTER ? MeasureType.COUNTER : MeasureType.GAUGE;
+        measurements.add(new Measurement(metric.getName(), type, metric.getValue()));
+      }
+      facts.add(new Fact(metricValue.getTimestamp(), dimensionValues, measurements));
+    }
+    return facts;
+  }
+
+  /**
+   * A {@link MetricsCollector} that counts the increments reported by the {@link FactTable}.
+   */
+  private static final class CountingMetricsCollector implements MetricsCollector {
+
+    private long count;
+
+    long getCount() {
+      return count;
+    }
+
+    @Override
+    public void increment(String metricName, long value) {
+      if (metricName.endsWith(".increment.count")) {
+        count += value;
+      }
+    }
+
+    @Override
+    public void gauge(String metricName, long value) {
+      // no-op
+    }
+  }
+}
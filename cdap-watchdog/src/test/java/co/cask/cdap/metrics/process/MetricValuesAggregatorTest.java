@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2017 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package co.cask.cdap.metrics.process;
+
+import co.cask.cdap.api.metrics.MetricType;
+import co.cask.cdap.api.metrics.MetricValue;
+import co.cask.cdap.api.metrics.MetricValues;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit-test for {@link MetricValuesAggregator}.
+ */
+public class MetricValuesAggregatorTest {
+
+  private static final Map<String, String> TAGS1 = ImmutableMap.of("ns", "ns1", "app", "app1");
+  private static final Map<String, String> TAGS2 = ImmutableMap.of("ns", "ns1", "app", "app2");
+
+  @Test
+  public void testAggregate() {
+    MetricValuesAggregator aggregator = new MetricValuesAggregator();
+    Assert.assertTrue(aggregator.isEmpty());
+
+    aggregator.add(ImmutableList.of(
+      new MetricValues(TAGS1, "count", 10L, 1L, MetricType.COUNTER),
+      new MetricValues(TAGS1, "gauge", 10L, 5L, MetricType.GAUGE),
+      // Equal tags in a different map instance
+      new MetricValues(ImmutableMap.copyOf(TAGS1), "count", 10L, 2L, MetricType.COUNTER),
+      new MetricValues(TAGS2, "count", 10L, 3L, MetricType.COUNTER)
+    ));
+    aggregator.add(ImmutableList.of(
+      new MetricValues(TAGS1, "count", 10L, 4L, MetricType.COUNTER),
+      new MetricValues(TAGS1, "count", 11L, 5L, MetricType.COUNTER)
+    ));
+
+    Assert.assertFalse(aggregator.isEmpty());
+    Assert.assertEquals(6, aggregator.getInputCount());
+    Assert.assertEquals(11L, aggregator.getLastTimestamp());
+    Assert.assertEquals(4, aggregator.size());
+
+    List<MetricValues> result = aggregator.drain();
+    Assert.assertEquals(3, result.size());
+    assertMetricValues(TAGS1, 10L, ImmutableMap.of("count", 7L, "gauge", 5L), result.get(0));
+    assertMetricValues(TAGS2, 10L, ImmutableMap.of("count", 3L), result.get(1));
+    assertMetricValues(TAGS1, 11L, ImmutableMap.of("count", 5L), result.get(2));
+
+    // The aggregator is reset after drain
+    Assert.assertTrue(aggregator.isEmpty());
+    Assert.assertEquals(0, aggregator.size());
+    Assert.assertTrue(aggregator.drain().isEmpty());
+  }
+
+  @Test
+  public void testGaugeOrder() {
+    MetricValuesAggregator aggregator = new MetricValuesAggregator();
+    aggregator.add(ImmutableList.of(
+      new MetricValues(TAGS1, "gauge", 10L, 1L, MetricType.GAUGE),
+      new MetricValues(TAGS1, "gauge", 11L, 2L, MetricType.GAUGE),
+      new MetricValues(TAGS1, "gauge", 10L, 3L, MetricType.GAUGE)
+    ));
+
+    // The latest gauge value is kept and written after the values added before it
+    List<MetricValues> result = aggregator.drain();
+    Assert.assertEquals(2, result.size());
+    assertMetricValues(TAGS1, 11L, ImmutableMap.of("gauge", 2L), result.get(0));
+    assertMetricValues(TAGS1, 10L, ImmutableMap.of("gauge", 3L), result.get(1));
+  }
+
+  private void assertMetricValues(Map<String, String> tags, long timestamp,
+                                  Map<String, Long> expected, MetricValues actual) {
+    Assert.assertEquals(tags, actual.getTags());
+    Assert.assertEquals(timestamp, actual.getTimestamp());
+    List<String> names = new ArrayList<>();
+    for (MetricValue metric : actual.getMetrics()) {
+      names.add(metric.getName());
+      Assert.assertEquals(expected.get(metric.getName()).longValue(), metric.getValue());
+    }
+    Assert.assertEquals(new ArrayList<>(expected.keySet()), names);
+  }
+}